@@ -393,6 +393,207 @@ public final class Orbit {
         return Ellipsoid.xyz2ell(lph2xyz(sarPixel.x, sarPixel.y, height, slcimage));
     }
 
+    // Allocation-free variants of the geodesy solvers for per pixel loops, e.g. radar coding of a DEM tile.
+    // The last solution is kept in the workspace as initial value of the next call, which saves most of the
+    // iterations when consecutive calls are for neighbouring points.
+
+    public void lph2xyz(final double line, final double pixel, final double height, final SLCImage slcimage,
+                        final Workspace ws, final double[] xyz) {
+
+        ws.prepare(this, slcimage);
+
+        final double azTime = slcimage.line2ta(line);
+        final double rgTime = slcimage.pix2tr(pixel);
+
+        final double[] satPos = ws.satPos;
+        final double[] satVel = ws.satVel;
+        getXYZAndDerivatives(azTime, satPos, satVel, null);
+
+        // initial value
+        double px, py, pz;
+        if (ws.hasEllipsoidPosition) {
+            px = ws.ellipsoidPosition[0];
+            py = ws.ellipsoidPosition[1];
+            pz = ws.ellipsoidPosition[2];
+        } else {
+            final Point approxXYZCentre = slcimage.getApproxXYZCentreOriginal();
+            px = approxXYZCentre.x;
+            py = approxXYZCentre.y;
+            pz = approxXYZCentre.z;
+        }
+
+        final double range2 = (SOL * rgTime) * (SOL * rgTime);
+        final double a2 = (ell_a + height) * (ell_a + height);
+        final double b2 = (ell_b + height) * (ell_b + height);
+        final double[] equationSet = ws.equationSet;
+        final double[][] partialsXYZ = ws.partialsXYZ;
+        final double[] solution = ws.solution;
+
+        boolean converged = false;
+        for (int iter = 0; iter <= MAXITER; iter++) {
+
+            final double dx = px - satPos[0];
+            final double dy = py - satPos[1];
+            final double dz = pz - satPos[2];
+
+            equationSet[0] = -(satVel[0] * dx + satVel[1] * dy + satVel[2] * dz);
+            equationSet[1] = -(dx * dx + dy * dy + dz * dz - range2);
+            equationSet[2] = -((px * px + py * py) / a2 + (pz * pz) / b2 - 1.0);
+
+            partialsXYZ[0][0] = satVel[0];
+            partialsXYZ[0][1] = satVel[1];
+            partialsXYZ[0][2] = satVel[2];
+            partialsXYZ[1][0] = 2 * dx;
+            partialsXYZ[1][1] = 2 * dy;
+            partialsXYZ[1][2] = 2 * dz;
+            partialsXYZ[2][0] = (2 * px) / a2;
+            partialsXYZ[2][1] = (2 * py) / a2;
+            partialsXYZ[2][2] = (2 * pz) / b2;
+
+            LinearAlgebraUtils.solve33(partialsXYZ, equationSet, solution);
+
+            px += solution[0];
+            py += solution[1];
+            pz += solution[2];
+
+            if (Math.abs(solution[0]) < CRITERPOS &&
+                    Math.abs(solution[1]) < CRITERPOS &&
+                    Math.abs(solution[2]) < CRITERPOS) {
+                converged = true;
+                break;
+            }
+        }
+
+        xyz[0] = px;
+        xyz[1] = py;
+        xyz[2] = pz;
+
+        // only a converged solution is a safe initial value for the next point
+        ws.hasEllipsoidPosition = converged;
+        if (converged) {
+            ws.ellipsoidPosition[0] = px;
+            ws.ellipsoidPosition[1] = py;
+            ws.ellipsoidPosition[2] = pz;
+        }
+    }
+
+    public void lp2xyz(final double line, final double pixel, final SLCImage slcimage,
+                       final Workspace ws, final double[] xyz) {
+        lph2xyz(line, pixel, 0, slcimage, ws, xyz);
+    }
+
+    /**
+     * Zero Doppler azimuth time and range time of a point.
+     *
+     * @param time returns the range time in time[0] and the azimuth time in time[1], as x and y of xyz2t
+     */
+    public void xyz2t(final double x, final double y, final double z, final SLCImage slcimage,
+                      final Workspace ws, final double[] time) {
+
+        ws.prepare(this, slcimage);
+
+        // inital value
+        double timeAzimuth = Double.isNaN(ws.azimuthTime) ?
+                slcimage.line2ta(0.5 * slcimage.getApproxRadarCentreOriginal().y) : ws.azimuthTime;
+
+        final double[] satPos = ws.satPos;
+        final double[] satVel = ws.satVel;
+        final double[] satAcc = ws.satAcc;
+
+        boolean converged = false;
+        for (int iter = 0; iter <= MAXITER; ++iter) {
+            getXYZAndDerivatives(timeAzimuth, satPos, satVel, satAcc);
+
+            final double dx = x - satPos[0];
+            final double dy = y - satPos[1];
+            final double dz = z - satPos[2];
+
+            final double doppler = satVel[0] * dx + satVel[1] * dy + satVel[2] * dz;
+            final double dopplerDt = satAcc[0] * dx + satAcc[1] * dy + satAcc[2] * dz -
+                    satVel[0] * satVel[0] - satVel[1] * satVel[1] - satVel[2] * satVel[2];
+
+            // update solution
+            final double solution = -doppler / dopplerDt;
+            timeAzimuth += solution;
+
+            if (Math.abs(solution) < CRITERTIM) {
+                converged = true;
+                break;
+            }
+        }
+        ws.azimuthTime = converged ? timeAzimuth : Double.NaN;
+
+        // range time
+        getXYZAndDerivatives(timeAzimuth, satPos, null, null);
+        final double dx = x - satPos[0];
+        final double dy = y - satPos[1];
+        final double dz = z - satPos[2];
+
+        time[0] = Math.sqrt(dx * dx + dy * dy + dz * dz) / SOL;
+        time[1] = timeAzimuth;
+    }
+
+    /**
+     * Line and pixel of a point.
+     *
+     * @param lp returns the pixel in lp[0] and the line in lp[1], as x and y of xyz2lp
+     */
+    public void xyz2lp(final double x, final double y, final double z, final SLCImage slcimage,
+                       final Workspace ws, final double[] lp) {
+
+        xyz2t(x, y, z, slcimage, ws, ws.time);
+
+        lp[0] = slcimage.tr2pix(ws.time[0]);
+        lp[1] = slcimage.ta2line(ws.time[1]);
+    }
+
+    public void ell2lp(final double phi, final double lambda, final double height, final SLCImage slcimage,
+                       final Workspace ws, final double[] lp) {
+
+        Ellipsoid.ell2xyz(phi, lambda, height, ws.xyz);
+        xyz2lp(ws.xyz[0], ws.xyz[1], ws.xyz[2], slcimage, ws, lp);
+    }
+
+    /**
+     * Satellite position and optionally velocity and acceleration in one Horner pass over the orbit polynomial.
+     */
+    private void getXYZAndDerivatives(final double azTime, final double[] pos, final double[] vel,
+                                      final double[] acc) {
+
+        // normalize time
+        final double t = (azTime - time[time.length / 2]) / 10.0;
+
+        final int degree = coeff_X.length - 1;
+        double x = coeff_X[degree], y = coeff_Y[degree], z = coeff_Z[degree];
+        double dx = 0, dy = 0, dz = 0;
+        double ddx = 0, ddy = 0, ddz = 0;
+        for (int i = degree - 1; i >= 0; --i) {
+            ddx = ddx * t + dx;
+            ddy = ddy * t + dy;
+            ddz = ddz * t + dz;
+            dx = dx * t + x;
+            dy = dy * t + y;
+            dz = dz * t + z;
+            x = x * t + coeff_X[i];
+            y = y * t + coeff_Y[i];
+            z = z * t + coeff_Z[i];
+        }
+
+        pos[0] = x;
+        pos[1] = y;
+        pos[2] = z;
+        if (vel != null) {
+            vel[0] = dx / 10.0;
+            vel[1] = dy / 10.0;
+            vel[2] = dz / 10.0;
+        }
+        if (acc != null) {
+            acc[0] = 2 * ddx / 100.0;
+            acc[1] = 2 * ddy / 100.0;
+            acc[2] = 2 * ddz / 100.0;
+        }
+    }
+
     // TODO: legacy support, implementation from baseline class
     @Deprecated
     public void computeBaseline() {
@@ -595,5 +796,42 @@ public final class Orbit {
     public double computeAzimuthResolution(Point sarPixel, SLCImage metadata) {
         return (metadata.getPRF() / metadata.getAzimuthBandwidth()) * (this.computeAzimuthDelta(sarPixel, metadata) / metadata.getMlAz());
     }
+
+    /**
+     * Working storage of the allocation-free geodesy solvers, holding the last solution as initial value for the
+     * next call. It is reset when used with another orbit or image. Not thread safe.
+     */
+    public static final class Workspace {
+        private final double[] satPos = new double[3];
+        private final double[] satVel = new double[3];
+        private final double[] satAcc = new double[3];
+        private final double[] equationSet = new double[3];
+        private final double[][] partialsXYZ = new double[3][3];
+        private final double[] solution = new double[3];
+        private final double[] time = new double[2];
+        private final double[] xyz = new double[3];
+
+        private Orbit orbit;
+        private SLCImage slcimage;
+        private double azimuthTime = Double.NaN;
+        private final double[] ellipsoidPosition = new double[3];
+        private boolean hasEllipsoidPosition;
+
+        private void prepare(final Orbit orbit, final SLCImage slcimage) {
+            if (orbit != this.orbit || slcimage != this.slcimage) {
+                this.orbit = orbit;
+                this.slcimage = slcimage;
+                reset();
+            }
+        }
+
+        /**
+         * Forget the last solution, e.g. before jumping to a distant point.
+         */
+        public void reset() {
+            azimuthTime = Double.NaN;
+            hasEllipsoidPosition = false;
+        }
+    }
 }
 
@@ -183,13 +183,84 @@ public class CoregistrationUtils {
         return localSum;
     }
 
+    /**
+     * Master side of crossCorrelateFFT. It depends on the master patch only and is reused for every slave patch
+     * correlated against the same master, it is not modified by the correlation.
+     */
+    public static final class MasterSpectrum {
+
+        final int L;
+        final int P;
+        final ComplexDoubleMatrix conjSpectrum;  // conj(fft) of the zero padded, zero-mean master magnitude
+        final ComplexDoubleMatrix normSpectrum;  // fft of the flipped squared master magnitude in the real part
+        final ComplexDoubleMatrix block;         // conj(fft) of the window of ones summing the norms
+
+        public MasterSpectrum(final ComplexDoubleMatrix master) {
+            L = master.rows;
+            P = master.columns;
+            final int twoL = 2 * L;
+            final int twoP = 2 * P;
+            final int halfL = L / 2;
+            final int halfP = P / 2;
+
+            if (!(MathUtils.isPower2(L) || MathUtils.isPower2(P))) {
+                throw new IllegalArgumentException("mask, master size not power of 2.");
+            }
+
+            // Zero mean magnitude image
+            final DoubleMatrix magMaster = SarUtils.magnitude(master);
+            magMaster.subi(magMaster.mean());
+
+            // Pad with N zeros to prevent periodical convolution
+            conjSpectrum = ComplexDoubleMatrix.zeros(twoL, twoP);
+            LinearAlgebraUtils.setdata(conjSpectrum, new Window(0, L - 1, 0, P - 1),
+                    new ComplexDoubleMatrix(magMaster), new Window());
+            SpectralUtils.fft2D_inplace(conjSpectrum);
+            conjSpectrum.conji();
+
+            // --- flipud(fliplr(master^2) in real ---
+            normSpectrum = ComplexDoubleMatrix.zeros(twoL, twoP);
+            for (int l = L; l < twoL; ++l) {
+                for (int p = P; p < twoP; ++p) {
+                    final double realPart = magMaster.get(twoL - 1 - l, twoP - 1 - p);
+                    normSpectrum.put(l, p, new ComplexDouble(FastMath.pow(realPart, 2), 0));
+                }
+            }
+            SpectralUtils.fft2D_inplace(normSpectrum);
+
+            block = ComplexDoubleMatrix.zeros(twoL, twoP);
+            for (int l = halfL; l < halfL + L; ++l)
+                for (int p = halfP; p < halfP + P; ++p)
+                    block.put(l, p, new ComplexDouble(1, 0));
+            SpectralUtils.fft2D_inplace(block);
+            block.conji();
+        }
+    }
+
     public static double crossCorrelateFFT(double[] offset,
                                            ComplexDoubleMatrix master, ComplexDoubleMatrix mask,
                                            int ovsfactor,
                                            int AccL, int AccP) {
+
+        // Check input
+        if (master.rows != mask.rows || master.columns != mask.columns) {
+//            logger.severe("mask, master not same size.");
+            throw new IllegalArgumentException("mask, master not same size.");
+        }
+
+        return crossCorrelateFFT(offset, new MasterSpectrum(master), mask, ovsfactor, AccL, AccP);
+    }
+
+    /**
+     * Cross correlate a slave patch with a master patch of which the spectra are already computed.
+     */
+    public static double crossCorrelateFFT(double[] offset,
+                                           MasterSpectrum master, ComplexDoubleMatrix mask,
+                                           int ovsfactor,
+                                           int AccL, int AccP) {
         // Internal variables
-        final int L = master.rows;
-        final int P = master.columns;
+        final int L = master.L;
+        final int P = master.P;
         final int twoL = 2 * L;
         final int twoP = 2 * P;
         final int halfL = L / 2;
@@ -199,16 +270,11 @@ public class CoregistrationUtils {
         double offsetP;
 
         // Check input
-        if (master.rows != mask.rows || master.columns != mask.columns) {
+        if (L != mask.rows || P != mask.columns) {
 //            logger.severe("mask, master not same size.");
             throw new IllegalArgumentException("mask, master not same size.");
         }
 
-        if (!(MathUtils.isPower2(L) || MathUtils.isPower2(P))) {
-//            logger.severe("mask, master size not power of 2.");
-            throw new IllegalArgumentException("mask, master size not power of 2.");
-        }
-
         if (!MathUtils.isPower2(ovsfactor)) {
 //            logger.severe("coherencefft factor not power of 2");
             throw new IllegalArgumentException("coherencefft factor not power of 2");
@@ -216,33 +282,24 @@ public class CoregistrationUtils {
 
         // Zero mean magnitude images
 //        logger.info("Using de-meaned magnitude patches for incoherent cross-correlation");
-        DoubleMatrix magMaster = SarUtils.magnitude(master);
         DoubleMatrix magMask = SarUtils.magnitude(mask);
-        magMaster.subi(magMaster.mean());
         magMask.subi(magMask.mean());
 
         // ======
         // (1) Compute cross-products of master/mask
         // Pad with N zeros to prevent periodical convolution
-        ComplexDoubleMatrix master2 = ComplexDoubleMatrix.zeros(twoL, twoP); // initial 0
         ComplexDoubleMatrix mask2 = ComplexDoubleMatrix.zeros(twoL, twoP); // initial 0
 
         Window windef = new Window(); // defaults to total matrix
-        Window win1 = new Window(0, L - 1, 0, P - 1);
         Window win2 = new Window(halfL, halfL + L - 1, halfP, halfP + P - 1);
 
-        LinearAlgebraUtils.setdata(master2, win1, new ComplexDoubleMatrix(magMaster), windef); // zero-mean magnitude
         LinearAlgebraUtils.setdata(mask2, win2, new ComplexDoubleMatrix(magMask), windef); // zero-mean magnitude
 
         // Crossproducts in spectral/space domain
         // Use mask2 to store cross products temporarily
-        SpectralUtils.fft2D_inplace(master2);
         SpectralUtils.fft2D_inplace(mask2);
 
-        master2.conji();
-        mask2.muli(master2); // corr = conj(M).*S
-
-        // mask2.mmuli(Master2);
+        mask2.muli(master.conjSpectrum); // corr = conj(M).*S
 
         SpectralUtils.invfft2D_inplace(mask2); // real(mask2): cross prod. in space
 
@@ -252,38 +309,24 @@ public class CoregistrationUtils {
         // ....real(mask2) contains cross-products
         // ....mask2(0,0):mask2(N,N) for shifts = -N/2:N/2
         // ....rest of this matrix should not be used
-        // ....Use Master2 to store intensity here in re,im
-        master2 = ComplexDoubleMatrix.zeros(twoL, twoP); // reset to zeros
+        // ....Use master2 to store intensity here in re,im
+        ComplexDoubleMatrix master2 = ComplexDoubleMatrix.zeros(twoL, twoP);
         int l, p;
-        // --- flipud(fliplr(master^2) in real ---
-        // --- mask^2 in imag part; this saves a fft ---
+        // --- mask^2 in imag part, the spectrum of the master part in real is added after the fft ---
         // --- automatically the real/imag parts contain the norms ---
         for (l = L; l < twoL; ++l) {
             for (p = P; p < twoP; ++p) {
-                double realPart = magMaster.get(twoL - 1 - l, twoP - 1 - p);
                 double imagPart = magMask.get(l - L, p - P);
-                ComplexDouble value = new ComplexDouble(FastMath.pow(realPart, 2), FastMath.pow(imagPart, 2));
-                master2.put(l, p, value);
+                master2.put(l, p, new ComplexDouble(0, FastMath.pow(imagPart, 2)));
             }
         }
 
-        // allocate block for reuse
-        ComplexDoubleMatrix BLOCK = new ComplexDoubleMatrix(0, 0);
-        if (BLOCK.rows != twoL || BLOCK.columns != twoP) {
-//            logger.info("crosscorrelate:changing static block to size [" + twoL + ", " + twoP + "]");
-            BLOCK.resize(twoL, twoP);
-            for (l = halfL; l < halfL + L; ++l)
-                for (p = halfP; p < halfP + P; ++p)
-                    BLOCK.put(l, p, new ComplexDouble(1, 0));
-            SpectralUtils.fft2D_inplace(BLOCK);
-            BLOCK.conji();// static variable: keep this for re-use
-        }
-
         // Compute the cross-products, i.e., the norms for each shift ---
         // Master2(0,0):Master2(N,N) for shifts = -N/2:N/2
         SpectralUtils.fft2D_inplace(master2);
+        master2.addi(master.normSpectrum);
 
-        master2.muli(BLOCK);
+        master2.muli(master.block);
 
         SpectralUtils.invfft2D_inplace(master2);// real(Master2): powers of master; imag(Master2): mask
 
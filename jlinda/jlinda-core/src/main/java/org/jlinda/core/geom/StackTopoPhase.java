@@ -0,0 +1,355 @@
+package org.jlinda.core.geom;
+
+import org.esa.snap.core.gpf.OperatorException;
+import org.jlinda.core.Constants;
+import org.jlinda.core.Ellipsoid;
+import org.jlinda.core.Orbit;
+import org.jlinda.core.SLCImage;
+import org.jlinda.core.Window;
+import org.jlinda.core.delaunay.TriangleInterpolator;
+import org.jlinda.core.utils.CplxContainer;
+import org.jlinda.core.utils.ProductContainer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Topographic phase of a stack of slaves against a common master.
+ * <p>
+ * Only the slave range times differ between the master/slave pairs of a stack. The DEM tile is therefore radar coded
+ * once in master geometry, keeping the line and pixel, the earth fixed position of every DEM post and the position of
+ * its flat earth reference point. The phase of every slave is computed against this geometry and the phases of all
+ * slaves are gridded with a single triangulation. The result is the same as {@link TopoPhase} for every pair.
+ */
+public class StackTopoPhase {
+
+    private final SLCImage masterMeta;
+    private final Orbit masterOrbit;
+    private final Window tileWindow;
+    private final DemTile dem;
+
+    private final int nRows;
+    private final int nCols;
+
+    private double[][] demRadarCode_x;
+    private double[][] demRadarCode_y;
+    private double[][] demElevation;
+    private double[][] demLatitude;
+    private double[][] demLongitude;
+    private double[][] demX, demY, demZ;                    // position of the DEM post, NaN for no data
+    private double[][] flatEarthX, flatEarthY, flatEarthZ;  // position of the master line/pixel on the ellipsoid
+    private double[][] seaRadarCode_x, seaRadarCode_y;     // line/pixel at sea level of the no data posts
+    private double rngAzRatio = 0;
+
+    public final Map<String, double[][]> demPhaseMap = new HashMap<>();
+    private final Map<CplxContainer, StackTopoPhase> masterTopoPhases = new LinkedHashMap<>();
+    public double[][] elevation;
+    public double[][] latitude;
+    public double[][] longitude;
+
+    public StackTopoPhase(final SLCImage masterMeta, final Orbit masterOrbit, final Window tileWindow,
+                          final DemTile demTile) {
+        this.masterMeta = masterMeta;
+        this.masterOrbit = masterOrbit;
+        this.tileWindow = tileWindow;
+        this.dem = demTile;
+
+        nRows = dem.data.length;
+        nCols = dem.data[0].length;
+    }
+
+    /**
+     * Radar code the DEM tile in master geometry.
+     *
+     * @param useInvalidIndex mark no data DEM posts as invalid for the triangulation
+     */
+    public void radarCode(final boolean useInvalidIndex) throws Exception {
+
+        demRadarCode_x = new double[nRows][nCols];
+        demRadarCode_y = new double[nRows][nCols];
+        demElevation = new double[nRows][nCols];
+        demLatitude = new double[nRows][nCols];
+        demLongitude = new double[nRows][nCols];
+        demX = new double[nRows][nCols];
+        demY = new double[nRows][nCols];
+        demZ = new double[nRows][nCols];
+        flatEarthX = new double[nRows][nCols];
+        flatEarthY = new double[nRows][nCols];
+        flatEarthZ = new double[nRows][nCols];
+        seaRadarCode_x = new double[nRows][nCols];
+        seaRadarCode_y = new double[nRows][nCols];
+
+        final Orbit.Workspace ws = new Orbit.Workspace();
+        final double[] pointOnDem = new double[3];
+        final double[] flatEarth = new double[3];
+        final double[] sarPoint = new double[2];
+
+        double phi = dem.lat0;
+        for (int i = 0; i < nRows; i++) {
+
+            double lambda = dem.lon0;
+            final double[] heightArray = dem.data[i];
+
+            for (int j = 0; j < nCols; j++) {
+
+                final double height = heightArray[j];
+                demElevation[i][j] = height;
+                demLatitude[i][j] = phi;
+                demLongitude[i][j] = lambda;
+
+                if (height != dem.noDataValue) {
+
+                    Ellipsoid.ell2xyz(phi, lambda, height, pointOnDem);
+                    masterOrbit.xyz2lp(pointOnDem[0], pointOnDem[1], pointOnDem[2], masterMeta, ws, sarPoint);
+
+                    demRadarCode_y[i][j] = sarPoint[1];
+                    demRadarCode_x[i][j] = sarPoint[0];
+
+                    masterOrbit.lp2xyz(sarPoint[1], sarPoint[0], masterMeta, ws, flatEarth);
+
+                    demX[i][j] = pointOnDem[0];
+                    demY[i][j] = pointOnDem[1];
+                    demZ[i][j] = pointOnDem[2];
+                    flatEarthX[i][j] = flatEarth[0];
+                    flatEarthY[i][j] = flatEarth[1];
+                    flatEarthZ[i][j] = flatEarth[2];
+
+                } else {
+
+                    masterOrbit.ell2lp(phi, lambda, 0, masterMeta, ws, sarPoint);
+                    seaRadarCode_y[i][j] = sarPoint[1];
+                    seaRadarCode_x[i][j] = sarPoint[0];
+
+                    if (useInvalidIndex) {
+                        demRadarCode_y[i][j] = TopoPhase.invalidIndex;
+                        demRadarCode_x[i][j] = TopoPhase.invalidIndex;
+                    } else {
+                        demRadarCode_y[i][j] = sarPoint[1];
+                        demRadarCode_x[i][j] = sarPoint[0];
+                    }
+                    demX[i][j] = Double.NaN;
+                }
+
+                lambda += dem.longitudeDelta;
+            }
+            phi -= dem.latitudeDelta;
+        }
+    }
+
+    /**
+     * Compute the topographic reference phase of the DEM posts for one slave, without the flat earth phase.
+     */
+    private double[][] radarCodePhase(final SLCImage slaveMeta, final Orbit slaveOrbit) {
+
+        final double slaveMin4piCDivLam = (-4 * Math.PI * Constants.SOL) / slaveMeta.getRadarWavelength();
+        final double scale = masterMeta.isBiStaticStack ? 0.5 * slaveMin4piCDivLam : slaveMin4piCDivLam;
+
+        final Orbit.Workspace slaveWs = new Orbit.Workspace();
+        final Orbit.Workspace flatEarthWs = new Orbit.Workspace();
+        final double[] slaveTime = new double[2];
+        final double[] flatEarthTime = new double[2];
+
+        final double[][] demRadarCode_phase = new double[nRows][nCols];
+        for (int i = 0; i < nRows; i++) {
+            for (int j = 0; j < nCols; j++) {
+                if (!Double.isNaN(demX[i][j])) {
+                    slaveOrbit.xyz2t(demX[i][j], demY[i][j], demZ[i][j], slaveMeta, slaveWs, slaveTime);
+                    slaveOrbit.xyz2t(flatEarthX[i][j], flatEarthY[i][j], flatEarthZ[i][j], slaveMeta,
+                            flatEarthWs, flatEarthTime);
+                    demRadarCode_phase[i][j] = scale * (flatEarthTime[0] - slaveTime[0]);
+                }
+            }
+        }
+        return demRadarCode_phase;
+    }
+
+    /**
+     * Grid the topographic phase of all slaves onto the tile with one triangulation of the radar coded DEM.
+     * The phase of every slave is put into demPhaseMap with the key of the slave.
+     */
+    public void gridData(final String[] keys, final SLCImage[] slaveMeta, final Orbit[] slaveOrbit,
+                         final boolean includeDEM) throws Exception {
+
+        final int nLines = (int) tileWindow.lines();
+        final int nPixels = (int) tileWindow.pixels();
+
+        final List<TriangleInterpolator.ZData> data = new ArrayList<>(keys.length + 3);
+
+        for (int s = 0; s < keys.length; s++) {
+            final double[][] demPhase = new double[nLines][nPixels];
+            data.add(new TriangleInterpolator.ZData(radarCodePhase(slaveMeta[s], slaveOrbit[s]), demPhase));
+            demPhaseMap.put(keys[s], demPhase);
+        }
+
+        if (includeDEM) {
+            elevation = new double[nLines][nPixels];
+            for (double[] row : elevation) {
+                Arrays.fill(row, dem.noDataValue);
+            }
+            data.add(new TriangleInterpolator.ZData(demElevation, elevation));
+        }
+
+        if (!data.isEmpty()) {
+            TriangleInterpolator.gridDataLinear(demRadarCode_y, demRadarCode_x,
+                    data.toArray(new TriangleInterpolator.ZData[data.size()]),
+                    tileWindow, getRngAzRatio(), masterMeta.getMlAz(), masterMeta.getMlRg(), TopoPhase.invalidIndex, 0);
+        }
+    }
+
+    /**
+     * Grid the latitude and longitude of the DEM posts onto the tile. Sea pixels are not masked: the no data posts
+     * take their sea level line and pixel from radarCode, so the DEM tile is not radar coded again.
+     */
+    public void gridLatLon() throws Exception {
+
+        final int nLines = (int) tileWindow.lines();
+        final int nPixels = (int) tileWindow.pixels();
+
+        final double[][] lines = new double[nRows][];
+        final double[][] pixels = new double[nRows][];
+        for (int i = 0; i < nRows; i++) {
+            lines[i] = demRadarCode_y[i].clone();
+            pixels[i] = demRadarCode_x[i].clone();
+            for (int j = 0; j < nCols; j++) {
+                if (Double.isNaN(demX[i][j])) {
+                    lines[i][j] = seaRadarCode_y[i][j];
+                    pixels[i][j] = seaRadarCode_x[i][j];
+                }
+            }
+        }
+
+        latitude = new double[nLines][nPixels];
+        longitude = new double[nLines][nPixels];
+        for (double[] row : latitude) {
+            Arrays.fill(row, Double.NaN);
+        }
+        for (double[] row : longitude) {
+            Arrays.fill(row, Double.NaN);
+        }
+
+        TriangleInterpolator.gridDataLinear(lines, pixels, new TriangleInterpolator.ZData[]{
+                        new TriangleInterpolator.ZData(demLatitude, latitude),
+                        new TriangleInterpolator.ZData(demLongitude, longitude)},
+                tileWindow, getRngAzRatio(), masterMeta.getMlAz(), masterMeta.getMlRg(), TopoPhase.invalidIndex, 0);
+    }
+
+    /**
+     * @return the topo phase of the pairs with the given master, holding the elevation and the latitude and longitude
+     * in its geometry, or this topo phase if it was computed for a single master
+     */
+    public StackTopoPhase getTopoPhase(final CplxContainer master) {
+        final StackTopoPhase topoPhase = masterTopoPhases.get(master);
+        return topoPhase != null ? topoPhase : this;
+    }
+
+    private double getRngAzRatio() throws Exception {
+        if (rngAzRatio == 0) {
+            rngAzRatio = TopoPhase.computeRngAzRatio(masterOrbit, masterMeta, tileWindow);
+        }
+        return rngAzRatio;
+    }
+
+    /**
+     * Compute the topographic phase of all slaves of a common master for a tile.
+     *
+     * @param keys      the keys of the slave phases in demPhaseMap
+     * @param outputDEM also grid the elevation in master geometry
+     */
+    public static StackTopoPhase computeTopoPhase(
+            final SLCImage mstMetaData, final Orbit mstOrbit,
+            final String[] keys, final SLCImage[] slvMetaData, final Orbit[] slvOrbit,
+            final Window tileWindow, final DemTile demTile, final boolean outputDEM) {
+        try {
+            final StackTopoPhase topoPhase = new StackTopoPhase(mstMetaData, mstOrbit, tileWindow, demTile);
+            topoPhase.radarCode(true);
+            topoPhase.gridData(keys, slvMetaData, slvOrbit, outputDEM);
+            return topoPhase;
+
+        } catch (Exception e) {
+            throw new OperatorException(e);
+        }
+    }
+
+    /**
+     * Compute the topographic phase of all master/slave pairs of a stack for a tile. Pairs with the same master share
+     * the radar coded DEM and the triangulation.
+     *
+     * @param outputDEM also grid the elevation in the geometry of every master
+     * @return the topo phase of the first master, holding the phase of every pair in demPhaseMap by product key. The
+     * elevation in the geometry of a master is in {@link #getTopoPhase(CplxContainer)}.
+     */
+    public static StackTopoPhase computeTopoPhase(
+            final Map<String, ProductContainer> productMap, final Window tileWindow, final DemTile demTile,
+            final boolean outputDEM) {
+
+        final Map<CplxContainer, List<String>> masterGroups = new LinkedHashMap<>();
+        for (Map.Entry<String, ProductContainer> entry : productMap.entrySet()) {
+            masterGroups.computeIfAbsent(entry.getValue().sourceMaster, k -> new ArrayList<>()).add(entry.getKey());
+        }
+
+        StackTopoPhase result = null;
+        for (Map.Entry<CplxContainer, List<String>> group : masterGroups.entrySet()) {
+            final CplxContainer master = group.getKey();
+            final String[] keys = group.getValue().toArray(new String[0]);
+
+            final SLCImage[] slvMetaData = new SLCImage[keys.length];
+            final Orbit[] slvOrbit = new Orbit[keys.length];
+            for (int s = 0; s < keys.length; s++) {
+                slvMetaData[s] = productMap.get(keys[s]).sourceSlave.metaData;
+                slvOrbit[s] = productMap.get(keys[s]).sourceSlave.orbit;
+            }
+
+            final StackTopoPhase topoPhase = computeTopoPhase(master.metaData, master.orbit,
+                    keys, slvMetaData, slvOrbit, tileWindow, demTile, outputDEM);
+            if (result == null) {
+                result = topoPhase;
+            } else {
+                result.demPhaseMap.putAll(topoPhase.demPhaseMap);
+            }
+            result.masterTopoPhases.put(master, topoPhase);
+        }
+        return result;
+    }
+
+    /**
+     * Compute the latitude and longitude of a tile in master geometry. Sea pixels are not masked.
+     */
+    public static StackTopoPhase computeLatLon(final SLCImage mstMetaData, final Orbit mstOrbit,
+                                               final Window tileWindow, final DemTile demTile) {
+        try {
+            final StackTopoPhase topoPhase = new StackTopoPhase(mstMetaData, mstOrbit, tileWindow, demTile);
+            topoPhase.radarCode(false);
+            topoPhase.gridLatLon();
+            return topoPhase;
+
+        } catch (Exception e) {
+            throw new OperatorException(e);
+        }
+    }
+
+    /**
+     * Compute the latitude and longitude of a tile in master geometry from the radar coded DEM of a topo phase of
+     * the same tile, for every master of a stack. Sea pixels are not masked.
+     *
+     * @return the topo phase, holding the latitude and longitude in the geometry of a master in
+     * {@link #getTopoPhase(CplxContainer)}
+     */
+    public static StackTopoPhase computeLatLon(final StackTopoPhase topoPhase) {
+        try {
+            if (topoPhase.masterTopoPhases.isEmpty()) {
+                topoPhase.gridLatLon();
+            }
+            for (StackTopoPhase masterTopoPhase : topoPhase.masterTopoPhases.values()) {
+                masterTopoPhase.gridLatLon();
+            }
+            return topoPhase;
+
+        } catch (Exception e) {
+            throw new OperatorException(e);
+        }
+    }
+}
@@ -49,7 +49,7 @@ public class TopoPhase {
 
     private double rngAzRatio = 0;
     private boolean isBiStaticStack = false;
-    private static final double invalidIndex = -9999.0;
+    static final double invalidIndex = -9999.0;
 
     public TopoPhase(SLCImage masterMeta, Orbit masterOrbit, SLCImage slaveMeta, Orbit slaveOrbit, Window window,
                      DemTile demTile) throws Exception {
@@ -130,8 +130,15 @@ public class TopoPhase {
         final double upperLeftPhi = dem.lat0;// - dem.indexPhi0DEM * dem.latitudeDelta;
         final double upperLeftLambda = dem.lon0;// + dem.indexLambda0DEM * dem.longitudeDelta;
 
-        Point pointOnDem;
-        Point slaveTime;
+        // reused per DEM post, the workspaces start each solver from the solution of the previous post
+        final Orbit.Workspace masterWs = new Orbit.Workspace();
+        final Orbit.Workspace slaveWs = new Orbit.Workspace();
+        final Orbit.Workspace flatEarthWs = new Orbit.Workspace();
+        final double[] sarPoint = new double[2];
+        final double[] pointOnDem = new double[3];
+        final double[] masterXYZPos = new double[3];
+        final double[] slaveTime = new double[2];
+        final double[] flatEarthTime = new double[2];
 
         phi = upperLeftPhi;
         for (int i = 0; i < nRows; i++) {
@@ -152,17 +159,16 @@ public class TopoPhase {
 
                 if (height != dem.noDataValue) {
 
-                    double[] phi_lam_height = {phi, lambda, height};
-                    Point sarPoint = masterOrbit.ell2lp(phi_lam_height, masterMeta);
+                    Ellipsoid.ell2xyz(phi, lambda, height, pointOnDem);
+                    masterOrbit.xyz2lp(pointOnDem[0], pointOnDem[1], pointOnDem[2], masterMeta, masterWs, sarPoint);
 
-                    line = sarPoint.y;
-                    pix = sarPoint.x;
+                    line = sarPoint[1];
+                    pix = sarPoint[0];
 
                     demRadarCode_y[i][j] = line;
                     demRadarCode_x[i][j] = pix;
 
-                    pointOnDem = Ellipsoid.ell2xyz(phi_lam_height);
-                    slaveTime = slaveOrbit.xyz2t(pointOnDem, slaveMeta);
+                    slaveOrbit.xyz2t(pointOnDem[0], pointOnDem[1], pointOnDem[2], slaveMeta, slaveWs, slaveTime);
 /*
                 if (outH2PH == true) {
 
@@ -185,27 +191,27 @@ public class TopoPhase {
 */
                     // do not include flat earth phase
                     if (onlyTopoRefPhase) {
-                        Point masterXYZPos = masterOrbit.lp2xyz(line, pix, masterMeta);
-                        Point flatEarthTime = slaveOrbit.xyz2t(masterXYZPos, slaveMeta);
+                        masterOrbit.lp2xyz(line, pix, masterMeta, masterWs, masterXYZPos);
+                        slaveOrbit.xyz2t(masterXYZPos[0], masterXYZPos[1], masterXYZPos[2], slaveMeta,
+                                flatEarthWs, flatEarthTime);
                         if (isBiStaticStack) {
-                            ref_phase = slaveMin4piCDivLam * (flatEarthTime.x - slaveTime.x) * 0.5;
+                            ref_phase = slaveMin4piCDivLam * (flatEarthTime[0] - slaveTime[0]) * 0.5;
                         } else {
-                            ref_phase = slaveMin4piCDivLam * (flatEarthTime.x - slaveTime.x);
+                            ref_phase = slaveMin4piCDivLam * (flatEarthTime[0] - slaveTime[0]);
                         }
                     } else {
                         // include flatearth, ref.pha = phi_topo+phi_flatearth
-                        ref_phase = masterMin4piCDivLam * masterMeta.pix2tr(pix) - slaveMin4piCDivLam * slaveTime.x;
+                        ref_phase = masterMin4piCDivLam * masterMeta.pix2tr(pix) - slaveMin4piCDivLam * slaveTime[0];
                     }
 
                     demRadarCode_phase[i][j] = ref_phase;
 
                 } else {
 
-                    double[] phi_lam_height = {phi, lambda, 0};
-                    Point sarPoint = masterOrbit.ell2lp(phi_lam_height, masterMeta);
+                    masterOrbit.ell2lp(phi, lambda, 0, masterMeta, masterWs, sarPoint);
 
-                    line = sarPoint.y;
-                    pix = sarPoint.x;
+                    line = sarPoint[1];
+                    pix = sarPoint[0];
 
                     if (useInvalidIndex) {
                         demRadarCode_y[i][j] = invalidIndex;//line;
@@ -258,7 +264,15 @@ public class TopoPhase {
 
 */
 
-        //Determine range-azimuth spacing ratio, needed for proper triangulation
+        rngAzRatio = computeRngAzRatio(masterOrbit, masterMeta, tileWindow);
+    }
+
+    /**
+     * Determine the range-azimuth spacing ratio of a tile, needed for proper triangulation
+     */
+    static double computeRngAzRatio(final Orbit masterOrbit, final SLCImage masterMeta, final Window tileWindow)
+            throws Exception {
+
         final long firstLine = tileWindow.linelo;
         final long lastLine = tileWindow.linehi;
         final long firstPixel = tileWindow.pixlo;
@@ -273,12 +287,13 @@ public class TopoPhase {
                 / (lastPixel - firstPixel);
         final double aziSpacing = ((p1.min(p3)).norm() + (p2.min(p4)).norm()) / 2
                 / (lastLine - firstLine);
-        rngAzRatio = rangeSpacing / aziSpacing;
+        final double rngAzRatio = rangeSpacing / aziSpacing;
 
         logger.fine("Interferogram azimuth spacing: " + aziSpacing);
         logger.fine("Interferogram range spacing: " + rangeSpacing);
         logger.fine("Range-azimuth spacing ratio: " + rngAzRatio);
 
+        return rngAzRatio;
     }
 
     public void gridData(boolean includeDEM, boolean includeLatLon) throws Exception {
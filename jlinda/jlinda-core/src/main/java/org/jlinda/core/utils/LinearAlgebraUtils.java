@@ -56,8 +56,10 @@ public class LinearAlgebraUtils {
          - matrix result 3x1 unknown
     */
     public static double[] solve33(double[][] A, double[] rhs) throws IllegalArgumentException {
+        return solve33(A, rhs, new double[3]);
+    }
 
-        double[] result = new double[3];
+    public static double[] solve33(double[][] A, double[] rhs, double[] result) throws IllegalArgumentException {
 
         if (A[0].length != 3 || A.length != 3) {
             throw new IllegalArgumentException("solve33: input: size of A not 33.");
@@ -0,0 +1,155 @@
+package org.jlinda.core;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * The allocation-free Orbit solvers with a Workspace against their Point counterparts, on a synthetic orbit.
+ * OrbitTest needs external test data and is ignored, so these cases are kept apart.
+ */
+public class OrbitWorkspaceTest {
+
+    private static final double firstStateVectorTime = 40000.0;  // seconds of day
+    private static final double orbitRadius = 7071000.0;
+    private static final double orbitRate = 2.0 * Math.PI / 5924.0; // rad/s
+
+    private static final double sceneLat = Math.toRadians(0.125);
+    private static final double sceneLon = Math.toRadians(0.125);
+
+    // well below a thousandth of a line or pixel and a millimetre
+    private static final double eps_lp = 1E-5;
+    private static final double eps_xyz = 1E-4;
+    private static final double eps_t = 1E-11;
+
+    private static Orbit orbit;
+    private static SLCImage slcimage;
+
+    @BeforeClass
+    public static void setUpTestData() throws Exception {
+        orbit = createOrbit(Math.toRadians(-3.0));
+        slcimage = createMetadata(orbit, 0.0);
+    }
+
+    private static Orbit createOrbit(final double orbitLongitude) {
+        final int numStateVectors = 21;
+        final double[] time = new double[numStateVectors];
+        final double[] x = new double[numStateVectors];
+        final double[] y = new double[numStateVectors];
+        final double[] z = new double[numStateVectors];
+        for (int i = 0; i < numStateVectors; ++i) {
+            time[i] = firstStateVectorTime + 10.0 * i;
+            final double lat = Math.toRadians(-1.0) + orbitRate * 10.0 * i;
+            x[i] = orbitRadius * Math.cos(lat) * Math.cos(orbitLongitude);
+            y[i] = orbitRadius * Math.cos(lat) * Math.sin(orbitLongitude);
+            z[i] = orbitRadius * Math.sin(lat);
+        }
+        return new Orbit(time, x, y, z, 4);
+    }
+
+    private static SLCImage createMetadata(final Orbit orbit, final double azimuthTimeOffset) {
+        final SLCImage meta = new SLCImage();
+        meta.setApproxGeoCentreOriginal(new GeoPoint(Math.toDegrees(sceneLat), Math.toDegrees(sceneLon)));
+        meta.settAzi1(firstStateVectorTime + 10.0 + azimuthTimeOffset);
+        meta.setLineTimeInterval(1.0 / 1680.0);
+        meta.setRsr2x(2.0 * 18.96e6);
+        meta.setOriginalWindow(new Window(0, 90000, 0, 8000));
+
+        final Point sceneCentreTime = orbit.xyz2t(Ellipsoid.ell2xyz(sceneLat, sceneLon, 0.0), firstStateVectorTime + 100.0);
+        meta.settRange1(sceneCentreTime.x - 4000.0 / meta.getRsr2x());
+        return meta;
+    }
+
+    @Test
+    public void testColdWorkspace() throws Exception {
+        final Point scenePixel = orbit.ell2lp(new double[]{sceneLat, sceneLon, 0.0}, slcimage);
+        final double[][] sarPixels = {{scenePixel.y, scenePixel.x}, {100, 50}, {80000, 7900}, {45000.25, 3999.75}};
+        for (double[] lp : sarPixels) {
+            assertPrimitivesEqual(orbit, slcimage, new Orbit.Workspace(), lp[0], lp[1], 120.0);
+        }
+    }
+
+    @Test
+    public void testWarmStartFromNeighbour() throws Exception {
+        final Orbit.Workspace ws = new Orbit.Workspace();
+        final Point scenePixel = orbit.ell2lp(new double[]{sceneLat, sceneLon, 0.0}, slcimage);
+        for (int i = 0; i < 20; ++i) {
+            for (int j = 0; j < 20; ++j) {
+                assertPrimitivesEqual(orbit, slcimage, ws, scenePixel.y + 1.3 * i, scenePixel.x + 0.7 * j, 10.0 * j);
+            }
+        }
+
+        // neighbouring DEM posts as in radar coding
+        final double[] lp = new double[2];
+        for (int j = 0; j < 50; ++j) {
+            final double[] phiLamHeight = {sceneLat, sceneLon + j * 1E-6, 50.0 + j};
+            orbit.ell2lp(phiLamHeight[0], phiLamHeight[1], phiLamHeight[2], slcimage, ws, lp);
+            assertPointEquals(orbit.ell2lp(phiLamHeight, slcimage), lp, eps_lp);
+        }
+    }
+
+    @Test
+    public void testJumpToDistantPoint() throws Exception {
+        final Orbit.Workspace ws = new Orbit.Workspace();
+        final Point scenePixel = orbit.ell2lp(new double[]{sceneLat, sceneLon, 0.0}, slcimage);
+        assertPrimitivesEqual(orbit, slcimage, ws, scenePixel.y, scenePixel.x, 0.0);
+
+        // the other end of the scene, from the warm workspace and after a reset
+        assertPrimitivesEqual(orbit, slcimage, ws, 5.0, 7990.0, 2000.0);
+        assertPrimitivesEqual(orbit, slcimage, ws, 89990.0, 10.0, 0.0);
+        ws.reset();
+        assertPrimitivesEqual(orbit, slcimage, ws, 5.0, 7990.0, 2000.0);
+    }
+
+    @Test
+    public void testResetOnOrbitOrImageChange() throws Exception {
+        final Orbit otherOrbit = createOrbit(Math.toRadians(-3.0) + 150.0 / orbitRadius);
+        final SLCImage otherImage = createMetadata(otherOrbit, 0.5);
+
+        final Orbit.Workspace ws = new Orbit.Workspace();
+        final Point scenePixel = orbit.ell2lp(new double[]{sceneLat, sceneLon, 0.0}, slcimage);
+        assertPrimitivesEqual(orbit, slcimage, ws, scenePixel.y, scenePixel.x, 0.0);
+
+        // the solution of the last call is for another orbit or image and must not be taken as initial value
+        assertPrimitivesEqual(otherOrbit, slcimage, ws, scenePixel.y, scenePixel.x, 0.0);
+        assertPrimitivesEqual(otherOrbit, otherImage, ws, scenePixel.y, scenePixel.x, 0.0);
+        assertPrimitivesEqual(orbit, otherImage, ws, scenePixel.y, scenePixel.x, 0.0);
+        assertPrimitivesEqual(orbit, slcimage, ws, scenePixel.y, scenePixel.x, 0.0);
+    }
+
+    /**
+     * Every Workspace solver against its Point counterpart for one pixel, sharing the workspace between the calls.
+     */
+    private static void assertPrimitivesEqual(final Orbit orbit, final SLCImage slcimage, final Orbit.Workspace ws,
+                                              final double line, final double pixel, final double height)
+            throws Exception {
+
+        final double[] xyz = new double[3];
+        orbit.lph2xyz(line, pixel, height, slcimage, ws, xyz);
+        final Point pointOnDem = orbit.lph2xyz(line, pixel, height, slcimage);
+        assertPointEquals(pointOnDem, xyz, eps_xyz);
+
+        orbit.lp2xyz(line, pixel, slcimage, ws, xyz);
+        assertPointEquals(orbit.lp2xyz(line, pixel, slcimage), xyz, eps_xyz);
+
+        final double[] time = new double[2];
+        orbit.xyz2t(pointOnDem.x, pointOnDem.y, pointOnDem.z, slcimage, ws, time);
+        assertPointEquals(orbit.xyz2t(pointOnDem, slcimage), time, eps_t);
+
+        final double[] lp = new double[2];
+        orbit.xyz2lp(pointOnDem.x, pointOnDem.y, pointOnDem.z, slcimage, ws, lp);
+        assertPointEquals(orbit.xyz2lp(pointOnDem, slcimage), lp, eps_lp);
+
+        final double[] phiLamHeight = Ellipsoid.xyz2ell(pointOnDem);
+        orbit.ell2lp(phiLamHeight[0], phiLamHeight[1], phiLamHeight[2], slcimage, ws, lp);
+        assertPointEquals(orbit.ell2lp(phiLamHeight, slcimage), lp, eps_lp);
+    }
+
+    private static void assertPointEquals(final Point expected, final double[] actual, final double delta) {
+        Assert.assertEquals(expected.x, actual[0], delta);
+        Assert.assertEquals(expected.y, actual[1], delta);
+        if (actual.length > 2) {
+            Assert.assertEquals(expected.z, actual[2], delta);
+        }
+    }
+}
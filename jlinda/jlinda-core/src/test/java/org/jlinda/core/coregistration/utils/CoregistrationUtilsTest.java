@@ -7,6 +7,8 @@ import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
+import static org.junit.Assert.assertEquals;
+
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class CoregistrationUtilsTest {
@@ -176,4 +178,52 @@ public class CoregistrationUtilsTest {
         System.out.println("Range Offset = " + Offset[1] + ", Azimuth Offset = " + Offset[0]);
         // Azimuth shift should be 0 and range shift should be around 0.3
     }
+
+    @Test
+    public void thirdTest_XCorrelationMasterSpectrum() throws Exception {
+
+        // one master correlated with two slaves shifted by whole pixels, with and without the cached master spectrum.
+        // A slave sampling the master at +shift finds the master features at -shift
+        final int w = 32;
+        final int h = 32;
+        final int[][] shifts = {{2, -3}, {-1, 4}};
+
+        final ComplexDoubleMatrix master = new ComplexDoubleMatrix(h, w);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                master.put(y, x, new ComplexDouble(pattern(y, x), 0.0));
+            }
+        }
+
+        final CoregistrationUtils.MasterSpectrum masterSpectrum = new CoregistrationUtils.MasterSpectrum(master);
+        for (int[] shift : shifts) {
+            final ComplexDoubleMatrix slave = new ComplexDoubleMatrix(h, w);
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    slave.put(y, x, new ComplexDouble(pattern(y + shift[0], x + shift[1]), 0.0));
+                }
+            }
+
+            // the oversampled chips of 8 x 8 shifts around the peak stay clear of the low overlap shifts at the
+            // border of the correlation, where this periodic pattern correlates better than at the peak
+            for (int ovsFactor : new int[]{1, 4}) {
+                final double[] offset = {0, 0};
+                final double coherence = CoregistrationUtils.crossCorrelateFFT(offset, master, slave, ovsFactor, 4, 4);
+
+                final double[] cachedOffset = {0, 0};
+                final double cachedCoherence = CoregistrationUtils.crossCorrelateFFT(
+                        cachedOffset, masterSpectrum, slave, ovsFactor, 4, 4);
+
+                assertEquals(coherence, cachedCoherence, 1e-9);
+                assertEquals(offset[0], cachedOffset[0], 1e-9);
+                assertEquals(offset[1], cachedOffset[1], 1e-9);
+                assertEquals(-shift[0], offset[0], 0.25);
+                assertEquals(-shift[1], offset[1], 0.25);
+            }
+        }
+    }
+
+    private static double pattern(final int y, final int x) {
+        return 100 + 40 * Math.sin(0.7 * x + 0.2 * y) * Math.cos(0.45 * y - 0.1 * x) + ((x * 7 + y * 13) % 11);
+    }
 }
@@ -0,0 +1,216 @@
+package org.jlinda.core.geom;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.ProductData;
+import org.jlinda.core.Ellipsoid;
+import org.jlinda.core.GeoPoint;
+import org.jlinda.core.Orbit;
+import org.jlinda.core.Point;
+import org.jlinda.core.SLCImage;
+import org.jlinda.core.Window;
+import org.jlinda.core.utils.CplxContainer;
+import org.jlinda.core.utils.ProductContainer;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * StackTopoPhase against TopoPhase computed per master/slave pair, on a synthetic orbit and DEM with no data posts.
+ */
+public class StackTopoPhaseTest {
+
+    private static final double firstStateVectorTime = 40000.0;  // seconds of day
+    private static final double orbitRadius = 7071000.0;
+    private static final double orbitRate = 2.0 * Math.PI / 5924.0; // rad/s
+    private static final double lineTimeInterval = 1.0 / 1680.0;
+    private static final double rangeSamplingRate = 18.96e6;
+
+    private static final int demRows = 120;
+    private static final int demCols = 160;
+    private static final double demSpacing = 1.0e-6; // rad, about 6 m
+    private static final double demNoDataValue = -32768.0;
+
+    private static final String[] keys = {"slave1", "slave2"};
+
+    private static SLCImage masterMeta;
+    private static Orbit masterOrbit;
+    private static final SLCImage[] slaveMeta = new SLCImage[keys.length];
+    private static final Orbit[] slaveOrbit = new Orbit[keys.length];
+    private static Window tileWindow;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        // polar circular orbits west of the scene, the slaves with baselines of 150 m and -90 m
+        masterOrbit = createOrbit(Math.toRadians(-3.0));
+        masterMeta = createMetadata(masterOrbit, 0.0);
+        slaveOrbit[0] = createOrbit(Math.toRadians(-3.0) + 150.0 / orbitRadius);
+        slaveMeta[0] = createMetadata(slaveOrbit[0], 0.002);
+        slaveOrbit[1] = createOrbit(Math.toRadians(-3.0) - 90.0 / orbitRadius);
+        slaveMeta[1] = createMetadata(slaveOrbit[1], -0.001);
+
+        // a tile around the radar position of the DEM centre, well inside the DEM
+        final Point centre = masterOrbit.ell2lp(new double[]{getDemLat0() - demRows / 2 * demSpacing,
+                getDemLon0() + demCols / 2 * demSpacing, 0.0}, masterMeta);
+        final long line0 = (long) centre.y - 20;
+        final long pixel0 = (long) centre.x - 25;
+        tileWindow = new Window(line0, line0 + 39, pixel0, pixel0 + 49);
+    }
+
+    private static double getDemLat0() {
+        return Math.toRadians(0.125) + demRows / 2 * demSpacing;
+    }
+
+    private static double getDemLon0() {
+        return Math.toRadians(0.125) - demCols / 2 * demSpacing;
+    }
+
+    private static Orbit createOrbit(final double orbitLongitude) {
+        final int numStateVectors = 21;
+        final double[] time = new double[numStateVectors];
+        final double[] x = new double[numStateVectors];
+        final double[] y = new double[numStateVectors];
+        final double[] z = new double[numStateVectors];
+        for (int i = 0; i < numStateVectors; ++i) {
+            time[i] = firstStateVectorTime + 10.0 * i;
+            final double lat = Math.toRadians(-1.0) + orbitRate * 10.0 * i;
+            x[i] = orbitRadius * Math.cos(lat) * Math.cos(orbitLongitude);
+            y[i] = orbitRadius * Math.cos(lat) * Math.sin(orbitLongitude);
+            z[i] = orbitRadius * Math.sin(lat);
+        }
+        return new Orbit(time, x, y, z, 4);
+    }
+
+    private static SLCImage createMetadata(final Orbit orbit, final double azimuthTimeOffset) {
+        final SLCImage meta = new SLCImage();
+        meta.setApproxGeoCentreOriginal(new GeoPoint(0.125, 0.125));
+        meta.settAzi1(firstStateVectorTime + 10.0 + azimuthTimeOffset);
+        meta.setLineTimeInterval(lineTimeInterval);
+        meta.setRsr2x(2.0 * rangeSamplingRate);
+        meta.setOriginalWindow(new Window(0, 90000, 0, 8000));
+
+        final Point sceneCentreTime = orbit.xyz2t(Ellipsoid.ell2xyz(Math.toRadians(0.125), Math.toRadians(0.125), 0.0),
+                firstStateVectorTime + 100.0);
+        meta.settRange1(sceneCentreTime.x - 4000.0 / meta.getRsr2x());
+        return meta;
+    }
+
+    /**
+     * Hills with a no data lake and a no data column inside the footprint of the tile.
+     */
+    private static DemTile createDemTile() {
+        final DemTile demTile = new DemTile(getDemLat0(), getDemLon0(), demRows, demCols, demSpacing, demSpacing,
+                demNoDataValue);
+        final double[][] data = new double[demRows][demCols];
+        for (int i = 0; i < demRows; ++i) {
+            for (int j = 0; j < demCols; ++j) {
+                if ((i >= 50 && i < 65 && j >= 70 && j < 95) || j == 110) {
+                    data[i][j] = demNoDataValue;
+                } else {
+                    data[i][j] = 40.0 + 25.0 * Math.sin(j * 0.07) * Math.cos(i * 0.05);
+                }
+            }
+        }
+        demTile.setData(data);
+        return demTile;
+    }
+
+    @Test
+    public void testTopoPhase() {
+        final StackTopoPhase stackTopoPhase = StackTopoPhase.computeTopoPhase(
+                masterMeta, masterOrbit, keys, slaveMeta, slaveOrbit, tileWindow, createDemTile(), true);
+
+        for (int s = 0; s < keys.length; ++s) {
+            final TopoPhase topoPhase = TopoPhase.computeTopoPhase(
+                    masterMeta, masterOrbit, slaveMeta[s], slaveOrbit[s], tileWindow, createDemTile(), true);
+
+            final int numValid = assertGridEquals(topoPhase.demPhase, stackTopoPhase.demPhaseMap.get(keys[s]), 1.0e-8);
+            assertTrue(numValid > tileWindow.lines() * tileWindow.pixels() / 2);
+            assertGridEquals(topoPhase.elevation, stackTopoPhase.elevation, 0.0);
+        }
+    }
+
+    @Test
+    public void testLatLon() {
+        final TopoPhase topoPhase = TopoPhase.computeTopoPhase(
+                masterMeta, masterOrbit, slaveMeta[0], slaveOrbit[0], tileWindow, createDemTile(), false, true);
+
+        // from the radar coded DEM of the topographic phase
+        final StackTopoPhase stackTopoPhase = StackTopoPhase.computeLatLon(StackTopoPhase.computeTopoPhase(
+                masterMeta, masterOrbit, keys, slaveMeta, slaveOrbit, tileWindow, createDemTile(), false));
+        assertGridEquals(topoPhase.latitude, stackTopoPhase.latitude, 0.0);
+        assertGridEquals(topoPhase.longitude, stackTopoPhase.longitude, 0.0);
+
+        // on its own
+        final StackTopoPhase latLon = StackTopoPhase.computeLatLon(masterMeta, masterOrbit, tileWindow, createDemTile());
+        final int numValid = assertGridEquals(topoPhase.latitude, latLon.latitude, 0.0);
+        assertGridEquals(topoPhase.longitude, latLon.longitude, 0.0);
+
+        // sea pixels are not masked
+        assertEquals(tileWindow.lines() * tileWindow.pixels(), numValid);
+    }
+
+    @Test
+    public void testMasterGroups() {
+        // the first slave is also the master of the second slave
+        final CplxContainer master1 = createContainer("i_VV_mst", masterMeta, masterOrbit);
+        final CplxContainer master2 = createContainer("i_VV_slv1", slaveMeta[0], slaveOrbit[0]);
+        final CplxContainer slave2 = createContainer("i_VV_slv2", slaveMeta[1], slaveOrbit[1]);
+
+        final Map<String, ProductContainer> productMap = new LinkedHashMap<>();
+        productMap.put("ifg1", new ProductContainer("ifg1", master1, master2, true));
+        productMap.put("ifg2", new ProductContainer("ifg2", master2, slave2, true));
+        productMap.put("ifg3", new ProductContainer("ifg3", master1, slave2, true));
+
+        final StackTopoPhase stackTopoPhase = StackTopoPhase.computeLatLon(
+                StackTopoPhase.computeTopoPhase(productMap, tileWindow, createDemTile(), true));
+
+        for (Map.Entry<String, ProductContainer> entry : productMap.entrySet()) {
+            final TopoPhase topoPhase = TopoPhase.computeTopoPhase(
+                    entry.getValue(), tileWindow, createDemTile(), true);
+            final TopoPhase latLon = TopoPhase.computeTopoPhase(
+                    entry.getValue(), tileWindow, createDemTile(), false, true);
+
+            assertGridEquals(topoPhase.demPhase, stackTopoPhase.demPhaseMap.get(entry.getKey()), 1.0e-8);
+
+            // in the geometry of the master of the pair
+            final StackTopoPhase masterTopoPhase = stackTopoPhase.getTopoPhase(entry.getValue().sourceMaster);
+            assertGridEquals(topoPhase.elevation, masterTopoPhase.elevation, 0.0);
+            assertGridEquals(latLon.latitude, masterTopoPhase.latitude, 0.0);
+            assertGridEquals(latLon.longitude, masterTopoPhase.longitude, 0.0);
+        }
+        assertTrue(stackTopoPhase.getTopoPhase(master1) != stackTopoPhase.getTopoPhase(master2));
+    }
+
+    private static CplxContainer createContainer(final String bandName, final SLCImage meta, final Orbit orbit) {
+        final Band realBand = new Band(bandName, ProductData.TYPE_FLOAT32, 10, 10);
+        final Band imagBand = new Band(bandName.replace("i_", "q_"), ProductData.TYPE_FLOAT32, 10, 10);
+        return new CplxContainer("01Jan2020", meta, orbit, realBand, imagBand);
+    }
+
+    /**
+     * @return the number of grid values that are neither NaN nor 0
+     */
+    private static int assertGridEquals(final double[][] expected, final double[][] actual, final double delta) {
+        assertEquals(expected.length, actual.length);
+        int numValid = 0;
+        for (int i = 0; i < expected.length; ++i) {
+            assertEquals(expected[i].length, actual[i].length);
+            for (int j = 0; j < expected[i].length; ++j) {
+                if (Double.isNaN(expected[i][j])) {
+                    assertTrue(Double.isNaN(actual[i][j]));
+                    continue;
+                }
+                assertEquals(expected[i][j], actual[i][j], delta);
+                if (expected[i][j] != 0) {
+                    ++numValid;
+                }
+            }
+        }
+        return numValid;
+    }
+}
@@ -107,6 +107,9 @@ public class Radarsat2ProductDirectory extends XMLProductDirectory {
                     } else {
                         img = new ImageIOFile(name, imgStream, GeoTiffUtils.getTiffIIOReader(imgStream), productInputFile);
                     }
+                    if (!isCompressed()) {
+                        img.enableReaderPool(new File(getBaseDir(), imgPath));
+                    }
                     bandImageFileMap.put(img.getName(), img);
                 }
             }
@@ -0,0 +1,218 @@
+package org.esa.s1tbx.benchmark;
+
+import org.esa.snap.core.util.SystemUtils;
+import org.jlinda.core.Constants;
+import org.jlinda.core.Ellipsoid;
+import org.jlinda.core.GeoPoint;
+import org.jlinda.core.Orbit;
+import org.jlinda.core.Point;
+import org.jlinda.core.SLCImage;
+import org.jlinda.core.Window;
+import org.junit.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Benchmarks the per DEM post radar coding kernel of the topographic phase on a synthetic orbit and DEM: the
+ * Point returning orbit solvers against the allocation-free solvers with warm starts used by TopoPhase.
+ */
+public class TestBenchmark_RadarCodeKernel {
+
+    private static final int demRows = 300;
+    private static final int demCols = 300;
+    private static final int numTiles = 4;
+    private static final double demNoDataValue = -32768.0;
+    private static final double demSpacing = Math.toRadians(0.25 / demCols);
+    private static final double wavelength = 0.05546576;
+    private static final double firstStateVectorTime = 40000.0;  // seconds of day
+    private static final double orbitRadius = 7071000.0;
+    private static final double orbitRate = 2.0 * Math.PI / 5924.0; // rad/s
+    private static final double lineTimeInterval = 1.0 / 1680.0;
+    private static final double rangeSamplingRate = 18.96e6;
+
+    private final Orbit masterOrbit;
+    private final Orbit slaveOrbit;
+    private final SLCImage masterMeta;
+    private final SLCImage slaveMeta;
+    private final double[][] dem = new double[demRows][demCols];
+
+    public TestBenchmark_RadarCodeKernel() throws Exception {
+        // polar circular orbits west of the scene, the slave with a 150 m baseline
+        masterOrbit = createOrbit(Math.toRadians(-3.0));
+        slaveOrbit = createOrbit(Math.toRadians(-3.0) + 150.0 / orbitRadius);
+        masterMeta = createMetadata(masterOrbit);
+        slaveMeta = createMetadata(slaveOrbit);
+
+        for (int i = 0; i < demRows; ++i) {
+            for (int j = 0; j < demCols; ++j) {
+                dem[i][j] = (j % 97 == 0) ? demNoDataValue : 200.0 + 150.0 * Math.sin(j * 0.05) * Math.cos(i * 0.03);
+            }
+        }
+    }
+
+    private static Orbit createOrbit(final double orbitLongitude) {
+        final int numStateVectors = 21;
+        final double[] time = new double[numStateVectors];
+        final double[] x = new double[numStateVectors];
+        final double[] y = new double[numStateVectors];
+        final double[] z = new double[numStateVectors];
+        for (int i = 0; i < numStateVectors; ++i) {
+            time[i] = firstStateVectorTime + 10.0 * i;
+            final double lat = Math.toRadians(-1.0) + orbitRate * 10.0 * i;
+            x[i] = orbitRadius * Math.cos(lat) * Math.cos(orbitLongitude);
+            y[i] = orbitRadius * Math.cos(lat) * Math.sin(orbitLongitude);
+            z[i] = orbitRadius * Math.sin(lat);
+        }
+        return new Orbit(time, x, y, z, 4);
+    }
+
+    private static SLCImage createMetadata(final Orbit orbit) {
+        final SLCImage meta = new SLCImage();
+        meta.setApproxGeoCentreOriginal(new GeoPoint(0.125, 0.125));
+        meta.settAzi1(firstStateVectorTime + 10.0);
+        meta.setLineTimeInterval(lineTimeInterval);
+        meta.setRsr2x(2.0 * rangeSamplingRate);
+        meta.setOriginalWindow(new Window(0, 90000, 0, 8000));
+
+        final Point sceneCentreTime = orbit.xyz2t(Ellipsoid.ell2xyz(Math.toRadians(0.125), Math.toRadians(0.125), 0.0),
+                firstStateVectorTime + 100.0);
+        meta.settRange1(sceneCentreTime.x - 4000.0 / meta.getRsr2x());
+        return meta;
+    }
+
+    @Test
+    public void testRadarCodeKernel_point() throws Exception {
+        Benchmark b = new Benchmark("RadarCode_kernel_point") {
+            @Override
+            protected void execute() throws Exception {
+                measure("point", this::runPoint);
+            }
+
+            private void runPoint() {
+                for (int t = 0; t < numTiles; ++t) {
+                    computePoint();
+                }
+            }
+        };
+        b.run();
+    }
+
+    @Test
+    public void testRadarCodeKernel_workspace() throws Exception {
+        Benchmark b = new Benchmark("RadarCode_kernel_workspace") {
+            @Override
+            protected void execute() throws Exception {
+                measure("workspace", this::runWorkspace);
+            }
+
+            private void runWorkspace() {
+                for (int t = 0; t < numTiles; ++t) {
+                    computeWorkspace();
+                }
+            }
+        };
+        b.run();
+    }
+
+    /**
+     * DEM post loop as it was: every solver starts from the scene centre and returns new Points.
+     */
+    private double computePoint() {
+        final double slaveMin4piCDivLam = (-4 * Math.PI * Constants.SOL) / wavelength;
+        double checksum = 0;
+        try {
+            double phi = Math.toRadians(0.25);
+            for (int i = 0; i < demRows; ++i) {
+                double lambda = 0.0;
+                for (int j = 0; j < demCols; ++j) {
+                    final double height = dem[i][j];
+                    if (height != demNoDataValue) {
+                        final double[] phi_lam_height = {phi, lambda, height};
+                        final Point sarPoint = masterOrbit.ell2lp(phi_lam_height, masterMeta);
+                        final Point pointOnDem = Ellipsoid.ell2xyz(phi_lam_height);
+                        final Point slaveTime = slaveOrbit.xyz2t(pointOnDem, slaveMeta);
+                        final Point masterXYZPos = masterOrbit.lp2xyz(sarPoint.y, sarPoint.x, masterMeta);
+                        final Point flatEarthTime = slaveOrbit.xyz2t(masterXYZPos, slaveMeta);
+                        checksum += sarPoint.x + sarPoint.y + slaveMin4piCDivLam * (flatEarthTime.x - slaveTime.x);
+                    } else {
+                        final Point sarPoint = masterOrbit.ell2lp(new double[]{phi, lambda, 0}, masterMeta);
+                        checksum += sarPoint.x + sarPoint.y;
+                    }
+                    lambda += demSpacing;
+                }
+                phi -= demSpacing;
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return checksum;
+    }
+
+    private final Orbit.Workspace masterWs = new Orbit.Workspace();
+    private final Orbit.Workspace slaveWs = new Orbit.Workspace();
+    private final Orbit.Workspace flatEarthWs = new Orbit.Workspace();
+    private final double[] sarPoint = new double[2];
+    private final double[] pointOnDem = new double[3];
+    private final double[] masterXYZPos = new double[3];
+    private final double[] slaveTime = new double[2];
+    private final double[] flatEarthTime = new double[2];
+
+    /**
+     * DEM post loop as in TopoPhase.radarCode: primitive solvers warm started from the previous post.
+     */
+    private double computeWorkspace() {
+        final double slaveMin4piCDivLam = (-4 * Math.PI * Constants.SOL) / wavelength;
+        double checksum = 0;
+        double phi = Math.toRadians(0.25);
+        for (int i = 0; i < demRows; ++i) {
+            double lambda = 0.0;
+            for (int j = 0; j < demCols; ++j) {
+                final double height = dem[i][j];
+                if (height != demNoDataValue) {
+                    Ellipsoid.ell2xyz(phi, lambda, height, pointOnDem);
+                    masterOrbit.xyz2lp(pointOnDem[0], pointOnDem[1], pointOnDem[2], masterMeta, masterWs, sarPoint);
+                    slaveOrbit.xyz2t(pointOnDem[0], pointOnDem[1], pointOnDem[2], slaveMeta, slaveWs, slaveTime);
+                    masterOrbit.lp2xyz(sarPoint[1], sarPoint[0], masterMeta, masterWs, masterXYZPos);
+                    slaveOrbit.xyz2t(masterXYZPos[0], masterXYZPos[1], masterXYZPos[2], slaveMeta,
+                            flatEarthWs, flatEarthTime);
+                    checksum += sarPoint[0] + sarPoint[1] + slaveMin4piCDivLam * (flatEarthTime[0] - slaveTime[0]);
+                } else {
+                    masterOrbit.ell2lp(phi, lambda, 0, masterMeta, masterWs, sarPoint);
+                    checksum += sarPoint[0] + sarPoint[1];
+                }
+                lambda += demSpacing;
+            }
+            phi -= demSpacing;
+        }
+        return checksum;
+    }
+
+    private static void measure(final String name, final Runnable kernel) {
+        final com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long gcCountStart = getGCCount();
+        final long bytesStart = threadBean.getThreadAllocatedBytes(threadId);
+        final long timeStart = System.nanoTime();
+
+        kernel.run();
+
+        final long time = System.nanoTime() - timeStart;
+        final long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesStart;
+        final long gcCount = getGCCount() - gcCountStart;
+
+        final double posts = (double) numTiles * demRows * demCols;
+        SystemUtils.LOG.info(String.format("%s: %.2f Mposts/s, %.1f bytes/post allocated, %d GCs",
+                name, posts / (time / 1.0e3), bytes / posts, gcCount));
+    }
+
+    private static long getGCCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+        }
+        return count;
+    }
+}
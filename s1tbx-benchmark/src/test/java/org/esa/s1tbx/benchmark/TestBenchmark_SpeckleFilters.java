@@ -36,6 +36,21 @@ public class TestBenchmark_SpeckleFilters extends BaseBenchmarks {
         specklefilter("Median");
     }
 
+    @Test
+    public void testGRD_specklefilter_HistogramMedian() throws Exception {
+        specklefilter("Histogram Median");
+    }
+
+    @Test
+    public void testGRD_specklefilter_Median15x15() throws Exception {
+        specklefilter("Median", 15);
+    }
+
+    @Test
+    public void testGRD_specklefilter_HistogramMedian15x15() throws Exception {
+        specklefilter("Histogram Median", 15);
+    }
+
     @Test
     public void testGRD_specklefilter_Frost() throws Exception {
         specklefilter("Frost");
@@ -76,6 +91,16 @@ public class TestBenchmark_SpeckleFilters extends BaseBenchmarks {
         b.run();
     }
 
+    private void specklefilter(final String name, final int filterSize) throws Exception {
+        Benchmark b = new Benchmark(name + ' ' + filterSize + 'x' + filterSize) {
+            @Override
+            protected void execute() throws Exception {
+                process(name, filterSize, outputFolder);
+            }
+        };
+        b.run();
+    }
+
     private void specklefilterWriteOp(final String name) throws Exception {
         Benchmark b = new Benchmark(name) {
             @Override
@@ -114,6 +139,22 @@ public class TestBenchmark_SpeckleFilters extends BaseBenchmarks {
         srcProduct.dispose();
     }
 
+    private void process(final String name, final int filterSize, final File outputFolder) throws IOException {
+        final Product srcProduct = read(grdFile);
+
+        SpeckleFilterOp op = new SpeckleFilterOp();
+        op.setSourceProduct(srcProduct);
+        op.SetFilter(name);
+        op.setParameter("filterSizeX", filterSize);
+        op.setParameter("filterSizeY", filterSize);
+        Product trgProduct = op.getTargetProduct();
+
+        write(trgProduct, outputFolder, DIMAP);
+
+        trgProduct.dispose();
+        srcProduct.dispose();
+    }
+
     private void processGraph(final File file, final File outputFolder, final String name) throws Exception {
 
         final Graph graph = new Graph("graph");
@@ -0,0 +1,226 @@
+package org.esa.s1tbx.benchmark;
+
+import org.esa.s1tbx.commons.SARGeocoding;
+import org.esa.snap.core.datamodel.CrsGeoCoding;
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.util.SystemUtils;
+import org.esa.snap.engine_utilities.datamodel.PosVector;
+import org.esa.snap.engine_utilities.eo.Constants;
+import org.esa.snap.engine_utilities.eo.GeoUtils;
+import org.esa.snap.engine_utilities.eo.LocalGeometry;
+import org.esa.snap.engine_utilities.gpf.TileGeoreferencing;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Benchmarks the per pixel geocoding kernel of terrain correction on a synthetic scene: the original boxed,
+ * allocating loop against the row solver with primitive scratch buffers used by RangeDopplerGeocodingOp.
+ */
+public class TestBenchmark_TerrainCorrectionKernel {
+
+    private static final int tileWidth = 512;
+    private static final int tileHeight = 512;
+    private static final int numTiles = 8;
+    private static final int numLines = 8000;
+    private static final double demNoDataValue = 0.0;
+    private static final double wavelength = 0.05546576;
+    private static final double firstLineUTC = 7000.5;
+    private static final double orbitRadius = 7071000.0;
+    private static final double orbitRate = 2.0 * Math.PI / 5924.0; // rad/s
+    private static final double orbitLongitude = Math.toRadians(-3.0);
+    private static final double firstOrbitLatitude = Math.toRadians(-0.5);
+    private static final double lineTimeInterval = Math.toRadians(1.5) / orbitRate / numLines / Constants.secondsInDay;
+
+    private final PosVector[] sensorPosition = new PosVector[numLines];
+    private final PosVector[] sensorVelocity = new PosVector[numLines];
+    private final TileGeoreferencing tileGeoRef;
+    private final double[][] localDEM = new double[tileHeight + 2][tileWidth + 2];
+    private final int x0 = 1, y0 = 1;
+
+    public TestBenchmark_TerrainCorrectionKernel() throws Exception {
+        // polar circular orbit west of the scene, no earth rotation
+        for (int i = 0; i < numLines; ++i) {
+            final double lat = firstOrbitLatitude + orbitRate * i * lineTimeInterval * Constants.secondsInDay;
+            sensorPosition[i] = new PosVector(orbitRadius * Math.cos(lat) * Math.cos(orbitLongitude),
+                    orbitRadius * Math.cos(lat) * Math.sin(orbitLongitude), orbitRadius * Math.sin(lat));
+            sensorVelocity[i] = new PosVector(-orbitRadius * orbitRate * Math.sin(lat) * Math.cos(orbitLongitude),
+                    -orbitRadius * orbitRate * Math.sin(lat) * Math.sin(orbitLongitude), orbitRadius * orbitRate * Math.cos(lat));
+        }
+
+        final Product product = new Product("synthetic", "GRD", tileWidth + 2, tileHeight + 2);
+        product.setSceneGeoCoding(new CrsGeoCoding(DefaultGeographicCRS.WGS84, tileWidth + 2, tileHeight + 2,
+                0.0, 0.5, 0.5 / tileWidth, 0.5 / tileHeight));
+        tileGeoRef = new TileGeoreferencing(product, x0 - 1, y0 - 1, tileWidth + 2, tileHeight + 2);
+
+        for (int y = 0; y < tileHeight + 2; ++y) {
+            for (int x = 0; x < tileWidth + 2; ++x) {
+                localDEM[y][x] = (x % 97 == 0) ? demNoDataValue : 200.0 + 150.0 * Math.sin(x * 0.05) * Math.cos(y * 0.03);
+            }
+        }
+    }
+
+    @Test
+    public void testTerrainCorrectionKernel_boxed() throws Exception {
+        Benchmark b = new Benchmark("TC_kernel_boxed") {
+            @Override
+            protected void execute() throws Exception {
+                measure("boxed", this::runBoxed);
+            }
+
+            private void runBoxed() {
+                for (int t = 0; t < numTiles; ++t) {
+                    computeBoxed();
+                }
+            }
+        };
+        b.run();
+    }
+
+    @Test
+    public void testTerrainCorrectionKernel_primitive() throws Exception {
+        Benchmark b = new Benchmark("TC_kernel_primitive") {
+            @Override
+            protected void execute() throws Exception {
+                measure("primitive", this::runPrimitive);
+            }
+
+            private void runPrimitive() {
+                for (int t = 0; t < numTiles; ++t) {
+                    computePrimitive();
+                }
+            }
+        };
+        b.run();
+    }
+
+    /**
+     * Pixel loop as it was: boxed elevation, scalar zero Doppler search and per pixel allocations.
+     */
+    private double computeBoxed() {
+        final GeoPos geoPos = new GeoPos();
+        double checksum = 0;
+        for (int y = y0; y < y0 + tileHeight; ++y) {
+            final int yy = y - y0 + 1;
+            for (int x = x0; x < x0 + tileWidth; ++x) {
+                Double alt = localDEM[yy][x - x0 + 1];
+                if (alt.equals(demNoDataValue)) {
+                    continue;
+                }
+
+                tileGeoRef.getGeoPos(x, y, geoPos);
+                final PosVector earthPoint = new PosVector();
+                GeoUtils.geo2xyzWGS84(geoPos.lat, geoPos.lon, alt, earthPoint);
+
+                final double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC,
+                        lineTimeInterval, wavelength, earthPoint, sensorPosition, sensorVelocity);
+                if (zeroDopplerTime == SARGeocoding.NonValidZeroDopplerTime) {
+                    continue;
+                }
+                final PosVector sensorPos = sensorPosition[(int) ((zeroDopplerTime - firstLineUTC) / lineTimeInterval)];
+
+                final double[] localIncidenceAngles = {SARGeocoding.NonValidIncidenceAngle,
+                        SARGeocoding.NonValidIncidenceAngle};
+                final LocalGeometry localGeometry = new LocalGeometry(x, y, tileGeoRef, earthPoint, sensorPos);
+                SARGeocoding.computeLocalIncidenceAngle(localGeometry, demNoDataValue, true, true, true,
+                        x0, y0, x, y, localDEM, localIncidenceAngles);
+
+                final int[] subSwathIndex = {-1};
+                checksum += zeroDopplerTime + localIncidenceAngles[1] + subSwathIndex[0];
+            }
+        }
+        return checksum;
+    }
+
+    private final double[] rowLat = new double[tileWidth];
+    private final double[] rowLon = new double[tileWidth];
+    private final double[] earthX = new double[tileWidth];
+    private final double[] earthY = new double[tileWidth];
+    private final double[] earthZ = new double[tileWidth];
+    private final double[] zeroDopplerTimes = new double[tileWidth];
+    private final double[] localIncidenceAngles = new double[2];
+    private final int[] subSwathIndex = new int[1];
+    private final GeoPos geoPos = new GeoPos();
+    private final PosVector earthPoint = new PosVector();
+    private final SARGeocoding.LocalIncidenceAngleWorkspace workspace = new SARGeocoding.LocalIncidenceAngleWorkspace();
+
+    /**
+     * Pixel loop as in RangeDopplerGeocodingOp: primitive elevation, row zero Doppler solver and scratch buffers.
+     */
+    private double computePrimitive() {
+        double checksum = 0;
+        for (int y = y0; y < y0 + tileHeight; ++y) {
+            final int yy = y - y0 + 1;
+            for (int x = x0; x < x0 + tileWidth; ++x) {
+                final int xx = x - x0;
+                final double alt = localDEM[yy][xx + 1];
+                if (Double.compare(alt, demNoDataValue) == 0) {
+                    earthX[xx] = Double.NaN;
+                    continue;
+                }
+
+                tileGeoRef.getGeoPos(x, y, geoPos);
+                GeoUtils.geo2xyzWGS84(geoPos.lat, geoPos.lon, alt, earthPoint);
+                rowLat[xx] = geoPos.lat;
+                rowLon[xx] = geoPos.lon;
+                earthX[xx] = earthPoint.x;
+                earthY[xx] = earthPoint.y;
+                earthZ[xx] = earthPoint.z;
+            }
+
+            SARGeocoding.getEarthPointZeroDopplerTimes(firstLineUTC, lineTimeInterval, wavelength,
+                    earthX, earthY, earthZ, tileWidth, sensorPosition, sensorVelocity, zeroDopplerTimes);
+
+            for (int x = x0; x < x0 + tileWidth; ++x) {
+                final int xx = x - x0;
+                if (Double.isNaN(earthX[xx]) || zeroDopplerTimes[xx] == SARGeocoding.NonValidZeroDopplerTime) {
+                    continue;
+                }
+                earthPoint.x = earthX[xx];
+                earthPoint.y = earthY[xx];
+                earthPoint.z = earthZ[xx];
+                final PosVector sensorPos = sensorPosition[(int) ((zeroDopplerTimes[xx] - firstLineUTC) / lineTimeInterval)];
+
+                localIncidenceAngles[0] = SARGeocoding.NonValidIncidenceAngle;
+                localIncidenceAngles[1] = SARGeocoding.NonValidIncidenceAngle;
+                SARGeocoding.computeLocalIncidenceAngle(tileGeoRef, earthPoint, sensorPos, demNoDataValue,
+                        true, true, true, x0, y0, x, y, localDEM, localIncidenceAngles, workspace);
+
+                subSwathIndex[0] = -1;
+                checksum += zeroDopplerTimes[xx] + localIncidenceAngles[1] + subSwathIndex[0];
+            }
+        }
+        return checksum;
+    }
+
+    private static void measure(final String name, final Runnable kernel) {
+        final com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long gcCountStart = getGCCount();
+        final long bytesStart = threadBean.getThreadAllocatedBytes(threadId);
+        final long timeStart = System.nanoTime();
+
+        kernel.run();
+
+        final long time = System.nanoTime() - timeStart;
+        final long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesStart;
+        final long gcCount = getGCCount() - gcCountStart;
+
+        final double pixels = (double) numTiles * tileWidth * tileHeight;
+        SystemUtils.LOG.info(String.format("%s: %.2f Mpixel/s, %.1f bytes/pixel allocated, %d GCs",
+                name, pixels / (time / 1.0e3), bytes / pixels, gcCount));
+    }
+
+    private static long getGCCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+        }
+        return count;
+    }
+}
@@ -21,10 +21,12 @@ import org.apache.olingo.odata2.api.edm.EdmEntityContainer;
 import org.apache.olingo.odata2.api.ep.EntityProvider;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.esa.snap.core.util.SystemUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.util.*;
 
 /**
@@ -87,37 +89,42 @@ public class OpenData {
         }
     }
 
-    private void download(final String id, final String downloadURL, final Entry entry, final File outFile, final ProgressMonitor pm) {
+    private void download(final String id, final String downloadURL, final Entry entry, final File outFile,
+                          final ProgressMonitor pm) throws IOException {
 
         //final String download = odataRoot+"Products('" + id + "')" + "/$value";
 
-        int tries = 1;
-        HTTPDownloader.EntryFileProperty entryFp = null;
-        while ((entryFp == null || entryFp.getSize() != entry.contentLength)) {
-
-            entryFp = HTTPDownloader.getEntryFilePropertyFromUrlString(downloadURL, outFile,
-                    entry.contentLength, entry.contentType, userName, password, pm);
-
-            if (entryFp != null && entryFp.getSize() == entry.contentLength) {
-                break;
-            } else {
+        final ParallelHTTPDownloader downloader = new ParallelHTTPDownloader();
+        IOException error = null;
+        for (int tries = 1; tries <= MAX_DOWNLOAD_TRIES; ++tries) {
+            try {
+                // an incomplete download is resumed by the next try
+                downloader.download(downloadURL, outFile, entry.contentLength, entry.md5Checksum,
+                        entry.contentType, userName, password, pm);
+                return;
+            } catch (IOException e) {
+                error = e;
+                SystemUtils.LOG.warning("Download of " + entry.name + " failed on try " + tries + " of " +
+                                                MAX_DOWNLOAD_TRIES + ": " + e.getMessage());
+                if (pm.isCanceled()) {
+                    throw new IOException("Download of " + entry.name + " cancelled", e);
+                }
                 try {
                     Thread.sleep(3000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                if (tries > MAX_DOWNLOAD_TRIES && (entryFp == null || entryFp.getSize() != entry.contentLength)) {
-                    break;
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Download of " + entry.name + " interrupted");
                 }
-                tries++;
             }
         }
+        throw new IOException("Download of " + entry.name + " failed after " + MAX_DOWNLOAD_TRIES + " tries", error);
     }
 
     public static class Entry {
         public final Long contentLength;
         public final String name;
         public final String contentType;
+        public final String md5Checksum;
 
         public Entry(final ODataEntry oDataEntry) {
             final Map<String, Object> propMap = oDataEntry.getProperties();
@@ -126,6 +133,19 @@ public class OpenData {
             contentType = propMap.get("ContentType").toString();
 
             name = propMap.get("Name").toString();
+            md5Checksum = getMD5Checksum(propMap.get("Checksum"));
+        }
+
+        private static String getMD5Checksum(final Object checksum) {
+            if (checksum instanceof Map) {
+                final Map<?, ?> checksumMap = (Map<?, ?>) checksum;
+                final Object algorithm = checksumMap.get("Algorithm");
+                final Object value = checksumMap.get("Value");
+                if (algorithm != null && "MD5".equalsIgnoreCase(algorithm.toString()) && value != null) {
+                    return value.toString();
+                }
+            }
+            return null;
         }
     }
 }
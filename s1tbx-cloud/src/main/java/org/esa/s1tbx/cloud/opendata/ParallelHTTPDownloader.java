@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.cloud.opendata;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.snap.runtime.Config;
+
+import java.io.*;
+import java.net.Authenticator;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.*;
+
+/**
+ * Downloads a file as HTTP Range chunks fetched concurrently.
+ * <p>
+ * Every connection writes its chunk at the chunk offset through a shared FileChannel. The manifest next to the
+ * output file is written before the first chunk and records the completed chunks once they are forced to disk, so
+ * an interrupted download resumes with the missing chunks only. Once all chunks are in, the MD5 checksum is verified
+ * if one is known and the manifest is removed.
+ */
+class ParallelHTTPDownloader {
+
+    private static final int MB = 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_CHUNK_TRIES = 3;
+    private static final String MANIFEST_EXTENSION = ".parts";
+
+    private final int numConnections;
+    private final long chunkSize;
+
+    ParallelHTTPDownloader() {
+        this(Config.instance().preferences().getInt("s1tbx.download.connections", 4),
+             Config.instance().preferences().getInt("s1tbx.download.chunkSize", 16) * (long) MB);
+    }
+
+    ParallelHTTPDownloader(final int numConnections, final long chunkSize) {
+        this.numConnections = Math.max(1, numConnections);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Download a file, resuming a previous partial download of the same file.
+     *
+     * @param urlStr           the file URL
+     * @param outFile          the output file
+     * @param completeFileSize the file size in bytes
+     * @param md5Checksum      the expected MD5 checksum in hex or null if unknown
+     * @param contentType      the accepted content type
+     * @param user             the user name or null
+     * @param password         the password
+     * @param pm               the progress monitor
+     * @return the downloaded file
+     * @throws IOException if the download is incomplete or the checksum does not match
+     */
+    HTTPDownloader.EntryFileProperty download(final String urlStr, final File outFile, final long completeFileSize,
+                                              final String md5Checksum, final String contentType,
+                                              final String user, final String password,
+                                              final ProgressMonitor pm) throws IOException {
+
+        if (user != null) {
+            Authenticator.setDefault(new HTTPDownloader.SeHttpAuthenticator(user, password));
+        }
+
+        final URL url = new URL(urlStr);
+        final File manifestFile = new File(outFile.getPath() + MANIFEST_EXTENSION);
+        final Manifest manifest = Manifest.open(manifestFile, outFile, completeFileSize, chunkSize);
+        // written before any chunk, so a partial file of this download is never taken for a sequential one
+        manifest.save();
+
+        final int numChunks = manifest.getNumChunks();
+        pm.beginTask("Downloading", numChunks);
+        pm.worked(manifest.getNumCompleted());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numConnections, numChunks)));
+        try (FileChannel channel = FileChannel.open(outFile.toPath(), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE)) {
+
+            final CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+            int numSubmitted = 0;
+            for (int chunk = 0; chunk < numChunks; ++chunk) {
+                if (!manifest.isCompleted(chunk)) {
+                    final int chunkIndex = chunk;
+                    completionService.submit(() -> {
+                        downloadChunk(url, contentType, channel, manifest, chunkIndex);
+                        return chunkIndex;
+                    });
+                    ++numSubmitted;
+                }
+            }
+
+            IOException error = null;
+            for (int i = 0; i < numSubmitted; ++i) {
+                try {
+                    final int chunk = completionService.take().get();
+                    // the chunk must be on disk before the manifest records it as completed
+                    channel.force(true);
+                    manifest.setCompleted(chunk);
+                    pm.worked(1);
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause() instanceof IOException ? (IOException) e.getCause() :
+                                new IOException(e.getCause());
+                    }
+                }
+                if (pm.isCanceled()) {
+                    throw new IOException("Download of " + outFile.getName() + " cancelled");
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+            channel.truncate(completeFileSize);
+            channel.force(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download of " + outFile.getName() + " interrupted");
+        } finally {
+            executor.shutdownNow();
+            pm.done();
+        }
+
+        if (md5Checksum != null && !md5Checksum.isEmpty()) {
+            final String md5 = HTTPDownloader.bytesToHex(HTTPDownloader.md5ChecksumFromFilePath(outFile));
+            if (!md5.equalsIgnoreCase(md5Checksum)) {
+                outFile.delete();
+                manifestFile.delete();
+                throw new IOException("MD5 checksum of " + outFile.getName() + ' ' + md5 +
+                                              " does not match " + md5Checksum);
+            }
+        }
+        manifestFile.delete();
+
+        return new HTTPDownloader.EntryFileProperty(outFile.getAbsolutePath(), md5Checksum, null, outFile.length());
+    }
+
+    private static void downloadChunk(final URL url, final String contentType, final FileChannel channel,
+                                      final Manifest manifest, final int chunk) throws IOException {
+
+        final long start = chunk * manifest.chunkSize;
+        final long end = Math.min(start + manifest.chunkSize, manifest.fileSize) - 1;
+
+        IOException error = null;
+        for (int tries = 0; tries < MAX_CHUNK_TRIES; ++tries) {
+            try {
+                downloadRange(url, contentType, channel, start, end);
+                return;
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        throw error;
+    }
+
+    private static void downloadRange(final URL url, final String contentType, final FileChannel channel,
+                                      final long start, final long end) throws IOException {
+
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod(HTTPDownloader.HTTP_METHOD_GET);
+            if (contentType != null) {
+                connection.setRequestProperty("Accept", contentType);
+            }
+            connection.setRequestProperty("Range", "bytes=" + start + '-' + end);
+            connection.connect();
+
+            final int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_PARTIAL &&
+                    !(status == HttpURLConnection.HTTP_OK && start == 0 && end + 1 == connection.getContentLengthLong())) {
+                throw new IOException("Range request " + start + '-' + end + " of " + url +
+                                              " failed with status " + status);
+            }
+
+            final byte[] data = new byte[BUFFER_SIZE];
+            final ByteBuffer buffer = ByteBuffer.wrap(data);
+            long position = start;
+            try (InputStream in = connection.getInputStream()) {
+                int bytesRead;
+                while (position <= end && (bytesRead = in.read(data, 0, (int) Math.min(data.length, end + 1 - position))) > -1) {
+                    buffer.clear().limit(bytesRead);
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                }
+            }
+            if (position != end + 1) {
+                throw new IOException("Range request " + start + '-' + end + " of " + url +
+                                              " ended after " + (position - start) + " bytes");
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * The completed chunks of a download, persisted next to the output file.
+     */
+    private static final class Manifest {
+
+        private final File file;
+        private final long fileSize;
+        private final long chunkSize;
+        private final int numChunks;
+        private final BitSet completed;
+
+        private Manifest(final File file, final long fileSize, final long chunkSize, final BitSet completed) {
+            this.file = file;
+            this.fileSize = fileSize;
+            this.chunkSize = chunkSize;
+            this.numChunks = (int) ((fileSize + chunkSize - 1) / chunkSize);
+            this.completed = completed;
+        }
+
+        static Manifest open(final File manifestFile, final File outFile, final long fileSize, final long chunkSize) {
+
+            if (manifestFile.exists() && outFile.exists()) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(manifestFile)))) {
+                    final long size = in.readLong();
+                    final long chunk = in.readLong();
+                    final byte[] bits = new byte[in.readInt()];
+                    in.readFully(bits);
+                    if (size == fileSize) {
+                        return new Manifest(manifestFile, fileSize, chunk, BitSet.valueOf(bits));
+                    }
+                } catch (IOException e) {
+                    // start again
+                }
+            }
+
+            final BitSet completed = new BitSet();
+            if (!manifestFile.exists() && outFile.exists() && outFile.length() <= fileSize) {
+                // a file without manifest was written sequentially by the earlier downloader and holds the chunks
+                // below its length
+                final long numCompleted = outFile.length() / chunkSize;
+                completed.set(0, (int) numCompleted);
+                if (outFile.length() == fileSize) {
+                    completed.set(0, (int) ((fileSize + chunkSize - 1) / chunkSize));
+                }
+            }
+            return new Manifest(manifestFile, fileSize, chunkSize, completed);
+        }
+
+        int getNumChunks() {
+            return numChunks;
+        }
+
+        synchronized int getNumCompleted() {
+            return completed.cardinality();
+        }
+
+        synchronized boolean isCompleted(final int chunk) {
+            return completed.get(chunk);
+        }
+
+        synchronized void setCompleted(final int chunk) throws IOException {
+            completed.set(chunk);
+            save();
+        }
+
+        synchronized void save() throws IOException {
+            final File tmpFile = new File(file.getPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                final byte[] bits = completed.toByteArray();
+                out.writeLong(fileSize);
+                out.writeLong(chunkSize);
+                out.writeInt(bits.length);
+                out.write(bits);
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
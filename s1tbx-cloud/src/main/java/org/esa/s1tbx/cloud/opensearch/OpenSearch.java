@@ -24,26 +24,40 @@ import org.apache.abdera.protocol.Response;
 import org.apache.abdera.protocol.client.AbderaClient;
 import org.apache.abdera.protocol.client.ClientResponse;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
+import org.esa.snap.runtime.Config;
 
 import javax.xml.namespace.QName;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
- * OpenSearch interface for searching
+ * OpenSearch interface for searching. Close it to stop the pages requested ahead of the search result iterators.
  */
-public class OpenSearch {
+public class OpenSearch implements AutoCloseable {
 
     private final AbderaClient client;
-    private String searchURL;
+    private final ThreadPoolExecutor executor;
 
     private final static int numRows = 100; // 100 is maximum allowed by SciHub
     private final static int TIMEOUT = 60000; // milliseconds
+    private final static int IDLE_SECONDS = 10;
 
     public OpenSearch(final String host, final String userName, final String password) throws IOException {
         try {
@@ -52,7 +66,18 @@ public class OpenSearch {
             client.setConnectionTimeout(TIMEOUT);
             client.setConnectionManagerTimeout(TIMEOUT);
             client.setSocketTimeout(TIMEOUT);
-            client.setMaxConnectionsPerHost(2);
+            final int concurrentPages =
+                    Math.max(1, Config.instance().preferences().getInt("s1tbx.opensearch.concurrentPages", 2));
+            client.setMaxConnectionsPerHost(Math.max(2, concurrentPages));
+
+            // the threads end when idle, so an iterator that is dropped without being closed leaves none behind
+            executor = new ThreadPoolExecutor(concurrentPages, concurrentPages, IDLE_SECONDS, TimeUnit.SECONDS,
+                                              new LinkedBlockingQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, "OpenSearch");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
 
             client.addCredentials(host, null, null,
                                   new UsernamePasswordCredentials(userName, password));
@@ -63,48 +88,88 @@ public class OpenSearch {
     }
 
     public PageResult getPages(String searchURL) throws IOException {
-        this.searchURL = searchURL;
         ClientResponse response[] = new ClientResponse[1];
-        final Feed feed = connect(searchURL, "&start=" + 0 + "&rows=" + numRows, response);
-        if (feed == null) {
-            response[0].getInputStream().close();
-            return null;
-        }
-
-        //dumpFeed(feed);
+        try {
+            final Feed feed = connect(searchURL, "&start=" + 0 + "&rows=" + numRows, response);
+            if (feed == null) {
+                return null;
+            }
 
-        final PageResult result = new PageResult(feed);
+            //dumpFeed(feed);
 
-        System.out.println("OpenSearch: " + result.totalResults + " total results on " + result.pages + " pages.");
+            final PageResult result = new PageResult(feed);
+            result.searchURL = searchURL;
+            // kept for the search result iterator, so the first page is not requested again
+            result.firstPageResults = getSearchResults(feed);
 
-        response[0].getInputStream().close();
+            System.out.println("OpenSearch: " + result.totalResults + " total results on " + result.pages + " pages.");
 
-        return result;
+            return result;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        } finally {
+            if (response[0] != null) {
+                response[0].getInputStream().close(); // close connection
+            }
+        }
     }
 
     public SearchResult[] getSearchResults(final PageResult pageResult) throws Exception {
         final List<SearchResult> searchResults = new ArrayList<>();
-        final ClientResponse response[] = new ClientResponse[1];
-        for (int item = 0; item < pageResult.totalResults; item += numRows) {
-            final Feed feed = connect(searchURL, "&start=" + item + "&rows=" + numRows, response);
-            if (feed == null) {
-                if(response[0] != null) {
-                    response[0].getInputStream().close();
-                }
-                return searchResults.toArray(new SearchResult[0]);
+        try (SearchResultIterator iterator = getSearchResultIterator(pageResult)) {
+            while (iterator.hasNext()) {
+                searchResults.add(iterator.next());
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return searchResults.toArray(new SearchResult[0]);
+    }
+
+    /**
+     * Iterate over the search results while the following pages are being requested. The first page is taken from
+     * the page result. Up to s1tbx.opensearch.concurrentPages pages are fetched and parsed ahead of the consumer, so
+     * a slow consumer holds back further requests.
+     *
+     * @param pageResult the page result of the search
+     * @return the search results in page order
+     */
+    public SearchResultIterator getSearchResultIterator(final PageResult pageResult) {
+        return new SearchResultIterator(pageResult);
+    }
+
+    /**
+     * Stop the pages requested ahead of all search result iterators.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private List<SearchResult> getPageResults(final String searchURL, final int start) throws Exception {
+        final ClientResponse response[] = new ClientResponse[1];
+        try {
+            final Feed feed = connect(searchURL, "&start=" + start + "&rows=" + numRows, response);
 
             //dumpFeed(feed);
 
-            final List<Entry> entries = feed.getEntries();
-            for (Entry entry : entries) {
-                searchResults.add(new SearchResult(entry));
+            return getSearchResults(feed);
+        } finally {
+            if (response[0] != null) {
+                response[0].getInputStream().close(); // close connection
             }
         }
-        if(response[0] != null) {
-            response[0].getInputStream().close(); // close connection
+    }
+
+    private static List<SearchResult> getSearchResults(final Feed feed) throws Exception {
+        final List<Entry> entries = feed.getEntries();
+        final List<SearchResult> searchResults = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            searchResults.add(new SearchResult(entry));
         }
-        return searchResults.toArray(new SearchResult[0]);
+        return searchResults;
     }
 
     private Feed connect(String searchURL, final String compl, final ClientResponse[] response) throws IOException {
@@ -154,6 +219,84 @@ public class OpenSearch {
         }
     }
 
+    /**
+     * Search results of the pages fetched ahead of the consumer. The pages still requested are cancelled when the
+     * iterator is exhausted or closed. An iterator dropped without being closed requests no further pages.
+     */
+    public class SearchResultIterator implements Iterator<SearchResult>, AutoCloseable {
+
+        private final String searchURL;
+        private final int totalResults;
+        private final Deque<Future<List<SearchResult>>> pendingPages = new ArrayDeque<>();
+        private Iterator<SearchResult> pageIterator;
+        private int nextStart;
+
+        private SearchResultIterator(final PageResult pageResult) {
+            this.searchURL = pageResult.searchURL;
+            this.totalResults = pageResult.totalResults;
+            if (pageResult.firstPageResults != null) {
+                pageIterator = pageResult.firstPageResults.iterator();
+                nextStart = numRows;
+            } else {
+                pageIterator = Collections.emptyIterator();
+                nextStart = 0;
+            }
+            for (int i = 0; i < executor.getMaximumPoolSize(); ++i) {
+                requestNextPage();
+            }
+        }
+
+        private void requestNextPage() {
+            if (nextStart < totalResults) {
+                final int start = nextStart;
+                pendingPages.add(executor.submit(() -> getPageResults(searchURL, start)));
+                nextStart += numRows;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!pageIterator.hasNext()) {
+                final Future<List<SearchResult>> page = pendingPages.poll();
+                if (page == null) {
+                    close();
+                    return false;
+                }
+                try {
+                    pageIterator = page.get().iterator();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    throw new UncheckedIOException(new InterruptedIOException("OpenSearch interrupted"));
+                } catch (ExecutionException e) {
+                    close();
+                    final Throwable cause = e.getCause();
+                    throw new UncheckedIOException(cause instanceof IOException ? (IOException) cause :
+                                                           new IOException(cause));
+                }
+                requestNextPage();
+            }
+            return true;
+        }
+
+        @Override
+        public SearchResult next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pageIterator.next();
+        }
+
+        @Override
+        public void close() {
+            for (Future<List<SearchResult>> page : pendingPages) {
+                page.cancel(true);
+            }
+            pendingPages.clear();
+            nextStart = totalResults;
+        }
+    }
+
     public static class SearchResult {
         public final String id;
         public final String title;
@@ -177,6 +320,8 @@ public class OpenSearch {
         public final int totalResults;
         public final int itemsPerPage;
         public final int pages;
+        private String searchURL;
+        private List<SearchResult> firstPageResults;
 
         private static final QName trQn = new QName("http://a9.com/-/spec/opensearch/1.1/", "totalResults");
         private static final QName ippQn = new QName("http://a9.com/-/spec/opensearch/1.1/", "itemsPerPage");
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.cloud.opendata;
+
+import com.bc.ceres.core.ProgressMonitor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test ParallelHTTPDownloader against a local HTTP server
+ */
+public class TestParallelHTTPDownloader {
+
+    private static final int FILE_SIZE = 1000003;
+    private static final int CHUNK_SIZE = 65536;
+
+    private final byte[] content = new byte[FILE_SIZE];
+    private final Map<Long, Integer> failingRanges = new ConcurrentHashMap<>(); // range start, number of failures
+    private final AtomicInteger numRequests = new AtomicInteger();
+
+    private HttpServer server;
+    private String url;
+    private File folder;
+
+    @Before
+    public void setUp() throws Exception {
+        new Random(42).nextBytes(content);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/product.zip", this::serve);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/product.zip";
+
+        folder = Files.createTempDirectory("download").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdown();
+        final File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    private void serve(final HttpExchange exchange) throws IOException {
+        numRequests.incrementAndGet();
+
+        long start = 0, end = FILE_SIZE - 1;
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null) {
+            final String[] bounds = range.substring("bytes=".length()).split("-");
+            start = Long.parseLong(bounds[0]);
+            end = Math.min(Long.parseLong(bounds[1]), FILE_SIZE - 1);
+        }
+        final Integer numFailures = failingRanges.remove(start);
+        if (numFailures != null) {
+            if (numFailures > 1) {
+                failingRanges.put(start, numFailures - 1);
+            }
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+
+        final int length = (int) (end - start + 1);
+        if (range != null) {
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + '-' + end + '/' + FILE_SIZE);
+        }
+        exchange.sendResponseHeaders(range != null ? 206 : 200, length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content, (int) start, length);
+        }
+    }
+
+    @Test
+    public void testDownload() throws Exception {
+        final File outFile = new File(folder, "product.zip");
+
+        final HTTPDownloader.EntryFileProperty result = new ParallelHTTPDownloader(4, CHUNK_SIZE).download(
+                url, outFile, FILE_SIZE, md5(content), null, null, null, ProgressMonitor.NULL);
+
+        assertEquals(FILE_SIZE, result.getSize());
+        assertArrayEquals(content, Files.readAllBytes(outFile.toPath()));
+        assertFalse(new File(folder, "product.zip.parts").exists());
+        assertEquals((FILE_SIZE + CHUNK_SIZE - 1) / CHUNK_SIZE, numRequests.get());
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        final File outFile = new File(folder, "product.zip");
+        final ParallelHTTPDownloader downloader = new ParallelHTTPDownloader(4, CHUNK_SIZE);
+
+        // one chunk fails on every try of the first download
+        failingRanges.put(5L * CHUNK_SIZE, 3);
+        try {
+            downloader.download(url, outFile, FILE_SIZE, md5(content), null, null, null, ProgressMonitor.NULL);
+            fail("download should fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertTrue(new File(folder, "product.zip.parts").exists());
+
+        // the second download only fetches the failed chunk
+        failingRanges.clear();
+        numRequests.set(0);
+        downloader.download(url, outFile, FILE_SIZE, md5(content), null, null, null, ProgressMonitor.NULL);
+
+        assertEquals(1, numRequests.get());
+        assertArrayEquals(content, Files.readAllBytes(outFile.toPath()));
+        assertFalse(new File(folder, "product.zip.parts").exists());
+    }
+
+    @Test
+    public void testResumeWithoutCompletedChunk() throws Exception {
+        final File outFile = new File(folder, "product.zip");
+        final ParallelHTTPDownloader downloader = new ParallelHTTPDownloader(4, CHUNK_SIZE);
+        final int numChunks = (FILE_SIZE + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        // every chunk fails, so no chunk is completed
+        for (int chunk = 0; chunk < numChunks; ++chunk) {
+            failingRanges.put((long) chunk * CHUNK_SIZE, 3);
+        }
+        try {
+            downloader.download(url, outFile, FILE_SIZE, null, null, null, null, ProgressMonitor.NULL);
+            fail("download should fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertTrue(new File(folder, "product.zip.parts").exists());
+
+        // a chunk at a high offset had grown the file before the download died
+        try (RandomAccessFile raf = new RandomAccessFile(outFile, "rw")) {
+            raf.setLength(FILE_SIZE);
+        }
+
+        // without checksum, the holes must still be fetched and not taken for a sequentially written file
+        failingRanges.clear();
+        numRequests.set(0);
+        downloader.download(url, outFile, FILE_SIZE, null, null, null, null, ProgressMonitor.NULL);
+
+        assertEquals(numChunks, numRequests.get());
+        assertArrayEquals(content, Files.readAllBytes(outFile.toPath()));
+    }
+
+    @Test
+    public void testChecksumMismatch() throws Exception {
+        final File outFile = new File(folder, "product.zip");
+        try {
+            new ParallelHTTPDownloader(4, CHUNK_SIZE).download(
+                    url, outFile, FILE_SIZE, md5(new byte[1]), null, null, null, ProgressMonitor.NULL);
+            fail("checksum should not match");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("MD5"));
+        }
+        assertFalse(outFile.exists());
+    }
+
+    private static String md5(final byte[] data) throws Exception {
+        return HTTPDownloader.bytesToHex(MessageDigest.getInstance("MD5").digest(data));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.cloud.opensearch;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test OpenSearch paging against a local server serving canned Atom feeds
+ */
+public class TestOpenSearch {
+
+    private static final int TOTAL_RESULTS = 1000;
+    private static final int ROWS = 100;
+    private static final int NUM_PAGES = (TOTAL_RESULTS + ROWS - 1) / ROWS;
+
+    private final AtomicInteger numRequests = new AtomicInteger();
+
+    private HttpServer server;
+    private String host;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/search", this::serve);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        host = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdown();
+    }
+
+    private void serve(final HttpExchange exchange) throws IOException {
+        numRequests.incrementAndGet();
+
+        int start = 0;
+        for (String param : exchange.getRequestURI().getRawQuery().split("&")) {
+            if (param.startsWith("start=")) {
+                start = Integer.parseInt(param.substring("start=".length()));
+            }
+        }
+
+        final StringBuilder feed = new StringBuilder();
+        feed.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+        feed.append("<feed xmlns=\"http://www.w3.org/2005/Atom\" xmlns:opensearch=\"http://a9.com/-/spec/opensearch/1.1/\">\n");
+        feed.append("<title>Search results</title><id>").append(host).append("/search</id>");
+        feed.append("<updated>2021-01-01T00:00:00Z</updated>\n");
+        feed.append("<opensearch:totalResults>").append(TOTAL_RESULTS).append("</opensearch:totalResults>\n");
+        feed.append("<opensearch:startIndex>").append(start).append("</opensearch:startIndex>\n");
+        feed.append("<opensearch:itemsPerPage>").append(ROWS).append("</opensearch:itemsPerPage>\n");
+        for (int i = start; i < Math.min(start + ROWS, TOTAL_RESULTS); ++i) {
+            feed.append("<entry><title>product").append(i).append("</title>");
+            feed.append("<id>uuid-").append(i).append("</id>");
+            feed.append("<link href=\"").append(host).append("/products/product").append(i).append(".zip\"/>");
+            feed.append("<updated>2021-01-01T00:00:00Z</updated></entry>\n");
+        }
+        feed.append("</feed>\n");
+
+        final byte[] bytes = feed.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/atom+xml");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    public void testSearchResults() throws Exception {
+        try (OpenSearch openSearch = new OpenSearch(host, "user", "password")) {
+            final OpenSearch.PageResult pageResult = openSearch.getPages(host + "/search?q=platformname:Sentinel-1");
+            assertNotNull(pageResult);
+            assertEquals(TOTAL_RESULTS, pageResult.totalResults);
+
+            final OpenSearch.SearchResult[] searchResults = openSearch.getSearchResults(pageResult);
+            assertEquals(TOTAL_RESULTS, searchResults.length);
+            for (int i = 0; i < TOTAL_RESULTS; ++i) {
+                assertEquals("uuid-" + i, searchResults[i].id);
+                assertEquals("product" + i, searchResults[i].title);
+                assertEquals(host + "/products/product" + i + ".zip", searchResults[i].url.toString());
+            }
+        }
+        // each page requested once
+        assertEquals(NUM_PAGES, numRequests.get());
+    }
+
+    @Test
+    public void testSearchResultIterator() throws Exception {
+        try (OpenSearch openSearch = new OpenSearch(host, "user", "password")) {
+            final OpenSearch.PageResult pageResult = openSearch.getPages(host + "/search?q=platformname:Sentinel-1");
+            numRequests.set(0);
+
+            try (OpenSearch.SearchResultIterator iterator = openSearch.getSearchResultIterator(pageResult)) {
+                assertTrue(iterator.hasNext());
+                assertEquals("uuid-0", iterator.next().id);
+
+                // only a bounded number of pages is requested ahead of the consumer
+                assertTrue(numRequests.get() <= 2);
+
+                int count = 1;
+                while (iterator.hasNext()) {
+                    assertEquals("uuid-" + count, iterator.next().id);
+                    ++count;
+                }
+                assertEquals(TOTAL_RESULTS, count);
+                assertFalse(iterator.hasNext());
+            }
+        }
+        // the first page is taken from the page result
+        assertEquals(NUM_PAGES - 1, numRequests.get());
+    }
+
+    @Test
+    public void testAbandonedIterator() throws Exception {
+        try (OpenSearch openSearch = new OpenSearch(host, "user", "password")) {
+            final OpenSearch.PageResult pageResult = openSearch.getPages(host + "/search?q=platformname:Sentinel-1");
+            numRequests.set(0);
+
+            // dropped without being closed after the first results
+            OpenSearch.SearchResultIterator iterator = openSearch.getSearchResultIterator(pageResult);
+            for (int i = 0; i < ROWS + 1; ++i) {
+                assertEquals("uuid-" + i, iterator.next().id);
+            }
+            iterator = null;
+
+            // no pages are requested beyond the read-ahead of the pages taken
+            Thread.sleep(500);
+            final int numAbandoned = numRequests.get();
+            assertTrue(numAbandoned <= 3);
+            Thread.sleep(500);
+            assertEquals(numAbandoned, numRequests.get());
+
+            // a closed iterator requests no further pages
+            try (OpenSearch.SearchResultIterator closed = openSearch.getSearchResultIterator(pageResult)) {
+                assertEquals("uuid-0", closed.next().id);
+            }
+            Thread.sleep(500);
+            assertTrue(numRequests.get() <= numAbandoned + 2);
+        }
+    }
+}
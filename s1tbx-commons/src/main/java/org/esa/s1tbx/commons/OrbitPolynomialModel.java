@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons;
+
+import org.esa.snap.engine_utilities.datamodel.OrbitStateVector;
+import org.esa.snap.engine_utilities.datamodel.PosVector;
+import org.esa.snap.engine_utilities.eo.Constants;
+
+import java.util.Arrays;
+
+/**
+ * Piecewise polynomial orbit model.
+ * <p>
+ * The orbit is split into segments, one per state vector interval. Each segment holds the polynomial coefficients
+ * of position and velocity in the normalised time u = (t - t_segment) / dt, so a query is a segment lookup and a
+ * Horner evaluation into caller supplied buffers without any allocation. The model is immutable and may be shared
+ * between threads.
+ */
+public final class OrbitPolynomialModel {
+
+    private static final int NUM_COMPONENTS = 6; // x, y, z position and x, y, z velocity
+
+    private final double firstTime;     // start of the first segment in days
+    private final double dt;            // segment length in days
+    private final int numSegments;
+    private final int numCoefficients;
+    private final double[] coefficients; // [segment][component][coefficient]
+
+    private OrbitPolynomialModel(final double firstTime, final double dt, final int numSegments,
+                                 final int numCoefficients, final double[] coefficients) {
+        this.firstTime = firstTime;
+        this.dt = dt;
+        this.numSegments = numSegments;
+        this.numCoefficients = numCoefficients;
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Create a model reproducing the Lagrange interpolation of {@link OrbitStateVectors}. For every state vector
+     * interval the Lagrange polynomial through the same window of state vectors is expanded once into monomial
+     * coefficients.
+     *
+     * @param orbitStateVectors state vectors in increasing time order without duplicates
+     * @param numPoints         number of state vectors used in each interpolation window
+     * @return the orbit model
+     */
+    public static OrbitPolynomialModel createLagrangeModel(final OrbitStateVector[] orbitStateVectors,
+                                                           final int numPoints) {
+
+        final int numVectors = orbitStateVectors.length;
+        final double[] times = new double[numVectors];
+        final double[][] stateVectors = new double[numVectors][];
+        for (int i = 0; i < numVectors; ++i) {
+            final OrbitStateVector osv = orbitStateVectors[i];
+            times[i] = osv.time_mjd;
+            stateVectors[i] = new double[]{osv.x_pos, osv.y_pos, osv.z_pos, osv.x_vel, osv.y_vel, osv.z_vel};
+        }
+        return createLagrangeModel(times, stateVectors, numPoints);
+    }
+
+    /**
+     * Create a Lagrange model from state vectors given as plain arrays.
+     * <p>
+     * An orbit file fit with a polynomial of degree numPoints - 1 through numPoints neighbouring state vectors is
+     * the same polynomial, so this also replaces a least squares fit solved for every query.
+     *
+     * @param times        state vector times in days (MJD), increasing and evenly spaced
+     * @param stateVectors x, y, z position and x, y, z velocity of each state vector
+     * @param numPoints    number of state vectors used in each interpolation window
+     * @return the orbit model
+     */
+    public static OrbitPolynomialModel createLagrangeModel(final double[] times, final double[][] stateVectors,
+                                                           final int numPoints) {
+
+        final int numVectors = times.length;
+        final double t0 = times[0];
+        final double dt = (times[numVectors - 1] - t0) / (numVectors - 1);
+        final int numCoef = Math.min(numPoints, numVectors);
+
+        final double[] coef = new double[numVectors * NUM_COMPONENTS * numCoef];
+        final double[] basis = new double[numCoef];
+        final double[] nodes = new double[numCoef];
+
+        for (int seg = 0; seg < numVectors; ++seg) {
+
+            // same window selection as the direct Lagrange interpolation
+            int i0, iN;
+            if (numVectors <= numPoints) {
+                i0 = 0;
+                iN = numVectors - 1;
+            } else {
+                i0 = Math.max(seg - numPoints / 2 + 1, 0);
+                iN = Math.min(i0 + numPoints - 1, numVectors - 1);
+                i0 = (iN < numVectors - 1 ? i0 : iN - numPoints + 1);
+            }
+
+            final double origin = t0 + seg * dt;
+            for (int j = 0; j < numCoef; ++j) {
+                nodes[j] = (times[i0 + j] - origin) / dt;
+            }
+
+            final int segOffset = seg * NUM_COMPONENTS * numCoef;
+            for (int j = 0; j < numCoef; ++j) {
+                lagrangeBasis(nodes, j, basis);
+
+                final double[] values = stateVectors[i0 + j];
+                for (int c = 0; c < NUM_COMPONENTS; ++c) {
+                    final int offset = segOffset + c * numCoef;
+                    for (int k = 0; k < numCoef; ++k) {
+                        coef[offset + k] += basis[k] * values[c];
+                    }
+                }
+            }
+        }
+
+        return new OrbitPolynomialModel(t0, dt, numVectors, numCoef, coef);
+    }
+
+    /**
+     * Monomial coefficients, lowest order first, of the j-th Lagrange basis polynomial over the given nodes.
+     */
+    private static void lagrangeBasis(final double[] nodes, final int j, final double[] basis) {
+
+        final int n = nodes.length;
+        Arrays.fill(basis, 0.0);
+        basis[0] = 1.0;
+        int degree = 0;
+        double denominator = 1.0;
+        for (int m = 0; m < n; ++m) {
+            if (m == j) {
+                continue;
+            }
+            // multiply by (u - nodes[m])
+            for (int k = degree + 1; k > 0; --k) {
+                basis[k] = basis[k - 1] - nodes[m] * basis[k];
+            }
+            basis[0] = -nodes[m] * basis[0];
+            ++degree;
+            denominator *= nodes[j] - nodes[m];
+        }
+        for (int k = 0; k < n; ++k) {
+            basis[k] /= denominator;
+        }
+    }
+
+    public double getFirstTime() {
+        return firstTime;
+    }
+
+    public double getLastTime() {
+        return firstTime + (numSegments - 1) * dt;
+    }
+
+    /**
+     * Interpolate the sensor position.
+     *
+     * @param time     the time in days (MJD)
+     * @param position the position buffer to fill
+     * @return the position buffer
+     */
+    public PosVector getPosition(final double time, final PosVector position) {
+
+        final int seg = getSegment(time);
+        final double u = (time - (firstTime + seg * dt)) / dt;
+        final int offset = seg * NUM_COMPONENTS * numCoefficients;
+
+        position.x = evaluate(offset, u);
+        position.y = evaluate(offset + numCoefficients, u);
+        position.z = evaluate(offset + 2 * numCoefficients, u);
+        return position;
+    }
+
+    /**
+     * Interpolate the sensor velocity.
+     *
+     * @param time     the time in days (MJD)
+     * @param velocity the velocity buffer to fill
+     * @return the velocity buffer
+     */
+    public PosVector getVelocity(final double time, final PosVector velocity) {
+
+        final int seg = getSegment(time);
+        final double u = (time - (firstTime + seg * dt)) / dt;
+        final int offset = seg * NUM_COMPONENTS * numCoefficients;
+
+        velocity.x = evaluate(offset + 3 * numCoefficients, u);
+        velocity.y = evaluate(offset + 4 * numCoefficients, u);
+        velocity.z = evaluate(offset + 5 * numCoefficients, u);
+        return velocity;
+    }
+
+    /**
+     * Interpolate the sensor position and velocity.
+     *
+     * @param time     the time in days (MJD)
+     * @param position the position buffer to fill
+     * @param velocity the velocity buffer to fill
+     */
+    public void getPositionVelocity(final double time, final PosVector position, final PosVector velocity) {
+
+        final int seg = getSegment(time);
+        final double u = (time - (firstTime + seg * dt)) / dt;
+        final int offset = seg * NUM_COMPONENTS * numCoefficients;
+
+        position.x = evaluate(offset, u);
+        position.y = evaluate(offset + numCoefficients, u);
+        position.z = evaluate(offset + 2 * numCoefficients, u);
+        velocity.x = evaluate(offset + 3 * numCoefficients, u);
+        velocity.y = evaluate(offset + 4 * numCoefficients, u);
+        velocity.z = evaluate(offset + 5 * numCoefficients, u);
+    }
+
+    /**
+     * Interpolate the full state vector.
+     *
+     * @param time        the time in days (MJD)
+     * @param stateVector the buffer to fill with x, y, z position and x, y, z velocity
+     * @return the state vector buffer
+     */
+    public double[] getStateVector(final double time, final double[] stateVector) {
+
+        final int seg = getSegment(time);
+        final double u = (time - (firstTime + seg * dt)) / dt;
+        final int offset = seg * NUM_COMPONENTS * numCoefficients;
+
+        for (int c = 0; c < NUM_COMPONENTS; ++c) {
+            stateVector[c] = evaluate(offset + c * numCoefficients, u);
+        }
+        return stateVector;
+    }
+
+    /**
+     * Sensor acceleration from the derivative of the velocity polynomial.
+     *
+     * @param time         the time in days (MJD)
+     * @param acceleration the acceleration buffer to fill in m/s^2
+     * @return the acceleration buffer
+     */
+    public PosVector getAcceleration(final double time, final PosVector acceleration) {
+
+        final int seg = getSegment(time);
+        final double u = (time - (firstTime + seg * dt)) / dt;
+        final int offset = seg * NUM_COMPONENTS * numCoefficients;
+        final double scale = 1.0 / (dt * Constants.secondsInDay);
+
+        acceleration.x = evaluateDerivative(offset + 3 * numCoefficients, u) * scale;
+        acceleration.y = evaluateDerivative(offset + 4 * numCoefficients, u) * scale;
+        acceleration.z = evaluateDerivative(offset + 5 * numCoefficients, u) * scale;
+        return acceleration;
+    }
+
+    private int getSegment(final double time) {
+        final int seg = (int) ((time - firstTime) / dt);
+        return seg < 0 ? 0 : (seg >= numSegments ? numSegments - 1 : seg);
+    }
+
+    private double evaluate(final int offset, final double u) {
+        double result = coefficients[offset + numCoefficients - 1];
+        for (int k = numCoefficients - 2; k >= 0; --k) {
+            result = result * u + coefficients[offset + k];
+        }
+        return result;
+    }
+
+    private double evaluateDerivative(final int offset, final double u) {
+        double result = 0.0;
+        for (int k = numCoefficients - 1; k >= 1; --k) {
+            result = result * u + k * coefficients[offset + k];
+        }
+        return result;
+    }
+}
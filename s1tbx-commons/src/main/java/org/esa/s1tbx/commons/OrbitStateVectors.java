@@ -2,22 +2,30 @@ package org.esa.s1tbx.commons;
 
 import org.esa.snap.engine_utilities.datamodel.OrbitStateVector;
 import org.esa.snap.engine_utilities.datamodel.PosVector;
+import org.esa.snap.runtime.Config;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 public final class OrbitStateVectors {
 
+    public static final String LAGRANGE_INTERPOLATION = "Lagrange";
+    public static final String POLYNOMIAL_INTERPOLATION = "Precomputed Polynomial";
+
     public OrbitStateVector[] orbitStateVectors = null;
     public PosVector[] sensorPosition = null; // sensor position for all range lines
     public PosVector[] sensorVelocity = null; // sensor velocity for all range lines
     private double dt = 0.0;
-    private final Map<Double, PositionVelocity> timeMap = new HashMap<>();
+    private final PositionVelocityCache cache;
+    private OrbitPolynomialModel polynomialModel = null;
 
     private static final int nv = 8;
 
+    private static final int DEFAULT_CACHE_SIZE =
+            Config.instance().preferences().getInt("s1tbx.orbit.interpolationCacheSize", 4096);
+
     public OrbitStateVectors(final OrbitStateVector[] orbitStateVectors,
                              final double firstLineUTC, final double lineTimeInterval, final int sourceImageHeight) {
 
@@ -25,23 +33,33 @@ public final class OrbitStateVectors {
 
         this.dt = (this.orbitStateVectors[this.orbitStateVectors.length - 1].time_mjd -
                 this.orbitStateVectors[0].time_mjd) / (this.orbitStateVectors.length - 1);
+        this.cache = new PositionVelocityCache(DEFAULT_CACHE_SIZE, dt);
 
         this.sensorPosition = new PosVector[sourceImageHeight];
         this.sensorVelocity = new PosVector[sourceImageHeight];
         for (int i = 0; i < sourceImageHeight; i++) {
             final double time = firstLineUTC + i * lineTimeInterval;
-            PositionVelocity pv = getPositionVelocity(time);
+            final PositionVelocity pv = interpolatePositionVelocity(time);
             sensorPosition[i] = pv.position;
             sensorVelocity[i] = pv.velocity;
         }
     }
 
     public OrbitStateVectors(final OrbitStateVector[] orbitStateVectors) {
+        this(orbitStateVectors, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param orbitStateVectors the orbit state vectors
+     * @param cacheSize         maximum number of interpolated position/velocity entries kept, 0 to disable caching
+     */
+    public OrbitStateVectors(final OrbitStateVector[] orbitStateVectors, final int cacheSize) {
 
         this.orbitStateVectors = removeRedundantVectors(orbitStateVectors);
 
-        this.dt = (this.orbitStateVectors[orbitStateVectors.length - 1].time_mjd -
+        this.dt = (this.orbitStateVectors[this.orbitStateVectors.length - 1].time_mjd -
                 this.orbitStateVectors[0].time_mjd) / (this.orbitStateVectors.length - 1);
+        this.cache = new PositionVelocityCache(cacheSize, dt);
     }
 
     private static OrbitStateVector[] removeRedundantVectors(OrbitStateVector[] orbitStateVectors) {
@@ -61,13 +79,96 @@ public final class OrbitStateVectors {
         return vectorList.toArray(new OrbitStateVector[0]);
     }
 
-    public PositionVelocity getPositionVelocity(final Double time) {
-
-        PositionVelocity cachedPosVel = timeMap.get(time);
-        if(cachedPosVel != null) {
+    /**
+     * Get the interpolated sensor position and velocity at the given time. Results are memoized in a bounded
+     * cache shared by all threads, so the returned object must not be modified.
+     * <p>
+     * The time was a {@code Double} before the cache was bounded. Callers passing a {@code Double} still compile
+     * through unboxing but must be recompiled, and a null time now throws a NullPointerException at the caller.
+     *
+     * @param time the time in days (MJD)
+     * @return the sensor position and velocity
+     */
+    public PositionVelocity getPositionVelocity(final double time) {
+
+        final PositionVelocity cachedPosVel = cache.get(time);
+        if (cachedPosVel != null) {
             return cachedPosVel;
         }
 
+        final PositionVelocity pv = interpolatePositionVelocity(time);
+        cache.put(time, pv);
+        return pv;
+    }
+
+    /**
+     * Get the interpolated sensor position and velocity at the given time into caller supplied buffers.
+     *
+     * @param time     the time in days (MJD)
+     * @param position the position buffer to fill
+     * @param velocity the velocity buffer to fill
+     */
+    public void getPositionVelocity(final double time, final PosVector position, final PosVector velocity) {
+
+        if (polynomialModel != null) {
+            polynomialModel.getPositionVelocity(time, position, velocity);
+            return;
+        }
+
+        final PositionVelocity pv = getPositionVelocity(time);
+        position.x = pv.position.x;
+        position.y = pv.position.y;
+        position.z = pv.position.z;
+        velocity.x = pv.velocity.x;
+        velocity.y = pv.velocity.y;
+        velocity.z = pv.velocity.z;
+    }
+
+    /**
+     * Select the orbit interpolation method. With {@link #POLYNOMIAL_INTERPOLATION} the Lagrange polynomials are
+     * expanded once per state vector interval and evaluated without allocation.
+     *
+     * @param method LAGRANGE_INTERPOLATION or POLYNOMIAL_INTERPOLATION
+     */
+    public void setInterpolationMethod(final String method) {
+        if (POLYNOMIAL_INTERPOLATION.equals(method)) {
+            polynomialModel = OrbitPolynomialModel.createLagrangeModel(orbitStateVectors, nv);
+        } else {
+            polynomialModel = null;
+        }
+        cache.clear();
+    }
+
+    /**
+     * @return the precomputed polynomial model or null if Lagrange interpolation is used
+     */
+    public OrbitPolynomialModel getPolynomialModel() {
+        return polynomialModel;
+    }
+
+    public long getCacheHits() {
+        return cache.hits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cache.misses.sum();
+    }
+
+    /**
+     * @return the number of position/velocity entries currently held by the cache
+     */
+    int getCachedEntryCount() {
+        return cache.size();
+    }
+
+    private PositionVelocity interpolatePositionVelocity(final double time) {
+
+        if (polynomialModel != null) {
+            final PositionVelocity pv = new PositionVelocity();
+            polynomialModel.getPositionVelocity(time, pv.position, pv.velocity);
+            return pv;
+        }
+
         int i0, iN;
         if (orbitStateVectors.length <= nv) {
             i0 = 0;
@@ -100,13 +201,15 @@ public final class OrbitStateVectors {
             pv.velocity.y += weight * orbI.y_vel;
             pv.velocity.z += weight * orbI.z_vel;
         }
-
-        timeMap.put(time, pv);
         return pv;
     }
 
     PosVector getPosition(final double time, final PosVector position) {
 
+        if (polynomialModel != null) {
+            return polynomialModel.getPosition(time, position);
+        }
+
         int i0, iN;
         if (orbitStateVectors.length <= nv) {
             i0 = 0;
@@ -141,6 +244,10 @@ public final class OrbitStateVectors {
 
     PosVector getVelocity(final double time) {
 
+        if (polynomialModel != null) {
+            return polynomialModel.getVelocity(time, new PosVector());
+        }
+
         int i0, iN;
         if (orbitStateVectors.length <= nv) {
             i0 = 0;
@@ -218,4 +325,90 @@ public final class OrbitStateVectors {
         public final PosVector position = new PosVector();
         public final PosVector velocity = new PosVector();
     }
+
+    /**
+     * Fixed size, direct mapped cache of interpolated position/velocity. Slots are selected from the query time
+     * quantized to a fraction of the state vector interval and replaced on collision, so memory stays bounded.
+     * Entries are immutable and published through an AtomicReferenceArray, so no locking is needed.
+     */
+    private static final class PositionVelocityCache {
+
+        private static final double QUANTA_PER_INTERVAL = 1.0e6;
+
+        private final AtomicReferenceArray<Entry> entries;
+        private final int mask;
+        private final double scale;
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+
+        PositionVelocityCache(final int size, final double dt) {
+            if (size > 0) {
+                final int capacity = Integer.highestOneBit(Math.min(size, 1 << 29) * 2 - 1);
+                this.entries = new AtomicReferenceArray<>(capacity);
+                this.mask = capacity - 1;
+            } else {
+                this.entries = null;
+                this.mask = 0;
+            }
+            this.scale = dt > 0.0 ? QUANTA_PER_INTERVAL / dt : QUANTA_PER_INTERVAL;
+        }
+
+        PositionVelocity get(final double time) {
+            if (entries == null) {
+                misses.increment();
+                return null;
+            }
+            final Entry entry = entries.get(slot(time));
+            if (entry != null && entry.time == time) {
+                hits.increment();
+                return entry.pv;
+            }
+            misses.increment();
+            return null;
+        }
+
+        void put(final double time, final PositionVelocity pv) {
+            if (entries != null) {
+                entries.set(slot(time), new Entry(time, pv));
+            }
+        }
+
+        int size() {
+            int size = 0;
+            if (entries != null) {
+                for (int i = 0; i < entries.length(); ++i) {
+                    if (entries.get(i) != null) {
+                        ++size;
+                    }
+                }
+            }
+            return size;
+        }
+
+        void clear() {
+            if (entries != null) {
+                for (int i = 0; i < entries.length(); ++i) {
+                    entries.set(i, null);
+                }
+            }
+        }
+
+        private int slot(final double time) {
+            long key = (long) Math.floor(time * scale);
+            key ^= (key >>> 33);
+            key *= 0xff51afd7ed558ccdL;
+            key ^= (key >>> 33);
+            return (int) key & mask;
+        }
+
+        private static final class Entry {
+            final double time;
+            final PositionVelocity pv;
+
+            Entry(final double time, final PositionVelocity pv) {
+                this.time = time;
+                this.pv = pv;
+            }
+        }
+    }
 }
@@ -108,6 +108,134 @@ public final class SARGeocoding {
         return firstLineUTC + y0 * lineTimeInterval;
     }
 
+    /**
+     * Compute zero Doppler times for a row of earth points. Neighbouring points have nearly identical zero Doppler
+     * times, so the search for each point starts from the range line found for the previous valid point and widens
+     * the bracket from there instead of bisecting the whole orbit. The results are the same as those of
+     * {@link #getEarthPointZeroDopplerTime}.
+     *
+     * @param firstLineUTC     The zero Doppler time for the first range line.
+     * @param lineTimeInterval The line time interval.
+     * @param wavelength       The radar wavelength.
+     * @param earthX           The earth point x coordinates, NaN for points to skip.
+     * @param earthY           The earth point y coordinates.
+     * @param earthZ           The earth point z coordinates.
+     * @param numPoints        The number of points to process.
+     * @param sensorPosition   Array of sensor positions for all range lines.
+     * @param sensorVelocity   Array of sensor velocities for all range lines.
+     * @param zeroDopplerTimes The zero Doppler times in days, NonValidZeroDopplerTime where none is found.
+     */
+    public static void getEarthPointZeroDopplerTimes(final double firstLineUTC,
+                                                     final double lineTimeInterval, final double wavelength,
+                                                     final double[] earthX, final double[] earthY, final double[] earthZ,
+                                                     final int numPoints, final PosVector[] sensorPosition,
+                                                     final PosVector[] sensorVelocity, final double[] zeroDopplerTimes) {
+
+        int guess = -1;
+        for (int i = 0; i < numPoints; ++i) {
+            if (Double.isNaN(earthX[i])) {
+                zeroDopplerTimes[i] = NonValidZeroDopplerTime;
+                continue;
+            }
+
+            final double y0 = getZeroDopplerLineIndex(earthX[i], earthY[i], earthZ[i],
+                    sensorPosition, sensorVelocity, wavelength, guess);
+            if (y0 < 0.0) {
+                zeroDopplerTimes[i] = NonValidZeroDopplerTime;
+                continue;
+            }
+
+            guess = (int) y0;
+            zeroDopplerTimes[i] = firstLineUTC + y0 * lineTimeInterval;
+        }
+    }
+
+    /**
+     * Find the fractional range line of zero Doppler for an earth point, starting the search at a given line.
+     *
+     * @return the line index or -1 if the point is not seen by the sensor.
+     */
+    private static double getZeroDopplerLineIndex(final double ex, final double ey, final double ez,
+                                                  final PosVector[] sensorPosition, final PosVector[] sensorVelocity,
+                                                  final double wavelength, final int guess) {
+
+        final int lastLine = sensorPosition.length - 1;
+        int lowerBound = 0;
+        int upperBound = lastLine;
+        double lowerBoundFreq = getDopplerFrequency(
+                ex, ey, ez, sensorPosition[lowerBound], sensorVelocity[lowerBound], wavelength);
+        double upperBoundFreq = getDopplerFrequency(
+                ex, ey, ez, sensorPosition[upperBound], sensorVelocity[upperBound], wavelength);
+
+        if (Math.abs(lowerBoundFreq) < 1.0) {
+            return lowerBound;
+        } else if (Math.abs(upperBoundFreq) < 1.0) {
+            return upperBound;
+        } else if (lowerBoundFreq * upperBoundFreq > 0.0) {
+            return -1.0;
+        }
+
+        // gallop away from the warm start line until the sign of the Doppler frequency changes
+        if (guess > 0 && guess < lastLine) {
+            final double guessFreq = getDopplerProjection(ex, ey, ez, sensorPosition[guess], sensorVelocity[guess]);
+            if (guessFreq * lowerBoundFreq > 0.0) {
+                lowerBound = guess;
+                lowerBoundFreq = guessFreq;
+                int step = 1;
+                while (lowerBound + step < lastLine) {
+                    final int line = lowerBound + step;
+                    final double freq = getDopplerProjection(ex, ey, ez, sensorPosition[line], sensorVelocity[line]);
+                    if (freq * lowerBoundFreq > 0.0) {
+                        lowerBound = line;
+                        lowerBoundFreq = freq;
+                        step <<= 1;
+                    } else {
+                        upperBound = line;
+                        upperBoundFreq = freq;
+                        break;
+                    }
+                }
+            } else {
+                upperBound = guess;
+                upperBoundFreq = guessFreq;
+                int step = 1;
+                while (upperBound - step > 0) {
+                    final int line = upperBound - step;
+                    final double freq = getDopplerProjection(ex, ey, ez, sensorPosition[line], sensorVelocity[line]);
+                    if (freq * lowerBoundFreq > 0.0) {
+                        lowerBound = line;
+                        lowerBoundFreq = freq;
+                        break;
+                    } else {
+                        upperBound = line;
+                        upperBoundFreq = freq;
+                        step <<= 1;
+                    }
+                }
+            }
+        }
+
+        // binary search within the bracket
+        double midFreq;
+        while (upperBound - lowerBound > 1) {
+
+            final int mid = (lowerBound + upperBound) >>> 1;
+            midFreq = getDopplerProjection(ex, ey, ez, sensorPosition[mid], sensorVelocity[mid]);
+
+            if (midFreq * lowerBoundFreq > 0.0) {
+                lowerBound = mid;
+                lowerBoundFreq = midFreq;
+            } else if (midFreq * upperBoundFreq > 0.0) {
+                upperBound = mid;
+                upperBoundFreq = midFreq;
+            } else if (Double.compare(midFreq, 0.0) == 0) {
+                return mid;
+            }
+        }
+
+        return lowerBound - lowerBoundFreq * (upperBound - lowerBound) / (upperBoundFreq - lowerBoundFreq);
+    }
+
     public static double getEarthPointZeroDopplerTimeNewton(
             final double lineTimeInterval, final double wavelength,
             final PosVector earthPoint, final OrbitStateVectors orbit) throws OperatorException {
@@ -131,8 +259,10 @@ public final class SARGeocoding {
         double oldTime, oldFreq;
         double newTime = (firstVecTime + lastVecTime) / 2.0, oldFreqDel;
 
-        OrbitStateVectors.PositionVelocity pv = orbit.getPositionVelocity(newTime);
-        double newFreq = getDopplerFrequency(earthPoint, pv.position, pv.velocity, wavelength);
+        final PosVector sensorPos = new PosVector();
+        final PosVector sensorVel = new PosVector();
+        orbit.getPositionVelocity(newTime, sensorPos, sensorVel);
+        double newFreq = getDopplerFrequency(earthPoint, sensorPos, sensorVel, wavelength);
 
         double d;
         int numIter = 0;
@@ -140,8 +270,8 @@ public final class SARGeocoding {
             oldTime = newTime;
             oldFreq = newFreq;
 
-            pv = orbit.getPositionVelocity(oldTime + lineTimeInterval);
-            oldFreqDel = getDopplerFrequency(earthPoint, pv.position, pv.velocity, wavelength);
+            orbit.getPositionVelocity(oldTime + lineTimeInterval, sensorPos, sensorVel);
+            oldFreqDel = getDopplerFrequency(earthPoint, sensorPos, sensorVel, wavelength);
 
             d = (oldFreqDel - oldFreq) / lineTimeInterval;
 
@@ -152,8 +282,8 @@ public final class SARGeocoding {
                 newTime = lastVecTime;
             }
 
-            pv = orbit.getPositionVelocity(newTime);
-            newFreq = getDopplerFrequency(earthPoint, pv.position, pv.velocity, wavelength);
+            orbit.getPositionVelocity(newTime, sensorPos, sensorVel);
+            newFreq = getDopplerFrequency(earthPoint, sensorPos, sensorVel, wavelength);
             numIter++;
         }
 
@@ -210,11 +340,13 @@ public final class SARGeocoding {
 
         final int totalIterations = (int)(diffTime/ absLineTimeInterval) + 1;
         int numIterations = 0;
+        final PosVector sensorPos = new PosVector();
+        final PosVector sensorVel = new PosVector();
         while (diffTime > absLineTimeInterval && numIterations <= totalIterations) {
 
             midTime = (upperBoundTime + lowerBoundTime) / 2.0;
-            OrbitStateVectors.PositionVelocity pv = orbit.getPositionVelocity(midTime);
-            midFreq = getDopplerFrequency(earthPoint, pv.position, pv.velocity, wavelength);
+            orbit.getPositionVelocity(midTime, sensorPos, sensorVel);
+            midFreq = getDopplerFrequency(earthPoint, sensorPos, sensorVel, wavelength);
 
             if (midFreq * lowerBoundFreq > 0.0) {
                 lowerBoundTime = midTime;
@@ -270,6 +402,29 @@ public final class SARGeocoding {
         return 2.0 * (sensorVelocity.x * xDiff + sensorVelocity.y * yDiff + sensorVelocity.z * zDiff) / (distance * wavelength);
     }
 
+    private static double getDopplerFrequency(final double ex, final double ey, final double ez,
+                                              final PosVector sensorPosition, final PosVector sensorVelocity,
+                                              final double wavelength) {
+
+        final double xDiff = ex - sensorPosition.x;
+        final double yDiff = ey - sensorPosition.y;
+        final double zDiff = ez - sensorPosition.z;
+        final double distance = Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
+
+        return 2.0 * (sensorVelocity.x * xDiff + sensorVelocity.y * yDiff + sensorVelocity.z * zDiff) / (distance * wavelength);
+    }
+
+    /**
+     * Projection of the sensor velocity on the line of sight, which has the sign of the Doppler frequency.
+     */
+    private static double getDopplerProjection(final double ex, final double ey, final double ez,
+                                               final PosVector sensorPosition, final PosVector sensorVelocity) {
+
+        return sensorVelocity.x * (ex - sensorPosition.x) +
+                sensorVelocity.y * (ey - sensorPosition.y) +
+                sensorVelocity.z * (ez - sensorPosition.z);
+    }
+
     /**
      * Compute Doppler frequency for given earthPoint and sensor position.
      *
@@ -566,20 +721,92 @@ public final class SARGeocoding {
             final boolean saveProjectedLocalIncidenceAngle, final boolean saveSigmaNought, final int x0,
             final int y0, final int x, final int y, final double[][] localDEM, final double[] localIncidenceAngles) {
 
-        // Note: For algorithm and notation of the following implementation, please see Andrea's email dated
-        //       May 29, 2009 and Marcus' email dated June 3, 2009, or see Eq (14.10) and Eq (14.11) on page
-        //       321 and 323 in "SAR Geocoding - Data and Systems".
-        //       The Cartesian coordinate (x, y, z) is represented here by a length-3 array with element[0]
-        //       representing x, element[1] representing y and element[2] representing z.
+        if (hasNoData(demNoDataValue, x0, y0, x, y, localDEM)) {
+            return;
+        }
+
+        computeLocalIncidenceAngle(lg.rightPointLat, lg.rightPointLon, lg.leftPointLat, lg.leftPointLon,
+                lg.upPointLat, lg.upPointLon, lg.downPointLat, lg.downPointLon, lg.centrePoint, lg.sensorPos,
+                saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle, saveSigmaNought, x0, y0, x, y, localDEM,
+                localIncidenceAngles, new LocalIncidenceAngleWorkspace());
+    }
 
+    /**
+     * Compute local and projected local incidence angles (in degree) like
+     * {@link #computeLocalIncidenceAngle(LocalGeometry, Double, boolean, boolean, boolean, int, int, int, int, double[][], double[])}
+     * but without allocating. The neighbouring geo positions are read from the tile georeferencing into the
+     * workspace, which must not be shared between threads.
+     *
+     * @param tileGeoRef                       The tile georeferencing of the target tile.
+     * @param centrePoint                      The earth point of the current pixel in xyz coordinate.
+     * @param sensorPos                        The sensor position for the current pixel.
+     * @param demNoDataValue                   The DEM no data value.
+     * @param saveLocalIncidenceAngle          Boolean flag indicating saving local incidence angle.
+     * @param saveProjectedLocalIncidenceAngle Boolean flag indicating saving projected local incidence angle.
+     * @param saveSigmaNought                  Boolean flag indicating applying radiometric calibration.
+     * @param x0                               The x coordinate of the pixel at the upper left corner of current tile.
+     * @param y0                               The y coordinate of the pixel at the upper left corner of current tile.
+     * @param x                                The x coordinate of the current pixel.
+     * @param y                                The y coordinate of the current pixel.
+     * @param localDEM                         The local DEM.
+     * @param localIncidenceAngles             The local incidence angle and projected local incidence angle.
+     * @param workspace                        Reusable working storage.
+     */
+    public static void computeLocalIncidenceAngle(
+            final TileGeoreferencing tileGeoRef, final PosVector centrePoint, final PosVector sensorPos,
+            final double demNoDataValue, final boolean saveLocalIncidenceAngle,
+            final boolean saveProjectedLocalIncidenceAngle, final boolean saveSigmaNought, final int x0,
+            final int y0, final int x, final int y, final double[][] localDEM, final double[] localIncidenceAngles,
+            final LocalIncidenceAngleWorkspace workspace) {
+
+        if (hasNoData(demNoDataValue, x0, y0, x, y, localDEM)) {
+            return;
+        }
+
+        final GeoPos geo = workspace.geo;
+        tileGeoRef.getGeoPos(x + 1, y, geo);
+        final double rightPointLat = geo.lat, rightPointLon = geo.lon;
+        tileGeoRef.getGeoPos(x - 1, y, geo);
+        final double leftPointLat = geo.lat, leftPointLon = geo.lon;
+        tileGeoRef.getGeoPos(x, y - 1, geo);
+        final double upPointLat = geo.lat, upPointLon = geo.lon;
+        tileGeoRef.getGeoPos(x, y + 1, geo);
+        final double downPointLat = geo.lat, downPointLon = geo.lon;
+
+        computeLocalIncidenceAngle(rightPointLat, rightPointLon, leftPointLat, leftPointLon,
+                upPointLat, upPointLon, downPointLat, downPointLon, centrePoint, sensorPos,
+                saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle, saveSigmaNought, x0, y0, x, y, localDEM,
+                localIncidenceAngles, workspace);
+    }
+
+    private static boolean hasNoData(final double demNoDataValue, final int x0, final int y0, final int x,
+                                     final int y, final double[][] localDEM) {
         for (int i = 0; i < 3; i++) {
-            final int yy = y - y0 + i;
+            final double[] demRow = localDEM[y - y0 + i];
             for (int j = 0; j < 3; j++) {
-                if (demNoDataValue.equals(localDEM[yy][x - x0 + j])) {
-                    return;
+                if (Double.compare(demNoDataValue, demRow[x - x0 + j]) == 0) {
+                    return true;
                 }
             }
         }
+        return false;
+    }
+
+    /**
+     * The local incidence angles from the geo positions of the neighbouring pixels, shared by both overloads above.
+     */
+    private static void computeLocalIncidenceAngle(
+            final double rightPointLat, final double rightPointLon, final double leftPointLat,
+            final double leftPointLon, final double upPointLat, final double upPointLon, final double downPointLat,
+            final double downPointLon, final PosVector centrePoint, final PosVector sensorPos,
+            final boolean saveLocalIncidenceAngle, final boolean saveProjectedLocalIncidenceAngle,
+            final boolean saveSigmaNought, final int x0, final int y0, final int x, final int y,
+            final double[][] localDEM, final double[] localIncidenceAngles,
+            final LocalIncidenceAngleWorkspace workspace) {
+
+        // Note: For algorithm and notation of the following implementation, please see Andrea's email dated
+        //       May 29, 2009 and Marcus' email dated June 3, 2009, or see Eq (14.10) and Eq (14.11) on page
+        //       321 and 323 in "SAR Geocoding - Data and Systems".
 
         final int yy = y - y0;
         final int xx = x - x0;
@@ -599,53 +826,78 @@ public final class SARGeocoding {
                 localDEM[yy + 2][xx + 1] +
                 localDEM[yy + 2][xx + 2]) / 3.0;
 
-        final PosVector rightPoint = new PosVector();
-        final PosVector leftPoint = new PosVector();
-        final PosVector upPoint = new PosVector();
-        final PosVector downPoint = new PosVector();
-
-        GeoUtils.geo2xyzWGS84(lg.rightPointLat, lg.rightPointLon, rightPointHeight, rightPoint);
-        GeoUtils.geo2xyzWGS84(lg.leftPointLat, lg.leftPointLon, leftPointHeight, leftPoint);
-        GeoUtils.geo2xyzWGS84(lg.upPointLat, lg.upPointLon, upPointHeight, upPoint);
-        GeoUtils.geo2xyzWGS84(lg.downPointLat, lg.downPointLon, downPointHeight, downPoint);
-
-        final PosVector a = new PosVector(rightPoint.x - leftPoint.x, rightPoint.y - leftPoint.y, rightPoint.z - leftPoint.z);
-        final PosVector b = new PosVector(downPoint.x - upPoint.x, downPoint.y - upPoint.y, downPoint.z - upPoint.z);
-        final PosVector c = new PosVector(lg.centrePoint.x, lg.centrePoint.y, lg.centrePoint.z);
-
-        final PosVector n = new PosVector(
-                a.y * b.z - a.z * b.y,
-                a.z * b.x - a.x * b.z,
-                a.x * b.y - a.y * b.x); // ground plane normal
-
-        Maths.normalizeVector(n);
-        if (Maths.innerProduct(n, c) < 0) {
-            n.x = -n.x;
-            n.y = -n.y;
-            n.z = -n.z;
+        final PosVector rightPoint = workspace.rightPoint;
+        final PosVector leftPoint = workspace.leftPoint;
+        final PosVector upPoint = workspace.upPoint;
+        final PosVector downPoint = workspace.downPoint;
+
+        GeoUtils.geo2xyzWGS84(rightPointLat, rightPointLon, rightPointHeight, rightPoint);
+        GeoUtils.geo2xyzWGS84(leftPointLat, leftPointLon, leftPointHeight, leftPoint);
+        GeoUtils.geo2xyzWGS84(upPointLat, upPointLon, upPointHeight, upPoint);
+        GeoUtils.geo2xyzWGS84(downPointLat, downPointLon, downPointHeight, downPoint);
+
+        final double ax = rightPoint.x - leftPoint.x, ay = rightPoint.y - leftPoint.y, az = rightPoint.z - leftPoint.z;
+        final double bx = downPoint.x - upPoint.x, by = downPoint.y - upPoint.y, bz = downPoint.z - upPoint.z;
+        final double cx = centrePoint.x, cy = centrePoint.y, cz = centrePoint.z;
+
+        // ground plane normal
+        double nx = ay * bz - az * by;
+        double ny = az * bx - ax * bz;
+        double nz = ax * by - ay * bx;
+        final double nNorm = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        nx /= nNorm;
+        ny /= nNorm;
+        nz /= nNorm;
+        if (nx * cx + ny * cy + nz * cz < 0) {
+            nx = -nx;
+            ny = -ny;
+            nz = -nz;
         }
 
-        final PosVector s = new PosVector(
-                lg.sensorPos.x - lg.centrePoint.x,
-                lg.sensorPos.y - lg.centrePoint.y,
-                lg.sensorPos.z - lg.centrePoint.z);
-        Maths.normalizeVector(s);
+        double sx = sensorPos.x - cx;
+        double sy = sensorPos.y - cy;
+        double sz = sensorPos.z - cz;
+        final double sNorm = Math.sqrt(sx * sx + sy * sy + sz * sz);
+        sx /= sNorm;
+        sy /= sNorm;
+        sz /= sNorm;
 
         if (saveLocalIncidenceAngle) { // local incidence angle
-            final double nsInnerProduct = Maths.innerProduct(n, s);
-            localIncidenceAngles[0] = FastMath.acos(nsInnerProduct) * Constants.RTOD;
+            localIncidenceAngles[0] = FastMath.acos(nx * sx + ny * sy + nz * sz) * Constants.RTOD;
         }
 
         if (saveProjectedLocalIncidenceAngle || saveSigmaNought) { // projected local incidence angle
-            final PosVector m = new PosVector(s.y * c.z - s.z * c.y, s.z * c.x - s.x * c.z, s.x * c.y - s.y * c.x); // range plane normal
-            Maths.normalizeVector(m);
-            final double mnInnerProduct = Maths.innerProduct(m, n);
-            final PosVector n1 = new PosVector(n.x - m.x * mnInnerProduct, n.y - m.y * mnInnerProduct, n.z - m.z * mnInnerProduct);
-            Maths.normalizeVector(n1);
-            localIncidenceAngles[1] = FastMath.acos(Maths.innerProduct(n1, s)) * Constants.RTOD;
+            // range plane normal
+            double mx = sy * cz - sz * cy;
+            double my = sz * cx - sx * cz;
+            double mz = sx * cy - sy * cx;
+            final double mNorm = Math.sqrt(mx * mx + my * my + mz * mz);
+            mx /= mNorm;
+            my /= mNorm;
+            mz /= mNorm;
+            final double mnInnerProduct = mx * nx + my * ny + mz * nz;
+            double n1x = nx - mx * mnInnerProduct;
+            double n1y = ny - my * mnInnerProduct;
+            double n1z = nz - mz * mnInnerProduct;
+            final double n1Norm = Math.sqrt(n1x * n1x + n1y * n1y + n1z * n1z);
+            n1x /= n1Norm;
+            n1y /= n1Norm;
+            n1z /= n1Norm;
+            localIncidenceAngles[1] = FastMath.acos(n1x * sx + n1y * sy + n1z * sz) * Constants.RTOD;
         }
     }
 
+    /**
+     * Working storage for the allocation-free local incidence angle computation. Not thread safe.
+     */
+    public static final class LocalIncidenceAngleWorkspace {
+        final GeoPos geo = new GeoPos();
+        final PosVector rightPoint = new PosVector();
+        final PosVector leftPoint = new PosVector();
+        final PosVector upPoint = new PosVector();
+        final PosVector downPoint = new PosVector();
+    }
+
     public static void computeLocalIncidenceAngle(
             final LocalGeometry lg, final double demNoDataValue, final boolean saveLocalIncidenceAngle,
             final boolean saveProjectedLocalIncidenceAngle, final boolean saveSigmaNought, final int x0,
@@ -36,6 +36,7 @@
 package org.esa.s1tbx.commons.io;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 
@@ -866,9 +867,7 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      * @throws IOException _more_
      */
     public void readShort(short[] pa, int start, int n) throws IOException {
-        for (int i = start, end = n + start; i < end; i++) {
-            pa[i] = readShort();
-        }
+        readBulk(n * 2).asShortBuffer().get(pa, start, n);
     }
 
     /**
@@ -1020,9 +1019,7 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      * @throws IOException  if an I/O error occurs.
      */
     public void readInt(int[] pa, int start, int n) throws IOException {
-        for (int i = start, end = n + start; i < end; i++) {
-            pa[i] = readInt();
-        }
+        readBulk(n * 4).asIntBuffer().get(pa, start, n);
     }
 
     /**
@@ -1083,9 +1080,7 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      * @throws IOException _more_
      */
     public void readLong(long[] pa, int start, int n) throws IOException {
-        for (int i = start, end = n + start; i < end; i++) {
-            pa[i] = readLong();
-        }
+        readBulk(n * 8).asLongBuffer().get(pa, start, n);
     }
 
     /**
@@ -1117,9 +1112,7 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      * @throws IOException _more_
      */
     public void readFloat(float[] pa, int start, int n) throws IOException {
-        for (int i = start, end = n + start; i < end; i++) {
-            pa[i] = Float.intBitsToFloat(readInt());
-        }
+        readBulk(n * 4).asFloatBuffer().get(pa, start, n);
     }
 
     /**
@@ -1151,9 +1144,21 @@ public final class EnhancedRandomAccessFile implements DataInput, DataOutput {
      * @throws IOException _more_
      */
     public void readDouble(double[] pa, int start, int n) throws IOException {
-        for (int i = start, end = n + start; i < end; i++) {
-            pa[i] = Double.longBitsToDouble(readLong());
-        }
+        readBulk(n * 8).asDoubleBuffer().get(pa, start, n);
+    }
+
+    /**
+     * Read a block of bytes for the bulk primitive readers
+     *
+     * @param nbytes number of bytes
+     * @return the bytes wrapped in the byte order of this eraf
+     * @throws EOFException if this eraf reaches the end before reading all bytes.
+     * @throws IOException  if an I/O error occurs.
+     */
+    private ByteBuffer readBulk(final int nbytes) throws IOException {
+        final byte[] b = new byte[nbytes];
+        readFully(b, 0, nbytes);
+        return ByteBuffer.wrap(b).order(getByteOrder());
     }
 
     /**
@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.commons.io;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read only ImageInputStream on a FileChannel, as an alternative to FileImageInputStreamExtImpl.
+ * <p>
+ * In POSITIONAL mode the stream keeps a read buffer but bulk reads of primitive arrays go straight to the file.
+ * In MAPPED mode the file is mapped in windows and all reads are copies out of the mapping.
+ * <p>
+ * Besides the sequential stream interface, which like any ImageInputStream is for one thread at a time,
+ * the readAt methods read at an absolute position without touching the stream position. They may be called
+ * from any number of threads at once.
+ */
+public final class FileChannelImageInputStream extends ImageInputStreamImpl {
+
+    public enum Mode {POSITIONAL, MAPPED}
+
+    private static final int BUFFER_SIZE = 65536;
+    private static final long WINDOW_SIZE = 256L * 1024L * 1024L;
+
+    private final File file;
+    private final FileChannel channel;
+    private final Mode mode;
+    private final long length;
+
+    // POSITIONAL mode read buffer
+    private final ByteBuffer buffer;
+    private long bufferStart = 0;
+
+    // MAPPED mode windows, mapped on first use
+    private final AtomicReferenceArray<MappedByteBuffer> windows;
+
+    private boolean isClosed = false;
+
+    public FileChannelImageInputStream(final File file, final Mode mode) throws IOException {
+        this.file = file;
+        this.mode = mode;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.length = channel.size();
+
+        if (mode == Mode.MAPPED) {
+            this.buffer = null;
+            this.windows = new AtomicReferenceArray<>((int) ((length + WINDOW_SIZE - 1) / WINDOW_SIZE));
+        } else {
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            this.buffer.limit(0);
+            this.windows = null;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public boolean isCached() {
+        return false;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        final int value;
+        if (mode == Mode.MAPPED) {
+            value = getWindow(streamPos).get((int) (streamPos % WINDOW_SIZE)) & 0xFF;
+        } else {
+            if (streamPos < bufferStart || streamPos >= bufferStart + buffer.limit()) {
+                fillBuffer(streamPos);
+            }
+            value = buffer.get((int) (streamPos - bufferStart)) & 0xFF;
+        }
+        ++streamPos;
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        if (len == 0) {
+            return 0;
+        }
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        final int n = (int) Math.min(len, length - streamPos);
+        if (mode == Mode.MAPPED || n >= BUFFER_SIZE) {
+            readAt(streamPos, b, off, n);
+        } else {
+            int done = 0;
+            while (done < n) {
+                if (streamPos < bufferStart || streamPos >= bufferStart + buffer.limit()) {
+                    fillBuffer(streamPos);
+                }
+                final int pos = (int) (streamPos - bufferStart);
+                final int count = Math.min(n - done, buffer.limit() - pos);
+                final ByteBuffer src = buffer.duplicate();
+                src.position(pos);
+                src.get(b, off + done, count);
+                done += count;
+                streamPos += count;
+            }
+            return n;
+        }
+        streamPos += n;
+        return n;
+    }
+
+    private void fillBuffer(final long position) throws IOException {
+        buffer.clear();
+        buffer.limit((int) Math.min(BUFFER_SIZE, length - position));
+        readFully(position, buffer);
+        bufferStart = position;
+        buffer.flip();
+    }
+
+    @Override
+    public void readFully(final short[] s, final int off, final int len) throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        readAt(streamPos, s, off, len, getByteOrder());
+        streamPos += len * 2L;
+    }
+
+    @Override
+    public void readFully(final int[] i, final int off, final int len) throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        readAt(streamPos, i, off, len, getByteOrder());
+        streamPos += len * 4L;
+    }
+
+    @Override
+    public void readFully(final float[] f, final int off, final int len) throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        readAt(streamPos, f, off, len, getByteOrder());
+        streamPos += len * 4L;
+    }
+
+    @Override
+    public void readFully(final double[] d, final int off, final int len) throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        getBytes(streamPos, len * 8).order(getByteOrder()).asDoubleBuffer().get(d, off, len);
+        streamPos += len * 8L;
+    }
+
+    /**
+     * Read bytes at an absolute file position. Safe to call from several threads.
+     */
+    public void readAt(final long position, final byte[] b, final int off, final int len) throws IOException {
+        if (position + len > length) {
+            throw new EOFException("Read past end of " + file.getName());
+        }
+        if (mode == Mode.MAPPED) {
+            int done = 0;
+            while (done < len) {
+                final long pos = position + done;
+                final ByteBuffer window = getWindow(pos).duplicate();
+                final int windowPos = (int) (pos % WINDOW_SIZE);
+                final int count = Math.min(len - done, window.limit() - windowPos);
+                window.position(windowPos);
+                window.get(b, off + done, count);
+                done += count;
+            }
+        } else {
+            readFully(position, ByteBuffer.wrap(b, off, len));
+        }
+    }
+
+    /**
+     * Read 16 bit values at an absolute file position. Safe to call from several threads.
+     */
+    public void readAt(final long position, final short[] s, final int off, final int len,
+                       final ByteOrder byteOrder) throws IOException {
+        getBytes(position, len * 2).order(byteOrder).asShortBuffer().get(s, off, len);
+    }
+
+    /**
+     * Read 32 bit integers at an absolute file position. Safe to call from several threads.
+     */
+    public void readAt(final long position, final int[] i, final int off, final int len,
+                       final ByteOrder byteOrder) throws IOException {
+        getBytes(position, len * 4).order(byteOrder).asIntBuffer().get(i, off, len);
+    }
+
+    /**
+     * Read 32 bit floats at an absolute file position. Safe to call from several threads.
+     */
+    public void readAt(final long position, final float[] f, final int off, final int len,
+                       final ByteOrder byteOrder) throws IOException {
+        getBytes(position, len * 4).order(byteOrder).asFloatBuffer().get(f, off, len);
+    }
+
+    /**
+     * The bytes at a file position, as a slice of the mapping when it lies within one window or else a copy.
+     */
+    private ByteBuffer getBytes(final long position, final int len) throws IOException {
+        if (position + len > length) {
+            throw new EOFException("Read past end of " + file.getName());
+        }
+        if (mode == Mode.MAPPED) {
+            final int windowPos = (int) (position % WINDOW_SIZE);
+            final ByteBuffer window = getWindow(position);
+            if (windowPos + len <= window.limit()) {
+                final ByteBuffer slice = window.duplicate();
+                slice.position(windowPos);
+                slice.limit(windowPos + len);
+                return slice.slice();
+            }
+            final byte[] b = new byte[len];
+            readAt(position, b, 0, len);
+            return ByteBuffer.wrap(b);
+        }
+        final ByteBuffer bytes = ByteBuffer.allocate(len);
+        readFully(position, bytes);
+        bytes.flip();
+        return bytes;
+    }
+
+    private void readFully(final long position, final ByteBuffer dst) throws IOException {
+        long pos = position;
+        while (dst.hasRemaining()) {
+            final int n = channel.read(dst, pos);
+            if (n < 0) {
+                throw new EOFException("Read past end of " + file.getName());
+            }
+            pos += n;
+        }
+    }
+
+    private MappedByteBuffer getWindow(final long position) throws IOException {
+        final int index = (int) (position / WINDOW_SIZE);
+        MappedByteBuffer window = windows.get(index);
+        if (window == null) {
+            final long start = index * WINDOW_SIZE;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, length - start));
+            if (!windows.compareAndSet(index, null, window)) {
+                window = windows.get(index);
+            }
+        }
+        return window;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!isClosed) {
+            isClosed = true;
+            super.close();
+            channel.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FileChannelImageInputStream (" + mode + ") which points to " + file.toString();
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.esa.s1tbx.commons.io;
 
+import org.esa.snap.runtime.Config;
+
 import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageInputStreamImpl;
 import java.io.File;
@@ -42,7 +44,19 @@ public final class FileImageInputStreamExtImpl extends ImageInputStreamImpl
 
     private boolean isClosed = false;
 
+    private static final String fileInputMode =
+            Config.instance().preferences().get("s1tbx.readers.fileInputMode", "buffered");
+
+    /**
+     * Create an input stream on a file according to s1tbx.readers.fileInputMode: "buffered" for this
+     * implementation, "positional" or "mapped" for a {@link FileChannelImageInputStream}.
+     */
     public static ImageInputStream createInputStream(final File file) throws IOException {
+        if ("mapped".equalsIgnoreCase(fileInputMode)) {
+            return new FileChannelImageInputStream(file, FileChannelImageInputStream.Mode.MAPPED);
+        } else if ("positional".equalsIgnoreCase(fileInputMode)) {
+            return new FileChannelImageInputStream(file, FileChannelImageInputStream.Mode.POSITIONAL);
+        }
         return new FileImageInputStreamExtImpl(file);
         //return new FileImageInputStream(file);
     }
@@ -83,6 +97,41 @@ public final class FileImageInputStreamExtImpl extends ImageInputStreamImpl
         eraf.readFully(b);
     }
 
+    @Override
+    public void readFully(short[] s, int off, int len) throws IOException {
+        bitOffset = 0;
+        eraf.readShort(s, off, len);
+        streamPos = eraf.getFilePointer();
+    }
+
+    @Override
+    public void readFully(int[] i, int off, int len) throws IOException {
+        bitOffset = 0;
+        eraf.readInt(i, off, len);
+        streamPos = eraf.getFilePointer();
+    }
+
+    @Override
+    public void readFully(long[] l, int off, int len) throws IOException {
+        bitOffset = 0;
+        eraf.readLong(l, off, len);
+        streamPos = eraf.getFilePointer();
+    }
+
+    @Override
+    public void readFully(float[] f, int off, int len) throws IOException {
+        bitOffset = 0;
+        eraf.readFloat(f, off, len);
+        streamPos = eraf.getFilePointer();
+    }
+
+    @Override
+    public void readFully(double[] d, int off, int len) throws IOException {
+        bitOffset = 0;
+        eraf.readDouble(d, off, len);
+        streamPos = eraf.getFilePointer();
+    }
+
     @Override
     public int readInt() throws IOException {
 
@@ -33,7 +33,11 @@ import java.awt.image.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Reader for ImageIO File
@@ -55,6 +59,18 @@ public class ImageIOFile {
     private ImageReader reader;
 
     private static final boolean useFileCache = Config.instance().preferences().getBoolean("s1tbx.readers.useFileCache", false);
+    private static final int readerPoolSize = Config.instance().preferences().getInt("s1tbx.readers.readerPoolSize", 4);
+
+    // additional readers on the image file for concurrent reads
+    private File imageFile = null;
+    private volatile Semaphore readerPermits = null;
+    // guarded by itself, as is closed
+    private final ArrayDeque<PooledReader> idleReaders = new ArrayDeque<>();
+    private boolean closed = false;
+
+    private final AtomicInteger activeReads = new AtomicInteger();
+    private final AtomicInteger maxConcurrentReads = new AtomicInteger();
+    private final AtomicLong numReads = new AtomicLong();
 
     public ImageIOFile(final File inputFile, final ImageReader iioReader,
                        final File productInputFile) throws IOException {
@@ -140,6 +156,41 @@ public class ImageIOFile {
         return imageReaders.next();
     }
 
+    /**
+     * Allow tiles to be read concurrently by opening up to s1tbx.readers.readerPoolSize readers on the image file.
+     * Without an image file all reads go through the one reader of the input stream.
+     *
+     * @param imageFile the uncompressed image file of the input stream
+     */
+    public synchronized void enableReaderPool(final File imageFile) {
+        if (readerPoolSize > 1 && imageFile != null && imageFile.isFile() &&
+                reader != null && reader.getOriginatingProvider() != null) {
+            this.imageFile = imageFile;
+            this.readerPermits = new Semaphore(readerPoolSize);
+        }
+    }
+
+    /**
+     * @return the number of tile reads
+     */
+    public long getNumReads() {
+        return numReads.get();
+    }
+
+    /**
+     * @return the number of tile reads in progress
+     */
+    public int getActiveReads() {
+        return activeReads.get();
+    }
+
+    /**
+     * @return the highest number of tile reads that were in progress at the same time
+     */
+    public int getMaxConcurrentReads() {
+        return maxConcurrentReads.get();
+    }
+
     public ImageReader getReader() throws IOException {
         if (reader == null) {
             throw new IOException("no reader created");
@@ -202,6 +253,15 @@ public class ImageIOFile {
             stream.close();
         if (reader != null)
             reader.dispose();
+
+        // readers borrowed by reads in progress are closed when they are returned
+        synchronized (idleReaders) {
+            closed = true;
+            PooledReader pooledReader;
+            while ((pooledReader = idleReaders.poll()) != null) {
+                pooledReader.close();
+            }
+        }
     }
 
     public int getSceneWidth() throws IOException {
@@ -289,17 +349,85 @@ public class ImageIOFile {
         }
     }
 
-    private synchronized Raster getData(final ImageReadParam param,
-                                        final int destOffsetX, final int destOffsetY,
-                                        final int destWidth, final int destHeight) throws IOException {
+    private Raster getData(final ImageReadParam param,
+                           final int destOffsetX, final int destOffsetY,
+                           final int destWidth, final int destHeight) throws IOException {
+
+        final int active = activeReads.incrementAndGet();
+        maxConcurrentReads.accumulateAndGet(active, Math::max);
+        numReads.incrementAndGet();
         try {
-            final RenderedImage image = reader.readAsRenderedImage(0, param);
-            return image.getData(new Rectangle(destOffsetX, destOffsetY, destWidth, destHeight));
+            final Rectangle rect = new Rectangle(destOffsetX, destOffsetY, destWidth, destHeight);
+            if (readerPermits != null) {
+                return getPooledData(param, rect);
+            }
+            synchronized (this) {
+                final RenderedImage image = reader.readAsRenderedImage(0, param);
+                return image.getData(rect);
+            }
         } catch (Exception e) {
             if(ZipUtils.isZip(productInputFile) && !ZipUtils.isValid(productInputFile)) {
                 throw new IOException("Zip file is corrupt "+productInputFile.getName());
             }
             throw e;
+        } finally {
+            activeReads.decrementAndGet();
+        }
+    }
+
+    private Raster getPooledData(final ImageReadParam param, final Rectangle rect) throws IOException {
+        readerPermits.acquireUninterruptibly();
+        try {
+            final PooledReader pooledReader = borrowReader();
+            try {
+                final RenderedImage image = pooledReader.reader.readAsRenderedImage(0, param);
+                return image.getData(rect);
+            } finally {
+                returnReader(pooledReader);
+            }
+        } finally {
+            readerPermits.release();
+        }
+    }
+
+    private PooledReader borrowReader() throws IOException {
+        synchronized (idleReaders) {
+            if (closed) {
+                throw new IOException(name + " is closed");
+            }
+            final PooledReader pooledReader = idleReaders.poll();
+            return pooledReader != null ? pooledReader : new PooledReader(imageFile, reader);
+        }
+    }
+
+    private void returnReader(final PooledReader pooledReader) throws IOException {
+        synchronized (idleReaders) {
+            if (!closed) {
+                idleReaders.add(pooledReader);
+                return;
+            }
+        }
+        pooledReader.close();
+    }
+
+    /**
+     * A reader with its own stream on the image file
+     */
+    private static class PooledReader {
+        final ImageInputStream stream;
+        final ImageReader reader;
+
+        PooledReader(final File imageFile, final ImageReader prototype) throws IOException {
+            stream = ImageIO.createImageInputStream(imageFile);
+            if (stream == null)
+                throw new IOException("Unable to open " + imageFile);
+            reader = prototype.getOriginatingProvider().createReaderInstance();
+            reader.setInput(stream, false, true);
+        }
+
+        void close() throws IOException {
+            reader.dispose();
+            stream.close();
         }
     }
 
@@ -0,0 +1,155 @@
+package org.esa.s1tbx.commons;
+
+import Jama.Matrix;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.engine_utilities.datamodel.OrbitStateVector;
+import org.esa.snap.engine_utilities.datamodel.PosVector;
+import org.esa.snap.engine_utilities.eo.Constants;
+import org.esa.snap.engine_utilities.util.Maths;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the precomputed polynomial orbit model against the direct Lagrange interpolation
+ */
+public class OrbitPolynomialModelTest {
+
+    private static final double radius = 7071000.0; // m
+    private static final double period = 5924.0; // s
+    private static final double startMJD = 7000.5;
+    private static final double vectorInterval = 10.0 / Constants.secondsInDay;
+    private static final int numVectors = 30;
+
+    static OrbitStateVector[] createCircularOrbit() {
+        final OrbitStateVector[] vectors = new OrbitStateVector[numVectors];
+        final double w = 2.0 * Math.PI / period;
+        final double inc = Math.toRadians(98.2);
+        for (int i = 0; i < numVectors; ++i) {
+            final double t = i * vectorInterval * Constants.secondsInDay;
+            final double c = Math.cos(w * t), s = Math.sin(w * t);
+            vectors[i] = new OrbitStateVector(new ProductData.UTC(startMJD + i * vectorInterval),
+                    radius * c, radius * s * Math.cos(inc), radius * s * Math.sin(inc),
+                    -radius * w * s, radius * w * c * Math.cos(inc), radius * w * c * Math.sin(inc));
+        }
+        return vectors;
+    }
+
+    @Test
+    public void testPositionVelocityMatchesLagrange() {
+        final OrbitStateVectors lagrange = new OrbitStateVectors(createCircularOrbit(), 0);
+        final OrbitStateVectors polynomial = new OrbitStateVectors(createCircularOrbit(), 0);
+        polynomial.setInterpolationMethod(OrbitStateVectors.POLYNOMIAL_INTERPOLATION);
+
+        final PosVector pos = new PosVector();
+        final PosVector vel = new PosVector();
+        final int numSamples = 5000;
+        final double span = (numVectors - 1) * vectorInterval;
+        for (int i = 0; i <= numSamples; ++i) {
+            final double time = startMJD + span * i / numSamples;
+
+            final OrbitStateVectors.PositionVelocity expected = lagrange.getPositionVelocity(time);
+            polynomial.getPositionVelocity(time, pos, vel);
+
+            assertEquals(expected.position.x, pos.x, 1e-5);
+            assertEquals(expected.position.y, pos.y, 1e-5);
+            assertEquals(expected.position.z, pos.z, 1e-5);
+            assertEquals(expected.velocity.x, vel.x, 1e-8);
+            assertEquals(expected.velocity.y, vel.y, 1e-8);
+            assertEquals(expected.velocity.z, vel.z, 1e-8);
+        }
+    }
+
+    @Test
+    public void testStateVectorMatchesPolyFit() {
+        final OrbitStateVector[] vectors = createCircularOrbit();
+        final int polyDegree = 3;
+        final OrbitPolynomialModel model = OrbitPolynomialModel.createLagrangeModel(vectors, polyDegree + 1);
+
+        final double[] state = new double[6];
+        final int numSamples = 5000;
+        final double span = (numVectors - 1) * vectorInterval;
+        for (int i = 0; i <= numSamples; ++i) {
+            final double time = startMJD + span * i / numSamples;
+            final double[] expected = polyFit(vectors, polyDegree, time);
+
+            model.getStateVector(time, state);
+
+            for (int c = 0; c < 3; ++c) {
+                assertEquals(expected[c], state[c], 1e-4);
+                assertEquals(expected[c + 3], state[c + 3], 1e-7);
+            }
+        }
+    }
+
+    /**
+     * Polynomial fit through the polyDegree + 1 state vectors around the given time, solved for every query
+     */
+    private static double[] polyFit(final OrbitStateVector[] vectors, final int polyDegree, final double time) {
+        final int numVecPolyFit = polyDegree + 1;
+        final int half = numVecPolyFit / 2;
+        final double t0 = vectors[0].time_mjd;
+        final double tN = vectors[numVectors - 1].time_mjd;
+
+        final int vecIdx = (int) ((time - t0) / (tN - t0) * (numVectors - 1));
+        final int first;
+        if (vecIdx <= half - 1) {
+            first = 0;
+        } else if (vecIdx >= numVectors - half) {
+            first = numVectors - numVecPolyFit;
+        } else {
+            first = vecIdx - half + 1;
+        }
+
+        final double[] timeArray = new double[numVecPolyFit];
+        final double[][] values = new double[6][numVecPolyFit];
+        for (int i = 0; i < numVecPolyFit; ++i) {
+            final OrbitStateVector osv = vectors[first + i];
+            timeArray[i] = osv.time_mjd - t0;
+            values[0][i] = osv.x_pos;
+            values[1][i] = osv.y_pos;
+            values[2][i] = osv.z_pos;
+            values[3][i] = osv.x_vel;
+            values[4][i] = osv.y_vel;
+            values[5][i] = osv.z_vel;
+        }
+
+        final Matrix A = Maths.createVandermondeMatrix(timeArray, polyDegree);
+        final double[] result = new double[6];
+        for (int c = 0; c < 6; ++c) {
+            result[c] = Maths.polyVal(time - t0, Maths.polyFit(A, values[c]));
+        }
+        return result;
+    }
+
+    @Test
+    public void testAcceleration() {
+        final OrbitStateVectors orbit = new OrbitStateVectors(createCircularOrbit(), 0);
+        orbit.setInterpolationMethod(OrbitStateVectors.POLYNOMIAL_INTERPOLATION);
+
+        final PosVector pos = new PosVector();
+        final PosVector acc = new PosVector();
+        final double time = startMJD + 12.5 * vectorInterval;
+        orbit.getPolynomialModel().getPosition(time, pos);
+        orbit.getPolynomialModel().getAcceleration(time, acc);
+
+        // centripetal acceleration of a circular orbit points to the centre with magnitude w^2 r
+        final double w2 = Math.pow(2.0 * Math.PI / period, 2);
+        assertEquals(-w2 * pos.x, acc.x, 1e-6);
+        assertEquals(-w2 * pos.y, acc.y, 1e-6);
+        assertEquals(-w2 * pos.z, acc.z, 1e-6);
+    }
+
+    @Test
+    public void testCacheCounters() {
+        final OrbitStateVectors orbit = new OrbitStateVectors(createCircularOrbit(), 64);
+        final double time = startMJD + 3.3 * vectorInterval;
+
+        orbit.getPositionVelocity(time);
+        orbit.getPositionVelocity(time);
+        orbit.getPositionVelocity(time);
+
+        assertEquals(2, orbit.getCacheHits());
+        assertEquals(1, orbit.getCacheMisses());
+    }
+}
@@ -0,0 +1,116 @@
+package org.esa.s1tbx.commons;
+
+import org.esa.snap.engine_utilities.eo.Constants;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The bounded interpolation cache of OrbitStateVectors against interpolation without a cache
+ */
+public class OrbitStateVectorsTest {
+
+    private static final double startMJD = 7000.5;
+    private static final double span = 29 * 10.0 / Constants.secondsInDay;
+
+    @Test
+    public void testCacheIsBounded() {
+        final int cacheSize = 100;
+        final OrbitStateVectors orbit = new OrbitStateVectors(OrbitPolynomialModelTest.createCircularOrbit(), cacheSize);
+        final OrbitStateVectors uncached = new OrbitStateVectors(OrbitPolynomialModelTest.createCircularOrbit(), 0);
+
+        final int numTimes = 20000;
+        for (int i = 0; i < numTimes; ++i) {
+            final double time = startMJD + span * i / numTimes;
+            assertPositionVelocityEquals(uncached.getPositionVelocity(time), orbit.getPositionVelocity(time));
+        }
+
+        // the slots are rounded up to a power of two
+        final int numEntries = orbit.getCachedEntryCount();
+        assertTrue(numEntries > 0);
+        assertTrue(numEntries <= 2 * cacheSize);
+        assertEquals(numTimes, orbit.getCacheHits() + orbit.getCacheMisses());
+
+        // a time queried again is served from the cache while its slot is not taken by another time
+        final double time = startMJD + 0.5 * span;
+        orbit.getPositionVelocity(time);
+        final long hits = orbit.getCacheHits();
+        assertPositionVelocityEquals(uncached.getPositionVelocity(time), orbit.getPositionVelocity(time));
+        assertEquals(hits + 1, orbit.getCacheHits());
+
+        orbit.setInterpolationMethod(OrbitStateVectors.LAGRANGE_INTERPOLATION);
+        assertEquals(0, orbit.getCachedEntryCount());
+    }
+
+    @Test
+    public void testDisabledCache() {
+        final OrbitStateVectors orbit = new OrbitStateVectors(OrbitPolynomialModelTest.createCircularOrbit(), 0);
+        for (int i = 0; i < 10; ++i) {
+            orbit.getPositionVelocity(startMJD + 0.5 * span);
+        }
+        assertEquals(0, orbit.getCacheHits());
+        assertEquals(10, orbit.getCacheMisses());
+        assertEquals(0, orbit.getCachedEntryCount());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        // a small cache so that the threads keep replacing each other's entries
+        final int cacheSize = 64;
+        final OrbitStateVectors orbit = new OrbitStateVectors(OrbitPolynomialModelTest.createCircularOrbit(), cacheSize);
+        final OrbitStateVectors uncached = new OrbitStateVectors(OrbitPolynomialModelTest.createCircularOrbit(), 0);
+
+        final int numTimes = 500;
+        final double[] times = new double[numTimes];
+        final OrbitStateVectors.PositionVelocity[] expected = new OrbitStateVectors.PositionVelocity[numTimes];
+        for (int i = 0; i < numTimes; ++i) {
+            times[i] = startMJD + span * i / numTimes;
+            expected[i] = uncached.getPositionVelocity(times[i]);
+        }
+
+        final int numThreads = 8;
+        final int numQueries = 50000;
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < numThreads; ++t) {
+                final Random random = new Random(t);
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    for (int q = 0; q < numQueries; ++q) {
+                        final int i = random.nextInt(numTimes);
+                        assertPositionVelocityEquals(expected[i], orbit.getPositionVelocity(times[i]));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals((long) numThreads * numQueries, orbit.getCacheHits() + orbit.getCacheMisses());
+        assertTrue(orbit.getCacheHits() > 0);
+        assertTrue(orbit.getCachedEntryCount() <= 2 * cacheSize);
+    }
+
+    private static void assertPositionVelocityEquals(final OrbitStateVectors.PositionVelocity expected,
+                                                     final OrbitStateVectors.PositionVelocity actual) {
+        assertEquals(expected.position.x, actual.position.x, 0.0);
+        assertEquals(expected.position.y, actual.position.y, 0.0);
+        assertEquals(expected.position.z, actual.position.z, 0.0);
+        assertEquals(expected.velocity.x, actual.velocity.x, 0.0);
+        assertEquals(expected.velocity.y, actual.velocity.y, 0.0);
+        assertEquals(expected.velocity.z, actual.velocity.z, 0.0);
+    }
+}
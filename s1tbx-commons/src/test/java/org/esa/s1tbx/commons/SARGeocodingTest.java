@@ -0,0 +1,103 @@
+package org.esa.s1tbx.commons;
+
+import org.esa.snap.engine_utilities.datamodel.PosVector;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the zero Doppler times of a row of earth points with those of one point at a time
+ */
+public class SARGeocodingTest {
+
+    private static final double orbitRadius = 7071000.0; // m
+    private static final double earthRadius = 6371000.0; // m
+    private static final double orbitRate = 2.0 * Math.PI / 5924.0; // rad/s
+    private static final double orbitLongitude = Math.toRadians(-3.0);
+    private static final double wavelength = 0.05546576;
+
+    private static final int numLines = 6000;
+    private static final double lineTimeInterval = 1.0 / 1680.0 / 86400.0; // days
+    private static final double lineLatitude = orbitRate / 1680.0; // rad
+    private static final double firstLineUTC = 7000.5; // days
+    private static final double firstLineLatitude = Math.toRadians(0.5);
+
+    private final PosVector[] sensorPosition = new PosVector[numLines];
+    private final PosVector[] sensorVelocity = new PosVector[numLines];
+
+    public SARGeocodingTest() {
+        // circular polar orbit on a non rotating earth
+        for (int i = 0; i < numLines; ++i) {
+            final double lat = firstLineLatitude + i * lineLatitude;
+            sensorPosition[i] = new PosVector(orbitRadius * Math.cos(lat) * Math.cos(orbitLongitude),
+                    orbitRadius * Math.cos(lat) * Math.sin(orbitLongitude), orbitRadius * Math.sin(lat));
+            sensorVelocity[i] = new PosVector(-orbitRadius * orbitRate * Math.sin(lat) * Math.cos(orbitLongitude),
+                    -orbitRadius * orbitRate * Math.sin(lat) * Math.sin(orbitLongitude),
+                    orbitRadius * orbitRate * Math.cos(lat));
+        }
+    }
+
+    @Test
+    public void testEarthPointZeroDopplerTimes() {
+        final int numPoints = 400;
+        final double[] lines = new double[numPoints];
+        for (int i = 0; i < numPoints; ++i) {
+            // a row slanted across the lines as a DEM row in radar geometry, stepping a few lines per point
+            lines[i] = 1500.3 + 3.7 * i;
+        }
+        // leaving the swath before the first and after the last line
+        lines[10] = -20;
+        lines[11] = -2000;
+        lines[200] = numLines + 50;
+        // jumping far back and forth within the swath, then near the first and the last line
+        lines[300] = 10.2;
+        lines[301] = 5990.6;
+        lines[302] = 0.4;
+        lines[303] = numLines - 1.4;
+
+        final double[] x = new double[numPoints];
+        final double[] y = new double[numPoints];
+        final double[] z = new double[numPoints];
+        for (int i = 0; i < numPoints; ++i) {
+            final double lon = Math.toRadians(0.2) + 1.0e-6 * i;
+            // the latitude at which the plane normal to the orbit at this line meets the longitude
+            final double lat = Math.atan(Math.tan(firstLineLatitude + lines[i] * lineLatitude) *
+                    Math.cos(lon - orbitLongitude));
+            x[i] = earthRadius * Math.cos(lat) * Math.cos(lon);
+            y[i] = earthRadius * Math.cos(lat) * Math.sin(lon);
+            z[i] = earthRadius * Math.sin(lat);
+        }
+        // no data posts
+        for (int i : new int[]{0, 50, 51, 52, 304, numPoints - 1}) {
+            x[i] = y[i] = z[i] = Double.NaN;
+        }
+
+        final double[] zeroDopplerTimes = new double[numPoints + 1];
+        Arrays.fill(zeroDopplerTimes, 1.0);
+        SARGeocoding.getEarthPointZeroDopplerTimes(firstLineUTC, lineTimeInterval, wavelength, x, y, z, numPoints,
+                sensorPosition, sensorVelocity, zeroDopplerTimes);
+
+        int numValid = 0;
+        for (int i = 0; i < numPoints; ++i) {
+            final double expected = Double.isNaN(x[i]) ? SARGeocoding.NonValidZeroDopplerTime :
+                    SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC, lineTimeInterval, wavelength,
+                            new PosVector(x[i], y[i], z[i]), sensorPosition, sensorVelocity);
+            assertEquals("point " + i, expected, zeroDopplerTimes[i], 1.0e-4 * lineTimeInterval);
+            if (expected != SARGeocoding.NonValidZeroDopplerTime) {
+                // within half a line, as a point below 1 Hz Doppler at the first or the last line is taken there
+                assertEquals("point " + i, firstLineUTC + lines[i] * lineTimeInterval, zeroDopplerTimes[i],
+                        0.5 * lineTimeInterval);
+                ++numValid;
+            }
+        }
+        for (int i : new int[]{10, 11, 200}) {
+            assertEquals(SARGeocoding.NonValidZeroDopplerTime, zeroDopplerTimes[i], 0.0);
+        }
+        assertEquals(numPoints - 6 - 3, numValid);
+
+        // points past numPoints are left alone
+        assertEquals(1.0, zeroDopplerTimes[numPoints], 0.0);
+    }
+}
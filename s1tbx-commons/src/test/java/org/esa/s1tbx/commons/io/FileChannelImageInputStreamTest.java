@@ -0,0 +1,97 @@
+package org.esa.s1tbx.commons.io;
+
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+
+public class FileChannelImageInputStreamTest {
+
+    private static final int numValues = 50000;
+
+    private static File createFile() throws IOException {
+        final File file = File.createTempFile("channelStream", ".bin");
+        file.deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(0x01020304);
+            for (int i = 0; i < numValues; ++i) {
+                out.writeShort(i);
+            }
+            for (int i = 0; i < numValues; ++i) {
+                out.writeFloat(i * 0.5f);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void testPositional() throws IOException {
+        testRead(FileChannelImageInputStream.Mode.POSITIONAL);
+    }
+
+    @Test
+    public void testMapped() throws IOException {
+        testRead(FileChannelImageInputStream.Mode.MAPPED);
+    }
+
+    @Test
+    public void testBufferedBulkRead() throws IOException {
+        final File file = createFile();
+        final FileImageInputStreamExtImpl stream = new FileImageInputStreamExtImpl(file);
+        try {
+            stream.seek(4);
+            final short[] shorts = new short[numValues];
+            stream.readFully(shorts, 0, numValues);
+            final float[] floats = new float[numValues];
+            stream.readFully(floats, 0, numValues);
+            for (int i = 0; i < numValues; ++i) {
+                assertEquals((short) i, shorts[i]);
+                assertEquals(i * 0.5f, floats[i], 0.0f);
+            }
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static void testRead(final FileChannelImageInputStream.Mode mode) throws IOException {
+        final File file = createFile();
+        final FileChannelImageInputStream stream = new FileChannelImageInputStream(file, mode);
+        try {
+            assertEquals(4 + numValues * 6L, stream.length());
+            assertEquals(0x01020304, stream.readInt());
+
+            final short[] shorts = new short[numValues];
+            stream.readFully(shorts, 0, numValues);
+            for (int i = 0; i < numValues; ++i) {
+                assertEquals((short) i, shorts[i]);
+            }
+
+            stream.seek(4 + numValues * 2L + 4 * 10);
+            assertEquals(5.0f, stream.readFloat(), 0.0f);
+
+            // positional reads leave the stream position alone
+            final long streamPos = stream.getStreamPosition();
+            final float[] floats = new float[100];
+            stream.readAt(4 + numValues * 2L, floats, 0, 100, ByteOrder.BIG_ENDIAN);
+            for (int i = 0; i < 100; ++i) {
+                assertEquals(i * 0.5f, floats[i], 0.0f);
+            }
+            assertEquals(streamPos, stream.getStreamPosition());
+
+            final byte[] bytes = new byte[4];
+            stream.readAt(0, bytes, 0, 4);
+            assertEquals(3, bytes[2]);
+
+            stream.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+            stream.seek(0);
+            assertEquals(0x04030201, stream.readInt());
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -1,20 +1,124 @@
 package org.esa.s1tbx.commons.io;
 
 import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.imageio.ImageIO;
 import javax.imageio.stream.FileCacheImageInputStream;
 import javax.imageio.stream.ImageInputStream;
 
+import org.esa.snap.core.datamodel.ProductData;
 import org.junit.Assert;
 import org.junit.Test;
 
 public class ImageIOFileTest {
 
+  private static final int width = 300;
+  private static final int height = 200;
+  private static final int tileWidth = 50;
+  private static final int tileHeight = 40;
+
   @Test
   public void createImageInputStreamForLargeDimension() throws IOException {
     ImageInputStream imageInputStream = ImageIOFile.createImageInputStream(new ByteArrayInputStream(new byte[0]), new Dimension(60000, 60000));
     Assert.assertTrue("For large files we expect a FileCacheImageInputStream", imageInputStream instanceof FileCacheImageInputStream);
   }
+
+  @Test
+  public void concurrentPooledReadsMatchSynchronizedReads() throws Exception {
+    final File imageFile = createImageFile();
+    final ImageIOFile pooled = new ImageIOFile(imageFile, ImageIOFile.getIIOReader(imageFile), imageFile);
+    pooled.enableReaderPool(imageFile);
+    final ImageIOFile synchronizedFile = new ImageIOFile(imageFile, ImageIOFile.getIIOReader(imageFile), imageFile);
+
+    final int numThreads = 4;
+    final int numRounds = 3;
+    final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      final List<Future<int[]>> pooledTiles = new ArrayList<>();
+      for (int round = 0; round < numRounds; ++round) {
+        for (int y = 0; y < height; y += tileHeight) {
+          for (int x = 0; x < width; x += tileWidth) {
+            final int x0 = x, y0 = y;
+            pooledTiles.add(executor.submit(() -> readTile(pooled, x0, y0)));
+          }
+        }
+      }
+
+      int i = 0;
+      for (int round = 0; round < numRounds; ++round) {
+        for (int y = 0; y < height; y += tileHeight) {
+          for (int x = 0; x < width; x += tileWidth) {
+            final int[] tile = pooledTiles.get(i++).get();
+            Assert.assertArrayEquals(readTile(synchronizedFile, x, y), tile);
+            Assert.assertEquals(getValue(x + 7, y + 3), tile[3 * tileWidth + 7]);
+          }
+        }
+      }
+
+      Assert.assertEquals(pooledTiles.size(), pooled.getNumReads());
+      Assert.assertEquals(0, pooled.getActiveReads());
+      Assert.assertTrue(pooled.getMaxConcurrentReads() >= 1);
+      Assert.assertTrue(pooled.getMaxConcurrentReads() <= numThreads);
+      Assert.assertEquals(1, synchronizedFile.getMaxConcurrentReads());
+    } finally {
+      executor.shutdown();
+      pooled.close();
+      synchronizedFile.close();
+      imageFile.delete();
+    }
+  }
+
+  @Test
+  public void pooledReadAfterCloseFails() throws Exception {
+    final File imageFile = createImageFile();
+    final ImageIOFile pooled = new ImageIOFile(imageFile, ImageIOFile.getIIOReader(imageFile), imageFile);
+    pooled.enableReaderPool(imageFile);
+    try {
+      readTile(pooled, 0, 0);
+      pooled.close();
+      try {
+        readTile(pooled, tileWidth, 0);
+        Assert.fail("read after close");
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().contains("closed"));
+      }
+      Assert.assertEquals(2, pooled.getNumReads());
+      Assert.assertEquals(0, pooled.getActiveReads());
+    } finally {
+      imageFile.delete();
+    }
+  }
+
+  private static int getValue(final int x, final int y) {
+    return (x * 7 + y * 131) % 65536;
+  }
+
+  private static File createImageFile() throws IOException {
+    final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_USHORT_GRAY);
+    final WritableRaster raster = image.getRaster();
+    for (int y = 0; y < height; ++y) {
+      for (int x = 0; x < width; ++x) {
+        raster.setSample(x, y, 0, getValue(x, y));
+      }
+    }
+    final File imageFile = File.createTempFile("ImageIOFileTest", ".png");
+    ImageIO.write(image, "png", imageFile);
+    return imageFile;
+  }
+
+  private static int[] readTile(final ImageIOFile img, final int x0, final int y0) throws IOException {
+    final ProductData destBuffer = ProductData.createInstance(ProductData.TYPE_INT32, tileWidth * tileHeight);
+    img.readImageIORasterBand(x0, y0, 1, 1, destBuffer, x0, y0, tileWidth, tileHeight, 0, 0);
+    return (int[]) destBuffer.getElems();
+  }
 }
@@ -23,6 +23,7 @@ import org.esa.snap.core.util.io.FileUtils;
 import org.esa.snap.engine_utilities.util.ZipUtils;
 
 import java.io.File;
+import java.io.UncheckedIOException;
 
 public class GnssOrbitFileDownloader {
 
@@ -39,30 +40,43 @@ public class GnssOrbitFileDownloader {
                          final String orbitType, int year, int month, final int day,
                          final ProductData.UTC stateVectorTime) throws Exception {
 
-        final OpenSearch openSearch = new OpenSearch(GnssOrbitFileDownloader.COPERNICUS_HOST,
-                GnssOrbitFileDownloader.USER_NAME, GnssOrbitFileDownloader.PASSWORD);
-
-        String query = constructQuery(mission, missionPrefix, orbitType, year, month, day);
-        OpenSearch.PageResult pageResult = openSearch.getPages(query);
-        OpenSearch.SearchResult[] searchResults = openSearch.getSearchResults(pageResult);
+        OpenSearch.SearchResult searchResult;
+        try (OpenSearch openSearch = new OpenSearch(GnssOrbitFileDownloader.COPERNICUS_HOST,
+                GnssOrbitFileDownloader.USER_NAME, GnssOrbitFileDownloader.PASSWORD)) {
 
-        for(OpenSearch.SearchResult searchResult : searchResults) {
-            if(Sentinel1OrbitFileReader.isWithinRange(searchResult.title, stateVectorTime)) {
-                return download(localFolder, searchResult);
+            String query = constructQuery(mission, missionPrefix, orbitType, year, month, day);
+            searchResult = findOrbitFile(openSearch, query, stateVectorTime);
+            if (searchResult == null) {
+                OrbitFileScraper.NewDate newDate = OrbitFileScraper.getNeighouringMonth(year, month, day);
+                query = constructQuery(mission, missionPrefix, orbitType, newDate.year, newDate.month, day);
+                searchResult = findOrbitFile(openSearch, query, stateVectorTime);
             }
         }
 
-        OrbitFileScraper.NewDate newDate = OrbitFileScraper.getNeighouringMonth(year, month, day);
-        query = constructQuery(mission, missionPrefix, orbitType, newDate.year, newDate.month, day);
-        pageResult = openSearch.getPages(query);
-        searchResults = openSearch.getSearchResults(pageResult);
+        if (searchResult != null) {
+            return download(localFolder, searchResult);
+        }
+        return null;
+    }
+
+    private static OpenSearch.SearchResult findOrbitFile(final OpenSearch openSearch, final String query,
+                                                         final ProductData.UTC stateVectorTime) throws Exception {
+        final OpenSearch.PageResult pageResult = openSearch.getPages(query);
+        if (pageResult == null) {
+            return null;
+        }
 
-        for(OpenSearch.SearchResult searchResult : searchResults) {
-            if(Sentinel1OrbitFileReader.isWithinRange(searchResult.title, stateVectorTime)) {
-                return download(localFolder, searchResult);
+        // stop requesting pages once the orbit file is found
+        try (OpenSearch.SearchResultIterator searchResults = openSearch.getSearchResultIterator(pageResult)) {
+            while (searchResults.hasNext()) {
+                final OpenSearch.SearchResult searchResult = searchResults.next();
+                if (Sentinel1OrbitFileReader.isWithinRange(searchResult.title, stateVectorTime)) {
+                    return searchResult;
+                }
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-
         return null;
     }
 
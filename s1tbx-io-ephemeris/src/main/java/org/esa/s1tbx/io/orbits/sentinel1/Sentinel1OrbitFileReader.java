@@ -22,7 +22,13 @@ import org.esa.snap.engine_utilities.datamodel.Orbits;
 import org.jdom2.Document;
 import org.jdom2.Element;
 
-import java.io.File;
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -33,6 +39,9 @@ import java.util.zip.ZipFile;
 
 public class Sentinel1OrbitFileReader {
 
+    private static final int CACHE_MAGIC = 0x53314F56; // S1OV
+    private static final int CACHE_VERSION = 1;
+
     final static DateFormat dateFormat = ProductData.UTC.createDateFormat("yyyyMMdd-HHmmss");
     final static DateFormat orbitDateFormat = ProductData.UTC.createDateFormat("yyyy-MM-dd HH:mm:ss");
 
@@ -50,6 +59,20 @@ public class Sentinel1OrbitFileReader {
 
     void read() throws Exception {
 
+        final File cacheFile = getStateVectorCacheFile(orbitFile);
+        if (readStateVectorCache(cacheFile)) {
+            return;
+        }
+
+        readXML();
+
+        if (fixedHeader != null) {
+            writeStateVectorCache(cacheFile);
+        }
+    }
+
+    private void readXML() throws Exception {
+
         final Document doc;
         if (orbitFile.getName().toLowerCase().endsWith(".zip")) {
             final ZipFile productZip = new ZipFile(orbitFile, ZipFile.OPEN_READ);
@@ -77,6 +100,107 @@ public class Sentinel1OrbitFileReader {
         }
     }
 
+    static File getStateVectorCacheFile(final File orbitFile) {
+        return new File(Sentinel1OrbitIndex.getCacheFolder(), orbitFile.getName() + ".osv");
+    }
+
+    /**
+     * Read the header and state vectors from the binary cache of a previously parsed orbit file.
+     * The state vectors are stored column by column and read from a memory mapped buffer.
+     *
+     * @param cacheFile the cache file
+     * @return true if the cache file exists and belongs to the orbit file
+     */
+    private boolean readStateVectorCache(final File cacheFile) {
+
+        if (!cacheFile.exists()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != CACHE_MAGIC || buffer.getInt() != CACHE_VERSION ||
+                    buffer.getLong() != orbitFile.length() || buffer.getLong() != orbitFile.lastModified()) {
+                return false;
+            }
+
+            final FixedHeader header = new FixedHeader(getString(buffer), getString(buffer),
+                    getString(buffer), getString(buffer), getString(buffer));
+
+            final int count = buffer.getInt();
+            final DoubleBuffer columns = buffer.asDoubleBuffer();
+            final double[][] values = new double[7][count];
+            for (double[] column : values) {
+                columns.get(column);
+            }
+
+            final List<Orbits.OrbitVector> list = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                list.add(new Orbits.OrbitVector(values[0][i], values[1][i], values[2][i], values[3][i],
+                        values[4][i], values[5][i], values[6][i]));
+            }
+
+            fixedHeader = header;
+            osvList = list;
+            return true;
+        } catch (IOException | BufferUnderflowException e) {
+            return false;
+        }
+    }
+
+    private void writeStateVectorCache(final File cacheFile) {
+
+        try {
+            final File tmpFile = Sentinel1OrbitIndex.createTempFile(cacheFile);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeInt(CACHE_VERSION);
+                out.writeLong(orbitFile.length());
+                out.writeLong(orbitFile.lastModified());
+
+                putString(out, fixedHeader.mission);
+                putString(out, fixedHeader.fileType);
+                putString(out, fixedHeader.validityStart);
+                putString(out, fixedHeader.validityStop);
+                putString(out, fixedHeader.version);
+
+                final int count = osvList.size();
+                final double[][] values = new double[7][count];
+                for (int i = 0; i < count; ++i) {
+                    final Orbits.OrbitVector osv = osvList.get(i);
+                    values[0][i] = osv.utcMJD;
+                    values[1][i] = osv.xPos;
+                    values[2][i] = osv.yPos;
+                    values[3][i] = osv.zPos;
+                    values[4][i] = osv.xVel;
+                    values[5][i] = osv.yVel;
+                    values[6][i] = osv.zVel;
+                }
+
+                out.writeInt(count);
+                for (double[] column : values) {
+                    for (double value : column) {
+                        out.writeDouble(value);
+                    }
+                }
+            }
+            Sentinel1OrbitIndex.moveFile(tmpFile, cacheFile);
+        } catch (IOException e) {
+            SystemUtils.LOG.warning("Unable to write orbit cache " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    private static String getString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putString(final DataOutputStream out, final String str) throws IOException {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
     private static FixedHeader readFixedHeader(final Element fixedHeaderElem) {
 
         String mission = fixedHeaderElem.getChild("Mission").getText();
@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.orbits.sentinel1;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.util.SystemUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the Sentinel-1 orbit files in a local orbit folder.
+ * <p>
+ * The index is a table of file name and validity start and stop of every orbit file in a folder, which already
+ * holds the files of one mission and orbit type. It is kept in memory and in a binary file in the cache folder,
+ * so a lookup costs a time stamp check of the orbit folder and a binary search instead of listing the folder and
+ * parsing every file name. The index is rebuilt when the folder has changed.
+ */
+final class Sentinel1OrbitIndex {
+
+    private static final int MAGIC = 0x53314F49; // S1OI
+    private static final int VERSION = 2;
+
+    // a folder modified this close to its scan may have changed again within its time stamp resolution
+    private static final long RACY_MILLIS = 2000;
+
+    private static final Map<String, Sentinel1OrbitIndex> indexMap = new ConcurrentHashMap<>();
+    private static volatile File cacheFolder = null;
+
+    private final String folderPath;
+    private final long folderLastModified;
+    private final long scanTime;
+    // sorted by validity start, then by name
+    private final String[] fileNames;
+    private final double[] validityStart;    // MJD
+    private final double[] validityStop;     // MJD
+    private final double maxValidity;        // days
+
+    private Sentinel1OrbitIndex(final String folderPath, final long folderLastModified, final long scanTime,
+                                final String[] fileNames, final double[] validityStart, final double[] validityStop) {
+        this.folderPath = folderPath;
+        this.folderLastModified = folderLastModified;
+        this.scanTime = scanTime;
+        this.fileNames = fileNames;
+        this.validityStart = validityStart;
+        this.validityStop = validityStop;
+
+        double max = 0;
+        for (int i = 0; i < fileNames.length; ++i) {
+            max = Math.max(max, validityStop[i] - validityStart[i]);
+        }
+        this.maxValidity = max;
+    }
+
+    /**
+     * Find the orbit file whose validity period contains the given time.
+     *
+     * @param orbitFileFolder the local orbit folder
+     * @param prefix          the file name prefix such as S1A_OPER_AUX_POEORB_OPOD_
+     * @param stateVectorTime the time to be covered
+     * @return the orbit file or null if none is found
+     */
+    static File findOrbitFile(final File orbitFileFolder, final String prefix,
+                              final ProductData.UTC stateVectorTime) {
+
+        final double time = stateVectorTime.getMJD();
+        final Sentinel1OrbitIndex index = getIndex(orbitFileFolder, false);
+        String fileName = index.find(prefix, time);
+        if (fileName == null && index.isRacy()) {
+            // a file may have been added within the time stamp resolution of the folder
+            fileName = getIndex(orbitFileFolder, true).find(prefix, time);
+        }
+        return fileName == null ? null : new File(orbitFileFolder, fileName);
+    }
+
+    /**
+     * @return the first file by name of those whose validity period contains the time, or null if there is none
+     */
+    private String find(final String prefix, final double time) {
+
+        // the files starting after the time are past the binary search, those starting more than the longest
+        // validity before the time end before it
+        int lo = 0, hi = fileNames.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (validityStart[mid] <= time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        String found = null;
+        for (int i = lo - 1; i >= 0 && validityStart[i] > time - maxValidity; --i) {
+            if (time < validityStop[i] && fileNames[i].regionMatches(true, 0, prefix, 0, prefix.length()) &&
+                    (found == null || fileNames[i].compareTo(found) < 0)) {
+                found = fileNames[i];
+            }
+        }
+        return found;
+    }
+
+    private boolean isValid(final File folder) {
+        return folderPath.equals(folder.getAbsolutePath()) && folderLastModified == folder.lastModified();
+    }
+
+    private boolean isRacy() {
+        return scanTime - folderLastModified < RACY_MILLIS;
+    }
+
+    private static Sentinel1OrbitIndex getIndex(final File folder, final boolean rescan) {
+
+        final String key = folder.getAbsolutePath();
+        Sentinel1OrbitIndex index = indexMap.get(key);
+        if (!rescan && index != null && index.isValid(folder)) {
+            return index;
+        }
+
+        synchronized (Sentinel1OrbitIndex.class) {
+            index = indexMap.get(key);
+            if (!rescan && index != null && index.isValid(folder)) {
+                return index;
+            }
+
+            final File indexFile = getIndexFile(folder);
+            index = rescan ? null : readIndex(indexFile, folder);
+            if (index == null) {
+                index = createIndex(folder);
+                writeIndex(indexFile, index);
+            }
+            indexMap.put(key, index);
+            return index;
+        }
+    }
+
+    private static Sentinel1OrbitIndex createIndex(final File folder) {
+
+        final long scanTime = System.currentTimeMillis();
+        final long lastModified = folder.lastModified();
+        final String[] names = folder.list();
+
+        final List<String> fileNames = new ArrayList<>();
+        final List<double[]> validity = new ArrayList<>();
+        if (names != null) {
+            for (String name : names) {
+                final String upperName = name.toUpperCase();
+                if (!upperName.endsWith(".ZIP") && !upperName.endsWith(".EOF")) {
+                    continue;
+                }
+                try {
+                    final ProductData.UTC start = Sentinel1OrbitFileReader.getValidityStartFromFilenameUTC(name);
+                    final ProductData.UTC stop = Sentinel1OrbitFileReader.getValidityStopFromFilenameUTC(name);
+                    if (start != null && stop != null) {
+                        fileNames.add(name);
+                        validity.add(new double[]{start.getMJD(), stop.getMJD()});
+                    }
+                } catch (Exception e) {
+                    // not an orbit file name
+                }
+            }
+        }
+
+        final int numFiles = fileNames.size();
+        final Integer[] order = new Integer[numFiles];
+        for (int i = 0; i < numFiles; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            final int c = Double.compare(validity.get(a)[0], validity.get(b)[0]);
+            return c != 0 ? c : fileNames.get(a).compareTo(fileNames.get(b));
+        });
+
+        final String[] sortedNames = new String[numFiles];
+        final double[] validityStart = new double[numFiles];
+        final double[] validityStop = new double[numFiles];
+        for (int i = 0; i < numFiles; ++i) {
+            sortedNames[i] = fileNames.get(order[i]);
+            validityStart[i] = validity.get(order[i])[0];
+            validityStop[i] = validity.get(order[i])[1];
+        }
+
+        return new Sentinel1OrbitIndex(folder.getAbsolutePath(), lastModified, scanTime,
+                sortedNames, validityStart, validityStop);
+    }
+
+    private static Sentinel1OrbitIndex readIndex(final File indexFile, final File folder) {
+
+        if (!indexFile.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            final String folderPath = in.readUTF();
+            final long folderLastModified = in.readLong();
+            final long scanTime = in.readLong();
+            if (!folderPath.equals(folder.getAbsolutePath()) || folderLastModified != folder.lastModified()) {
+                return null;
+            }
+
+            final int numFiles = in.readInt();
+            final String[] fileNames = new String[numFiles];
+            final double[] validityStart = new double[numFiles];
+            final double[] validityStop = new double[numFiles];
+            for (int i = 0; i < numFiles; ++i) {
+                fileNames[i] = in.readUTF();
+                validityStart[i] = in.readDouble();
+                validityStop[i] = in.readDouble();
+            }
+            return new Sentinel1OrbitIndex(folderPath, folderLastModified, scanTime,
+                    fileNames, validityStart, validityStop);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeIndex(final File indexFile, final Sentinel1OrbitIndex index) {
+
+        try {
+            final File tmpFile = createTempFile(indexFile);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(index.folderPath);
+                out.writeLong(index.folderLastModified);
+                out.writeLong(index.scanTime);
+                out.writeInt(index.fileNames.length);
+                for (int i = 0; i < index.fileNames.length; ++i) {
+                    out.writeUTF(index.fileNames[i]);
+                    out.writeDouble(index.validityStart[i]);
+                    out.writeDouble(index.validityStop[i]);
+                }
+            }
+            moveFile(tmpFile, indexFile);
+        } catch (IOException e) {
+            SystemUtils.LOG.warning("Unable to write orbit index " + indexFile + ": " + e.getMessage());
+        }
+    }
+
+    private static File getIndexFile(final File folder) {
+        final String path = folder.getAbsolutePath();
+        final String name = folder.getName() + '_' + Integer.toHexString(path.hashCode()) + ".idx";
+        return new File(getCacheFolder(), name);
+    }
+
+    /**
+     * @return the folder holding the orbit indices and the state vector caches
+     */
+    static File getCacheFolder() {
+        final File folder = cacheFolder;
+        return folder != null ? folder : new File(SystemUtils.getCacheDir(), "s1tbx" + File.separator + "orbits");
+    }
+
+    /**
+     * @param folder the folder holding the orbit indices and the state vector caches, null for the default one in
+     *               the SNAP cache folder
+     */
+    static void setCacheFolder(final File folder) {
+        cacheFolder = folder;
+    }
+
+    static File createTempFile(final File file) throws IOException {
+        final File folder = file.getParentFile();
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Unable to create " + folder);
+        }
+        return File.createTempFile(file.getName(), ".tmp", folder);
+    }
+
+    static void moveFile(final File tmpFile, final File file) throws IOException {
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            if (tmpFile.exists()) {
+                tmpFile.delete();
+            }
+        }
+    }
+}
@@ -63,12 +63,14 @@ public class TestGnssOrbitFileDownloader {
 
     @Test
     public void testConnect() throws Exception  {
-        final OpenSearch openSearch = new OpenSearch(GnssOrbitFileDownloader.COPERNICUS_HOST,
-                GnssOrbitFileDownloader.USER_NAME, GnssOrbitFileDownloader.PASSWORD);
+        OpenSearch.SearchResult[] searchResults;
+        try (OpenSearch openSearch = new OpenSearch(GnssOrbitFileDownloader.COPERNICUS_HOST,
+                GnssOrbitFileDownloader.USER_NAME, GnssOrbitFileDownloader.PASSWORD)) {
 
-        final OpenSearch.PageResult pageResult = openSearch.getPages(query);
+            final OpenSearch.PageResult pageResult = openSearch.getPages(query);
 
-        OpenSearch.SearchResult[] searchResults = openSearch.getSearchResults(pageResult);
+            searchResults = openSearch.getSearchResults(pageResult);
+        }
 
         final File outputFolder = Files.createTempDirectory("gnss").toFile();
         final String downloadURL = GnssOrbitFileDownloader.COPERNICUS_ODATA_ROOT+"Products('" + searchResults[0].id + "')" + "/$value";
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.orbits.sentinel1;
+
+import org.esa.s1tbx.commons.test.TestData;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.engine_utilities.datamodel.Orbits;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * To test the Sentinel-1 orbit index and state vector cache
+ */
+public class TestSentinel1OrbitIndex {
+
+    private static final String POEORB_PREFIX = "S1A_OPER_AUX_POEORB_OPOD_";
+
+    private File cacheFolder;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheFolder = Files.createTempDirectory("orbitcache").toFile();
+        Sentinel1OrbitIndex.setCacheFolder(cacheFolder);
+    }
+
+    @After
+    public void tearDown() {
+        Sentinel1OrbitIndex.setCacheFolder(null);
+        delete(cacheFolder);
+    }
+
+    @Test
+    public void testFindOrbitFile() throws Exception {
+        final File folder = Files.createTempDirectory("orbits").toFile();
+        try {
+            final File file1 = createFile(folder, "S1A_OPER_AUX_POEORB_OPOD_20150916T122042_V20150826T225943_20150828T005943.EOF");
+            final File file2 = createFile(folder, "S1A_OPER_AUX_POEORB_OPOD_20150917T122021_V20150827T225943_20150829T005943.EOF");
+            createFile(folder, "S1B_OPER_AUX_POEORB_OPOD_20150917T122021_V20150830T225943_20150901T005943.EOF");
+            createFile(folder, "readme.txt");
+
+            assertEquals(file1, Sentinel1OrbitIndex.findOrbitFile(folder, POEORB_PREFIX, toUTC("2015-08-27 12:00:00")));
+            assertEquals(file2, Sentinel1OrbitIndex.findOrbitFile(folder, POEORB_PREFIX, toUTC("2015-08-28 12:00:00")));
+            assertNull(Sentinel1OrbitIndex.findOrbitFile(folder, POEORB_PREFIX, toUTC("2015-08-31 12:00:00")));
+
+            // a file added later is found
+            final File file3 = createFile(folder, "S1A_OPER_AUX_POEORB_OPOD_20150920T122021_V20150830T225943_20150901T005943.zip");
+            assertEquals(file3, Sentinel1OrbitIndex.findOrbitFile(folder, POEORB_PREFIX, toUTC("2015-08-31 12:00:00")));
+        } finally {
+            delete(folder);
+        }
+    }
+
+    @Test
+    public void testRescanOnlyWhenFolderChanged() throws Exception {
+        final File folder = Files.createTempDirectory("orbits").toFile();
+        try {
+            final File file1 = createFile(folder, "S1A_OPER_AUX_POEORB_OPOD_20150916T122042_V20150826T225943_20150828T005943.EOF");
+            final long lastModified = System.currentTimeMillis() - 60000;
+            assertTrue(folder.setLastModified(lastModified));
+            assertEquals(file1, Sentinel1OrbitIndex.findOrbitFile(folder, POEORB_PREFIX, toUTC("2015-08-27 12:00:00")));
+
+            final File[] indexFiles = cacheFolder.listFiles((dir, name) -> name.endsWith(".idx"));
+            assertTrue(indexFiles != null && indexFiles.length == 1);
+
+            // a miss does not list the folder again while its time stamp is unchanged
+            final File file2 = createFile(folder, "S1A_OPER_AUX_POEORB_OPOD_20150920T122021_V20150830T225943_20150901T005943.EOF");
+            assertTrue(folder.setLastModified(lastModified));
+            assertNull(Sentinel1OrbitIndex.findOrbitFile(folder, POEORB_PREFIX, toUTC("2015-08-31 12:00:00")));
+
+            assertTrue(folder.setLastModified(lastModified + 30000));
+            assertEquals(file2, Sentinel1OrbitIndex.findOrbitFile(folder, POEORB_PREFIX, toUTC("2015-08-31 12:00:00")));
+        } finally {
+            delete(folder);
+        }
+    }
+
+    @Test
+    public void testFindAmongOverlappingFiles() throws Exception {
+        final File folder = Files.createTempDirectory("orbits").toFile();
+        try {
+            // daily files valid for 26 hours, of two missions, some with a second issue
+            final SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HHmmss");
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            final long day = 24 * 3600 * 1000L;
+            final long firstStart = format.parse("20150801T225943").getTime();
+            final List<String> names = new ArrayList<>();
+            for (int d = 0; d < 40; ++d) {
+                final long start = firstStart + d * day;
+                final String validity = "_V" + format.format(start) + '_' + format.format(start + day + 2 * 3600 * 1000L);
+                names.add(POEORB_PREFIX + format.format(start + 20 * day) + validity + ".EOF");
+                names.add("S1B_OPER_AUX_POEORB_OPOD_" + format.format(start + 20 * day) + validity + ".EOF");
+                if (d % 7 == 3) {
+                    names.add(POEORB_PREFIX + format.format(start + 21 * day) + validity + ".EOF");
+                }
+            }
+            for (String name : names) {
+                createFile(folder, name);
+            }
+            Collections.sort(names);
+
+            final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+            timeFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+            for (long t = firstStart - day; t < firstStart + 42 * day; t += 5 * 3600 * 1000L + 17 * 60 * 1000L) {
+                final ProductData.UTC time = toUTC(timeFormat.format(t));
+
+                // the first file by name covering the time, as found by a scan of all files
+                File expected = null;
+                for (String name : names) {
+                    if (name.startsWith(POEORB_PREFIX) &&
+                            time.getMJD() >= Sentinel1OrbitFileReader.getValidityStartFromFilenameUTC(name).getMJD() &&
+                            time.getMJD() < Sentinel1OrbitFileReader.getValidityStopFromFilenameUTC(name).getMJD()) {
+                        expected = new File(folder, name);
+                        break;
+                    }
+                }
+                assertEquals(expected, Sentinel1OrbitIndex.findOrbitFile(folder, POEORB_PREFIX, time));
+            }
+        } finally {
+            delete(folder);
+        }
+    }
+
+    @Test
+    public void testStateVectorCache() throws Exception {
+        final File orbitFile = new File(TestData.inputSAR + "Orbits" + TestData.sep +
+                "S1A_OPER_AUX_RESORB_OPOD_20140611T152302_V20140525T151921_20140525T183641.EOF");
+        assumeTrue(orbitFile + " not found", orbitFile.exists());
+
+        // the first read parses the XML and writes the cache, the second one reads the cache
+        Sentinel1OrbitFileReader.getStateVectorCacheFile(orbitFile).delete();
+        final Sentinel1OrbitFileReader xmlReader = new Sentinel1OrbitFileReader(orbitFile);
+        xmlReader.read();
+        final Sentinel1OrbitFileReader cacheReader = new Sentinel1OrbitFileReader(orbitFile);
+        cacheReader.read();
+
+        assertEquals(xmlReader.getMissionFromHeader(), cacheReader.getMissionFromHeader());
+        assertEquals(xmlReader.getFileTypeFromHeader(), cacheReader.getFileTypeFromHeader());
+        assertEquals(xmlReader.getValidityStartFromHeader(), cacheReader.getValidityStartFromHeader());
+        assertEquals(xmlReader.getValidityStopFromHeader(), cacheReader.getValidityStopFromHeader());
+        assertEquals(xmlReader.getFileVersion(), cacheReader.getFileVersion());
+
+        final List<Orbits.OrbitVector> expected = xmlReader.getOrbitStateVectors();
+        final List<Orbits.OrbitVector> actual = cacheReader.getOrbitStateVectors();
+        assertTrue(expected.size() > 0);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i).utcMJD, actual.get(i).utcMJD, 0.0);
+            assertEquals(expected.get(i).xPos, actual.get(i).xPos, 0.0);
+            assertEquals(expected.get(i).yPos, actual.get(i).yPos, 0.0);
+            assertEquals(expected.get(i).zPos, actual.get(i).zPos, 0.0);
+            assertEquals(expected.get(i).xVel, actual.get(i).xVel, 0.0);
+            assertEquals(expected.get(i).yVel, actual.get(i).yVel, 0.0);
+            assertEquals(expected.get(i).zVel, actual.get(i).zVel, 0.0);
+        }
+    }
+
+    private static void delete(final File folder) {
+        final File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    private static File createFile(final File folder, final String name) throws Exception {
+        final File file = new File(folder, name);
+        assertTrue(file.createNewFile());
+        return file;
+    }
+
+    private static ProductData.UTC toUTC(final String str) throws Exception {
+        return ProductData.UTC.parse(str, Sentinel1OrbitFileReader.orbitDateFormat);
+    }
+}
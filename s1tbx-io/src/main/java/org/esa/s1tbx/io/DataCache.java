@@ -1,9 +1,9 @@
 package org.esa.s1tbx.io;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import org.esa.s1tbx.commons.io.ImageIOFile;
+import org.esa.snap.runtime.Config;
 
 import java.awt.*;
 import java.util.concurrent.TimeUnit;
@@ -13,19 +13,24 @@ import java.util.concurrent.TimeUnit;
  */
 public class DataCache {
 
-    private final LoadingCache<DataKey, Data> cache;
+    private static final long DEFAULT_MAX_BYTES =
+            Config.instance().preferences().getInt("s1tbx.io.dataCacheSize", 256) * 1024L * 1024L;
+
+    private final Cache<DataKey, Data> cache;
 
     public DataCache() {
-        cache = CacheBuilder.newBuilder().maximumSize(500).initialCapacity(500)
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes the maximum total size of the cached sample arrays
+     */
+    public DataCache(final long maxBytes) {
+        cache = CacheBuilder.newBuilder().maximumWeight(maxBytes)
+                .weigher((DataKey key, Data value) -> value.getSizeInBytes())
                 .expireAfterAccess(10, TimeUnit.MINUTES)
-                //.recordStats()
-                .build(new CacheLoader<DataKey, Data>() {
-                           @Override
-                           public Data load(DataKey key) throws Exception {
-                               return new Data();
-                           }
-                       }
-        );
+                .recordStats()
+                .build();
     }
 
     public long size() {
@@ -36,14 +41,34 @@ public class DataCache {
         return cache.stats().toString();
     }
 
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * @param key the image and rectangle
+     * @return the cached data or null if it is not in the cache
+     */
     public Data get(DataKey key) {
-        return cache.getUnchecked(key);
+        return cache.getIfPresent(key);
     }
 
-    public synchronized void put(DataKey key, Data value) {
+    public void put(DataKey key, Data value) {
         cache.put(key, value);
     }
 
+    public void clear() {
+        cache.invalidateAll();
+    }
+
     public static class DataKey {
         private final ImageIOFile img;
         private final Rectangle rect;
@@ -55,6 +80,9 @@ public class DataCache {
 
         @Override
         public boolean equals(Object obj) {
+            if (!(obj instanceof DataKey)) {
+                return false;
+            }
 
             DataKey key = (DataKey) obj;
             return (rect.x == key.rect.x &&
@@ -66,7 +94,12 @@ public class DataCache {
 
         @Override
         public int hashCode() {
-            return img.hashCode();
+            int hash = System.identityHashCode(img);
+            hash = 31 * hash + rect.x;
+            hash = 31 * hash + rect.y;
+            hash = 31 * hash + rect.width;
+            hash = 31 * hash + rect.height;
+            return hash;
         }
 
         @Override
@@ -88,5 +121,9 @@ public class DataCache {
             this.intArray = srcArray;
             this.valid = true;
         }
+
+        int getSizeInBytes() {
+            return intArray == null ? 0 : intArray.length * Integer.BYTES;
+        }
     }
 }
@@ -15,6 +15,9 @@
  */
 package org.esa.s1tbx.io.binary;
 
+import org.esa.s1tbx.commons.io.FileChannelImageInputStream;
+import org.esa.s1tbx.commons.io.FileImageInputStreamExtImpl;
+
 import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -32,11 +35,22 @@ public final class BinaryFileReader {
 
     private final ImageInputStream stream;
 
+    // file channel for positional reads, opened on the first readAt
+    private volatile FileChannelImageInputStream positionalStream;
+    private volatile boolean positionalChecked;
+
     public BinaryFileReader(final ImageInputStream stream) {
         this.stream = stream;
     }
 
     public void close() throws IOException {
+        synchronized (this) {
+            positionalChecked = true;
+            if (positionalStream != null && positionalStream != stream) {
+                positionalStream.close();
+            }
+            positionalStream = null;
+        }
         stream.close();
     }
 
@@ -140,6 +154,91 @@ public final class BinaryFileReader {
         stream.readFully(array, 0, array.length);
     }
 
+    /**
+     * Read bytes at an absolute position without moving the stream position. Safe to call from several threads.
+     * Reads from a file are positional and lock free, other streams are read under a lock on this reader.
+     */
+    public void readAt(final long pos, final byte[] array, final int off, final int len) throws IOException {
+        final FileChannelImageInputStream positional = getPositionalStream();
+        if (positional != null) {
+            positional.readAt(pos, array, off, len);
+        } else {
+            synchronized (this) {
+                stream.seek(pos);
+                stream.readFully(array, off, len);
+            }
+        }
+    }
+
+    /**
+     * Read 16 bit values at an absolute position in the byte order of the stream.
+     *
+     * @see #readAt(long, byte[], int, int)
+     */
+    public void readAt(final long pos, final short[] array, final int off, final int len) throws IOException {
+        final FileChannelImageInputStream positional = getPositionalStream();
+        if (positional != null) {
+            positional.readAt(pos, array, off, len, stream.getByteOrder());
+        } else {
+            synchronized (this) {
+                stream.seek(pos);
+                stream.readFully(array, off, len);
+            }
+        }
+    }
+
+    /**
+     * Read 32 bit integers at an absolute position in the byte order of the stream.
+     *
+     * @see #readAt(long, byte[], int, int)
+     */
+    public void readAt(final long pos, final int[] array, final int off, final int len) throws IOException {
+        final FileChannelImageInputStream positional = getPositionalStream();
+        if (positional != null) {
+            positional.readAt(pos, array, off, len, stream.getByteOrder());
+        } else {
+            synchronized (this) {
+                stream.seek(pos);
+                stream.readFully(array, off, len);
+            }
+        }
+    }
+
+    /**
+     * Read 32 bit floats at an absolute position in the byte order of the stream.
+     *
+     * @see #readAt(long, byte[], int, int)
+     */
+    public void readAt(final long pos, final float[] array, final int off, final int len) throws IOException {
+        final FileChannelImageInputStream positional = getPositionalStream();
+        if (positional != null) {
+            positional.readAt(pos, array, off, len, stream.getByteOrder());
+        } else {
+            synchronized (this) {
+                stream.seek(pos);
+                stream.readFully(array, off, len);
+            }
+        }
+    }
+
+    private FileChannelImageInputStream getPositionalStream() throws IOException {
+        if (positionalChecked) {
+            return positionalStream;
+        }
+        synchronized (this) {
+            if (!positionalChecked) {
+                if (stream instanceof FileChannelImageInputStream) {
+                    positionalStream = (FileChannelImageInputStream) stream;
+                } else if (stream instanceof FileImageInputStreamExtImpl) {
+                    positionalStream = new FileChannelImageInputStream(((FileImageInputStreamExtImpl) stream).getFile(),
+                                                                       FileChannelImageInputStream.Mode.POSITIONAL);
+                }
+                positionalChecked = true;
+            }
+            return positionalStream;
+        }
+    }
+
     public long readIn(final int n) throws IOException, IllegalBinaryFormatException {
         final long streamPosition = stream.getStreamPosition();
         final String longStr = readAn(n).trim();
@@ -205,6 +205,9 @@ public class CapellaProductDirectory extends JSONProductDirectory {
                 if(imgStream != null) {
                     final ImageIOFile img = new ImageIOFile(name, imgStream, GeoTiffUtils.getTiffIIOReader(imgStream),
                             1, 1, ProductData.TYPE_INT32, productInputFile);
+                    if (!isCompressed()) {
+                        img.enableReaderPool(productDir.getFile(imgPath));
+                    }
                     bandImageFileMap.put(img.getName(), img);
 
                     ProductReader reader = geoTiffPlugIn.createReaderInstance();
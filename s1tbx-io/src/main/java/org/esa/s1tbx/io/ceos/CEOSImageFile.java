@@ -150,33 +150,23 @@ public abstract class CEOSImageFile {
         final int sourceMaxY = sourceOffsetY + sourceHeight - 1;
         final int x = sourceOffsetX * ProductData.getElemSize(destBuffer.getType());
         final long xpos = startPosImageRecords + imageHeaderLength + x;
+        final short[] destElems = (short[]) destBuffer.getElems();
 
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
-            final short[] srcLine = new short[sourceWidth];
-            short[] destLine = null;
-            if (sourceStepX != 1)
-                destLine = new short[destWidth];
+            final short[] srcLine = sourceStepX == 1 ? null : new short[sourceWidth];
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 if (pm.isCanceled()) {
                     break;
                 }
 
-                // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
-
-                // Copy source line into destination buffer
+                // Read source line straight into the destination buffer or subsample it
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
                 if (sourceStepX == 1) {
-
-                    System.arraycopy(srcLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    binaryReader.readAt(_imageRecordLength * y + xpos, destElems, currentLineIndex, destWidth);
                 } else {
-                    copyLine(srcLine, destLine, sourceStepX);
-
-                    System.arraycopy(destLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    binaryReader.readAt(_imageRecordLength * y + xpos, srcLine, 0, sourceWidth);
+                    copyLine(srcLine, destElems, currentLineIndex, destWidth, sourceStepX);
                 }
 
                 pm.worked(1);
@@ -197,33 +187,23 @@ public abstract class CEOSImageFile {
         final int sourceMaxY = sourceOffsetY + sourceHeight - 1;
         final int x = sourceOffsetX * ProductData.getElemSize(destBuffer.getType());
         final long xpos = startPosImageRecords + imageHeaderLength + x;
+        final int[] destElems = (int[]) destBuffer.getElems();
 
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
-            final int[] srcLine = new int[sourceWidth];
-            int[] destLine = null;
-            if (sourceStepX != 1)
-                destLine = new int[destWidth];
+            final int[] srcLine = sourceStepX == 1 ? null : new int[sourceWidth];
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 if (pm.isCanceled()) {
                     break;
                 }
 
-                // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
-
-                // Copy source line into destination buffer
+                // Read source line straight into the destination buffer or subsample it
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
                 if (sourceStepX == 1) {
-
-                    System.arraycopy(srcLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    binaryReader.readAt(_imageRecordLength * y + xpos, destElems, currentLineIndex, destWidth);
                 } else {
-                    copyLine(srcLine, destLine, sourceStepX);
-
-                    System.arraycopy(destLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    binaryReader.readAt(_imageRecordLength * y + xpos, srcLine, 0, sourceWidth);
+                    copyLine(srcLine, destElems, currentLineIndex, destWidth, sourceStepX);
                 }
                 pm.worked(1);
             }
@@ -241,33 +221,23 @@ public abstract class CEOSImageFile {
         final int sourceMaxY = sourceOffsetY + sourceHeight - 1;
         final int x = sourceOffsetX * ProductData.getElemSize(destBuffer.getType());
         final long xpos = startPosImageRecords + imageHeaderLength + x;
+        final float[] destElems = (float[]) destBuffer.getElems();
 
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
-            final float[] srcLine = new float[sourceWidth];
-            float[] destLine = null;
-            if (sourceStepX != 1)
-                destLine = new float[destWidth];
+            final float[] srcLine = sourceStepX == 1 ? null : new float[sourceWidth];
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 if (pm.isCanceled()) {
                     break;
                 }
 
-                // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
-
-                // Copy source line into destination buffer
+                // Read source line straight into the destination buffer or subsample it
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
                 if (sourceStepX == 1) {
-
-                    System.arraycopy(srcLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    binaryReader.readAt(_imageRecordLength * y + xpos, destElems, currentLineIndex, destWidth);
                 } else {
-                    copyLine(srcLine, destLine, sourceStepX);
-
-                    System.arraycopy(destLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    binaryReader.readAt(_imageRecordLength * y + xpos, srcLine, 0, sourceWidth);
+                    copyLine(srcLine, destElems, currentLineIndex, destWidth, sourceStepX);
                 }
                 pm.worked(1);
             }
@@ -284,33 +254,23 @@ public abstract class CEOSImageFile {
         final int sourceMaxY = sourceOffsetY + sourceHeight - 1;
         final int x = sourceOffsetX * ProductData.getElemSize(destBuffer.getType());
         final long xpos = startPosImageRecords + imageHeaderLength + x;
+        final byte[] destElems = (byte[]) destBuffer.getElems();
 
         pm.beginTask("Reading band...", sourceMaxY - sourceOffsetY);
         try {
-            final byte[] srcLine = new byte[sourceWidth];
-            byte[] destLine = null;
-            if (sourceStepX != 1)
-                destLine = new byte[destWidth];
+            final byte[] srcLine = sourceStepX == 1 ? null : new byte[sourceWidth];
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 if (pm.isCanceled()) {
                     break;
                 }
 
-                // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
-
-                // Copy source line into destination buffer
+                // Read source line straight into the destination buffer or subsample it
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
                 if (sourceStepX == 1) {
-
-                    System.arraycopy(srcLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    binaryReader.readAt(_imageRecordLength * y + xpos, destElems, currentLineIndex, destWidth);
                 } else {
-                    copyLine(srcLine, destLine, sourceStepX);
-
-                    System.arraycopy(destLine, 0, destBuffer.getElems(), currentLineIndex, destWidth);
+                    binaryReader.readAt(_imageRecordLength * y + xpos, srcLine, 0, sourceWidth);
+                    copyLine(srcLine, destElems, currentLineIndex, destWidth, sourceStepX);
                 }
 
                 pm.worked(1);
@@ -334,35 +294,8 @@ public abstract class CEOSImageFile {
             final short[] srcLine = new short[sourceWidth * 2];
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
 
-                /*
-                synchronized (binaryReader) {
-                    Integer cacheIndex = indexMap.get(y);
-                    if(cacheIndex == null) {
-                            if (cachePos >= cacheSize) {
-                                cachePos = 0;
-                            }
-
-                            srcLine = new short[sourceWidth * 2];
-                            binaryReader.seek(_imageRecordLength * y + xpos);
-                            binaryReader.read(srcLine);
-
-                            if(linesCache[cachePos] != null) {
-                                indexMap.put(indexList[cachePos], null);
-                            }
-                            linesCache[cachePos] = srcLine;
-                            indexList[cachePos] = y;
-                            indexMap.put(y, cachePos);
-                            ++cachePos;
-                    } else {
-                        srcLine = (short[]) linesCache[cacheIndex];
-                    }
-                }   */
-
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                binaryReader.readAt(_imageRecordLength * y + xpos, srcLine, 0, srcLine.length);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -377,7 +310,7 @@ public abstract class CEOSImageFile {
         }
     }
 
-    public synchronized void readBandRasterDataSLCFloat(final int sourceOffsetX, final int sourceOffsetY,
+    public void readBandRasterDataSLCFloat(final int sourceOffsetX, final int sourceOffsetY,
                                            final int sourceWidth, final int sourceHeight,
                                            final int sourceStepX, final int sourceStepY,
                                            final int destWidth, final ProductData destBuffer, boolean oneOf2,
@@ -392,10 +325,7 @@ public abstract class CEOSImageFile {
             final float[] destLine = new float[destWidth];
             for (int y = sourceOffsetY; y <= sourceMaxY; y += sourceStepY) {
                 // Read source line
-                //synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                //}
+                binaryReader.readAt(_imageRecordLength * y + xpos, srcLine, 0, srcLine.length);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -430,10 +360,7 @@ public abstract class CEOSImageFile {
                 }
 
                 // Read source line
-                synchronized (binaryReader) {
-                    binaryReader.seek(_imageRecordLength * y + xpos);
-                    binaryReader.read(srcLine);
-                }
+                binaryReader.readAt(_imageRecordLength * y + xpos, srcLine, 0, srcLine.length);
 
                 // Copy source line into destination buffer
                 final int currentLineIndex = (y - sourceOffsetY) * destWidth;
@@ -452,27 +379,31 @@ public abstract class CEOSImageFile {
         }
     }
 
-    private static void copyLine(final short[] srcLine, final short[] destLine, final int sourceStepX) {
-        for (int x = 0, i = 0; x < destLine.length; ++x, i += sourceStepX) {
-            destLine[x] = srcLine[i];
+    private static void copyLine(final short[] srcLine, final short[] dest, final int destOffset,
+                                 final int destWidth, final int sourceStepX) {
+        for (int x = destOffset, i = 0; x < destOffset + destWidth; ++x, i += sourceStepX) {
+            dest[x] = srcLine[i];
         }
     }
 
-    private static void copyLine(final byte[] srcLine, final byte[] destLine, final int sourceStepX) {
-        for (int x = 0, i = 0; x < destLine.length; ++x, i += sourceStepX) {
-            destLine[x] = srcLine[i];
+    private static void copyLine(final byte[] srcLine, final byte[] dest, final int destOffset,
+                                 final int destWidth, final int sourceStepX) {
+        for (int x = destOffset, i = 0; x < destOffset + destWidth; ++x, i += sourceStepX) {
+            dest[x] = srcLine[i];
         }
     }
 
-    private static void copyLine(final int[] srcLine, final int[] destLine, final int sourceStepX) {
-        for (int x = 0, i = 0; x < destLine.length; ++x, i += sourceStepX) {
-            destLine[x] = srcLine[i];
+    private static void copyLine(final int[] srcLine, final int[] dest, final int destOffset,
+                                 final int destWidth, final int sourceStepX) {
+        for (int x = destOffset, i = 0; x < destOffset + destWidth; ++x, i += sourceStepX) {
+            dest[x] = srcLine[i];
         }
     }
 
-    private static void copyLine(final float[] srcLine, final float[] destLine, final int sourceStepX) {
-        for (int x = 0, i = 0; x < destLine.length; ++x, i += sourceStepX) {
-            destLine[x] = srcLine[i];
+    private static void copyLine(final float[] srcLine, final float[] dest, final int destOffset,
+                                 final int destWidth, final int sourceStepX) {
+        for (int x = destOffset, i = 0; x < destOffset + destWidth; ++x, i += sourceStepX) {
+            dest[x] = srcLine[i];
         }
     }
 
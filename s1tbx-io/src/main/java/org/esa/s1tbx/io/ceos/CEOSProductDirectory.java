@@ -497,7 +497,7 @@ public abstract class CEOSProductDirectory {
                         if (productDir.isCompressed()) {
                             stream = new MemoryCacheImageInputStream(productDir.getInputStream(folder + name));
                         } else {
-                            stream = new FileImageInputStreamExtImpl(productDir.getFile(folder + name));
+                            stream = FileImageInputStreamExtImpl.createInputStream(productDir.getFile(folder + name));
                         }
                         list.add(new CeosFile(stream, name));
                     } catch (Exception e) {
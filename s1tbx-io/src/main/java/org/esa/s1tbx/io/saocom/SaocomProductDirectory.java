@@ -444,6 +444,9 @@ public class SaocomProductDirectory extends XMLProductDirectory {
 
                     final ImageIOFile img = new ImageIOFile(imgPath, imgStream, GeoTiffUtils.getTiffIIOReader(imgStream),
                             1, 1, ProductData.TYPE_FLOAT64, productInputFile);
+                    if (!isCompressed()) {
+                        img.enableReaderPool(getFile(imgPath));
+                    }
                     bandImageFileMap.put(img.getName(), img);
                 }
             } catch (Exception e) {
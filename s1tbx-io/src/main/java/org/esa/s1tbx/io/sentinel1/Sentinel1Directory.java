@@ -26,6 +26,14 @@ public interface Sentinel1Directory {
 
     boolean isSLC();
 
+    /**
+     * @param img the measurement image file
+     * @return a direct reader for the image file or null if it must be read through ImageIO
+     */
+    default TiffStripReader getStripReader(final ImageIOFile img) {
+        return null;
+    }
+
     default MetadataElement getMetadataObject(final MetadataElement origProdRoot, final String metadataObjectName) {
 
         final MetadataElement metadataSection = origProdRoot.getElement("XFDU").getElement("metadataSection");
@@ -39,6 +39,7 @@ import org.esa.snap.engine_utilities.datamodel.metadata.AbstractMetadataIO;
 import org.esa.snap.engine_utilities.eo.Constants;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.gpf.ReaderUtils;
+import org.esa.snap.runtime.Config;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.json.simple.JSONObject;
@@ -64,8 +65,13 @@ public class Sentinel1Level1Directory extends XMLProductDirectory implements Sen
     private final transient Map<String, String> imgBandMetadataMap = new HashMap<>(4);
     private String acqMode = "";
 
+    private final transient Map<ImageIOFile, TiffStripReader> stripReaderMap = new HashMap<>(4);
+
     private final static Double NoDataValue = 0.0;//-9999.0;
 
+    private static final boolean useDirectTiffRead =
+            Config.instance().preferences().getBoolean("s1tbx.io.sentinel1.directTiffRead", true);
+
     public Sentinel1Level1Directory(final File inputFile) {
         super(inputFile);
     }
@@ -90,6 +96,14 @@ public class Sentinel1Level1Directory extends XMLProductDirectory implements Sen
                     final ImageIOFile img = new ImageIOFile(name, imgStream, GeoTiffUtils.getTiffIIOReader(imgStream),
                                 1, 1, ProductData.TYPE_INT32, productInputFile);
                     bandImageFileMap.put(img.getName(), img);
+
+                    if (!isCompressed()) {
+                        if (useDirectTiffRead && isSLC()) {
+                            addStripReader(img, imgPath);
+                        } else {
+                            img.enableReaderPool(getFile(imgPath));
+                        }
+                    }
                 }
             } catch (Exception e) {
                 SystemUtils.LOG.severe(imgPath +" not found");
@@ -97,6 +111,31 @@ public class Sentinel1Level1Directory extends XMLProductDirectory implements Sen
         }
     }
 
+    private void addStripReader(final ImageIOFile img, final String imgPath) {
+        try {
+            final TiffStripReader stripReader = TiffStripReader.open(getFile(imgPath));
+            if (stripReader != null) {
+                stripReaderMap.put(img, stripReader);
+            }
+        } catch (IOException e) {
+            SystemUtils.LOG.warning("Unable to read " + imgPath + " directly: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public TiffStripReader getStripReader(final ImageIOFile img) {
+        return stripReaderMap.get(img);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (TiffStripReader stripReader : stripReaderMap.values()) {
+            stripReader.close();
+        }
+        stripReaderMap.clear();
+        super.close();
+    }
+
     public static ImageInputStream createImageInputStream(final InputStream inStream, final Dimension bandDimensions,
                                                           final boolean isSLC) throws IOException {
         final long maxMemory = Runtime.getRuntime().maxMemory() / 1024 / 1024;
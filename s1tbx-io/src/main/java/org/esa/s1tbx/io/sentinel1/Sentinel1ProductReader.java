@@ -71,6 +71,10 @@ public class Sentinel1ProductReader extends SARReader {
     @Override
     public void close() throws IOException {
         super.close();
+        if (cache != null) {
+            SystemUtils.LOG.fine("Sentinel1ProductReader data cache " + cache.stats());
+            cache.clear();
+        }
         if (dataDir != null) {
             dataDir.close();
             dataDir = null;
@@ -181,7 +185,15 @@ public class Sentinel1ProductReader extends SARReader {
                                   final ProductData destBuffer,
                                   final int destOffsetX, final int destOffsetY,
                                   int destWidth, int destHeight,
-                                  final ImageIOFile.BandInfo bandInfo) {
+                                  final ImageIOFile.BandInfo bandInfo) throws IOException {
+
+        final TiffStripReader stripReader = dataDir.getStripReader(bandInfo.img);
+        if (stripReader != null && sourceStepX == 1 && sourceStepY == 1) {
+            // read the I or Q samples straight into the destination buffer
+            stripReader.readRect(sourceOffsetX, sourceOffsetY, destWidth, destHeight, bandInfo.isImaginary,
+                    destBuffer.getElems());
+            return;
+        }
 
         final int length;
         final int[] srcArray;
@@ -190,21 +202,26 @@ public class Sentinel1ProductReader extends SARReader {
         if(useCache) {
             final DataCache.DataKey datakey = new DataCache.DataKey(bandInfo.img, destRect);
             DataCache.Data cachedData = cache.get(datakey);
-            if (cachedData != null && cachedData.valid) {
-                srcArray = cachedData.intArray;
-                length = srcArray.length;
-            } else {
-                cachedData = readRect(datakey, bandInfo,
-                        sourceOffsetX, sourceOffsetY, sourceStepX, sourceStepY,
-                        destRect);
-
-                srcArray = cachedData.intArray;
-                length = srcArray.length;
+            if (cachedData == null || !cachedData.valid) {
+                // the real and imaginary bands share a file, so the other band may just have read the same rectangle
+                synchronized (bandInfo.img) {
+                    cachedData = cache.get(datakey);
+                    if (cachedData == null || !cachedData.valid) {
+                        cachedData = readRect(datakey, bandInfo,
+                                sourceOffsetX, sourceOffsetY, sourceStepX, sourceStepY,
+                                destRect);
+                    }
+                }
             }
+            srcArray = cachedData.intArray;
+            length = srcArray.length;
         } else {
 
-            DataCache.Data cachedData = readRect(null, bandInfo,
-                    sourceOffsetX, sourceOffsetY, sourceStepX, sourceStepY, destRect);
+            final DataCache.Data cachedData;
+            synchronized (bandInfo.img) {
+                cachedData = readRect(null, bandInfo,
+                        sourceOffsetX, sourceOffsetY, sourceStepX, sourceStepY, destRect);
+            }
 
             srcArray = cachedData.intArray;
             length = srcArray.length;
@@ -257,9 +274,13 @@ public class Sentinel1ProductReader extends SARReader {
         }
     }
 
-    private synchronized DataCache.Data readRect(final DataCache.DataKey datakey, final ImageIOFile.BandInfo bandInfo,
-                                         int sourceOffsetX, int sourceOffsetY, int sourceStepX, int sourceStepY,
-                                         final Rectangle destRect) {
+    /**
+     * Read a rectangle of packed samples. Callers hold the lock of the image file, so that different files,
+     * such as the swaths and polarisations of an SLC product, are read in parallel.
+     */
+    private DataCache.Data readRect(final DataCache.DataKey datakey, final ImageIOFile.BandInfo bandInfo,
+                                    int sourceOffsetX, int sourceOffsetY, int sourceStepX, int sourceStepY,
+                                    final Rectangle destRect) {
         try {
             final ImageReader imageReader = bandInfo.img.getReader();
             final ImageReadParam readParam = imageReader.getDefaultReadParam();
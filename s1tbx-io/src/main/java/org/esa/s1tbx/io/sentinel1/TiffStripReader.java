@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.sentinel1;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Direct reader for uncompressed, stripped complex int16 TIFF files such as the Sentinel-1 SLC measurement files.
+ * <p>
+ * The strip offsets are parsed once when the file is opened. Rows are then read with positional reads on a shared
+ * FileChannel straight into the destination arrays, so any number of threads may read from the same file at once.
+ */
+public final class TiffStripReader {
+
+    private static final int TAG_IMAGE_WIDTH = 256;
+    private static final int TAG_IMAGE_LENGTH = 257;
+    private static final int TAG_BITS_PER_SAMPLE = 258;
+    private static final int TAG_COMPRESSION = 259;
+    private static final int TAG_STRIP_OFFSETS = 273;
+    private static final int TAG_SAMPLES_PER_PIXEL = 277;
+    private static final int TAG_ROWS_PER_STRIP = 278;
+    private static final int TAG_PLANAR_CONFIGURATION = 284;
+    private static final int TAG_TILE_WIDTH = 322;
+    private static final int TAG_SAMPLE_FORMAT = 339;
+
+    private static final int TYPE_SHORT = 3;
+    private static final int TYPE_LONG = 4;
+
+    private static final int SAMPLE_FORMAT_COMPLEX_INT = 5;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final FileChannel channel;
+    private final ByteOrder byteOrder;
+    private final int width;
+    private final int height;
+    private final int rowsPerStrip;
+    private final long[] stripOffsets;
+
+    private TiffStripReader(final FileChannel channel, final ByteOrder byteOrder, final int width, final int height,
+                            final int rowsPerStrip, final long[] stripOffsets) {
+        this.channel = channel;
+        this.byteOrder = byteOrder;
+        this.width = width;
+        this.height = height;
+        this.rowsPerStrip = rowsPerStrip;
+        this.stripOffsets = stripOffsets;
+    }
+
+    /**
+     * Open a TIFF file for direct reading.
+     *
+     * @param file the TIFF file
+     * @return the reader or null if the layout of the file is not supported
+     * @throws IOException on read error
+     */
+    public static TiffStripReader open(final File file) throws IOException {
+
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            final TiffStripReader reader = parseHeader(channel);
+            if (reader == null) {
+                channel.close();
+            }
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static TiffStripReader parseHeader(final FileChannel channel) throws IOException {
+
+        final ByteBuffer header = read(channel, 0, 8, ByteOrder.BIG_ENDIAN);
+        final ByteOrder byteOrder;
+        if (header.get(0) == 'I' && header.get(1) == 'I') {
+            byteOrder = ByteOrder.LITTLE_ENDIAN;
+        } else if (header.get(0) == 'M' && header.get(1) == 'M') {
+            byteOrder = ByteOrder.BIG_ENDIAN;
+        } else {
+            return null;
+        }
+        header.order(byteOrder);
+        if (header.getShort(2) != 42) {
+            return null; // BigTIFF or not a TIFF
+        }
+
+        final long ifdOffset = header.getInt(4) & 0xFFFFFFFFL;
+        final int numEntries = read(channel, ifdOffset, 2, byteOrder).getShort(0) & 0xFFFF;
+        final ByteBuffer ifd = read(channel, ifdOffset + 2, numEntries * 12, byteOrder);
+
+        int width = 0, height = 0, bitsPerSample = 0, compression = 1, samplesPerPixel = 1, planarConfig = 1;
+        int sampleFormat = 1;
+        long rowsPerStrip = Integer.MAX_VALUE;
+        long[] stripOffsets = null;
+
+        for (int i = 0; i < numEntries; ++i) {
+            final int pos = i * 12;
+            final int tag = ifd.getShort(pos) & 0xFFFF;
+            final int type = ifd.getShort(pos + 2) & 0xFFFF;
+            final long count = ifd.getInt(pos + 4) & 0xFFFFFFFFL;
+
+            switch (tag) {
+                case TAG_IMAGE_WIDTH:
+                    width = (int) getValue(ifd, pos, type);
+                    break;
+                case TAG_IMAGE_LENGTH:
+                    height = (int) getValue(ifd, pos, type);
+                    break;
+                case TAG_BITS_PER_SAMPLE:
+                    bitsPerSample = (int) getValue(ifd, pos, type);
+                    break;
+                case TAG_COMPRESSION:
+                    compression = (int) getValue(ifd, pos, type);
+                    break;
+                case TAG_SAMPLES_PER_PIXEL:
+                    samplesPerPixel = (int) getValue(ifd, pos, type);
+                    break;
+                case TAG_ROWS_PER_STRIP:
+                    rowsPerStrip = getValue(ifd, pos, type);
+                    break;
+                case TAG_PLANAR_CONFIGURATION:
+                    planarConfig = (int) getValue(ifd, pos, type);
+                    break;
+                case TAG_SAMPLE_FORMAT:
+                    sampleFormat = (int) getValue(ifd, pos, type);
+                    break;
+                case TAG_TILE_WIDTH:
+                    return null; // tiled layout
+                case TAG_STRIP_OFFSETS:
+                    stripOffsets = getValues(channel, ifd, pos, type, (int) count, byteOrder);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (width <= 0 || height <= 0 || stripOffsets == null || compression != 1 || planarConfig != 1 ||
+                samplesPerPixel != 1 || bitsPerSample != 8 * BYTES_PER_PIXEL || sampleFormat != SAMPLE_FORMAT_COMPLEX_INT) {
+            return null;
+        }
+        final int stripRows = (int) Math.min(rowsPerStrip, height);
+        if (stripOffsets.length < (height + stripRows - 1) / stripRows) {
+            return null;
+        }
+
+        return new TiffStripReader(channel, byteOrder, width, height, stripRows, stripOffsets);
+    }
+
+    private static long getValue(final ByteBuffer ifd, final int pos, final int type) {
+        return type == TYPE_SHORT ? ifd.getShort(pos + 8) & 0xFFFF : ifd.getInt(pos + 8) & 0xFFFFFFFFL;
+    }
+
+    private static long[] getValues(final FileChannel channel, final ByteBuffer ifd, final int pos, final int type,
+                                    final int count, final ByteOrder byteOrder) throws IOException {
+        if (type != TYPE_SHORT && type != TYPE_LONG) {
+            return null;
+        }
+        final int size = type == TYPE_SHORT ? 2 : 4;
+        final ByteBuffer buffer;
+        int offset = 0;
+        if (count * size <= 4) {
+            buffer = ifd;
+            offset = pos + 8;
+        } else {
+            buffer = read(channel, ifd.getInt(pos + 8) & 0xFFFFFFFFL, count * size, byteOrder);
+        }
+
+        final long[] values = new long[count];
+        for (int i = 0; i < count; ++i) {
+            values[i] = type == TYPE_SHORT ? buffer.getShort(offset + i * size) & 0xFFFF :
+                    buffer.getInt(offset + i * size) & 0xFFFFFFFFL;
+        }
+        return values;
+    }
+
+    private static ByteBuffer read(final FileChannel channel, final long position, final int length,
+                                   final ByteOrder byteOrder) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(byteOrder);
+        readFully(channel, buffer, position);
+        return buffer;
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, pos);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of TIFF file at " + pos);
+            }
+            pos += n;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Read the real or imaginary part of a rectangle of complex samples.
+     *
+     * @param x         the first pixel
+     * @param y         the first line
+     * @param w         the rectangle width
+     * @param h         the rectangle height
+     * @param imaginary true for the imaginary part
+     * @param dest      a short[] or int[] of at least w * h elements, filled line by line
+     * @throws IOException on read error
+     */
+    public void readRect(final int x, final int y, final int w, final int h, final boolean imaginary,
+                         final Object dest) throws IOException {
+
+        final int x0 = Math.max(x, 0);
+        final int x1 = Math.min(x + w, width);
+        final int y1 = Math.min(y + h, height);
+        if (x1 <= x0) {
+            return;
+        }
+
+        final short[] shortDest = dest instanceof short[] ? (short[]) dest : null;
+        final int[] intDest = dest instanceof int[] ? (int[]) dest : null;
+        if (shortDest == null && intDest == null) {
+            throw new IllegalArgumentException("unsupported destination " + dest.getClass().getSimpleName());
+        }
+
+        final int rowLength = x1 - x0;
+        final ByteBuffer buffer = ByteBuffer.allocate(rowLength * BYTES_PER_PIXEL).order(byteOrder);
+        // as in the ImageIO path the real part is the low and the imaginary part the high half of a 32 bit sample
+        final int partOffset = imaginary == (byteOrder == ByteOrder.LITTLE_ENDIAN) ? 2 : 0;
+
+        for (int row = Math.max(y, 0); row < y1; ++row) {
+            final long rowPosition = stripOffsets[row / rowsPerStrip] +
+                    ((long) (row % rowsPerStrip) * width + x0) * BYTES_PER_PIXEL;
+            buffer.clear();
+            readFully(channel, buffer, rowPosition);
+
+            int index = (row - y) * w + (x0 - x);
+            if (shortDest != null) {
+                for (int i = 0; i < rowLength; ++i) {
+                    shortDest[index++] = buffer.getShort(i * BYTES_PER_PIXEL + partOffset);
+                }
+            } else {
+                for (int i = 0; i < rowLength; ++i) {
+                    intDest[index++] = buffer.getShort(i * BYTES_PER_PIXEL + partOffset);
+                }
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -650,6 +650,9 @@ public class TerraSarXProductDirectory extends XMLProductDirectory {
 
                     final ImageIOFile img = new ImageIOFile(name, imgStream, GeoTiffUtils.getTiffIIOReader(imgStream),
                             1, 1, ProductData.TYPE_UINT16, productInputFile);
+                    if (!isCompressed()) {
+                        img.enableReaderPool(getFile(imgPath));
+                    }
                     bandImageFileMap.put(img.getName(), img);
                 }
             }
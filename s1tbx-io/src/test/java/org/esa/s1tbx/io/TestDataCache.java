@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io;
+
+import org.junit.Test;
+
+import java.awt.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for DataCache.
+ */
+public class TestDataCache {
+
+    @Test
+    public void testKeys() {
+        final DataCache.DataKey key1 = new DataCache.DataKey(null, new Rectangle(0, 0, 100, 50));
+        final DataCache.DataKey key2 = new DataCache.DataKey(null, new Rectangle(0, 0, 100, 50));
+        final DataCache.DataKey key3 = new DataCache.DataKey(null, new Rectangle(0, 50, 100, 50));
+
+        assertEquals(key1, key2);
+        assertEquals(key1.hashCode(), key2.hashCode());
+        assertFalse(key1.equals(key3));
+        assertTrue(key1.hashCode() != key3.hashCode());
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        final DataCache cache = new DataCache(1024 * 1024);
+        final DataCache.DataKey key = new DataCache.DataKey(null, new Rectangle(0, 0, 10, 10));
+
+        assertNull(cache.get(key));
+        cache.put(key, new DataCache.Data(new int[100]));
+        assertNotNull(cache.get(key));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testByteBudget() {
+        final int maxBytes = 1024 * 1024;
+        final DataCache cache = new DataCache(maxBytes);
+        for (int i = 0; i < 100; ++i) {
+            cache.put(new DataCache.DataKey(null, new Rectangle(0, i * 100, 256, 100)), new DataCache.Data(new int[256 * 100]));
+        }
+
+        assertTrue(cache.size() * 256 * 100 * Integer.BYTES <= maxBytes);
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+}
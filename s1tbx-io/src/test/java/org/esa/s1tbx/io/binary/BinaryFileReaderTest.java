@@ -15,12 +15,22 @@
  */
 package org.esa.s1tbx.io.binary;
 
+import org.esa.s1tbx.commons.io.FileImageInputStreamExtImpl;
 import org.junit.Test;
 
 import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
@@ -445,4 +455,57 @@ public class BinaryFileReaderTest {
         assertEquals(prefix.length() + 9 * 1, _ios.getStreamPosition());
     }
 
+    @Test
+    public void testReadAt() throws IOException {
+        for (int i = 0; i < 16; ++i) {
+            _ios.writeShort(i);
+        }
+        _ios.seek(2);
+
+        final BinaryFileReader ceosReader = new BinaryFileReader(_ios);
+        final short[] shorts = new short[6];
+        ceosReader.readAt(8, shorts, 1, 4);
+
+        assertArrayEquals(new short[]{0, 4, 5, 6, 7, 0}, shorts);
+    }
+
+    @Test
+    public void testReadAtFromFile() throws Exception {
+        final int numLines = 64;
+        final int lineLength = 1000;
+        final File file = File.createTempFile("ceos", ".img");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+                for (int i = 0; i < numLines * lineLength; ++i) {
+                    out.writeInt(i);
+                }
+            }
+
+            final BinaryFileReader ceosReader = new BinaryFileReader(new FileImageInputStreamExtImpl(file));
+            final ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; ++t) {
+                    futures.add(executor.submit(() -> {
+                        final int[] line = new int[lineLength];
+                        for (int y = numLines - 1; y >= 0; --y) {
+                            ceosReader.readAt(y * lineLength * 4L, line, 0, lineLength);
+                            for (int x = 0; x < lineLength; ++x) {
+                                assertEquals(y * lineLength + x, line[x]);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+                ceosReader.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.io.sentinel1;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Unit test for TiffStripReader on a synthetic complex int16 TIFF.
+ */
+public class TestTiffStripReader {
+
+    private static final int width = 37;
+    private static final int height = 23;
+    private static final int rowsPerStrip = 4;
+
+    private static short real(final int x, final int y) {
+        return (short) (x * 100 + y);
+    }
+
+    private static short imaginary(final int x, final int y) {
+        return (short) -(x * 100 + y);
+    }
+
+    private static File createTiff(final ByteOrder byteOrder) throws IOException {
+        final int numStrips = (height + rowsPerStrip - 1) / rowsPerStrip;
+        final int numEntries = 9;
+        final int ifdOffset = 8;
+        final int stripOffsetsOffset = ifdOffset + 2 + numEntries * 12 + 4;
+        final int dataOffset = stripOffsetsOffset + numStrips * 4;
+
+        final ByteBuffer buf = ByteBuffer.allocate(dataOffset + width * height * 4).order(byteOrder);
+        buf.put(byteOrder == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        buf.put(byteOrder == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        buf.putShort((short) 42);
+        buf.putInt(ifdOffset);
+
+        buf.putShort((short) numEntries);
+        putEntry(buf, 256, 4, 1, width);
+        putEntry(buf, 257, 4, 1, height);
+        putEntry(buf, 258, 3, 1, 32);
+        putEntry(buf, 259, 3, 1, 1);
+        putEntry(buf, 273, 4, numStrips, stripOffsetsOffset);
+        putEntry(buf, 277, 3, 1, 1);
+        putEntry(buf, 278, 4, 1, rowsPerStrip);
+        putEntry(buf, 284, 3, 1, 1);
+        putEntry(buf, 339, 3, 1, 5);
+        buf.putInt(0);
+
+        for (int s = 0; s < numStrips; ++s) {
+            buf.putInt(dataOffset + s * rowsPerStrip * width * 4);
+        }
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                // 32 bit sample with the real part in the low half
+                buf.putInt((real(x, y) & 0xFFFF) | (imaginary(x, y) << 16));
+            }
+        }
+
+        final File file = File.createTempFile("complex", ".tiff");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(buf.array());
+        }
+        return file;
+    }
+
+    private static void putEntry(final ByteBuffer buf, final int tag, final int type, final int count, final int value) {
+        buf.putShort((short) tag);
+        buf.putShort((short) type);
+        buf.putInt(count);
+        if (type == 3 && count == 1) {
+            buf.putShort((short) value);
+            buf.putShort((short) 0);
+        } else {
+            buf.putInt(value);
+        }
+    }
+
+    @Test
+    public void testReadLittleEndian() throws IOException {
+        testRead(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void testReadBigEndian() throws IOException {
+        testRead(ByteOrder.BIG_ENDIAN);
+    }
+
+    private static void testRead(final ByteOrder byteOrder) throws IOException {
+        final TiffStripReader reader = TiffStripReader.open(createTiff(byteOrder));
+        assertNotNull(reader);
+        try {
+            assertEquals(width, reader.getWidth());
+            assertEquals(height, reader.getHeight());
+
+            final int x0 = 5, y0 = 3, w = 20, h = 15;
+            final short[] realData = new short[w * h];
+            final int[] imagData = new int[w * h];
+            reader.readRect(x0, y0, w, h, false, realData);
+            reader.readRect(x0, y0, w, h, true, imagData);
+
+            for (int y = 0; y < h; ++y) {
+                for (int x = 0; x < w; ++x) {
+                    assertEquals(real(x0 + x, y0 + y), realData[y * w + x]);
+                    assertEquals(imaginary(x0 + x, y0 + y), imagData[y * w + x]);
+                }
+            }
+
+            // rectangle crossing the image border
+            final short[] border = new short[10 * 10];
+            reader.readRect(width - 5, height - 5, 10, 10, false, border);
+            assertEquals(real(width - 1, height - 1), border[4 * 10 + 4]);
+            assertEquals(0, border[4 * 10 + 5]);
+        } finally {
+            reader.close();
+        }
+    }
+}
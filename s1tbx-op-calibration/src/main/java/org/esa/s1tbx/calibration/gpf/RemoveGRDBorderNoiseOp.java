@@ -414,9 +414,7 @@ public final class RemoveGRDBorderNoiseOp extends Operator {
             throws OperatorException {
 
         try {
-            if (useBorderDetection && !borderDetected) {
-                detectBorders();
-            }
+            prepareBorders();
 
             final int x0 = targetRectangle.x;
             final int y0 = targetRectangle.y;
@@ -452,7 +450,7 @@ public final class RemoveGRDBorderNoiseOp extends Operator {
             final Tile coPolTile = getSourceTile(coPolBand, targetRectangle);
             final ProductData coPolData = coPolTile.getDataBuffer();
 
-            double coPolDataValue, deNoisedDataValue;
+            double coPolDataValue;
             for (int y = y0; y < yMax; y++) {
                 srcIndex.calculateStride(y);
                 tgtIndex.calculateStride(y);
@@ -460,18 +458,15 @@ public final class RemoveGRDBorderNoiseOp extends Operator {
                 for (int x = x0; x < xMax; x++) {
                     final int srcIdx = srcIndex.getIndex(x);
 
-                    boolean testPixel = x < leftBorder || x > rightBorder || y < topBorder || y > bottomBorder;
+                    boolean testPixel = isBorderPixel(x, y);
 
                     if (testPixel) {
                         coPolDataValue = coPolData.getElemDoubleAt(srcIdx);
-                        if (noDataValue.equals(coPolDataValue)) {
+                        if (isNoDataValue(coPolDataValue)) {
                             continue;
                         }
 
-                        deNoisedDataValue =
-                                Math.sqrt(Math.max(coPolDataValue * coPolDataValue - noiseLUT[x], 0.0));
-
-                        if (deNoisedDataValue < trimThreshold || coPolDataValue < 30) {
+                        if (isBorderNoise(x, coPolDataValue)) {
                             final int tgtIdx = tgtIndex.getIndex(x);
                             for (int i = 0; i < numBands; i++) {
                                 targetData[i].setElemDoubleAt(tgtIdx, bandNoDataValues[i]);
@@ -495,6 +490,51 @@ public final class RemoveGRDBorderNoiseOp extends Operator {
         }
     }
 
+    /**
+     * Detect the borders of the image once, before the first tile is masked.
+     */
+    void prepareBorders() throws OperatorException {
+        if (useBorderDetection && !borderDetected) {
+            detectBorders();
+        }
+    }
+
+    /**
+     * @return The co-polarised band used to detect border noise.
+     */
+    Band getCoPolBand() {
+        return coPolBand;
+    }
+
+    /**
+     * Check if a pixel lies outside of the detected borders and has to be tested for border noise.
+     *
+     * @param x Pixel x coordinate.
+     * @param y Pixel y coordinate.
+     * @return True if the pixel is to be tested.
+     */
+    boolean isBorderPixel(final int x, final int y) {
+        return x < leftBorder || x > rightBorder || y < topBorder || y > bottomBorder;
+    }
+
+    boolean isNoDataValue(final double coPolDataValue) {
+        return noDataValue.equals(coPolDataValue);
+    }
+
+    /**
+     * Check if a border pixel is noise to be masked.
+     *
+     * @param x              Pixel x coordinate.
+     * @param coPolDataValue The co-polarised DN of the pixel.
+     * @return True if the pixel is to be masked.
+     */
+    boolean isBorderNoise(final int x, final double coPolDataValue) {
+        final double deNoisedDataValue =
+                Math.sqrt(Math.max(coPolDataValue * coPolDataValue - noiseLUT[x], 0.0));
+
+        return deNoisedDataValue < trimThreshold || coPolDataValue < 30;
+    }
+
     private synchronized void detectBorders() throws OperatorException {
 
         if (borderDetected) return;
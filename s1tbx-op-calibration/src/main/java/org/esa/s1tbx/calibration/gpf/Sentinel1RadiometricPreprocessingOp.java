@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.calibration.gpf;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s1tbx.calibration.gpf.calibrators.Sentinel1Calibrator;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.MetadataElement;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.gpf.Operator;
+import org.esa.snap.core.gpf.OperatorException;
+import org.esa.snap.core.gpf.OperatorSpi;
+import org.esa.snap.core.gpf.Tile;
+import org.esa.snap.core.gpf.annotations.OperatorMetadata;
+import org.esa.snap.core.gpf.annotations.Parameter;
+import org.esa.snap.core.gpf.annotations.SourceProduct;
+import org.esa.snap.core.gpf.annotations.TargetProduct;
+import org.esa.snap.engine_utilities.datamodel.AbstractMetadata;
+import org.esa.snap.engine_utilities.datamodel.Unit;
+import org.esa.snap.engine_utilities.gpf.InputProductValidator;
+import org.esa.snap.engine_utilities.gpf.OperatorUtils;
+import org.esa.snap.engine_utilities.gpf.TileIndex;
+
+import java.awt.Rectangle;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Border noise removal, thermal noise removal and calibration of Sentinel-1 Level-1 products in one pass.
+ * <p>
+ * The result is the same as running Remove-GRD-Border-Noise, ThermalNoiseRemoval and Calibration one after the
+ * other, but the DN of each polarisation are read once per tile and no intermediate tiles are cached. The noise
+ * and calibration LUTs are computed by the embedded operators, which are never asked for tiles.
+ */
+@OperatorMetadata(alias = "S1-Radiometric-Preprocessing",
+        category = "Radar/Radiometric",
+        authors = "Jun Lu, Luis Veci",
+        copyright = "Copyright (C) 2021 by SkyWatch Space Applications Inc.",
+        version = "1.0",
+        description = "Border noise removal, thermal noise removal and calibration of Sentinel-1 products")
+public final class Sentinel1RadiometricPreprocessingOp extends Operator {
+
+    @SourceProduct(alias = "source")
+    private Product sourceProduct;
+    @TargetProduct
+    private Product targetProduct;
+
+    @Parameter(description = "The list of polarisations", label = "Polarisations")
+    private String[] selectedPolarisations;
+
+    @Parameter(description = "Remove GRD border noise", defaultValue = "true", label = "Remove GRD Border Noise")
+    private Boolean removeBorderNoise = true;
+
+    @Parameter(description = "The border margin limit", defaultValue = "500", label = "Border margin limit[pixels]")
+    private int borderLimit = 500;
+
+    @Parameter(description = "The trim threshold", defaultValue = "0.5", label = "Threshold")
+    private double trimThreshold = 0.5;
+
+    @Parameter(description = "Remove thermal noise", defaultValue = "true", label = "Remove Thermal Noise")
+    private Boolean removeThermalNoise = true;
+
+    @Parameter(description = "Output sigma0 band", defaultValue = "true", label = "Output sigma0 band")
+    private Boolean outputSigmaBand = true;
+
+    @Parameter(description = "Output gamma0 band", defaultValue = "false", label = "Output gamma0 band")
+    private Boolean outputGammaBand = false;
+
+    @Parameter(description = "Output beta0 band", defaultValue = "false", label = "Output beta0 band")
+    private Boolean outputBetaBand = false;
+
+    private RemoveGRDBorderNoiseOp borderNoiseOp = null;
+    private Sentinel1RemoveThermalNoiseOp thermalNoiseOp = null;
+    private Sentinel1Calibrator calibrator = null;
+
+    /**
+     * Default constructor. The graph processing framework
+     * requires that an operator has a default constructor.
+     */
+    public Sentinel1RadiometricPreprocessingOp() {
+    }
+
+    /**
+     * Initializes this operator and sets the one and only target product.
+     * <p>The target product can be either defined by a field of type {@link Product} annotated with the
+     * {@link TargetProduct TargetProduct} annotation or
+     * by calling {@link #setTargetProduct} method.</p>
+     * <p>The framework calls this method after it has created this operator.
+     * Any client code that must be performed before computation of tile data
+     * should be placed here.</p>
+     *
+     * @throws OperatorException If an error occurs during operator initialisation.
+     * @see #getTargetProduct()
+     */
+    @Override
+    public void initialize() throws OperatorException {
+
+        try {
+            final InputProductValidator validator = new InputProductValidator(sourceProduct);
+            validator.checkIfSentinel1Product();
+            validator.checkAcquisitionMode(new String[] {"IW","EW","SM"});
+            validator.checkProductType(new String[] {"SLC","GRD"});
+            validator.checkIfCalibrated(false);
+
+            final MetadataElement absRoot = AbstractMetadata.getAbstractedMetadata(sourceProduct);
+            final boolean isGRD = absRoot.getAttributeString(AbstractMetadata.PRODUCT_TYPE).contains("GRD");
+
+            if (removeBorderNoise && isGRD) {
+                borderNoiseOp = (RemoveGRDBorderNoiseOp) new RemoveGRDBorderNoiseOp.Spi().createOperator();
+                borderNoiseOp.setSourceProduct(sourceProduct);
+                borderNoiseOp.setParameter("borderLimit", borderLimit);
+                borderNoiseOp.setParameter("trimThreshold", trimThreshold);
+                borderNoiseOp.getTargetProduct();
+            }
+
+            // the calibrator is set up on the product it would get in the chain of operators
+            Product calibrationSource = sourceProduct;
+            if (removeThermalNoise) {
+                thermalNoiseOp =
+                        (Sentinel1RemoveThermalNoiseOp) new Sentinel1RemoveThermalNoiseOp.Spi().createOperator();
+                thermalNoiseOp.setSourceProduct(sourceProduct);
+                if (selectedPolarisations != null) {
+                    thermalNoiseOp.setParameter("selectedPolarisations", selectedPolarisations);
+                }
+                calibrationSource = thermalNoiseOp.getTargetProduct();
+            }
+
+            calibrator = new Sentinel1Calibrator();
+            calibrator.setOutputImageInComplex(false);
+            calibrator.setOutputImageIndB(false);
+            calibrator.setUserSelections(calibrationSource,
+                    selectedPolarisations, outputSigmaBand, outputGammaBand, outputBetaBand, false);
+            targetProduct = calibrator.createTargetProduct(calibrationSource, null);
+            calibrator.initialize(this, calibrationSource, targetProduct, false, true);
+
+            updateTargetProductMetadata();
+
+        } catch (Throwable e) {
+            OperatorUtils.catchOperatorException(getId(), e);
+        }
+    }
+
+    /**
+     * Update the metadata in the target product.
+     */
+    private void updateTargetProductMetadata() {
+
+        final MetadataElement absRoot = AbstractMetadata.getAbstractedMetadata(targetProduct);
+        absRoot.getAttribute(AbstractMetadata.abs_calibration_flag).getData().setElemBoolean(true);
+        absRoot.setAttributeString(AbstractMetadata.SAMPLE_TYPE, "DETECTED");
+    }
+
+    /**
+     * Called by the framework in order to compute a tile for the given target band.
+     * <p>The default implementation throws a runtime exception with the message "not implemented".</p>
+     *
+     * @param targetTileMap   The target tiles associated with all target bands to be computed.
+     * @param targetRectangle The rectangle of target tile.
+     * @param pm              A progress monitor which should be used to determine computation cancelation requests.
+     * @throws OperatorException If an error occurs during computation of the target raster.
+     */
+    @Override
+    public void computeTileStack(Map<Band, Tile> targetTileMap, Rectangle targetRectangle, ProgressMonitor pm)
+            throws OperatorException {
+
+        try {
+            if (borderNoiseOp != null) {
+                borderNoiseOp.prepareBorders();
+            }
+
+            final int x0 = targetRectangle.x;
+            final int y0 = targetRectangle.y;
+            final int w = targetRectangle.width;
+            final int h = targetRectangle.height;
+            final int maxY = y0 + h;
+            final int maxX = x0 + w;
+
+            // Sigma0, Gamma0 and Beta0 of a polarisation share the de-noised intensities
+            final Map<String, double[]> intensityMap = new HashMap<>(4);
+            final double[] calibrationFactors = new double[w];
+
+            for (Map.Entry<Band, Tile> entry : targetTileMap.entrySet()) {
+                final Band targetBand = entry.getKey();
+                final Tile targetTile = entry.getValue();
+                final String targetBandName = targetBand.getName();
+
+                final String[] calSrcBandNames = calibrator.getSourceBandNames(targetBandName);
+                double[] intensities = intensityMap.get(calSrcBandNames[0]);
+                if (intensities == null) {
+                    intensities = computeIntensities(calSrcBandNames, targetRectangle);
+                    intensityMap.put(calSrcBandNames[0], intensities);
+                }
+
+                final Sentinel1Calibrator.CalibrationInfo calInfo = calibrator.getCalibrationInfo(targetBandName);
+                if (calInfo == null) {
+                    throw new OperatorException("Calibration information not found.");
+                }
+                final Sentinel1Calibrator.CALTYPE calType = Sentinel1Calibrator.getCalibrationType(targetBandName);
+
+                final ProductData trgData = targetTile.getDataBuffer();
+                final TileIndex trgIndex = new TileIndex(targetTile);
+
+                for (int y = y0; y < maxY; ++y) {
+                    trgIndex.calculateStride(y);
+                    calibrator.computeCalibrationFactors(calInfo, calType, false, y, x0, w, calibrationFactors);
+
+                    final int offset = (y - y0) * w;
+                    for (int x = x0; x < maxX; ++x) {
+                        final int xx = x - x0;
+                        trgData.setElemDoubleAt(trgIndex.getIndex(x),
+                                Sentinel1Calibrator.calibrate(intensities[offset + xx], calibrationFactors[xx]));
+                    }
+                }
+            }
+
+        } catch (Throwable e) {
+            OperatorUtils.catchOperatorException(getId(), e);
+        }
+    }
+
+    /**
+     * Compute the intensities the calibrator gets for a tile: the DN with the border noise masked and the thermal
+     * noise removed, rounded to float as in the intermediate product.
+     *
+     * @param calSrcBandNames The names of the bands the calibrator reads.
+     * @param targetRectangle The rectangle of target tile.
+     * @return The intensities of the tile line by line.
+     */
+    private double[] computeIntensities(final String[] calSrcBandNames, final Rectangle targetRectangle) {
+
+        final int x0 = targetRectangle.x;
+        final int y0 = targetRectangle.y;
+        final int w = targetRectangle.width;
+        final int h = targetRectangle.height;
+        final int maxY = y0 + h;
+        final int maxX = x0 + w;
+
+        final String calSrcBandName = calSrcBandNames[0];
+        final String[] srcBandNames = thermalNoiseOp != null ?
+                thermalNoiseOp.getSourceBandNames(calSrcBandName) : calSrcBandNames;
+        final Band sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
+        final Tile sourceRaster1 = getSourceTile(sourceBand1, targetRectangle);
+        final ProductData srcData1 = sourceRaster1.getDataBuffer();
+        ProductData srcData2 = null;
+        if (srcBandNames.length > 1) {
+            srcData2 = getSourceTile(sourceProduct.getBand(srcBandNames[1]), targetRectangle).getDataBuffer();
+        }
+
+        ProductData coPolData = null;
+        if (borderNoiseOp != null) {
+            coPolData = getSourceTile(borderNoiseOp.getCoPolBand(), targetRectangle).getDataBuffer();
+        }
+
+        double[][] noiseBlock = null;
+        final double[] noiseLUT = new double[w];
+        if (thermalNoiseOp != null) {
+            noiseBlock = thermalNoiseOp.populateNoiseAzimuthBlock(x0, y0, w, h, calSrcBandName);
+        }
+
+        final double srcNoDataValue = sourceBand1.getNoDataValue();
+        final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand1);
+        final boolean complexData = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+        if (bandUnit != Unit.UnitType.AMPLITUDE && bandUnit != Unit.UnitType.INTENSITY && !complexData) {
+            throw new OperatorException("Unhandled unit");
+        }
+
+        final TileIndex srcIndex = new TileIndex(sourceRaster1);
+        final double[] intensities = new double[w * h];
+
+        double dn, dn2, i, q;
+        int srcIdx, k = 0;
+        for (int y = y0; y < maxY; ++y) {
+            srcIndex.calculateStride(y);
+
+            if (thermalNoiseOp != null) {
+                thermalNoiseOp.computeLineNoiseLUT(calSrcBandName, null, null, y, x0, y0, w, noiseBlock, noiseLUT);
+            }
+
+            for (int x = x0; x < maxX; ++x) {
+                srcIdx = srcIndex.getIndex(x);
+
+                if (complexData) {
+                    i = srcData1.getElemDoubleAt(srcIdx);
+                    q = srcData2.getElemDoubleAt(srcIdx);
+                    dn2 = i * i + q * q;
+                } else {
+                    dn = srcData1.getElemDoubleAt(srcIdx);
+
+                    if (coPolData != null && borderNoiseOp.isBorderPixel(x, y)) {
+                        final double coPolDataValue = coPolData.getElemDoubleAt(srcIdx);
+                        if (borderNoiseOp.isNoDataValue(coPolDataValue)) {
+                            // the border noise removal leaves these samples unset
+                            dn = 0.0;
+                        } else if (borderNoiseOp.isBorderNoise(x, coPolDataValue)) {
+                            dn = srcNoDataValue;
+                        }
+                    }
+
+                    dn2 = bandUnit == Unit.UnitType.AMPLITUDE ? dn * dn : dn;
+                }
+
+                if (thermalNoiseOp != null) {
+                    // the de-noised intensities are stored as float by the thermal noise removal
+                    if (dn2 == srcNoDataValue) {
+                        intensities[k++] = (float) srcNoDataValue;
+                    } else {
+                        intensities[k++] = (float) Sentinel1RemoveThermalNoiseOp.removeNoise(dn2, noiseLUT[x - x0]);
+                    }
+                } else {
+                    intensities[k++] = dn2;
+                }
+            }
+        }
+        return intensities;
+    }
+
+    /**
+     * The SPI is used to register this operator in the graph processing framework
+     * via the SPI configuration file
+     * {@code META-INF/services/org.esa.snap.core.gpf.OperatorSpi}.
+     * This class may also serve as a factory for new operator instances.
+     *
+     * @see OperatorSpi#createOperator()
+     * @see OperatorSpi#createOperator(java.util.Map, java.util.Map)
+     */
+    public static class Spi extends OperatorSpi {
+        public Spi() {
+            super(Sentinel1RadiometricPreprocessingOp.class);
+        }
+    }
+}
@@ -17,6 +17,7 @@ package org.esa.s1tbx.calibration.gpf;
 
 import com.bc.ceres.core.ProgressMonitor;
 import org.esa.s1tbx.calibration.gpf.calibrators.Sentinel1Calibrator;
+import org.esa.s1tbx.calibration.gpf.support.ExpandedRangeVectors;
 import org.esa.s1tbx.commons.Sentinel1Utils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.MetadataElement;
@@ -47,6 +48,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Apply thermal noise correction to Sentinel-1 Level-1 products.
@@ -98,10 +101,26 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
 
     private static final String PRODUCT_SUFFIX = "_NR";
 
+    // LUTs shared by all tiles
+    private final Map<ThermalNoiseInfo, ExpandedRangeVectors> noiseLUTs = new ConcurrentHashMap<>();
+    private final Map<String, NoiseVectors> noiseVectorsMap = new ConcurrentHashMap<>();
+    private final TimeMaps timeMaps = new TimeMaps();
+
     private static class TimeMaps {
-        private final HashMap<String, Double> t0Map = new HashMap<>();
-        private final HashMap<String, Double> deltaTsMap = new HashMap<>();
-        private final HashMap<String, double[]> swathStartEndTimesMap = new HashMap<>();
+        private final Map<String, Double> t0Map = new ConcurrentHashMap<>();
+        private final Map<String, Double> deltaTsMap = new ConcurrentHashMap<>();
+        private final Map<String, double[]> swathStartEndTimesMap = new ConcurrentHashMap<>();
+    }
+
+    private static class NoiseVectors {
+        private final Sentinel1Utils.NoiseAzimuthVector[] noiseAzimuthVectors;
+        private final Sentinel1Utils.NoiseVector[] noiseRangeVectors;
+
+        NoiseVectors(final Sentinel1Utils.NoiseAzimuthVector[] noiseAzimuthVectors,
+                     final Sentinel1Utils.NoiseVector[] noiseRangeVectors) {
+            this.noiseAzimuthVectors = noiseAzimuthVectors;
+            this.noiseRangeVectors = noiseRangeVectors;
+        }
     }
 
     /**
@@ -466,12 +485,10 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
         }
     }
 
-    private double[][] populateNoiseAzimuthBlock(
+    double[][] populateNoiseAzimuthBlock(
             final int x0, final int y0, final int w, final int h, final String targetBandName) {
 
         if (version >= 2.9) {
-            final TimeMaps timeMaps = new TimeMaps();
-
             if (isGRD) {
                 return buildNoiseLUTForTOPSGRD(x0, y0, w, h, targetBandName, timeMaps);
             } else if (isTOPSARSLC) {
@@ -555,37 +572,12 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
 
             double dn, dn2, i, q;
             int srcIdx, tgtIdx;
+            final double[] lut = new double[w];
             for (int y = y0; y < maxY; ++y) {
                 srcIndex.calculateStride(y);
                 tgtIndex.calculateStride(y);
 
-                double[] lut = new double[w];
-                if (absoluteCalibrationPerformed) {
-                    final int calVecIdx = calInfo.getCalibrationVectorIndex(y);
-                    final Sentinel1Utils.CalibrationVector vec0 = calInfo.getCalibrationVector(calVecIdx);
-                    final Sentinel1Utils.CalibrationVector vec1 = calInfo.getCalibrationVector(calVecIdx + 1);
-                    final float[] vec0LUT = Sentinel1Calibrator.getVector(calType, vec0);
-                    final float[] vec1LUT = Sentinel1Calibrator.getVector(calType, vec1);
-                    final Sentinel1Utils.CalibrationVector calVec = calInfo.calibrationVectorList[calVecIdx];
-                    final int pixelIdx0 = calVec.getPixelIndex(x0);
-
-                    if (version < 2.9) {
-                        final ThermalNoiseInfo noiseInfo = getNoiseInfo(targetBandName);
-                        computeTileScaledNoiseLUT(y, x0, w, noiseInfo, calInfo, vec0.timeMJD, vec1.timeMJD,
-                                vec0LUT, vec1LUT, vec0.pixels, pixelIdx0, lut);
-                    } else {
-                        computeTileScaledNoiseLUT(y, x0, y0, w, noiseBlock, calInfo, vec0.timeMJD, vec1.timeMJD,
-                                vec0LUT, vec1LUT, vec0.pixels, pixelIdx0, lut);
-                    }
-
-                } else {
-                    if (version < 2.9) {
-                        final ThermalNoiseInfo noiseInfo = getNoiseInfo(targetBandName);
-                        computeTileNoiseLUT(y, x0, w, noiseInfo, lut);
-                    } else {
-                        computeTileNoiseLUT(y - y0, x0, w, noiseBlock, lut);
-                    }
-                }
+                computeLineNoiseLUT(targetBandName, calInfo, calType, y, x0, y0, w, noiseBlock, lut);
 
                 for (int x = x0; x < maxX; ++x) {
                     final int xx = x - x0;
@@ -609,14 +601,7 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
                         continue;
                     }
 
-                    double value = dn2 - lut[xx];
-                    if(value < 0) {
-                        //value = dn2;       // small intensity value; if too small, calibration will make it nodatavalue
-
-                        // Eq-1 in Section 6 of MPC-0392 DI-MPC-TN Issue 1.1 2017,Nov.28 "Thermal Denoising of Products Generated by the S-1 IPF"
-                        value = (dn2 == 0.0?trgFloorValue:dn2);
-                    }
-                    trgData.setElemDoubleAt(tgtIdx, value);
+                    trgData.setElemDoubleAt(tgtIdx, removeNoise(dn2, lut[xx]));
                 }
             }
         } catch (Throwable e) {
@@ -624,6 +609,80 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
         }
     }
 
+    /**
+     * Compute the noise LUT of the given range line of a tile.
+     *
+     * @param targetBandName Target band name.
+     * @param calInfo        Object of CalibrationInfo class, null if the product is not calibrated.
+     * @param calType        Calibration type of the target band, null if the product is not calibrated.
+     * @param y              Index of the given range line.
+     * @param x0             X coordinate of the upper left corner pixel of the given tile.
+     * @param y0             Y coordinate of the upper left corner pixel of the given tile.
+     * @param w              Tile width.
+     * @param noiseBlock     The noise block of the tile for IPF 2.9 and later, null otherwise.
+     * @param lut            The noise LUT.
+     */
+    void computeLineNoiseLUT(final String targetBandName,
+                             final Sentinel1Calibrator.CalibrationInfo calInfo,
+                             final Sentinel1Calibrator.CALTYPE calType,
+                             final int y, final int x0, final int y0, final int w,
+                             final double[][] noiseBlock, final double[] lut) {
+
+        if (absoluteCalibrationPerformed) {
+            final int calVecIdx = calInfo.getCalibrationVectorIndex(y);
+            final Sentinel1Utils.CalibrationVector vec0 = calInfo.getCalibrationVector(calVecIdx);
+            final Sentinel1Utils.CalibrationVector vec1 = calInfo.getCalibrationVector(calVecIdx + 1);
+            final float[] vec0LUT = Sentinel1Calibrator.getVector(calType, vec0);
+            final float[] vec1LUT = Sentinel1Calibrator.getVector(calType, vec1);
+            final Sentinel1Utils.CalibrationVector calVec = calInfo.calibrationVectorList[calVecIdx];
+            final int pixelIdx0 = calVec.getPixelIndex(x0);
+
+            if (version < 2.9) {
+                final ThermalNoiseInfo noiseInfo = getNoiseInfo(targetBandName);
+                computeTileScaledNoiseLUT(y, x0, w, noiseInfo, calInfo, vec0.timeMJD, vec1.timeMJD,
+                        vec0LUT, vec1LUT, vec0.pixels, pixelIdx0, lut);
+            } else {
+                computeTileScaledNoiseLUT(y, x0, y0, w, noiseBlock, calInfo, vec0.timeMJD, vec1.timeMJD,
+                        vec0LUT, vec1LUT, vec0.pixels, pixelIdx0, lut);
+            }
+
+        } else {
+            if (version < 2.9) {
+                final ThermalNoiseInfo noiseInfo = getNoiseInfo(targetBandName);
+                computeTileNoiseLUT(y, x0, w, noiseInfo, lut);
+            } else {
+                computeTileNoiseLUT(y - y0, x0, w, noiseBlock, lut);
+            }
+        }
+    }
+
+    /**
+     * Subtract the thermal noise from an intensity.
+     *
+     * @param dn2   The intensity.
+     * @param noise The noise LUT value of the pixel.
+     * @return The de-noised intensity.
+     */
+    static double removeNoise(final double dn2, final double noise) {
+
+        double value = dn2 - noise;
+        if(value < 0) {
+            //value = dn2;       // small intensity value; if too small, calibration will make it nodatavalue
+
+            // Eq-1 in Section 6 of MPC-0392 DI-MPC-TN Issue 1.1 2017,Nov.28 "Thermal Denoising of Products Generated by the S-1 IPF"
+            value = (dn2 == 0.0?trgFloorValue:dn2);
+        }
+        return value;
+    }
+
+    /**
+     * @param targetBandName Target band name.
+     * @return The names of the source bands the target band is computed from.
+     */
+    String[] getSourceBandNames(final String targetBandName) {
+        return targetBandNameToSourceBandName.get(targetBandName);
+    }
+
     /**
      * Get thermal noise information for given target band.
      *
@@ -770,7 +829,7 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
      * @param noiseInfo Object of ThermalNoiseInfo class.
      * @param lut       The noise LUT.
      */
-    private static void computeTileNoiseLUT(final int y, final int x0, final int w,
+    private void computeTileNoiseLUT(final int y, final int x0, final int w,
                                      final ThermalNoiseInfo noiseInfo, final double[] lut) {
         try {
             final int noiseVecIdx = getNoiseVectorIndex(y, noiseInfo);
@@ -782,39 +841,72 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
             final double azT1 = noiseVector1.timeMJD;
             final double muY = (azTime - azT0) / (azT1 - azT0);
 
-            int pixelIdx0 = getPixelIndex(x0, noiseVector0);
-            int pixelIdx1 = getPixelIndex(x0, noiseVector1);
+            final ExpandedRangeVectors noiseLUT = getNoiseLUT(noiseInfo);
+            final double[] noise0 = noiseLUT.getRow(noiseVecIdx);
+            final double[] noise1 = noiseLUT.getRow(noiseVecIdx + 1);
 
-            final int maxLength0 = noiseVector0.pixels.length - 2;
-            final int maxLength1 = noiseVector1.pixels.length - 2;
             final int maxX = x0 + w;
             for (int x = x0; x < maxX; x++) {
-
-                if (x > noiseVector0.pixels[pixelIdx0 + 1] && pixelIdx0 < maxLength0) {
-                    pixelIdx0++;
-                }
-                final int x00 = noiseVector0.pixels[pixelIdx0];
-                final int x01 = noiseVector0.pixels[pixelIdx0 + 1];
-                final double muX0 = (double) (x - x00) / (double) (x01 - x00);
-                final double noise0 = Maths.interpolationLinear(
-                        noiseVector0.noiseLUT[pixelIdx0], noiseVector0.noiseLUT[pixelIdx0 + 1], muX0);
-
-                if (x > noiseVector1.pixels[pixelIdx1 + 1] && pixelIdx1 < maxLength1) {
-                    pixelIdx1++;
-                }
-                final int x10 = noiseVector1.pixels[pixelIdx1];
-                final int x11 = noiseVector1.pixels[pixelIdx1 + 1];
-                final double muX1 = (double) (x - x10) / (double) (x11 - x10);
-                final double noise1 = Maths.interpolationLinear(
-                        noiseVector1.noiseLUT[pixelIdx1], noiseVector1.noiseLUT[pixelIdx1 + 1], muX1);
-
-                lut[x - x0] = Maths.interpolationLinear(noise0, noise1, muY);
+                lut[x - x0] = Maths.interpolationLinear(noise0[x], noise1[x], muY);
             }
         } catch (Throwable e) {
             OperatorUtils.catchOperatorException("computeTileNoiseLUT", e);
         }
     }
 
+    /**
+     * Get the noise vectors of a band expanded along range, shared by all tiles.
+     *
+     * @param noiseInfo Object of ThermalNoiseInfo class.
+     * @return The expanded noise vectors.
+     */
+    private ExpandedRangeVectors getNoiseLUT(final ThermalNoiseInfo noiseInfo) {
+
+        return noiseLUTs.computeIfAbsent(noiseInfo, k -> createNoiseLUT(noiseInfo, sourceProduct.getSceneRasterWidth()));
+    }
+
+    /**
+     * Expand the noise vectors of a band along range.
+     *
+     * @param noiseInfo Object of ThermalNoiseInfo class.
+     * @param width     Scene width.
+     * @return The expanded noise vectors.
+     */
+    static ExpandedRangeVectors createNoiseLUT(final ThermalNoiseInfo noiseInfo, final int width) {
+
+        return new ExpandedRangeVectors(noiseInfo.noiseVectorList.length, width, (vecIdx, row) -> {
+            final Sentinel1Utils.NoiseVector noiseVector = noiseInfo.noiseVectorList[vecIdx];
+
+            int pixelIdx = getPixelIndex(0, noiseVector);
+            final int maxLength = noiseVector.pixels.length - 2;
+            for (int x = 0; x < row.length; x++) {
+
+                if (x > noiseVector.pixels[pixelIdx + 1] && pixelIdx < maxLength) {
+                    pixelIdx++;
+                }
+                final int xx0 = noiseVector.pixels[pixelIdx];
+                final int xx1 = noiseVector.pixels[pixelIdx + 1];
+                final double muX = (double) (x - xx0) / (double) (xx1 - xx0);
+                row[x] = Maths.interpolationLinear(
+                        noiseVector.noiseLUT[pixelIdx], noiseVector.noiseLUT[pixelIdx + 1], muX);
+            }
+        });
+    }
+
+    /**
+     * Get the noise azimuth and range vectors of a noise data set, parsed once from the metadata.
+     *
+     * @param imageName The name of the noise data set.
+     * @param noiElem   The noise element of the data set.
+     * @return The noise vectors.
+     */
+    private NoiseVectors getNoiseVectors(final String imageName, final MetadataElement noiElem) {
+
+        return noiseVectorsMap.computeIfAbsent(imageName, k -> new NoiseVectors(
+                Sentinel1Utils.getAzimuthNoiseVector(noiElem.getElement("noiseAzimuthVectorList")),
+                Sentinel1Utils.getNoiseVector(noiElem.getElement("noiseRangeVectorList"))));
+    }
+
     private static void computeTileNoiseLUT(final int yy, final int x0, final int w,
                                             final double[][] noiseBlock, final double[] lut) {
         try {
@@ -851,7 +943,7 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
      * @param noiseVector Noise vector.
      * @return The pixel index.
      */
-    private static int getPixelIndex(final int x, final Sentinel1Utils.NoiseVector noiseVector) {
+    static int getPixelIndex(final int x, final Sentinel1Utils.NoiseVector noiseVector) {
 
         for (int i = 0; i < noiseVector.pixels.length; i++) {
             if (x < noiseVector.pixels[i]) {
@@ -889,11 +981,9 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
 
             final MetadataElement noiElem = dataSetListElem.getElement("noise");
 
-            MetadataElement noiseAzimuthVectorListElem = noiElem.getElement("noiseAzimuthVectorList");
-            noiseAzimuthVectors = Sentinel1Utils.getAzimuthNoiseVector(noiseAzimuthVectorListElem);
-
-            MetadataElement noiseRangeVectorListElem = noiElem.getElement("noiseRangeVectorList");
-            noiseRangeVectors = Sentinel1Utils.getNoiseVector(noiseRangeVectorListElem);
+            final NoiseVectors noiseVectors = getNoiseVectors(imageName, noiElem);
+            noiseAzimuthVectors = noiseVectors.noiseAzimuthVectors;
+            noiseRangeVectors = noiseVectors.noiseRangeVectors;
         }
 
         final MetadataElement annotationElem = origMetadataRoot.getElement("annotation");
@@ -1009,13 +1099,10 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
                 throw new OperatorException("Noise removal should be applied prior to slice assembly");
             }
 
-            final Sentinel1Utils.NoiseAzimuthVector[] noiseAzimuthVectors =
-                    Sentinel1Utils.getAzimuthNoiseVector(noiseAzimuthVectorListElem);
-
-            // get the noise range vectors
-            MetadataElement noiseRangeVectorListElem = noiElem.getElement("noiseRangeVectorList");
-            final Sentinel1Utils.NoiseVector[] noiseRangeVectors =
-                    Sentinel1Utils.getNoiseVector(noiseRangeVectorListElem);
+            // get the noise azimuth and range vectors
+            final NoiseVectors noiseVectors = getNoiseVectors(imageName, noiElem);
+            final Sentinel1Utils.NoiseAzimuthVector[] noiseAzimuthVectors = noiseVectors.noiseAzimuthVectors;
+            final Sentinel1Utils.NoiseVector[] noiseRangeVectors = noiseVectors.noiseRangeVectors;
 
             // create noise matrix for the tile
             double[][] noiseMatrix = new double[h][w];
@@ -1373,6 +1460,10 @@ public final class Sentinel1RemoveThermalNoiseOp extends Operator {
 
         // imageName is something like s1a-iw-grd-hh-...
 
+        if (timeMaps.t0Map.containsKey(imageName) && timeMaps.deltaTsMap.containsKey(imageName)) {
+            return;
+        }
+
         final MetadataElement annotationElem = origMetadataRoot.getElement("annotation");
         final MetadataElement[] annotationDataSetListElem = annotationElem.getElements();
 
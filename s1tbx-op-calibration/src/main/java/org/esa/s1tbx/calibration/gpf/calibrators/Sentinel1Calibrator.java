@@ -20,6 +20,7 @@ import org.apache.commons.math3.util.FastMath;
 import org.esa.s1tbx.calibration.gpf.Sentinel1RemoveThermalNoiseOp;
 import org.esa.s1tbx.calibration.gpf.support.BaseCalibrator;
 import org.esa.s1tbx.calibration.gpf.support.Calibrator;
+import org.esa.s1tbx.calibration.gpf.support.ExpandedRangeVectors;
 import org.esa.s1tbx.commons.Sentinel1Utils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.MetadataElement;
@@ -44,6 +45,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Calibration for Sentinel1 data products.
@@ -65,6 +68,7 @@ public final class Sentinel1Calibrator extends BaseCalibrator implements Calibra
     private CALTYPE dataType = null;
     private int subsetOffsetX = 0;
     private int subsetOffsetY = 0;
+    private final Map<String, ExpandedRangeVectors> calibrationLUTs = new ConcurrentHashMap<>();
 
     public enum CALTYPE {SIGMA0, BETA0, GAMMA, DN}
 
@@ -583,54 +587,28 @@ public final class Sentinel1Calibrator extends BaseCalibrator implements Calibra
             }
             final CALTYPE calType = getCalibrationType(targetBandName);
 
-            double dn = 0.0, i, q, muX, lutVal, retroLutVal = 1.0, calValue, calibrationFactor, phaseTerm = 0.0;
+            double dn = 0.0, i, q, calValue, calibrationFactor, phaseTerm = 0.0;
             int srcIdx;
-            int pixelIdx = -1;
 
-            float trgFloorValue = Sentinel1RemoveThermalNoiseOp.trgFloorValue;
+            final boolean applyRetroLUT = isUnitIntensity && dataType != null;
+            final double[] calibrationFactors = new double[w];
 
             for (int y = y0; y < maxY; ++y) {
                 srcIndex.calculateStride(y);
                 trgIndex.calculateStride(y);
 
-                final int calVecIdx = calInfo.getCalibrationVectorIndex(subsetOffsetY + y);
-                final Sentinel1Utils.CalibrationVector vec0 = calInfo.getCalibrationVector(calVecIdx);
-                final Sentinel1Utils.CalibrationVector vec1 = calInfo.getCalibrationVector(calVecIdx + 1);
-                final float[] vec0LUT = getVector(calType, vec0);
-                final float[] vec1LUT = getVector(calType, vec1);
-                float[] retroVec0LUT = null;
-                float[] retroVec1LUT = null;
-                if (dataType != null) {
-                    retroVec0LUT = getVector(dataType, vec0);
-                    retroVec1LUT = getVector(dataType, vec1);
-                }
-                final double azTime = calInfo.firstLineTime + (subsetOffsetY + y) * calInfo.lineTimeInterval;
-                final double muY = (azTime - vec0.timeMJD) / (vec1.timeMJD - vec0.timeMJD);
-                final int[] vec0Pixels = vec0.pixels;
-                final Sentinel1Utils.CalibrationVector calVec = calInfo.calibrationVectorList[calVecIdx];
+                computeCalibrationFactors(calInfo, calType, applyRetroLUT, y, x0, w, calibrationFactors);
 
                 for (int x = x0; x < maxX; ++x) {
                     srcIdx = srcIndex.getIndex(x);
 
                     dn = srcData1.getElemDoubleAt(srcIdx);
-
-                    pixelIdx = getPixelIndex(calVec, pixelIdx, subsetOffsetX + x);
-                    muX = (subsetOffsetX + x - vec0Pixels[pixelIdx]) /
-                            (double)(vec0Pixels[pixelIdx + 1] - vec0Pixels[pixelIdx]);
-
-                    lutVal = (1 - muY) * ((1 - muX) * vec0LUT[pixelIdx] + muX * vec0LUT[pixelIdx + 1]) +
-                            muY * ((1 - muX) * vec1LUT[pixelIdx] + muX * vec1LUT[pixelIdx + 1]);
-
-                    calibrationFactor = 1.0 / (lutVal*lutVal);
+                    calibrationFactor = calibrationFactors[x - x0];
 
                     if (isUnitAmplitude) {
                         dn *= dn;
                     } else if (isUnitIntensity) {
-                        if (dataType != null) {
-                            retroLutVal = (1 - muY) * ((1 - muX) * retroVec0LUT[pixelIdx] + muX * retroVec0LUT[pixelIdx + 1]) +
-                                    muY * ((1 - muX) * retroVec1LUT[pixelIdx] + muX * retroVec1LUT[pixelIdx + 1]);
-                        }
-                        calibrationFactor *= retroLutVal;
+                        // retro-calibration LUT already applied to the calibration factor
                     } else if (isUnitReal) {
                         i = dn;
                         q = srcData2.getElemDoubleAt(srcIdx);
@@ -650,14 +628,7 @@ public final class Sentinel1Calibrator extends BaseCalibrator implements Calibra
                         throw new OperatorException("Sentinel-1 Calibration: unhandled unit");
                     }
 
-                    calValue = dn * calibrationFactor;
-
-                    if(dn == trgFloorValue) {
-                        while((float)calValue < 0.00001) {
-                            dn *= 2;
-                            calValue = dn * calibrationFactor;
-                        }
-                    }
+                    calValue = calibrate(dn, calibrationFactor);
 
                     if (isComplex && outputImageInComplex) {
                         calValue = Math.sqrt(calValue)*phaseTerm;
@@ -674,8 +645,129 @@ public final class Sentinel1Calibrator extends BaseCalibrator implements Calibra
         }
     }
 
-    private static int getPixelIndex(final Sentinel1Utils.CalibrationVector calVec, final int lastIndex, final int x) {
-        if(lastIndex >= 0 && lastIndex < calVec.pixels.length-1 && x >- calVec.pixels[lastIndex] && x < calVec.pixels[lastIndex+1]) {
+    /**
+     * Compute the calibration factors 1/LUT^2 of one range line of a tile.
+     *
+     * @param calInfo       Object of CalibrationInfo class for the target band.
+     * @param calType       Calibration type of the target band.
+     * @param applyRetroLUT True to multiply the factors with the LUT the intensity source was calibrated with.
+     * @param y             Index of the given range line.
+     * @param x0            X coordinate of the upper left corner pixel of the tile.
+     * @param w             Tile width.
+     * @param factors       The calibration factors of the line.
+     */
+    public void computeCalibrationFactors(final CalibrationInfo calInfo, final CALTYPE calType,
+                                          final boolean applyRetroLUT, final int y, final int x0, final int w,
+                                          final double[] factors) {
+
+        final int calVecIdx = calInfo.getCalibrationVectorIndex(subsetOffsetY + y);
+        final Sentinel1Utils.CalibrationVector vec0 = calInfo.getCalibrationVector(calVecIdx);
+        final Sentinel1Utils.CalibrationVector vec1 = calInfo.getCalibrationVector(calVecIdx + 1);
+        final ExpandedRangeVectors lut = getCalibrationLUT(calInfo, calType);
+        final double[] lut0 = lut.getRow(calVecIdx);
+        final double[] lut1 = lut.getRow(calVecIdx + 1);
+        double[] retroLut0 = null;
+        double[] retroLut1 = null;
+        if (applyRetroLUT) {
+            final ExpandedRangeVectors retroLut = getCalibrationLUT(calInfo, dataType);
+            retroLut0 = retroLut.getRow(calVecIdx);
+            retroLut1 = retroLut.getRow(calVecIdx + 1);
+        }
+        final double azTime = calInfo.firstLineTime + (subsetOffsetY + y) * calInfo.lineTimeInterval;
+        final double muY = (azTime - vec0.timeMJD) / (vec1.timeMJD - vec0.timeMJD);
+
+        double lutVal, retroLutVal;
+        for (int xx = 0, x = subsetOffsetX + x0; xx < w; ++xx, ++x) {
+            lutVal = (1 - muY) * lut0[x] + muY * lut1[x];
+
+            factors[xx] = 1.0 / (lutVal*lutVal);
+
+            if (applyRetroLUT) {
+                retroLutVal = (1 - muY) * retroLut0[x] + muY * retroLut1[x];
+                factors[xx] *= retroLutVal;
+            }
+        }
+    }
+
+    /**
+     * Get the calibration vectors of a band expanded along range, shared by all tiles.
+     *
+     * @param calInfo Object of CalibrationInfo class for the band.
+     * @param calType Calibration type.
+     * @return The expanded calibration vectors.
+     */
+    private ExpandedRangeVectors getCalibrationLUT(final CalibrationInfo calInfo, final CALTYPE calType) {
+
+        final String key = calInfo.polarization + '_' + calInfo.subSwath + '_' + calType;
+        return calibrationLUTs.computeIfAbsent(key, k -> createCalibrationLUT(
+                calInfo, calType, subsetOffsetX + sourceProduct.getSceneRasterWidth()));
+    }
+
+    /**
+     * Expand the calibration vectors of a band along range, each on its own pixel grid.
+     *
+     * @param calInfo Object of CalibrationInfo class for the band.
+     * @param calType Calibration type.
+     * @param width   Width of the full scene the vectors are given for.
+     * @return The expanded calibration vectors.
+     */
+    static ExpandedRangeVectors createCalibrationLUT(final CalibrationInfo calInfo, final CALTYPE calType,
+                                                     final int width) {
+
+        return new ExpandedRangeVectors(calInfo.count, width, (vecIdx, row) -> {
+            final Sentinel1Utils.CalibrationVector calVec = calInfo.getCalibrationVector(vecIdx);
+            final float[] vecLUT = getVector(calType, calVec);
+            final int[] pixels = calVec.pixels;
+
+            int pixelIdx = -1;
+            double muX;
+            for (int x = 0; x < row.length; ++x) {
+                pixelIdx = getPixelIndex(calVec, pixelIdx, x);
+                muX = (x - pixels[pixelIdx]) / (double)(pixels[pixelIdx + 1] - pixels[pixelIdx]);
+                row[x] = (1 - muX) * vecLUT[pixelIdx] + muX * vecLUT[pixelIdx + 1];
+            }
+        });
+    }
+
+    /**
+     * Apply a calibration factor to an intensity. Intensities floored by the thermal noise removal are scaled up
+     * until they are representable as float.
+     *
+     * @param dn                The intensity.
+     * @param calibrationFactor The calibration factor.
+     * @return The calibrated value.
+     */
+    public static double calibrate(double dn, final double calibrationFactor) {
+
+        double calValue = dn * calibrationFactor;
+
+        if(dn == Sentinel1RemoveThermalNoiseOp.trgFloorValue) {
+            while((float)calValue < 0.00001) {
+                dn *= 2;
+                calValue = dn * calibrationFactor;
+            }
+        }
+        return calValue;
+    }
+
+    /**
+     * @param targetBandName Target band name.
+     * @return The names of the source bands the target band is computed from.
+     */
+    public String[] getSourceBandNames(final String targetBandName) {
+        return targetBandNameToSourceBandName.get(targetBandName);
+    }
+
+    /**
+     * @param targetBandName Target band name.
+     * @return The calibration information for the target band.
+     */
+    public CalibrationInfo getCalibrationInfo(final String targetBandName) {
+        return targetBandToCalInfo.get(targetBandName);
+    }
+
+    static int getPixelIndex(final Sentinel1Utils.CalibrationVector calVec, final int lastIndex, final int x) {
+        if(lastIndex >= 0 && lastIndex < calVec.pixels.length-1 && x >= calVec.pixels[lastIndex] && x < calVec.pixels[lastIndex+1]) {
             return lastIndex;
         }
         int index = Arrays.binarySearch(calVec.pixels, x);
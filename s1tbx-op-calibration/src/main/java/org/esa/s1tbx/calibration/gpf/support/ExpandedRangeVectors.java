@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.calibration.gpf.support;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * LUT vectors given at a set of azimuth lines, each expanded along range once for the whole scene width.
+ * <p>
+ * A LUT surface that is interpolated in range within a vector and in azimuth between two vectors is separable
+ * into these rows: a tile line only blends the rows of the two vectors bracketing it, instead of searching the
+ * vector pixel index and interpolating in range for every pixel of every line of every tile.
+ * <p>
+ * Rows are expanded on first use and shared by all tiles and threads. Two threads may expand the same row,
+ * which gives the same values.
+ */
+public final class ExpandedRangeVectors {
+
+    /**
+     * Expands one vector along range.
+     */
+    public interface RowExpander {
+        /**
+         * @param vectorIndex Index of the vector.
+         * @param row         The values of the vector for every range pixel of the scene.
+         */
+        void expand(final int vectorIndex, final double[] row);
+    }
+
+    private final int width;
+    private final RowExpander expander;
+    private final AtomicReferenceArray<double[]> rows;
+
+    /**
+     * @param numVectors Number of vectors.
+     * @param width      Scene width.
+     * @param expander   Expands one vector along range.
+     */
+    public ExpandedRangeVectors(final int numVectors, final int width, final RowExpander expander) {
+        this.width = width;
+        this.expander = expander;
+        this.rows = new AtomicReferenceArray<>(numVectors);
+    }
+
+    /**
+     * @param vectorIndex Index of the vector.
+     * @return The vector expanded along range. It must not be modified.
+     */
+    public double[] getRow(final int vectorIndex) {
+        double[] row = rows.get(vectorIndex);
+        if (row == null) {
+            row = new double[width];
+            expander.expand(vectorIndex, row);
+            if (!rows.compareAndSet(vectorIndex, null, row)) {
+                row = rows.get(vectorIndex);
+            }
+        }
+        return row;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getNumVectors() {
+        return rows.length();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.calibration.gpf;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s1tbx.commons.test.TestData;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.gpf.Operator;
+import org.esa.snap.engine_utilities.util.TestUtils;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compare the S1-Radiometric-Preprocessing operator with the chain of operators it replaces.
+ */
+public class TestSentinel1RadiometricPreprocessingOp {
+
+    static {
+        TestUtils.initTestEnvironment();
+    }
+
+    @Test
+    public void testProcessingS1_GRD() throws Exception {
+        final File inputFile = TestData.inputS1_GRD;
+        assumeTrue(inputFile + " not found", inputFile.exists());
+
+        processAndCompare(inputFile, true, true, true, false, false);
+    }
+
+    @Test
+    public void testProcessingS1_GRD_AllCalibrationTypes() throws Exception {
+        final File inputFile = TestData.inputS1_GRD;
+        assumeTrue(inputFile + " not found", inputFile.exists());
+
+        processAndCompare(inputFile, true, true, true, true, true);
+        processAndCompare(inputFile, true, true, false, true, false);
+        processAndCompare(inputFile, true, true, false, false, true);
+    }
+
+    @Test
+    public void testProcessingS1_GRD_NoiseOptions() throws Exception {
+        final File inputFile = TestData.inputS1_GRD;
+        assumeTrue(inputFile + " not found", inputFile.exists());
+
+        processAndCompare(inputFile, false, true, true, false, false);
+        processAndCompare(inputFile, true, false, true, false, false);
+        processAndCompare(inputFile, false, false, true, true, true);
+    }
+
+    @Test
+    public void testProcessingS1_StripmapSLC() throws Exception {
+        final File inputFile = TestData.inputS1_StripmapSLC;
+        assumeTrue(inputFile + " not found", inputFile.exists());
+
+        processAndCompare(inputFile, false, true, true, false, false);
+        processAndCompare(inputFile, false, true, true, true, true);
+        processAndCompare(inputFile, false, false, true, false, false);
+    }
+
+    /**
+     * Run the fused operator and the chain of operators it replaces with the same options and compare every band.
+     * The fused operator stores the de-noised intensities as float as the intermediate product does, so the
+     * results are compared bit for bit.
+     */
+    private static void processAndCompare(final File inputFile, final boolean removeBorderNoise,
+                                          final boolean removeThermalNoise, final boolean outputSigmaBand,
+                                          final boolean outputGammaBand, final boolean outputBetaBand)
+            throws Exception {
+
+        Product chainProduct = TestUtils.readSourceProduct(inputFile);
+        final boolean isGRD = chainProduct.getProductType().contains("GRD");
+        if (removeBorderNoise && isGRD) {
+            chainProduct = process(new RemoveGRDBorderNoiseOp.Spi().createOperator(), chainProduct);
+        }
+        if (removeThermalNoise) {
+            chainProduct = process(new Sentinel1RemoveThermalNoiseOp.Spi().createOperator(), chainProduct);
+        }
+        final Operator calibrationOp = new CalibrationOp.Spi().createOperator();
+        calibrationOp.setParameter("outputSigmaBand", outputSigmaBand);
+        calibrationOp.setParameter("outputGammaBand", outputGammaBand);
+        calibrationOp.setParameter("outputBetaBand", outputBetaBand);
+        chainProduct = process(calibrationOp, chainProduct);
+
+        final Operator fusedOp = new Sentinel1RadiometricPreprocessingOp.Spi().createOperator();
+        fusedOp.setParameter("removeBorderNoise", removeBorderNoise);
+        fusedOp.setParameter("removeThermalNoise", removeThermalNoise);
+        fusedOp.setParameter("outputSigmaBand", outputSigmaBand);
+        fusedOp.setParameter("outputGammaBand", outputGammaBand);
+        fusedOp.setParameter("outputBetaBand", outputBetaBand);
+        final Product fusedProduct = process(fusedOp, TestUtils.readSourceProduct(inputFile));
+        TestUtils.verifyProduct(fusedProduct, true, true, true);
+
+        assertEquals(chainProduct.getNumBands(), fusedProduct.getNumBands());
+        for (Band band : chainProduct.getBands()) {
+            compare(chainProduct, fusedProduct, band.getName());
+        }
+    }
+
+    private static Product process(final Operator op, final Product sourceProduct) {
+        assertNotNull(op);
+        op.setSourceProduct(sourceProduct);
+        return op.getTargetProduct();
+    }
+
+    private static void compare(final Product expectedProduct, final Product product, final String bandName)
+            throws Exception {
+        final Band expectedBand = expectedProduct.getBand(bandName);
+        final Band band = product.getBand(bandName);
+        assertNotNull(expectedBand);
+        assertNotNull(band);
+
+        final int w = Math.min(600, band.getRasterWidth());
+        final int h = Math.min(600, band.getRasterHeight());
+        final float[] expected = new float[w * h];
+        final float[] actual = new float[w * h];
+        expectedBand.readPixels(0, 0, w, h, expected, ProgressMonitor.NULL);
+        band.readPixels(0, 0, w, h, actual, ProgressMonitor.NULL);
+
+        assertArrayEquals(bandName, expected, actual, 0.0f);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.calibration.gpf;
+
+import org.esa.s1tbx.calibration.gpf.support.ExpandedRangeVectors;
+import org.esa.s1tbx.commons.Sentinel1Utils;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The range expanded noise LUTs of Sentinel1RemoveThermalNoiseOp against the noise computed per tile, on a synthetic
+ * vector set.
+ */
+public class TestThermalNoiseLUT {
+
+    private static final int width = 200;
+    private static final int numOfLines = 61;
+    private static final double firstLineTime = 7000.5; // days
+    private static final double lineTimeInterval = 0.001 / 86400.0;
+
+    private static final int[][] pixels = {
+            {0, 40, 80, 120, 160, 199},
+            {0, 50, 100, 150, 199},
+            {0, 1, 2, 90, 199}
+    };
+    private static final int[] lines = {0, 30, 60};
+
+    private static Sentinel1RemoveThermalNoiseOp.ThermalNoiseInfo createNoiseInfo() {
+        final Sentinel1Utils.NoiseVector[] vectors = new Sentinel1Utils.NoiseVector[lines.length];
+        for (int v = 0; v < lines.length; ++v) {
+            final float[] noise = new float[pixels[v].length];
+            for (int i = 0; i < noise.length; ++i) {
+                noise[i] = 120f + 3f * v - 0.8f * pixels[v][i] + 0.004f * pixels[v][i] * pixels[v][i];
+            }
+            vectors[v] = new Sentinel1Utils.NoiseVector(
+                    new ProductData.UTC(firstLineTime + lines[v] * lineTimeInterval), lines[v], pixels[v], noise);
+        }
+        return new Sentinel1RemoveThermalNoiseOp.ThermalNoiseInfo("VV", "IW1", firstLineTime,
+                firstLineTime + (numOfLines - 1) * lineTimeInterval, numOfLines, lines.length, vectors);
+    }
+
+    @Test
+    public void testExpandedLUTAgainstTiles() {
+        final Sentinel1RemoveThermalNoiseOp.ThermalNoiseInfo noiseInfo = createNoiseInfo();
+        final ExpandedRangeVectors lut = Sentinel1RemoveThermalNoiseOp.createNoiseLUT(noiseInfo, width);
+
+        // tiles starting before, on and after vector pixels, and at the last segment
+        final int[][] tiles = {{0, 200}, {0, 64}, {37, 50}, {40, 41}, {41, 100}, {50, 1}, {100, 100}, {180, 20}};
+        for (int v = 0; v < lines.length; ++v) {
+            final Sentinel1Utils.NoiseVector noiseVector = noiseInfo.noiseVectorList[v];
+            final double[] row = lut.getRow(v);
+            for (int[] tile : tiles) {
+                final double[] tileNoise = computeTileNoise(noiseVector, tile[0], tile[1]);
+                for (int x = tile[0]; x < tile[0] + tile[1]; ++x) {
+                    assertEquals("vector " + v + " pixel " + x, tileNoise[x - tile[0]], row[x], 1e-9);
+                }
+            }
+
+            // the vector values at their own pixels
+            for (int i = 0; i < noiseVector.pixels.length; ++i) {
+                assertEquals(noiseVector.noiseLUT[i], row[noiseVector.pixels[i]], 1e-9);
+            }
+        }
+    }
+
+    /**
+     * The noise along range of one vector as computed per tile before the LUTs were shared, starting at the pixel
+     * index of the first tile pixel.
+     */
+    private static double[] computeTileNoise(final Sentinel1Utils.NoiseVector noiseVector, final int x0, final int w) {
+        final double[] noise = new double[w];
+        int pixelIdx = Sentinel1RemoveThermalNoiseOp.getPixelIndex(x0, noiseVector);
+        final int maxLength = noiseVector.pixels.length - 2;
+        for (int x = x0; x < x0 + w; x++) {
+            if (x > noiseVector.pixels[pixelIdx + 1] && pixelIdx < maxLength) {
+                pixelIdx++;
+            }
+            final int xx0 = noiseVector.pixels[pixelIdx];
+            final int xx1 = noiseVector.pixels[pixelIdx + 1];
+            final double muX = (double) (x - xx0) / (double) (xx1 - xx0);
+            noise[x - x0] = (1 - muX) * noiseVector.noiseLUT[pixelIdx] + muX * noiseVector.noiseLUT[pixelIdx + 1];
+        }
+        return noise;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.calibration.gpf.calibrators;
+
+import org.esa.s1tbx.calibration.gpf.support.ExpandedRangeVectors;
+import org.esa.s1tbx.commons.Sentinel1Utils;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The range expanded calibration LUTs of Sentinel1Calibrator against a per pixel interpolation of a synthetic
+ * vector set.
+ */
+public class TestSentinel1Calibrator {
+
+    private static final int width = 200;
+    private static final int numOfLines = 61;
+    private static final double firstLineTime = 7000.5; // days
+    private static final double lineTimeInterval = 0.001 / 86400.0;
+
+    // the first two vectors on different pixel grids, the last two on the same one
+    private static final int[][] pixels = {
+            {0, 40, 80, 120, 160, 199},
+            {0, 50, 100, 150, 199},
+            {0, 50, 100, 150, 199}
+    };
+    private static final int[] lines = {0, 30, 60};
+
+    private static final Sentinel1Calibrator.CalibrationInfo calInfo = createCalibrationInfo();
+
+    private static Sentinel1Calibrator.CalibrationInfo createCalibrationInfo() {
+        final Sentinel1Utils.CalibrationVector[] vectors = new Sentinel1Utils.CalibrationVector[lines.length];
+        for (int v = 0; v < lines.length; ++v) {
+            final float[] sigma = new float[pixels[v].length];
+            for (int i = 0; i < sigma.length; ++i) {
+                sigma[i] = 300f + 7f * v + 0.5f * pixels[v][i] - 0.001f * pixels[v][i] * pixels[v][i];
+            }
+            vectors[v] = new Sentinel1Utils.CalibrationVector(
+                    new ProductData.UTC(firstLineTime + lines[v] * lineTimeInterval), lines[v], pixels[v],
+                    sigma, sigma, sigma, sigma);
+        }
+        return new Sentinel1Calibrator.CalibrationInfo("IW1", "VV", firstLineTime,
+                firstLineTime + (numOfLines - 1) * lineTimeInterval, numOfLines, lines.length, vectors);
+    }
+
+    @Test
+    public void testPixelIndexAcrossTileLines() {
+        final Sentinel1Utils.CalibrationVector calVec = calInfo.getCalibrationVector(0);
+
+        // the index of the last line of a tile is past x at the start of the next line
+        assertEquals(0, Sentinel1Calibrator.getPixelIndex(calVec, 3, 10));
+        assertEquals(1, Sentinel1Calibrator.getPixelIndex(calVec, 4, 40));
+
+        final int x0 = 37, w = 130;
+        int pixelIdx = -1;
+        for (int y = 0; y < 3; ++y) {
+            for (int x = x0; x < x0 + w; ++x) {
+                pixelIdx = Sentinel1Calibrator.getPixelIndex(calVec, pixelIdx, x);
+                assertEquals("line " + y + " pixel " + x, calVec.getPixelIndex(x), pixelIdx);
+            }
+        }
+        assertEquals(pixels[0].length - 2, Sentinel1Calibrator.getPixelIndex(calVec, -1, width - 1));
+    }
+
+    @Test
+    public void testExpandedLUTAtVectorBoundaries() {
+        final ExpandedRangeVectors lut =
+                Sentinel1Calibrator.createCalibrationLUT(calInfo, Sentinel1Calibrator.CALTYPE.SIGMA0, width);
+
+        for (int y : new int[]{0, 1, 29, 30, 31, 58, 59}) {
+            final int calVecIdx = calInfo.getCalibrationVectorIndex(y);
+            final Sentinel1Utils.CalibrationVector vec0 = calInfo.getCalibrationVector(calVecIdx);
+            final Sentinel1Utils.CalibrationVector vec1 = calInfo.getCalibrationVector(calVecIdx + 1);
+            final double[] lut0 = lut.getRow(calVecIdx);
+            final double[] lut1 = lut.getRow(calVecIdx + 1);
+            final double azTime = calInfo.firstLineTime + y * calInfo.lineTimeInterval;
+            final double muY = (azTime - vec0.timeMJD) / (vec1.timeMJD - vec0.timeMJD);
+
+            for (int x = 0; x < width; ++x) {
+                final double lutVal = (1 - muY) * lut0[x] + muY * lut1[x];
+
+                // each vector interpolated on its own pixel grid
+                final double expected = (1 - muY) * interpolate(vec0, x) + muY * interpolate(vec1, x);
+                assertEquals("line " + y + " pixel " + x, expected, lutVal, 1e-9);
+
+                if (Arrays.equals(vec0.pixels, vec1.pixels)) {
+                    assertEquals("line " + y + " pixel " + x, interpolatePerTile(vec0, vec1, muY, x), lutVal, 1e-9);
+                }
+            }
+        }
+
+        // the vector values at their own pixels
+        for (int v = 0; v < lines.length; ++v) {
+            final double[] row = lut.getRow(v);
+            final Sentinel1Utils.CalibrationVector vec = calInfo.getCalibrationVector(v);
+            for (int i = 0; i < vec.pixels.length; ++i) {
+                assertEquals(vec.sigmaNought[i], row[vec.pixels[i]], 1e-9);
+            }
+        }
+    }
+
+    private static double interpolate(final Sentinel1Utils.CalibrationVector vec, final int x) {
+        final int i = vec.getPixelIndex(x);
+        final double muX = (x - vec.pixels[i]) / (double) (vec.pixels[i + 1] - vec.pixels[i]);
+        return (1 - muX) * vec.sigmaNought[i] + muX * vec.sigmaNought[i + 1];
+    }
+
+    /**
+     * The bilinear interpolation computed per tile pixel before the LUTs were shared, on the pixel grid of the first
+     * vector.
+     */
+    private static double interpolatePerTile(final Sentinel1Utils.CalibrationVector vec0,
+                                             final Sentinel1Utils.CalibrationVector vec1,
+                                             final double muY, final int x) {
+        final int i = vec0.getPixelIndex(x);
+        final double muX = (x - vec0.pixels[i]) / (double) (vec0.pixels[i + 1] - vec0.pixels[i]);
+        return (1 - muY) * ((1 - muX) * vec0.sigmaNought[i] + muX * vec0.sigmaNought[i + 1]) +
+                muY * ((1 - muX) * vec1.sigmaNought[i] + muX * vec1.sigmaNought[i + 1]);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.calibration.gpf.support;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit test for ExpandedRangeVectors.
+ */
+public class TestExpandedRangeVectors {
+
+    private static final int[] pixels = {0, 40, 80, 120};
+    private static final float[][] vectors = {
+            {10f, 12f, 15f, 19f},
+            {11f, 13f, 14f, 20f}
+    };
+
+    @Test
+    public void testExpansion() {
+        final AtomicInteger expansions = new AtomicInteger();
+        final ExpandedRangeVectors lut = new ExpandedRangeVectors(vectors.length, 121, (vecIdx, row) -> {
+            expansions.incrementAndGet();
+            int pixelIdx = 0;
+            for (int x = 0; x < row.length; ++x) {
+                if (x > pixels[pixelIdx + 1] && pixelIdx < pixels.length - 2) {
+                    pixelIdx++;
+                }
+                final double muX = (x - pixels[pixelIdx]) / (double) (pixels[pixelIdx + 1] - pixels[pixelIdx]);
+                row[x] = (1 - muX) * vectors[vecIdx][pixelIdx] + muX * vectors[vecIdx][pixelIdx + 1];
+            }
+        });
+
+        assertEquals(2, lut.getNumVectors());
+        assertEquals(121, lut.getWidth());
+        assertEquals(0, expansions.get());
+
+        final double[] row1 = lut.getRow(1);
+        assertEquals(1, expansions.get());
+        assertSame(row1, lut.getRow(1));
+        assertEquals(1, expansions.get());
+
+        final double[] row0 = lut.getRow(0);
+        assertEquals(2, expansions.get());
+        assertEquals(10.0, row0[0], 1e-12);
+        assertEquals(11.0, row0[20], 1e-12);
+        assertEquals(15.0, row0[80], 1e-12);
+        assertEquals(17.0, row0[100], 1e-12);
+        assertEquals(13.5, row1[60], 1e-12);
+        assertEquals(20.0, row1[120], 1e-12);
+
+        // separable blending of two rows as done per tile line
+        final double muY = 0.25;
+        final double v = (1 - muY) * row0[50] + muY * row1[50];
+        final double expected = (1 - muY) * (12.0 + 0.25 * 3.0) + muY * (13.0 + 0.25 * 1.0);
+        assertEquals(expected, v, 1e-12);
+    }
+}
@@ -50,6 +50,7 @@ import org.jlinda.core.Orbit;
 import org.jlinda.core.Point;
 import org.jlinda.core.SLCImage;
 import org.jlinda.core.geom.DemTile;
+import org.jlinda.core.geom.StackTopoPhase;
 import org.jlinda.core.geom.TopoPhase;
 import org.jlinda.core.utils.*;
 
@@ -729,6 +730,12 @@ public class CoherenceOp extends Operator {
                 }
             }
 
+            // the master geometry is shared by all slaves
+            StackTopoPhase topoPhase = null;
+            if (subtractTopographicPhase) {
+                topoPhase = StackTopoPhase.computeTopoPhase(targetMap, tileWindow, demTile, false);
+            }
+
             for (String cohKey : targetMap.keySet()) {
 
                 final ProductContainer product = targetMap.get(cohKey);
@@ -757,17 +764,16 @@ public class CoherenceOp extends Operator {
                 }
 
                 if (subtractTopographicPhase) {
-                    final TopoPhase topoPhase = TopoPhase.computeTopoPhase(
-                            product, tileWindow, demTile, false);
+                    final double[][] demPhase = topoPhase.demPhaseMap.get(cohKey);
 
                     final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                            MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
+                            MatrixFunctions.cos(new DoubleMatrix(demPhase)),
+                            MatrixFunctions.sin(new DoubleMatrix(demPhase)));
 
                     dataSlave.muli(ComplexTopoPhase);
 
                     if (OUTPUT_PHASE) {
-                        saveTopoPhase(x0, xN, y0, yN, topoPhase.demPhase, product, targetTileMap);
+                        saveTopoPhase(x0, xN, y0, yN, demPhase, product, targetTileMap);
                     }
                 }
 
@@ -965,12 +971,26 @@ public class CoherenceOp extends Operator {
             final int minPixel = 0;
             final int maxPixel = subSwath[subSwathIndex - 1].samplesPerBurst - 1;
 
-            for (String cohKey : targetMap.keySet()) {
+            final String[] cohKeys = targetMap.keySet().toArray(new String[0]);
+            final SLCImage[] slvMetas = new SLCImage[cohKeys.length];
+            final Orbit[] slvOrbits = new Orbit[cohKeys.length];
+            for (int i = 0; i < cohKeys.length; i++) {
+                final ProductContainer product = targetMap.get(cohKeys[i]);
+                slvMetas[i] = product.sourceSlave.metaData.clone();
+                updateSlvMetaData(product, burstIndex, slvMetas[i]);
+                slvOrbits[i] = product.sourceSlave.orbit;
+            }
+
+            // the master geometry is shared by all slaves
+            StackTopoPhase topoPhase = null;
+            if (subtractTopographicPhase) {
+                topoPhase = StackTopoPhase.computeTopoPhase(
+                        mstMeta, mstOrbit, cohKeys, slvMetas, slvOrbits, tileWindow, demTile, false);
+            }
+
+            for (String cohKey : cohKeys) {
 
                 final ProductContainer product = targetMap.get(cohKey);
-                final SLCImage slvMeta = product.sourceSlave.metaData.clone();
-                updateSlvMetaData(product, burstIndex, slvMeta);
-                final Orbit slvOrbit = product.sourceSlave.orbit;
 
                 final Tile mstTileReal = getSourceTile(product.sourceMaster.realBand, extRect, border);
                 final Tile mstTileImag = getSourceTile(product.sourceMaster.imagBand, extRect, border);
@@ -997,17 +1017,16 @@ public class CoherenceOp extends Operator {
                 }
 
                 if (subtractTopographicPhase) {
-                    TopoPhase topoPhase = TopoPhase.computeTopoPhase(
-                            mstMeta, mstOrbit, slvMeta, slvOrbit, tileWindow, demTile, false);
+                    final double[][] demPhase = topoPhase.demPhaseMap.get(cohKey);
 
                     final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                            MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
+                            MatrixFunctions.cos(new DoubleMatrix(demPhase)),
+                            MatrixFunctions.sin(new DoubleMatrix(demPhase)));
 
                     dataSlave.muli(ComplexTopoPhase);
 
                     if (OUTPUT_PHASE) {
-                        saveTopoPhase(x0, xN, y0, yN, topoPhase.demPhase, product, targetTileMap);
+                        saveTopoPhase(x0, xN, y0, yN, demPhase, product, targetTileMap);
                     }
                 }
 
@@ -44,6 +44,7 @@ import org.jlinda.core.*;
 import org.jlinda.core.Point;
 import org.jlinda.core.Window;
 import org.jlinda.core.geom.DemTile;
+import org.jlinda.core.geom.StackTopoPhase;
 import org.jlinda.core.geom.TopoPhase;
 import org.jlinda.core.utils.*;
 
@@ -905,6 +906,21 @@ public class InterferogramOp extends Operator {
                         demSamplingLat, demSamplingLon, tileExtensionPercent);
             }
 
+            // the geometry of a master is shared by all its slaves
+            StackTopoPhase topoPhase = null, topoPhaseLatLon = null, cohTopoPhase = null;
+            if (subtractTopographicPhase) {
+                topoPhase = StackTopoPhase.computeTopoPhase(targetMap, tileWindow, demTile, outputElevation);
+
+                if (outputLatLon) {
+                    // the radar coded DEM of every master is reused
+                    topoPhaseLatLon = StackTopoPhase.computeLatLon(topoPhase);
+                }
+
+                if (includeCoherence) {
+                    cohTopoPhase = StackTopoPhase.computeTopoPhase(targetMap, cohTileWindow, cohDemTile, false);
+                }
+            }
+
             for (String ifgKey : targetMap.keySet()) {
 
                 final ProductContainer product = targetMap.get(ifgKey);
@@ -933,28 +949,26 @@ public class InterferogramOp extends Operator {
                 }
 
                 if (subtractTopographicPhase) {
-                    final TopoPhase topoPhase = TopoPhase.computeTopoPhase(
-                            product, tileWindow, demTile, outputElevation, false);
+                    final double[][] demPhase = topoPhase.demPhaseMap.get(ifgKey);
 
                     final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                            MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
+                            MatrixFunctions.cos(new DoubleMatrix(demPhase)),
+                            MatrixFunctions.sin(new DoubleMatrix(demPhase)));
 
                     dataSlave.muli(ComplexTopoPhase);
 
                     if (OUTPUT_PHASE) {
-                        saveTopoPhase(x0, xN, y0, yN, topoPhase.demPhase, product, targetTileMap);
+                        saveTopoPhase(x0, xN, y0, yN, demPhase, product, targetTileMap);
                     }
 
                     if (outputElevation) {
-                        saveElevation(x0, xN, y0, yN, topoPhase.elevation, product, targetTileMap);
+                        saveElevation(x0, xN, y0, yN, topoPhase.getTopoPhase(product.sourceMaster).elevation,
+                                product, targetTileMap);
                     }
 
                     if (outputLatLon) {
-                        final TopoPhase topoPhase1 = TopoPhase.computeTopoPhase(
-                                product, tileWindow, demTile, false, true);
-
-                        saveLatLon(x0, xN, y0, yN, topoPhase1.latitude, topoPhase1.longitude, product, targetTileMap);
+                        final StackTopoPhase latLon = topoPhaseLatLon.getTopoPhase(product.sourceMaster);
+                        saveLatLon(x0, xN, y0, yN, latLon.latitude, latLon.longitude, product, targetTileMap);
                     }
                 }
 
@@ -986,12 +1000,11 @@ public class InterferogramOp extends Operator {
                     }
 
                     if (subtractTopographicPhase) {
-                        final TopoPhase topoPhase = TopoPhase.computeTopoPhase(
-                                product, cohTileWindow, cohDemTile, false);
+                        final double[][] demPhase = cohTopoPhase.demPhaseMap.get(ifgKey);
 
                         final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                                MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                                MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
+                                MatrixFunctions.cos(new DoubleMatrix(demPhase)),
+                                MatrixFunctions.sin(new DoubleMatrix(demPhase)));
 
                         dataSlave2.muli(ComplexTopoPhase);
                     }
@@ -1349,12 +1362,35 @@ public class InterferogramOp extends Operator {
             final int minPixel = 0;
             final int maxPixel = subSwath[subSwathIndex - 1].samplesPerBurst - 1;
 
-            for (String ifgKey : targetMap.keySet()) {
+            final String[] ifgKeys = targetMap.keySet().toArray(new String[0]);
+            final SLCImage[] slvMetas = new SLCImage[ifgKeys.length];
+            final Orbit[] slvOrbits = new Orbit[ifgKeys.length];
+            for (int i = 0; i < ifgKeys.length; i++) {
+                final ProductContainer product = targetMap.get(ifgKeys[i]);
+                slvMetas[i] = product.sourceSlave.metaData.clone();
+                updateSlvMetaData(product, burstIndex, slvMetas[i]);
+                slvOrbits[i] = product.sourceSlave.orbit;
+            }
+
+            // the master geometry is shared by all slaves
+            StackTopoPhase topoPhase = null, topoPhaseLatLon = null, cohTopoPhase = null;
+            if (subtractTopographicPhase) {
+                topoPhase = StackTopoPhase.computeTopoPhase(
+                        mstMeta, mstOrbit, ifgKeys, slvMetas, slvOrbits, tileWindow, demTile, outputElevation);
+
+                if (outputLatLon) {
+                    topoPhaseLatLon = StackTopoPhase.computeLatLon(topoPhase);
+                }
+
+                if (includeCoherence) {
+                    cohTopoPhase = StackTopoPhase.computeTopoPhase(
+                            mstMeta, mstOrbit, ifgKeys, slvMetas, slvOrbits, cohTileWindow, cohDemTile, false);
+                }
+            }
+
+            for (String ifgKey : ifgKeys) {
 
                 final ProductContainer product = targetMap.get(ifgKey);
-                final SLCImage slvMeta = product.sourceSlave.metaData.clone();
-                updateSlvMetaData(product, burstIndex, slvMeta);
-                final Orbit slvOrbit = product.sourceSlave.orbit;
 
                 /// check out results from master ///
                 final Tile mstTileReal = getSourceTile(product.sourceMaster.realBand, targetRectangle, border);
@@ -1383,17 +1419,16 @@ public class InterferogramOp extends Operator {
                 }
 
                 if (subtractTopographicPhase) {
-                    TopoPhase topoPhase = TopoPhase.computeTopoPhase(
-                            mstMeta, mstOrbit, slvMeta, slvOrbit, tileWindow, demTile, outputElevation, false);
+                    final double[][] demPhase = topoPhase.demPhaseMap.get(ifgKey);
 
                     final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                            MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                            MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
+                            MatrixFunctions.cos(new DoubleMatrix(demPhase)),
+                            MatrixFunctions.sin(new DoubleMatrix(demPhase)));
 
                     dataSlave.muli(ComplexTopoPhase);
 
                     if (OUTPUT_PHASE) {
-                        saveTopoPhase(x0, xN, y0, yN, topoPhase.demPhase, product, targetTileMap);
+                        saveTopoPhase(x0, xN, y0, yN, demPhase, product, targetTileMap);
                     }
 
                     if (outputElevation) {
@@ -1401,10 +1436,8 @@ public class InterferogramOp extends Operator {
                     }
 
                     if (outputLatLon) {
-                        TopoPhase topoPhase1 = TopoPhase.computeTopoPhase(
-                                mstMeta, mstOrbit, slvMeta, slvOrbit, tileWindow, demTile, false, true);
-
-                        saveLatLon(x0, xN, y0, yN, topoPhase1.latitude, topoPhase1.longitude, product, targetTileMap);
+                        saveLatLon(x0, xN, y0, yN, topoPhaseLatLon.latitude, topoPhaseLatLon.longitude,
+                                product, targetTileMap);
                     }
                 }
 
@@ -1436,12 +1469,11 @@ public class InterferogramOp extends Operator {
                     }
 
                     if (subtractTopographicPhase) {
-                        TopoPhase topoPhase = TopoPhase.computeTopoPhase(
-                                mstMeta, mstOrbit, slvMeta, slvOrbit, cohTileWindow, cohDemTile, false);
+                        final double[][] demPhase = cohTopoPhase.demPhaseMap.get(ifgKey);
 
                         final ComplexDoubleMatrix ComplexTopoPhase = new ComplexDoubleMatrix(
-                                MatrixFunctions.cos(new DoubleMatrix(topoPhase.demPhase)),
-                                MatrixFunctions.sin(new DoubleMatrix(topoPhase.demPhase)));
+                                MatrixFunctions.cos(new DoubleMatrix(demPhase)),
+                                MatrixFunctions.sin(new DoubleMatrix(demPhase)));
 
                         dataSlave2.muli(ComplexTopoPhase);
                     }
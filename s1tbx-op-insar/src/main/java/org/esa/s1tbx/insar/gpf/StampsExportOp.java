@@ -16,6 +16,7 @@
 package org.esa.s1tbx.insar.gpf;
 
 import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s1tbx.insar.gpf.support.DEMPatchCache;
 import org.esa.s1tbx.insar.gpf.support.ProjectedDEM;
 import org.esa.snap.core.dataio.ProductIO;
 import org.esa.snap.core.dataio.ProductWriter;
@@ -391,6 +392,7 @@ public class StampsExportOp extends Operator {
             }
         } catch (IOException ignore) {
         }
+        DEMPatchCache.instance().clear();
         super.dispose();
     }
 
@@ -49,8 +49,13 @@ import javax.media.jai.PlanarImage;
 import javax.media.jai.RasterFactory;
 import java.awt.*;
 import java.awt.image.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Image co-registration is fundamental for Interferometry SAR (InSAR) imaging and its applications, such as
@@ -174,6 +179,8 @@ public class CrossCorrelationOp extends Operator {
     private ElevationModel dem = null;
     private CorrelationWindow fineWin;
 
+    private final GCPStatistics gcpStatistics = new GCPStatistics();
+
     /**
      * Default constructor. The graph processing framework
      * requires that an operator has a default constructor.
@@ -474,24 +481,26 @@ public class CrossCorrelationOp extends Operator {
                 bandList.put(targetBand, slaveBand);
             }
 
+            // estimate the GCPs of all slaves of the stack in one pass over the master GCPs
+            final Map<Band, Band> gcpBandMap = new LinkedHashMap<>();
             int bandCnt = 0;
+            for (Band targetBand : bandList.keySet()) {
+                ++bandCnt;
+                if (collocatedStack || bandCnt == 1) {
+                    gcpBandMap.put(targetBand, bandList.get(targetBand));
+                }
+            }
+            computeSlaveGCPs(gcpBandMap);
+
+            bandCnt = 0;
             Band firstTargetBand = null;
             for (Band targetBand : bandList.keySet()) {
                 ++bandCnt;
                 final Band slaveBand = bandList.get(targetBand);
 
-                if (collocatedStack || !collocatedStack && bandCnt == 1) {
-                    final String bandCountStr = bandCnt + " of " + bandList.size();
-                    if (complexCoregistration) {
-                        computeSlaveGCPs(slaveBand, complexSrcMap.get(slaveBand), targetBand, bandCountStr);
-                    } else {
-                        computeSlaveGCPs(slaveBand, null, targetBand, bandCountStr);
-                    }
-
-                    if (bandCnt == 1) {
-                        firstTargetBand = targetBand;
-                    }
-                } else {
+                if (bandCnt == 1) {
+                    firstTargetBand = targetBand;
+                } else if (!collocatedStack) {
                     copyFirstTargetBandGCPs(firstTargetBand, targetBand);
                 }
 
@@ -510,37 +519,40 @@ public class CrossCorrelationOp extends Operator {
     }
 
     /**
-     * Compute slave GCPs for the given tile.
+     * Compute the slave GCPs of all given slaves. The master GCPs are processed in parallel and the master imagettes
+     * and their spectra are computed once per master GCP and used for all slaves.
      *
-     * @param slaveBand1 the input band
-     * @param slaveBand2 for complex
-     * @param targetBand the output band
+     * @param gcpBandMap the target bands and their input slave bands
      */
-    private synchronized void computeSlaveGCPs(final Band slaveBand1, final Band slaveBand2, final Band targetBand,
-                                               final String bandCountStr) throws OperatorException {
-
-        if (gcpsComputedMap.get(slaveBand1)) {
+    private synchronized void computeSlaveGCPs(final Map<Band, Band> gcpBandMap) throws OperatorException {
+
+        final List<SlaveGCPs> slaves = new ArrayList<>(gcpBandMap.size());
+        for (Map.Entry<Band, Band> entry : gcpBandMap.entrySet()) {
+            final Band slaveBand1 = entry.getValue();
+            if (!gcpsComputedMap.get(slaveBand1)) {
+                final Band slaveBand2 = complexCoregistration ? complexSrcMap.get(slaveBand1) : null;
+                slaves.add(new SlaveGCPs(slaveBand1, slaveBand2, entry.getKey()));
+            }
+        }
+        if (slaves.isEmpty()) {
             return;
         }
 
         try {
-
-            final ProductNodeGroup<Placemark> targetGCPGroup = GCPManager.instance().getGcpGroup(targetBand);
             final GeoCoding tgtGeoCoding = targetProduct.getSceneGeoCoding();
 
-            final int[] offset = new int[2]; // 0-x, 1-y
             if (computeOffset) {
-                determiningImageOffset(slaveBand1, slaveBand2, offset);
+                for (SlaveGCPs slave : slaves) {
+                    determiningImageOffset(slave.band1, slave.band2, slave.offset);
+                }
             }
 
             final ThreadExecutor executor = new ThreadExecutor();
 
-            //final ProcessTimeMonitor timeMonitor = new ProcessTimeMonitor();
-            //timeMonitor.start();
-
             final int numberOfMasterGCPs = masterGcpGroup.getNodeCount();
             final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
-            status.beginTask("Cross Correlating " + bandCountStr + ' ' + slaveBand1.getName() + "... ", numberOfMasterGCPs);
+            final String slaveName = slaves.size() == 1 ? slaves.get(0).band1.getName() : slaves.size() + " slaves";
+            status.beginTask("Cross Correlating " + slaveName + "... ", numberOfMasterGCPs);
 
             for (int i = 0; i < numberOfMasterGCPs; ++i) {
                 checkForCancellation();
@@ -549,54 +561,57 @@ public class CrossCorrelationOp extends Operator {
 
                 if (checkMasterGCPValidity(mPin)) {
 
-                    final GeoPos mGCPGeoPos = mPin.getGeoPos();
-                    final PixelPos mGCPPixelPos = mPin.getPixelPos();
-                    final PixelPos sGCPPixelPos = new PixelPos(mPin.getPixelPos().x + offset[0],
-                                                               mPin.getPixelPos().y + offset[1]);
-                    if (!checkSlaveGCPValidity(sGCPPixelPos)) {
-                        //System.out.println("GCP(" + i + ") is outside slave image.");
-                        continue;
-                    }
-
                     final ThreadRunnable worker = new ThreadRunnable() {
 
                         @Override
                         public void process() {
-                            //System.out.println("Running "+mPin.getName());
-                            boolean getSlaveGCP = getCoarseSlaveGCPPosition(slaveBand1, slaveBand2, mGCPPixelPos, sGCPPixelPos);
-
-                            if (getSlaveGCP && complexCoregistration && applyFineRegistration) {
-                                if (inSAROptimized) {
-                                    getSlaveGCP = getFineOffsets(slaveBand1, slaveBand2, mGCPPixelPos, sGCPPixelPos);
-                                } else {
-                                    getSlaveGCP = getFineSlaveGCPPosition(slaveBand1, slaveBand2, mGCPPixelPos, sGCPPixelPos);
+                            final long start = System.nanoTime();
+                            final MasterGCP masterGCP = new MasterGCP(mPin.getPixelPos());
+
+                            for (SlaveGCPs slave : slaves) {
+                                final PixelPos sGCPPixelPos = new PixelPos(mPin.getPixelPos().x + slave.offset[0],
+                                                                           mPin.getPixelPos().y + slave.offset[1]);
+                                if (!checkSlaveGCPValidity(sGCPPixelPos)) {
+                                    continue;
+                                }
+                                gcpStatistics.numCorrelated.increment();
+
+                                boolean getSlaveGCP = getCoarseSlaveGCPPosition(
+                                        slave.band1, slave.band2, masterGCP, sGCPPixelPos);
+
+                                if (getSlaveGCP && complexCoregistration && applyFineRegistration) {
+                                    gcpStatistics.numCoarseAccepted.increment();
+                                    if (inSAROptimized) {
+                                        getSlaveGCP = getFineOffsets(slave.band1, slave.band2, masterGCP, sGCPPixelPos);
+                                    } else {
+                                        getSlaveGCP = getFineSlaveGCPPosition(
+                                                slave.band1, slave.band2, masterGCP.pixelPos, sGCPPixelPos);
+                                    }
                                 }
-                            }
-
-                            if (getSlaveGCP) {
-
-                                final Placemark sPin = Placemark.createPointPlacemark(
-                                        GcpDescriptor.getInstance(),
-                                        mPin.getName(),
-                                        mPin.getLabel(),
-                                        mPin.getDescription(),
-                                        sGCPPixelPos,
-                                        mGCPGeoPos,
-                                        tgtGeoCoding);
-
-                                addPlacemark(sPin);
-                                //System.out.println("final "+mPin.getName()+" = " + "(" + sGCPPixelPos.x + "," + sGCPPixelPos.y + ")");
-                                //System.out.println();
 
-                            } //else {
-                            //System.out.println("GCP(" + mPin.getName() + ") is invalid.");
-                            //}
-                        }
+                                if (getSlaveGCP) {
+                                    gcpStatistics.numAccepted.increment();
+
+                                    final Placemark sPin = Placemark.createPointPlacemark(
+                                            GcpDescriptor.getInstance(),
+                                            mPin.getName(),
+                                            mPin.getLabel(),
+                                            mPin.getDescription(),
+                                            sGCPPixelPos,
+                                            mPin.getGeoPos(),
+                                            tgtGeoCoding);
+
+                                    synchronized (slave.gcpGroup) {
+                                        slave.gcpGroup.add(sPin);
+                                    }
+                                }
+                            }
 
-                        private synchronized void addPlacemark(final Placemark pin) {
-                            targetGCPGroup.add(pin);
+                            final long time = System.nanoTime() - start;
+                            gcpStatistics.numMasterGCPs.increment();
+                            gcpStatistics.totalTime.add(time);
+                            gcpStatistics.maxTime.accumulate(time);
                         }
-
                     };
 
                     executor.execute(worker);
@@ -608,14 +623,22 @@ public class CrossCorrelationOp extends Operator {
 
             SystemUtils.tileCacheFreeOldTiles();
 
-            //final long duration = timeMonitor.stop();
-            //System.out.println("XCorr completed in "+ ProcessTimeMonitor.formatDuration(duration));
             status.done();
+            SystemUtils.LOG.info(getId() + " " + gcpStatistics);
         } catch (Throwable e) {
             OperatorUtils.catchOperatorException(getId() + " computeSlaveGCPs ", e);
         }
 
-        gcpsComputedMap.put(slaveBand1, true);
+        for (SlaveGCPs slave : slaves) {
+            gcpsComputedMap.put(slave.band1, true);
+        }
+    }
+
+    /**
+     * Get the statistics of the GCP estimation, summed over all slaves computed so far.
+     */
+    public GCPStatistics getGCPStatistics() {
+        return gcpStatistics;
     }
 
     private void determiningImageOffset(final Band slaveBand1, final Band slaveBand2, int[] offset) {
@@ -883,13 +906,13 @@ public class CrossCorrelationOp extends Operator {
     }*/
 
     private boolean getFineOffsets(final Band slaveBand1, final Band slaveBand2,
-                                   final PixelPos mGCPPixelPos,
+                                   final MasterGCP masterGCP,
                                    final PixelPos sGCPPixelPos) {
         try {
-            //SystemUtils.LOG.info("mGCP = ({}, {})" + mGCPPixelPos.x + mGCPPixelPos.y);
+            //SystemUtils.LOG.info("mGCP = ({}, {})" + masterGCP.pixelPos.x + masterGCP.pixelPos.y);
             //SystemUtils.LOG.info("Initial sGCP = ({}, {})" + sGCPPixelPos.x + sGCPPixelPos.y);
 
-            ComplexDoubleMatrix mI = getComplexDoubleMatrix(masterBand1, masterBand2, mGCPPixelPos, fineWin);
+            final CoregistrationUtils.MasterSpectrum mI = masterGCP.getFineSpectrum();
             ComplexDoubleMatrix sI = getComplexDoubleMatrix(slaveBand1, slaveBand2, sGCPPixelPos, fineWin);
 
             final double[] fineOffset = {0.0, 0.0};
@@ -928,17 +951,13 @@ public class CrossCorrelationOp extends Operator {
     }
 
     private boolean getCoarseSlaveGCPPosition(final Band slaveBand, final Band slaveBand2,
-                                              final PixelPos mGCPPixelPos, final PixelPos sGCPPixelPos) {
+                                              final MasterGCP masterGCP, final PixelPos sGCPPixelPos) {
         try {
-            final double[] mI = new double[cWindowWidth * cWindowHeight];
-            final double[] sI = new double[cWindowWidth * cWindowHeight];
-
-            final boolean getMISuccess = getMasterImagette(mGCPPixelPos, mI);
-            if (!getMISuccess) {
+            final PlanarImage masterSpectrum = masterGCP.getCoarseSpectrum();
+            if (masterSpectrum == null) {
                 return false;
             }
-            //System.out.println("Master imagette:");
-            //outputRealImage(mI);
+            final double[] sI = new double[cWindowWidth * cWindowHeight];
 
             double rowShift = gcpTolerance + 1;
             double colShift = gcpTolerance + 1;
@@ -962,7 +981,7 @@ public class CrossCorrelationOp extends Operator {
                 //outputRealImage(sI);
 
                 final double[] shift = {0, 0};
-                if (!getSlaveGCPShift(shift, mI, sI)) {
+                if (!getSlaveGCPShift(shift, masterSpectrum, sI)) {
                     return false;
                 }
 
@@ -1128,10 +1147,10 @@ public class CrossCorrelationOp extends Operator {
         return false;
     }
 
-    private boolean getSlaveGCPShift(final double[] shift, final double[] mI, final double[] sI) {
+    private boolean getSlaveGCPShift(final double[] shift, final PlanarImage masterSpectrum, final double[] sI) {
         try {
             // perform cross correlation
-            final PlanarImage crossCorrelatedImage = computeCrossCorrelatedImage(mI, sI);
+            final PlanarImage crossCorrelatedImage = computeCrossCorrelatedImage(masterSpectrum, sI);
 
             // check peak validity
             /*
@@ -1190,13 +1209,20 @@ public class CrossCorrelationOp extends Operator {
         }
     }
 
-    private PlanarImage computeCrossCorrelatedImage(final double[] mI, final double[] sI) {
+    /**
+     * Compute the spectrum of a master imagette. The spectrum is computed into memory, it is used for every
+     * iteration of every slave correlated with the imagette.
+     */
+    private PlanarImage computeMasterSpectrum(final double[] mI) {
 
-        // get master imagette spectrum
         final RenderedImage masterImage = createRenderedImage(mI, cWindowWidth, cWindowHeight);
-        final PlanarImage masterSpectrum = JAIFunctions.dft(masterImage);
+        final PlanarImage masterSpectrum = JAIFunctions.copy(JAIFunctions.dft(masterImage));
         //System.out.println("Master spectrum:");
         //outputComplexImage(masterSpectrum);
+        return masterSpectrum;
+    }
+
+    private PlanarImage computeCrossCorrelatedImage(final PlanarImage masterSpectrum, final double[] sI) {
 
         // get slave imagette spectrum
         final RenderedImage slaveImage = createRenderedImage(sI, cWindowWidth, cWindowHeight);
@@ -1453,6 +1479,122 @@ public class CrossCorrelationOp extends Operator {
         fineRegistration.getShiftedData(complexData, tmpI, tmpQ, xShift, yShift, sII0data, sIQ0data);
     }
 
+    /**
+     * The imagettes of a master GCP and their spectra, computed on first use by the thread correlating the GCP with
+     * all slaves.
+     */
+    private final class MasterGCP {
+
+        final PixelPos pixelPos;
+        private boolean coarseComputed = false;
+        private PlanarImage coarseSpectrum = null;     // null if the imagette has too many invalid pixels
+        private CoregistrationUtils.MasterSpectrum fineSpectrum = null;
+
+        MasterGCP(final PixelPos pixelPos) {
+            this.pixelPos = pixelPos;
+        }
+
+        PlanarImage getCoarseSpectrum() {
+            if (!coarseComputed) {
+                coarseComputed = true;
+                final double[] mI = new double[cWindowWidth * cWindowHeight];
+                if (getMasterImagette(pixelPos, mI)) {
+                    coarseSpectrum = computeMasterSpectrum(mI);
+                }
+            }
+            return coarseSpectrum;
+        }
+
+        CoregistrationUtils.MasterSpectrum getFineSpectrum() {
+            if (fineSpectrum == null) {
+                fineSpectrum = new CoregistrationUtils.MasterSpectrum(
+                        getComplexDoubleMatrix(masterBand1, masterBand2, pixelPos, fineWin));
+            }
+            return fineSpectrum;
+        }
+    }
+
+    /**
+     * A slave of the GCP estimation and the GCPs found for it.
+     */
+    private static final class SlaveGCPs {
+
+        final Band band1;
+        final Band band2;
+        final ProductNodeGroup<Placemark> gcpGroup;
+        final int[] offset = new int[2]; // 0-x, 1-y
+
+        SlaveGCPs(final Band band1, final Band band2, final Band targetBand) {
+            this.band1 = band1;
+            this.band2 = band2;
+            this.gcpGroup = GCPManager.instance().getGcpGroup(targetBand);
+        }
+    }
+
+    /**
+     * Counters of the GCP estimation. A master GCP is counted once however many slaves it is correlated with.
+     */
+    public static final class GCPStatistics {
+
+        final LongAdder numMasterGCPs = new LongAdder();
+        final LongAdder numCorrelated = new LongAdder();
+        final LongAdder numCoarseAccepted = new LongAdder();
+        final LongAdder numAccepted = new LongAdder();
+        final LongAdder totalTime = new LongAdder();
+        final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+
+        /**
+         * @return the number of master GCPs correlated with the slaves
+         */
+        public long getNumMasterGCPs() {
+            return numMasterGCPs.sum();
+        }
+
+        /**
+         * @return the number of master/slave GCP pairs correlated
+         */
+        public long getNumCorrelated() {
+            return numCorrelated.sum();
+        }
+
+        /**
+         * @return the number of GCP pairs passing the coarse registration of complex data before fine registration
+         */
+        public long getNumCoarseAccepted() {
+            return numCoarseAccepted.sum();
+        }
+
+        /**
+         * @return the number of slave GCPs accepted
+         */
+        public long getNumAccepted() {
+            return numAccepted.sum();
+        }
+
+        /**
+         * @return the mean time in milliseconds to correlate a master GCP with all slaves
+         */
+        public double getMeanTimePerGCP() {
+            final long n = numMasterGCPs.sum();
+            return n == 0 ? 0.0 : totalTime.sum() / 1.0e6 / n;
+        }
+
+        /**
+         * @return the longest time in milliseconds to correlate a master GCP with all slaves
+         */
+        public double getMaxTimePerGCP() {
+            return maxTime.get() / 1.0e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "GCPs: %d master, %d correlated, %d coarse accepted, %d accepted, %.2f ms/GCP mean, %.2f ms/GCP max",
+                    getNumMasterGCPs(), getNumCorrelated(), getNumCoarseAccepted(), getNumAccepted(),
+                    getMeanTimePerGCP(), getMaxTimePerGCP());
+        }
+    }
+
     public static class CorrelationWindow {
 
         final public int height;
@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.coregistration;
+
+import javax.media.jai.Interpolation;
+import javax.media.jai.InterpolationNearest;
+import javax.media.jai.InterpolationTable;
+import javax.media.jai.Warp;
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Resamples the bands of a slave tile with a warp, as the JAI warp operation does, without evaluating the warp
+ * at every pixel.
+ * <p>
+ * The warp is evaluated on a coarse grid of the tile and the source position of every pixel is interpolated
+ * bilinearly between the grid nodes. The source position and the separable kernel weights of every pixel are computed
+ * once per tile and applied to all bands resampled with the same warp, such as the I and Q bands of a slave, in one
+ * pass. Pixels of which the kernel does not fit into the source image are set to zero. A null warp, as left by
+ * WarpData for an already aligned slave, copies the source samples. The working arrays are reused for all tiles, so an
+ * instance is not thread safe.
+ */
+public final class GridWarpResampler {
+
+    public static final int DEFAULT_GRID_STEP = 16;
+
+    private final int gridStep;
+    private final boolean nearest;
+    private final boolean bilinear;   // weights from the exact fraction, as the JAI bilinear warp of float data
+    private final int kernelWidth;
+    private final int kernelHeight;
+    private final int leftPadding;
+    private final int topPadding;
+    private final int numSubsamplesH;
+    private final int numSubsamplesV;
+    private final float[] tableH;   // kernel weights of each horizontal subsample position, kernelWidth per position
+    private final float[] tableV;
+
+    // per tile source positions, the kernel origin and the offset of the kernel weights in the tables
+    private Rectangle targetRectangle;
+    private boolean identity;
+    private int[] kernelX = new int[0];
+    private int[] kernelY = new int[0];
+    private int[] weightX = new int[0];
+    private int[] weightY = new int[0];
+    private float[] fracX = new float[0];
+    private float[] fracY = new float[0];
+    private boolean[] valid = new boolean[0];
+    private float[] grid = new float[0];
+
+    public GridWarpResampler(final Interpolation interp) {
+        this(interp, DEFAULT_GRID_STEP);
+    }
+
+    /**
+     * @param interp   the interpolation of the JAI warp operation to reproduce
+     * @param gridStep the distance in pixels between the grid nodes at which the warp is evaluated
+     */
+    public GridWarpResampler(final Interpolation interp, final int gridStep) {
+        if (gridStep < 1) {
+            throw new IllegalArgumentException("gridStep must be positive");
+        }
+        this.gridStep = gridStep;
+
+        if (interp instanceof InterpolationTable) {
+            final InterpolationTable table = (InterpolationTable) interp;
+            nearest = false;
+            bilinear = false;
+            kernelWidth = table.getWidth();
+            kernelHeight = table.getHeight();
+            leftPadding = table.getLeftPadding();
+            topPadding = table.getTopPadding();
+            numSubsamplesH = 1 << table.getSubsampleBitsH();
+            numSubsamplesV = 1 << table.getSubsampleBitsV();
+            tableH = getTableData(table.getHorizontalTableDataFloat(), table.getHorizontalTableDataDouble(),
+                                  table.getHorizontalTableData(), table.getPrecisionBits());
+            final float[] dataV = getTableData(table.getVerticalTableDataFloat(), table.getVerticalTableDataDouble(),
+                                               table.getVerticalTableData(), table.getPrecisionBits());
+            tableV = dataV != null ? dataV : tableH;
+        } else if (interp instanceof InterpolationNearest) {
+            nearest = true;
+            bilinear = false;
+            kernelWidth = kernelHeight = 1;
+            leftPadding = topPadding = 0;
+            numSubsamplesH = numSubsamplesV = 1;
+            tableH = tableV = new float[]{1};
+        } else {
+            nearest = false;
+            bilinear = true;
+            kernelWidth = kernelHeight = 2;
+            leftPadding = topPadding = 0;
+            numSubsamplesH = numSubsamplesV = 1;
+            tableH = tableV = null;
+        }
+    }
+
+    private static float[] getTableData(final float[] dataFloat, final double[] dataDouble, final int[] dataInt,
+                                        final int precisionBits) {
+        if (dataFloat != null) {
+            return dataFloat;
+        }
+        if (dataDouble != null) {
+            final float[] data = new float[dataDouble.length];
+            for (int i = 0; i < data.length; ++i) {
+                data[i] = (float) dataDouble[i];
+            }
+            return data;
+        }
+        if (dataInt != null) {
+            final float scale = 1.0f / (1 << precisionBits);
+            final float[] data = new float[dataInt.length];
+            for (int i = 0; i < data.length; ++i) {
+                data[i] = dataInt[i] * scale;
+            }
+            return data;
+        }
+        return null;
+    }
+
+    /**
+     * Compute the source positions and kernel weights of a tile.
+     *
+     * @param warp            the warp from target to source pixel positions, null for none
+     * @param targetRectangle the target tile
+     * @param sourceWidth     the width of the source image
+     * @param sourceHeight    the height of the source image
+     * @return the source rectangle read by the kernels, or null if no kernel fits into the source image
+     */
+    public Rectangle computePositions(final Warp warp, final Rectangle targetRectangle,
+                                      final int sourceWidth, final int sourceHeight) {
+
+        this.targetRectangle = targetRectangle;
+        identity = warp == null;
+        if (identity) {
+            final Rectangle sourceRectangle = targetRectangle.intersection(
+                    new Rectangle(0, 0, sourceWidth, sourceHeight));
+            return sourceRectangle.isEmpty() ? null : sourceRectangle;
+        }
+
+        final int x0 = targetRectangle.x;
+        final int y0 = targetRectangle.y;
+        final int w = targetRectangle.width;
+        final int h = targetRectangle.height;
+        ensureCapacity(w * h);
+
+        // grid nodes cover the tile, at least two per direction
+        final int nx = Math.max(2, (w - 1 + gridStep - 1) / gridStep + 1);
+        final int ny = Math.max(2, (h - 1 + gridStep - 1) / gridStep + 1);
+        if (grid.length < 2 * nx * ny) {
+            grid = new float[2 * nx * ny];
+        }
+        warp.warpSparseRect(x0, y0, (nx - 1) * gridStep + 1, (ny - 1) * gridStep + 1, gridStep, gridStep, grid);
+
+        // a kernel fits into the source if its origin is in [min, max)
+        final int minX = leftPadding;
+        final int maxX = sourceWidth - (kernelWidth - leftPadding - 1);
+        final int minY = topPadding;
+        final int maxY = sourceHeight - (kernelHeight - topPadding - 1);
+
+        int srcMinX = Integer.MAX_VALUE, srcMaxX = Integer.MIN_VALUE;
+        int srcMinY = Integer.MAX_VALUE, srcMaxY = Integer.MIN_VALUE;
+
+        for (int y = 0; y < h; ++y) {
+            final int gy = Math.min(y / gridStep, ny - 2);
+            final double fy = (y - gy * gridStep) / (double) gridStep;
+            final int row0 = 2 * gy * nx;
+            final int row1 = row0 + 2 * nx;
+
+            for (int x = 0; x < w; ++x) {
+                final int gx = Math.min(x / gridStep, nx - 2);
+                final double fx = (x - gx * gridStep) / (double) gridStep;
+                final int n00 = row0 + 2 * gx;
+                final int n10 = row1 + 2 * gx;
+
+                final double sx = bilinear(grid[n00], grid[n00 + 2], grid[n10], grid[n10 + 2], fx, fy);
+                final double sy = bilinear(grid[n00 + 1], grid[n00 + 3], grid[n10 + 1], grid[n10 + 3], fx, fy);
+
+                final int k = y * w + x;
+                int xint, yint;
+                float xfrac = 0, yfrac = 0;
+                if (nearest) {
+                    xint = round(sx);
+                    yint = round(sy);
+                } else {
+                    xint = (int) Math.floor(sx);
+                    yint = (int) Math.floor(sy);
+                    xfrac = (float) (sx - xint);
+                    yfrac = (float) (sy - yint);
+                }
+
+                if (xint < minX || xint >= maxX || yint < minY || yint >= maxY) {
+                    valid[k] = false;
+                    continue;
+                }
+                valid[k] = true;
+
+                kernelX[k] = xint - leftPadding;
+                kernelY[k] = yint - topPadding;
+                if (bilinear) {
+                    fracX[k] = xfrac;
+                    fracY[k] = yfrac;
+                } else {
+                    weightX[k] = Math.min((int) (xfrac * numSubsamplesH), numSubsamplesH - 1) * kernelWidth;
+                    weightY[k] = Math.min((int) (yfrac * numSubsamplesV), numSubsamplesV - 1) * kernelHeight;
+                }
+
+                srcMinX = Math.min(srcMinX, kernelX[k]);
+                srcMaxX = Math.max(srcMaxX, kernelX[k]);
+                srcMinY = Math.min(srcMinY, kernelY[k]);
+                srcMaxY = Math.max(srcMaxY, kernelY[k]);
+            }
+        }
+
+        if (srcMinX > srcMaxX) {
+            return null;
+        }
+        return new Rectangle(srcMinX, srcMinY, srcMaxX - srcMinX + kernelWidth, srcMaxY - srcMinY + kernelHeight);
+    }
+
+    /**
+     * Resample bands with the source positions of the last call of computePositions.
+     *
+     * @param sources         the source samples of each band, row major over the source rectangle
+     * @param sourceRectangle the source rectangle returned by computePositions
+     * @param targets         the resampled samples of each band, row major over the target tile
+     */
+    public void resample(final float[][] sources, final Rectangle sourceRectangle, final float[][] targets) {
+
+        if (identity) {
+            copy(sources, sourceRectangle, targets);
+            return;
+        }
+        if (bilinear) {
+            resampleBilinear(sources, sourceRectangle, targets);
+            return;
+        }
+
+        final int w = targetRectangle.width;
+        final int h = targetRectangle.height;
+        final int numBands = sources.length;
+        final int srcX0 = sourceRectangle.x;
+        final int srcY0 = sourceRectangle.y;
+        final int srcWidth = sourceRectangle.width;
+        final double[] sums = new double[numBands];
+
+        for (int k = 0; k < w * h; ++k) {
+            if (!valid[k]) {
+                for (int b = 0; b < numBands; ++b) {
+                    targets[b][k] = 0;
+                }
+                continue;
+            }
+
+            final int offsetX = kernelX[k] - srcX0;
+            final int offsetY = kernelY[k] - srcY0;
+            final int wx = weightX[k];
+            final int wy = weightY[k];
+
+            for (int b = 0; b < numBands; ++b) {
+                sums[b] = 0;
+            }
+            for (int j = 0; j < kernelHeight; ++j) {
+                final double weightV = tableV[wy + j];
+                final int rowOffset = (offsetY + j) * srcWidth + offsetX;
+                for (int b = 0; b < numBands; ++b) {
+                    final float[] src = sources[b];
+                    double sum = 0;
+                    for (int i = 0; i < kernelWidth; ++i) {
+                        sum += tableH[wx + i] * src[rowOffset + i];
+                    }
+                    sums[b] += weightV * sum;
+                }
+            }
+            for (int b = 0; b < numBands; ++b) {
+                targets[b][k] = (float) sums[b];
+            }
+        }
+    }
+
+    private void resampleBilinear(final float[][] sources, final Rectangle sourceRectangle, final float[][] targets) {
+
+        final int numPixels = targetRectangle.width * targetRectangle.height;
+        final int numBands = sources.length;
+        final int srcX0 = sourceRectangle.x;
+        final int srcY0 = sourceRectangle.y;
+        final int srcWidth = sourceRectangle.width;
+
+        for (int k = 0; k < numPixels; ++k) {
+            if (!valid[k]) {
+                for (int b = 0; b < numBands; ++b) {
+                    targets[b][k] = 0;
+                }
+                continue;
+            }
+
+            final int i00 = (kernelY[k] - srcY0) * srcWidth + kernelX[k] - srcX0;
+            final int i10 = i00 + srcWidth;
+            final float xfrac = fracX[k];
+            final float yfrac = fracY[k];
+            for (int b = 0; b < numBands; ++b) {
+                final float[] src = sources[b];
+                final float s0 = (src[i00 + 1] - src[i00]) * xfrac + src[i00];
+                final float s1 = (src[i10 + 1] - src[i10]) * xfrac + src[i10];
+                targets[b][k] = (s1 - s0) * yfrac + s0;
+            }
+        }
+    }
+
+    private void copy(final float[][] sources, final Rectangle sourceRectangle, final float[][] targets) {
+
+        final int w = targetRectangle.width;
+        final int h = targetRectangle.height;
+        for (int b = 0; b < sources.length; ++b) {
+            Arrays.fill(targets[b], 0, w * h, 0);
+            for (int y = sourceRectangle.y; y < sourceRectangle.y + sourceRectangle.height; ++y) {
+                System.arraycopy(sources[b], (y - sourceRectangle.y) * sourceRectangle.width,
+                                 targets[b], (y - targetRectangle.y) * w + sourceRectangle.x - targetRectangle.x,
+                                 sourceRectangle.width);
+            }
+        }
+    }
+
+    private void ensureCapacity(final int size) {
+        if (valid.length < size) {
+            kernelX = new int[size];
+            kernelY = new int[size];
+            weightX = new int[size];
+            weightY = new int[size];
+            valid = new boolean[size];
+            fracX = new float[size];
+            fracY = new float[size];
+        }
+    }
+
+    private static double bilinear(final double v00, final double v01, final double v10, final double v11,
+                                   final double fx, final double fy) {
+        final double v0 = v00 + fx * (v01 - v00);
+        final double v1 = v10 + fx * (v11 - v10);
+        return v0 + fy * (v1 - v0);
+    }
+
+    private static int round(final double f) {
+        return f >= 0 ? (int) (f + 0.5) : (int) (f - 0.5);
+    }
+}
@@ -40,7 +40,9 @@ import org.esa.snap.engine_utilities.eo.Constants;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.gpf.ReaderUtils;
 import org.esa.snap.engine_utilities.gpf.StackUtils;
+import org.esa.snap.engine_utilities.gpf.TileIndex;
 import org.esa.snap.engine_utilities.util.ResourceUtils;
+import org.esa.snap.runtime.Config;
 import org.jlinda.core.Orbit;
 import org.jlinda.core.SLCImage;
 import org.jlinda.core.coregistration.CPM;
@@ -56,6 +58,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Image co-registration is fundamental for Interferometry SAR (InSAR) imaging and its applications, such as
@@ -164,6 +167,11 @@ public class WarpOp extends Operator {
     private Interpolation interpDemodPhase = Interpolation.getInstance(Interpolation.INTERP_BILINEAR);
     private final Map<Band, Band> demodPhaseMap = new HashMap<>(10);
 
+    // resample on a grid of warp positions instead of with the JAI warp operation
+    private boolean gridResampling;
+    private final Queue<GridWarpResampler> resamplerPool = new ConcurrentLinkedQueue<>();
+    private final Queue<GridWarpResampler> demodPhaseResamplerPool = new ConcurrentLinkedQueue<>();
+
     /**
      * Default constructor. The graph processing framework
      * requires that an operator has a default constructor.
@@ -248,6 +256,8 @@ public class WarpOp extends Operator {
                     break;
             }
 
+            gridResampling = Config.instance().preferences().getBoolean("s1tbx.warp.gridResampling", false);
+
             final MetadataElement absRoot = AbstractMetadata.getAbstractedMetadata(sourceProduct);
             if (absRoot != null) {
                 processedSlaveBand = absRoot.getAttributeString("processed_slave");
@@ -261,6 +271,13 @@ public class WarpOp extends Operator {
         }
     }
 
+    @Override
+    public void dispose() {
+        resamplerPool.clear();
+        demodPhaseResamplerPool.clear();
+        super.dispose();
+    }
+
     private void getMasterBands() {
         String mstBandName = sourceProduct.getBandAt(0).getName();
 
@@ -459,7 +476,8 @@ public class WarpOp extends Operator {
                 return;
 
             Band realSrcBand;
-            if (srcBand.getName().startsWith(DEMOD_PHASE_PREFIX)) {
+            final boolean isDemodPhase = srcBand.getName().startsWith(DEMOD_PHASE_PREFIX);
+            if (isDemodPhase) {
                 realSrcBand = demodPhaseMap.get(srcBand);
             } else {
                 // get real part, assuming srcBand is imaginary
@@ -469,9 +487,6 @@ public class WarpOp extends Operator {
                     realSrcBand = srcBand;
             }
 
-            // create source image
-            final Tile sourceRaster = getSourceTile(srcBand, targetRectangle);
-
             if (pm.isCanceled())
                 return;
 
@@ -479,11 +494,31 @@ public class WarpOp extends Operator {
             if (!warpData.isValid())
                 return;
 
+            if (gridResampling) {
+                final Queue<GridWarpResampler> pool = isDemodPhase ? demodPhaseResamplerPool : resamplerPool;
+                GridWarpResampler resampler = pool.poll();
+                if (resampler == null) {
+                    // demodulation bands can be interpolated linearly
+                    resampler = new GridWarpResampler(isDemodPhase ? interpDemodPhase :
+                                                              interp != null ? interp : interpTable);
+                }
+                try {
+                    targetTile.setRawSamples(ProductData.createInstance(
+                            computeGridWarpedTile(resampler, warpData, srcBand, targetRectangle)));
+                } finally {
+                    pool.offer(resampler);
+                }
+                return;
+            }
+
+            // create source image
+            final Tile sourceRaster = getSourceTile(srcBand, targetRectangle);
+
             final RenderedImage srcImage = sourceRaster.getRasterDataNode().getSourceImage();
 
             // get warped image (demodulation bands can be interpolated linearly)
             RenderedOp warpedImage;
-            if (srcBand.getName().startsWith(DEMOD_PHASE_PREFIX)) {
+            if (isDemodPhase) {
                 warpedImage = JAIFunctions.createWarpImage(warpData.getJAIWarp(), srcImage,
                                                            interpDemodPhase, null);
             } else {
@@ -503,6 +538,44 @@ public class WarpOp extends Operator {
         }
     }
 
+    /**
+     * Compute a target tile with the warp evaluated on a grid of the tile.
+     */
+    private float[] computeGridWarpedTile(final GridWarpResampler resampler, final PolynomialModel warpData,
+                                          final Band srcBand, final Rectangle targetRectangle) {
+
+        final float[][] target = new float[1][targetRectangle.width * targetRectangle.height];
+
+        final Rectangle sourceRectangle = resampler.computePositions(warpData.getJAIWarp(), targetRectangle,
+                sourceProduct.getSceneRasterWidth(), sourceProduct.getSceneRasterHeight());
+
+        if (sourceRectangle != null) {
+            resampler.resample(new float[][]{getSourceSamples(srcBand, sourceRectangle)}, sourceRectangle, target);
+        }
+        return target[0];
+    }
+
+    private float[] getSourceSamples(final Band srcBand, final Rectangle sourceRectangle) {
+
+        final Tile sourceTile = getSourceTile(srcBand, sourceRectangle);
+        final ProductData srcData = sourceTile.getDataBuffer();
+        final TileIndex srcIndex = new TileIndex(sourceTile);
+
+        final int x0 = sourceRectangle.x;
+        final int y0 = sourceRectangle.y;
+        final int w = sourceRectangle.width;
+        final int h = sourceRectangle.height;
+        final float[] samples = new float[w * h];
+        for (int y = y0; y < y0 + h; ++y) {
+            srcIndex.calculateStride(y);
+            final int offset = (y - y0) * w - x0;
+            for (int x = x0; x < x0 + w; ++x) {
+                samples[offset + x] = srcData.getElemFloatAt(srcIndex.getIndex(x));
+            }
+        }
+        return samples;
+    }
+
     private synchronized void createDEM() throws IOException {
 
         final Resampling resampling = ResamplingFactory.createResampling(ResamplingFactory.BILINEAR_INTERPOLATION_NAME);
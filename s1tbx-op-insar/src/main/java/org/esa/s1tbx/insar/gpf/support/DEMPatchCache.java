@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.support;
+
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.dataop.dem.ElevationModel;
+import org.esa.snap.dem.dataio.DEMFactory;
+import org.esa.snap.engine_utilities.gpf.TileGeoreferencing;
+import org.esa.snap.runtime.Config;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process wide cache of the resampled DEM patches returned by DEMFactory.getLocalDEM.
+ * <p>
+ * Patches are keyed by DEM, resampling method, no data handling and the geographic footprint of the patch, so that
+ * operators in the same graph asking for the same tiles of the same geometry, such as two terrain corrections of one
+ * product, share one resampling. Patches are stored as the loaded values. A patch is pinned while it is being filled
+ * or copied and only unpinned patches are evicted, least recently used first, once the cache is over its size limit.
+ * The cache is disabled by default and then costs nothing per tile.
+ */
+public final class DEMPatchCache {
+
+    private static final DEMPatchCache instance = new DEMPatchCache(
+            Config.instance().preferences().getInt("s1tbx.dem.patchCacheSize", 0) * 1024L * 1024L);
+
+    // footprint sample points per axis
+    private static final int FOOTPRINT_SAMPLES = 3;
+
+    interface PatchLoader {
+        boolean load(final double[][] localDEM) throws Exception;
+    }
+
+    private volatile long maxBytes;
+    private final LinkedHashMap<Object, Patch> patches = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    DEMPatchCache(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static DEMPatchCache instance() {
+        return instance;
+    }
+
+    /**
+     * Same as DEMFactory.getLocalDEM but through the shared cache.
+     *
+     * @param demKey identifies the DEM and its settings, e.g. the DEM name or the path of an external DEM file
+     */
+    public static boolean getLocalDEM(final String demKey, final ElevationModel dem, final double demNoDataValue,
+                                      final String demResamplingMethod, final TileGeoreferencing tileGeoRef,
+                                      final int x0, final int y0, final int w, final int h,
+                                      final Product sourceProduct, final boolean nodataValueAtSea,
+                                      final double[][] localDEM) throws Exception {
+
+        final PatchLoader loader = patch -> DEMFactory.getLocalDEM(dem, demNoDataValue, demResamplingMethod,
+                tileGeoRef, x0, y0, w, h, sourceProduct, nodataValueAtSea, patch);
+        if (instance.maxBytes <= 0) {
+            return loader.load(localDEM);
+        }
+
+        final PatchKey key = new PatchKey(demKey, demResamplingMethod, demNoDataValue, nodataValueAtSea, w, h,
+                getFootprint(tileGeoRef, x0, y0, w, h));
+        return instance.get(key, w + 2, h + 2, localDEM, loader);
+    }
+
+    private static double[] getFootprint(final TileGeoreferencing tileGeoRef,
+                                         final int x0, final int y0, final int w, final int h) {
+        final double[] footprint = new double[2 * FOOTPRINT_SAMPLES * FOOTPRINT_SAMPLES];
+        final GeoPos geoPos = new GeoPos();
+        int k = 0;
+        for (int j = 0; j < FOOTPRINT_SAMPLES; ++j) {
+            final int y = y0 - 1 + j * (h + 1) / (FOOTPRINT_SAMPLES - 1);
+            for (int i = 0; i < FOOTPRINT_SAMPLES; ++i) {
+                final int x = x0 - 1 + i * (w + 1) / (FOOTPRINT_SAMPLES - 1);
+                tileGeoRef.getGeoPos(x, y, geoPos);
+                footprint[k++] = geoPos.lat;
+                footprint[k++] = geoPos.lon;
+            }
+        }
+        return footprint;
+    }
+
+    /**
+     * Copy the patch for the key into localDEM, loading it first if it is not cached.
+     */
+    boolean get(final Object key, final int width, final int height, final double[][] localDEM,
+                final PatchLoader loader) throws Exception {
+
+        final Patch patch = acquire(key, width, height);
+        try {
+            synchronized (patch) {
+                if (patch.data == null) {
+                    final boolean valid = loader.load(localDEM);
+                    patch.fill(valid, localDEM);
+                    loaded(patch);
+                }
+                patch.copyTo(localDEM);
+                return patch.valid;
+            }
+        } catch (Exception e) {
+            discard(key, patch);
+            throw e;
+        } finally {
+            release(patch);
+        }
+    }
+
+    private synchronized Patch acquire(final Object key, final int width, final int height) {
+        Patch patch = patches.get(key);
+        if (patch == null) {
+            patch = new Patch(width, height);
+            patches.put(key, patch);
+            ++missCount;
+        } else {
+            ++hitCount;
+        }
+        ++patch.refCount;
+        return patch;
+    }
+
+    private synchronized void release(final Patch patch) {
+        --patch.refCount;
+        evict();
+    }
+
+    private synchronized void loaded(final Patch patch) {
+        totalBytes += patch.getSizeInBytes();
+    }
+
+    private synchronized void discard(final Object key, final Patch patch) {
+        if (patch.data == null && patches.get(key) == patch) {
+            patches.remove(key);
+        }
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<Object, Patch>> it = patches.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            final Patch patch = it.next().getValue();
+            if (patch.refCount == 0) {
+                totalBytes -= patch.getSizeInBytes();
+                it.remove();
+                ++evictionCount;
+            }
+        }
+    }
+
+    /**
+     * Set the maximum size of the cached patches, 0 to disable the cache.
+     */
+    public synchronized void setMaxSizeInBytes(final long maxBytes) {
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    public long getMaxSizeInBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long size() {
+        return patches.size();
+    }
+
+    public synchronized long getSizeInBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized void clear() {
+        final Iterator<Patch> it = patches.values().iterator();
+        while (it.hasNext()) {
+            final Patch patch = it.next();
+            if (patch.refCount == 0) {
+                totalBytes -= patch.getSizeInBytes();
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Patch {
+        private final int width;
+        private final int height;
+        private double[] data = null;
+        private boolean valid;
+        private int refCount = 0;
+
+        Patch(final int width, final int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        void fill(final boolean valid, final double[][] localDEM) {
+            final double[] values = new double[width * height];
+            for (int y = 0; y < height; ++y) {
+                System.arraycopy(localDEM[y], 0, values, y * width, width);
+            }
+            this.valid = valid;
+            this.data = values;
+        }
+
+        void copyTo(final double[][] localDEM) {
+            for (int y = 0; y < height; ++y) {
+                System.arraycopy(data, y * width, localDEM[y], 0, width);
+            }
+        }
+
+        long getSizeInBytes() {
+            return data == null ? 0 : (long) data.length * Double.BYTES;
+        }
+    }
+
+    private static final class PatchKey {
+        private final String demKey;
+        private final String resamplingMethod;
+        private final double demNoDataValue;
+        private final boolean nodataValueAtSea;
+        private final int width;
+        private final int height;
+        private final double[] footprint;
+        private final int hash;
+
+        PatchKey(final String demKey, final String resamplingMethod, final double demNoDataValue,
+                 final boolean nodataValueAtSea, final int width, final int height, final double[] footprint) {
+            this.demKey = demKey;
+            this.resamplingMethod = resamplingMethod;
+            this.demNoDataValue = demNoDataValue;
+            this.nodataValueAtSea = nodataValueAtSea;
+            this.width = width;
+            this.height = height;
+            this.footprint = footprint;
+
+            int h = demKey.hashCode();
+            h = 31 * h + resamplingMethod.hashCode();
+            h = 31 * h + Double.hashCode(demNoDataValue);
+            h = 31 * h + (nodataValueAtSea ? 1 : 0);
+            h = 31 * h + width;
+            h = 31 * h + height;
+            h = 31 * h + Arrays.hashCode(footprint);
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PatchKey)) {
+                return false;
+            }
+            final PatchKey key = (PatchKey) obj;
+            return hash == key.hash &&
+                    width == key.width &&
+                    height == key.height &&
+                    nodataValueAtSea == key.nodataValueAtSea &&
+                    Double.compare(demNoDataValue, key.demNoDataValue) == 0 &&
+                    demKey.equals(key.demKey) &&
+                    resamplingMethod.equals(key.resamplingMethod) &&
+                    Arrays.equals(footprint, key.footprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.support;
+
+import edu.emory.mathcs.jtransforms.fft.DoubleFFT_2D;
+import edu.emory.mathcs.jtransforms.fft.FloatFFT_2D;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Goldstein phase filter of a tile of complex interferogram samples.
+ * <p>
+ * The tile is filtered in blocks of FFT size, stepping by a quarter block. The spectrum of each block is weighted
+ * with its smoothed amplitude to the power alpha and the filtered blocks are added to the output with triangular
+ * weights. Each block is transformed in one contiguous interleaved complex buffer by a 2D FFT planned once, in double
+ * or single precision. The buffers are reused for all blocks, so an instance is not thread safe.
+ */
+public final class GoldsteinFilter {
+
+    private final int fftSize;
+    private final int halfWindowSize;
+    private final double alpha;
+    private final double[] weights;     // triangular overlap-add weight along a block row or column
+
+    private final DoubleFFT_2D doubleFFT;
+    private final FloatFFT_2D floatFFT;
+    private final double[] doubleSpec;  // interleaved block spectrum, one of the two is used
+    private final float[] floatSpec;
+
+    private final boolean[] mask;
+    private final double[] pwrSpec;
+    private final double[] rowSum;
+    private final int[] rowCount;
+    private final double[] fltSpec;
+
+    public GoldsteinFilter(final int fftSize, final double alpha, final int halfWindowSize,
+                           final boolean singlePrecision) {
+        this.fftSize = fftSize;
+        this.alpha = alpha;
+        this.halfWindowSize = halfWindowSize;
+
+        final int halfFFTSize = fftSize / 2;
+        weights = new double[fftSize];
+        for (int i = 0; i < fftSize; ++i) {
+            weights[i] = 1 - Math.abs(i - halfFFTSize + 0.5) / halfFFTSize;
+        }
+
+        final int blockSize = fftSize * fftSize;
+        if (singlePrecision) {
+            doubleFFT = null;
+            doubleSpec = null;
+            floatFFT = new FloatFFT_2D(fftSize, fftSize);
+            floatSpec = new float[2 * blockSize];
+        } else {
+            doubleFFT = new DoubleFFT_2D(fftSize, fftSize);
+            doubleSpec = new double[2 * blockSize];
+            floatFFT = null;
+            floatSpec = null;
+        }
+
+        mask = new boolean[blockSize];
+        pwrSpec = new double[blockSize];
+        rowSum = new double[blockSize];
+        rowCount = new int[blockSize];
+        fltSpec = new double[blockSize];
+    }
+
+    /**
+     * Filter a tile and add the weighted filtered blocks to the output. All positions are relative to the source.
+     *
+     * @param srcI        the real part of the source samples, row major
+     * @param srcQ        the imaginary part of the source samples, row major
+     * @param srcWidth    the width of the source
+     * @param xMax        the last x of the upper left corner of a block
+     * @param yMax        the last y of the upper left corner of a block
+     * @param tx0         the x of the upper left pixel of the output
+     * @param ty0         the y of the upper left pixel of the output
+     * @param w           the width of the output
+     * @param h           the height of the output
+     * @param noDataValue the no data value of the source and of the amplitude spectrum
+     * @param iFiltered   the real part of the filtered output, row major
+     * @param qFiltered   the imaginary part of the filtered output, row major
+     */
+    public void filterTile(final float[] srcI, final float[] srcQ, final int srcWidth, final int xMax, final int yMax,
+                           final int tx0, final int ty0, final int w, final int h, final double noDataValue,
+                           final float[] iFiltered, final float[] qFiltered) {
+
+        final int stepSize = fftSize / 4;
+        for (int y = 0; y <= yMax; y += stepSize) {
+            for (int x = 0; x <= xMax; x += stepSize) {
+
+                if (!loadBlock(srcI, srcQ, srcWidth, x, y, noDataValue)) {
+                    continue;
+                }
+
+                if (doubleFFT != null) {
+                    doubleFFT.complexForward(doubleSpec);
+                } else {
+                    floatFFT.complexForward(floatSpec);
+                }
+
+                computePowerSpectrum();
+
+                computeFilteredPowerSpectrum(noDataValue);
+
+                if (doubleFFT != null) {
+                    for (int k = 0; k < fltSpec.length; ++k) {
+                        doubleSpec[2 * k] *= fltSpec[k];
+                        doubleSpec[2 * k + 1] *= fltSpec[k];
+                    }
+                    doubleFFT.complexInverse(doubleSpec, false);
+                } else {
+                    for (int k = 0; k < fltSpec.length; ++k) {
+                        floatSpec[2 * k] *= fltSpec[k];
+                        floatSpec[2 * k + 1] *= fltSpec[k];
+                    }
+                    floatFFT.complexInverse(floatSpec, false);
+                }
+
+                addBlock(x, y, tx0, ty0, w, h, iFiltered, qFiltered);
+            }
+        }
+    }
+
+    /**
+     * Copy a block into the spectrum buffer, the imaginary part as real part and the real part as imaginary part.
+     *
+     * @return false if all real parts of the block are no data
+     */
+    private boolean loadBlock(final float[] srcI, final float[] srcQ, final int srcWidth, final int x, final int y,
+                              final double noDataValue) {
+
+        boolean allNoData = true;
+        for (int r = 0; r < fftSize; ++r) {
+            final int srcOffset = (y + r) * srcWidth + x;
+            final int k0 = r * fftSize;
+            for (int c = 0; c < fftSize; ++c) {
+                final float i = srcI[srcOffset + c];
+                final float q = srcQ[srcOffset + c];
+                final int k = k0 + c;
+                if (doubleSpec != null) {
+                    doubleSpec[2 * k] = q;
+                    doubleSpec[2 * k + 1] = i;
+                } else {
+                    floatSpec[2 * k] = q;
+                    floatSpec[2 * k + 1] = i;
+                }
+                mask[k] = i != noDataValue;
+                allNoData &= !mask[k];
+            }
+        }
+        return !allNoData;
+    }
+
+    private void computePowerSpectrum() {
+        if (doubleSpec != null) {
+            for (int k = 0; k < pwrSpec.length; ++k) {
+                final double re = doubleSpec[2 * k];
+                final double im = doubleSpec[2 * k + 1];
+                pwrSpec[k] = Math.sqrt(re * re + im * im);
+            }
+        } else {
+            for (int k = 0; k < pwrSpec.length; ++k) {
+                final double re = floatSpec[2 * k];
+                final double im = floatSpec[2 * k + 1];
+                pwrSpec[k] = Math.sqrt(re * re + im * im);
+            }
+        }
+    }
+
+    /**
+     * Mean of the valid amplitudes in a window around each frequency to the power alpha, as separable window sums.
+     */
+    private void computeFilteredPowerSpectrum(final double noDataValue) {
+
+        final int n = fftSize;
+        for (int r = 0; r < n; ++r) {
+            final int k0 = r * n;
+            for (int c = 0; c < n; ++c) {
+                final int iMin = Math.max(0, c - halfWindowSize);
+                final int iMax = Math.min(n - 1, c + halfWindowSize);
+                double sum = 0;
+                int count = 0;
+                for (int i = iMin; i <= iMax; ++i) {
+                    if (pwrSpec[k0 + i] != noDataValue) {
+                        sum += pwrSpec[k0 + i];
+                        ++count;
+                    }
+                }
+                rowSum[k0 + c] = sum;
+                rowCount[k0 + c] = count;
+            }
+        }
+
+        final boolean unitAlpha = alpha == 1.0;
+        for (int r = 0; r < n; ++r) {
+            final int jMin = Math.max(0, r - halfWindowSize);
+            final int jMax = Math.min(n - 1, r + halfWindowSize);
+            for (int c = 0; c < n; ++c) {
+                double sum = 0;
+                int count = 0;
+                for (int j = jMin; j <= jMax; ++j) {
+                    sum += rowSum[j * n + c];
+                    count += rowCount[j * n + c];
+                }
+                if (count != 0) {
+                    fltSpec[r * n + c] = unitAlpha ? sum / count : FastMath.pow(sum / count, alpha);
+                } else {
+                    fltSpec[r * n + c] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the part of a filtered block that falls into the output with triangular weights, skipping no data pixels.
+     */
+    private void addBlock(final int x, final int y, final int tx0, final int ty0, final int w, final int h,
+                          final float[] iFiltered, final float[] qFiltered) {
+
+        final int xSt = Math.max(x, tx0);
+        final int ySt = Math.max(y, ty0);
+        final int xEd = Math.min(x + fftSize, tx0 + w);
+        final int yEd = Math.min(y + fftSize, ty0 + h);
+        for (int yy = ySt; yy < yEd; ++yy) {
+            final int k0 = (yy - y) * fftSize - x;
+            final int outOffset = (yy - ty0) * w - tx0;
+            final double weightY = weights[yy - y];
+            for (int xx = xSt; xx < xEd; ++xx) {
+                final int k = k0 + xx;
+                if (!mask[k]) {
+                    continue;
+                }
+
+                final double weight = weights[xx - x] * weightY;
+                final int outIdx = outOffset + xx;
+                if (doubleSpec != null) {
+                    iFiltered[outIdx] += doubleSpec[2 * k + 1] * weight;
+                    qFiltered[outIdx] += doubleSpec[2 * k] * weight;
+                } else {
+                    iFiltered[outIdx] += floatSpec[2 * k + 1] * weight;
+                    qFiltered[outIdx] += floatSpec[2 * k] * weight;
+                }
+            }
+        }
+    }
+}
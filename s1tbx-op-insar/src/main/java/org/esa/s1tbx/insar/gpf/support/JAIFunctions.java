@@ -35,6 +35,18 @@ public class JAIFunctions {
         return JAI.create("dft", pb, null);
     }
 
+    /**
+     * Compute an image into memory, so that images derived from it do not compute it again.
+     */
+    public static PlanarImage copy(final PlanarImage image) {
+
+        final TiledImage copy = new TiledImage(image.getMinX(), image.getMinY(), image.getWidth(), image.getHeight(),
+                                               image.getMinX(), image.getMinY(),
+                                               image.getSampleModel(), image.getColorModel());
+        copy.setData(image.getData());
+        return copy;
+    }
+
     public static PlanarImage idft(final RenderedImage image) {
 
         final ParameterBlock pb = new ParameterBlock();
@@ -122,8 +122,8 @@ public class ProjectedDEM {
 
             double[][] localDEM = new double[h + 2][w + 2];
 
-            final boolean valid = DEMFactory.getLocalDEM(
-                    dem, demNoDataValue, demResamplingMethod, tileGeoRef, x0, y0, w, h, sourceProduct,
+            final boolean valid = DEMPatchCache.getLocalDEM(
+                    demName, dem, demNoDataValue, demResamplingMethod, tileGeoRef, x0, y0, w, h, sourceProduct,
                     false, localDEM);
             if (!valid) {
                 return;
@@ -26,6 +26,7 @@ import org.esa.snap.engine_utilities.gpf.OperatorUtils;
 import org.esa.snap.engine_utilities.util.TestUtils;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -68,6 +69,37 @@ public class TestCrossCorrelationOp {
 
     }
 
+    @Test
+    public void testStack() throws Exception {
+
+        final Product product = createTestMasterProduct(200, 200);
+        product.addBand(createTestSlaveBand("amplitude_slv2", 200, 200, 2, -2));
+
+        final CrossCorrelationOp op = (CrossCorrelationOp) spi.createOperator();
+        assertNotNull(op);
+
+        op.setSourceProduct(product);
+        op.setTestParameters("32", "32", "2", "2", 2, 0.5);
+
+        final Product targetProduct = op.getTargetProduct();
+        assertNotNull(targetProduct);
+        assertEquals(3, targetProduct.getNumBands());
+
+        final float[] floatValues = new float[1600];
+        for (int b = 1; b < 3; ++b) {
+            targetProduct.getBandAt(b).readPixels(0, 0, 40, 40, floatValues, ProgressMonitor.NULL);
+        }
+
+        final CrossCorrelationOp.GCPStatistics statistics = op.getGCPStatistics();
+        assertTrue(statistics.getNumMasterGCPs() >= 1);
+        assertTrue(statistics.getNumCorrelated() >= statistics.getNumMasterGCPs());
+        assertTrue(statistics.getNumAccepted() <= statistics.getNumCorrelated());
+
+        // only complex data is coarse registered before fine registration
+        assertEquals(0, statistics.getNumCoarseAccepted());
+        assertTrue(statistics.toString().contains("0 coarse accepted"));
+    }
+
     private static Product createTestMasterProduct(int w, int h) {
 
         final Product product = new Product("p", "ASA_IMP_1P", w, h);
@@ -88,7 +120,7 @@ public class TestCrossCorrelationOp {
         }
         band.setData(ProductData.createInstance(floatValues));
 
-        final Band slvBand = createTestSlaveBand(w, h);
+        final Band slvBand = createTestSlaveBand("amplitude_slv", w, h, 0, 0);
         product.addBand(slvBand);
 
         // create lat/lon tie point grids
@@ -125,17 +157,17 @@ public class TestCrossCorrelationOp {
         return product;
     }
 
-    private static Band createTestSlaveBand(int w, int h) {
+    private static Band createTestSlaveBand(final String name, int w, int h, int dx, int dy) {
 
-        // create a band: sinc function centre is at (16, 21)
-        final Band band = new Band("amplitude_slv", ProductData.TYPE_FLOAT32, w, h);
+        // create a band: sinc function centre shifted by (-dx, -dy) from the one of the first slave
+        final Band band = new Band(name, ProductData.TYPE_FLOAT32, w, h);
         band.setUnit(Unit.AMPLITUDE);
         float[] floatValues = new float[w * h];
         int i;
         for (int y = 0; y < h; y++) {
             for (int x = 0; x < w; x++) {
                 i = y * w + x;
-                floatValues[i] = sinc((float) (x - w / 2 + 4) / 4.0f) * sinc((float) (y - h / 2 - 1) / 4.0f);
+                floatValues[i] = sinc((float) (x - w / 2 + 4 + dx) / 4.0f) * sinc((float) (y - h / 2 - 1 + dy) / 4.0f);
             }
         }
         band.setData(ProductData.createInstance(floatValues));
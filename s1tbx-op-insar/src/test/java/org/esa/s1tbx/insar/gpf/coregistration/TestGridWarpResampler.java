@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.coregistration;
+
+import org.junit.Test;
+
+import javax.media.jai.Interpolation;
+import javax.media.jai.InterpolationTable;
+import javax.media.jai.Warp;
+import javax.media.jai.WarpGeneralPolynomial;
+import java.awt.*;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit test for GridWarpResampler against the warp and interpolation evaluated at every pixel.
+ */
+public class TestGridWarpResampler {
+
+    private static final int srcWidth = 300;
+    private static final int srcHeight = 200;
+    private static final Rectangle targetRectangle = new Rectangle(40, 30, 120, 90);
+
+    // slave shifted by a few pixels with a small rotation and scaling, order 2
+    private static final Warp warp = new WarpGeneralPolynomial(
+            new float[]{2.3f, 1.0002f, 0.0004f, 1.0e-6f, -2.0e-6f, 0.5e-6f},
+            new float[]{-1.7f, -0.0003f, 0.9998f, 0.5e-6f, 1.0e-6f, -1.0e-6f});
+
+    private final float[] srcI = new float[srcWidth * srcHeight];
+    private final float[] srcQ = new float[srcWidth * srcHeight];
+
+    public TestGridWarpResampler() {
+        for (int y = 0; y < srcHeight; ++y) {
+            for (int x = 0; x < srcWidth; ++x) {
+                final double phase = 0.21 * x + 0.13 * y;
+                final double amplitude = 100 + 20 * Math.sin(0.05 * x) * Math.cos(0.07 * y);
+                srcI[y * srcWidth + x] = (float) (amplitude * Math.cos(phase));
+                srcQ[y * srcWidth + x] = (float) (amplitude * Math.sin(phase));
+            }
+        }
+    }
+
+    // a grid node at every pixel gives the exact warp positions, so the kernel weights must match to rounding,
+    // well below one interpolation table subsample step of about 0.1 on this source
+
+    @Test
+    public void testBicubic() {
+        compareWithReference(Interpolation.getInstance(Interpolation.INTERP_BICUBIC), 1, 5.0e-4);
+    }
+
+    @Test
+    public void testBilinear() {
+        compareWithReference(Interpolation.getInstance(Interpolation.INTERP_BILINEAR), 1, 5.0e-4);
+    }
+
+    @Test
+    public void testNearest() {
+        compareWithReference(Interpolation.getInstance(Interpolation.INTERP_NEAREST), 1, 0.0);
+    }
+
+    // on the default grid the positions are off by up to about 5e-4 pixels, which may move a bicubic position into
+    // the neighbouring subsample
+
+    @Test
+    public void testBicubicGrid() {
+        compareWithReference(Interpolation.getInstance(Interpolation.INTERP_BICUBIC),
+                             GridWarpResampler.DEFAULT_GRID_STEP, 0.15);
+    }
+
+    @Test
+    public void testBilinearGrid() {
+        compareWithReference(Interpolation.getInstance(Interpolation.INTERP_BILINEAR),
+                             GridWarpResampler.DEFAULT_GRID_STEP, 0.03);
+    }
+
+    @Test
+    public void testNearestGrid() {
+        compareWithReference(Interpolation.getInstance(Interpolation.INTERP_NEAREST),
+                             GridWarpResampler.DEFAULT_GRID_STEP, 0.0);
+    }
+
+    @Test
+    public void testIdentity() {
+        // WarpData leaves no warp for an already aligned slave, the source is copied
+        final GridWarpResampler resampler = new GridWarpResampler(Interpolation.getInstance(Interpolation.INTERP_BICUBIC));
+        final Rectangle rectangle = new Rectangle(srcWidth - 50, srcHeight - 40, 64, 64);
+        final Rectangle sourceRectangle = resampler.computePositions(null, rectangle, srcWidth, srcHeight);
+        assertEquals(new Rectangle(srcWidth - 50, srcHeight - 40, 50, 40), sourceRectangle);
+
+        final float[][] targets = new float[2][rectangle.width * rectangle.height];
+        Arrays.fill(targets[0], 1);
+        resampler.resample(new float[][]{crop(srcI, sourceRectangle), crop(srcQ, sourceRectangle)},
+                           sourceRectangle, targets);
+
+        for (int y = rectangle.y; y < rectangle.y + rectangle.height; ++y) {
+            for (int x = rectangle.x; x < rectangle.x + rectangle.width; ++x) {
+                final int k = (y - rectangle.y) * rectangle.width + x - rectangle.x;
+                final boolean inside = x < srcWidth && y < srcHeight;
+                assertEquals(inside ? srcI[y * srcWidth + x] : 0, targets[0][k], 0.0);
+                assertEquals(inside ? srcQ[y * srcWidth + x] : 0, targets[1][k], 0.0);
+            }
+        }
+        assertNull(resampler.computePositions(null, new Rectangle(srcWidth, 0, 64, 64), srcWidth, srcHeight));
+    }
+
+    @Test
+    public void testOutsideSource() {
+        final GridWarpResampler resampler = new GridWarpResampler(Interpolation.getInstance(Interpolation.INTERP_BILINEAR));
+        assertNull(resampler.computePositions(warp, new Rectangle(srcWidth + 20, 0, 64, 64), srcWidth, srcHeight));
+    }
+
+    private void compareWithReference(final Interpolation interp, final int gridStep, final double tolerance) {
+        final int w = targetRectangle.width;
+        final int h = targetRectangle.height;
+
+        final GridWarpResampler resampler = new GridWarpResampler(interp, gridStep);
+        final Rectangle sourceRectangle = resampler.computePositions(warp, targetRectangle, srcWidth, srcHeight);
+        assertNotNull(sourceRectangle);
+
+        final float[][] targets = new float[2][w * h];
+        resampler.resample(new float[][]{crop(srcI, sourceRectangle), crop(srcQ, sourceRectangle)},
+                           sourceRectangle, targets);
+
+        // the I/Q pair resampled in one pass is the same as each band on its own
+        final float[][] targetQ = new float[1][w * h];
+        resampler.resample(new float[][]{crop(srcQ, sourceRectangle)}, sourceRectangle, targetQ);
+
+        for (int y = 0; y < h; ++y) {
+            for (int x = 0; x < w; ++x) {
+                final int k = y * w + x;
+                assertEquals(targetQ[0][k], targets[1][k], 0.0);
+
+                final double expectedI = reference(interp, srcI, targetRectangle.x + x, targetRectangle.y + y);
+                if (Double.isNaN(expectedI)) {
+                    continue;
+                }
+                final double expectedQ = reference(interp, srcQ, targetRectangle.x + x, targetRectangle.y + y);
+                assertEquals(expectedI, targets[0][k], tolerance);
+                assertEquals(expectedQ, targets[1][k], tolerance);
+            }
+        }
+    }
+
+    private static float[] crop(final float[] src, final Rectangle rectangle) {
+        final float[] data = new float[rectangle.width * rectangle.height];
+        for (int y = 0; y < rectangle.height; ++y) {
+            System.arraycopy(src, (rectangle.y + y) * srcWidth + rectangle.x, data, y * rectangle.width,
+                             rectangle.width);
+        }
+        return data;
+    }
+
+    /**
+     * The warp and the interpolation at a target pixel, as done by the JAI warp operation. NaN for nearest neighbour
+     * positions so close to a rounding boundary that the grid approximation may pick the other pixel.
+     */
+    private static double reference(final Interpolation interp, final float[] src, final int x, final int y) {
+        final float[] pos = warp.warpRect(x, y, 1, 1, null);
+
+        if (!(interp instanceof InterpolationTable) && interp.getWidth() == 1) {
+            if (nearBoundary(pos[0]) || nearBoundary(pos[1])) {
+                return Double.NaN;
+            }
+            final int xint = Math.round(pos[0]);
+            final int yint = Math.round(pos[1]);
+            if (xint < 0 || xint >= srcWidth || yint < 0 || yint >= srcHeight) {
+                return 0;
+            }
+            return src[yint * srcWidth + xint];
+        }
+
+        final int xint = (int) Math.floor(pos[0]);
+        final int yint = (int) Math.floor(pos[1]);
+        final int left = interp.getLeftPadding();
+        final int top = interp.getTopPadding();
+        if (xint < left || xint >= srcWidth - interp.getRightPadding() ||
+                yint < top || yint >= srcHeight - interp.getBottomPadding()) {
+            return 0;
+        }
+
+        final float[][] samples = new float[interp.getHeight()][interp.getWidth()];
+        for (int j = 0; j < interp.getHeight(); ++j) {
+            for (int i = 0; i < interp.getWidth(); ++i) {
+                samples[j][i] = src[(yint - top + j) * srcWidth + xint - left + i];
+            }
+        }
+        return interp.interpolate(samples, pos[0] - xint, pos[1] - yint);
+    }
+
+    private static boolean nearBoundary(final float f) {
+        return Math.abs(f - Math.floor(f) - 0.5) < 1.0e-3;
+    }
+}
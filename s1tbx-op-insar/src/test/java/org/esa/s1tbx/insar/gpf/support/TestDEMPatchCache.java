@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.support;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for DEMPatchCache.
+ */
+public class TestDEMPatchCache {
+
+    private static final double noDataValue = -32768;
+    private static final int width = 12;
+    private static final int height = 10;
+
+    private static DEMPatchCache.PatchLoader loader(final AtomicInteger loads, final double offset) {
+        return localDEM -> {
+            loads.incrementAndGet();
+            for (int y = 0; y < height; ++y) {
+                for (int x = 0; x < width; ++x) {
+                    localDEM[y][x] = x == y ? noDataValue : offset + y * 100.25 + x;
+                }
+            }
+            return true;
+        };
+    }
+
+    @Test
+    public void testHit() throws Exception {
+        final DEMPatchCache cache = new DEMPatchCache(1024 * 1024);
+        final AtomicInteger loads = new AtomicInteger();
+
+        final double[][] first = new double[height][width];
+        assertTrue(cache.get("a", width, height, first, loader(loads, 0.1)));
+        final double[][] second = new double[height][width];
+        assertTrue(cache.get("a", width, height, second, loader(loads, 0.1)));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        final double[][] expected = new double[height][width];
+        loader(loads, 0.1).load(expected);
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                // the loaded values unchanged, for the loading caller and later callers
+                assertEquals(expected[y][x], first[y][x], 0.0);
+                assertEquals(expected[y][x], second[y][x], 0.0);
+            }
+        }
+        assertEquals(noDataValue, second[3][3], 0.0);
+        assertEquals(0.1 + 5 * 100.25 + 7, second[5][7], 0.0);
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        final long patchBytes = (long) width * height * Double.BYTES;
+        final DEMPatchCache cache = new DEMPatchCache(2 * patchBytes);
+        final AtomicInteger loads = new AtomicInteger();
+        final double[][] localDEM = new double[height][width];
+
+        cache.get("a", width, height, localDEM, loader(loads, 0));
+        cache.get("b", width, height, localDEM, loader(loads, 1));
+        cache.get("a", width, height, localDEM, loader(loads, 0));
+        cache.get("c", width, height, localDEM, loader(loads, 2));
+
+        // b was least recently used
+        assertEquals(3, loads.get());
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2 * patchBytes, cache.getSizeInBytes());
+
+        cache.get("a", width, height, localDEM, loader(loads, 0));
+        assertEquals(3, loads.get());
+        cache.get("b", width, height, localDEM, loader(loads, 1));
+        assertEquals(4, loads.get());
+        assertEquals(1 + 100.25, localDEM[1][0], 0.0);
+    }
+
+    @Test
+    public void testInvalidAndFailedLoads() throws Exception {
+        final DEMPatchCache cache = new DEMPatchCache(1024 * 1024);
+        final double[][] localDEM = new double[height][width];
+
+        assertFalse(cache.get("invalid", width, height, localDEM, dem -> false));
+        assertFalse(cache.get("invalid", width, height, localDEM, dem -> true));
+
+        boolean thrown = false;
+        try {
+            cache.get("failed", width, height, localDEM, dem -> {
+                throw new Exception("no tile");
+            });
+        } catch (Exception e) {
+            assertEquals("no tile", e.getMessage());
+            thrown = true;
+        }
+        assertTrue(thrown);
+        assertEquals(1, cache.size());
+        assertTrue(cache.get("failed", width, height, localDEM, dem -> true));
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.insar.gpf.support;
+
+import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit test for GoldsteinFilter against a reference filter with row and column FFTs over jagged arrays.
+ */
+public class TestGoldsteinFilter {
+
+    private static final int fftSize = 32;
+    private static final int halfWindowSize = 1;
+    private static final double noDataValue = 0.0;
+    private static final int srcWidth = 88;
+    private static final int srcHeight = 72;
+    private static final int tx0 = 24, ty0 = 20, w = 40, h = 28;
+
+    private final float[] srcI = new float[srcWidth * srcHeight];
+    private final float[] srcQ = new float[srcWidth * srcHeight];
+
+    public TestGoldsteinFilter() {
+        // noisy fringes with a no data corner
+        final Random random = new Random(7);
+        for (int y = 0; y < srcHeight; ++y) {
+            for (int x = 0; x < srcWidth; ++x) {
+                final int k = y * srcWidth + x;
+                if (x < 10 && y < 8) {
+                    continue;
+                }
+                final double phase = 0.3 * x + 0.1 * y + random.nextGaussian();
+                srcI[k] = (float) Math.cos(phase);
+                srcQ[k] = (float) Math.sin(phase);
+            }
+        }
+    }
+
+    @Test
+    public void testDoublePrecision() {
+        compareWithReference(0.6, false, 1e-9);
+        compareWithReference(1.0, false, 1e-9);
+    }
+
+    @Test
+    public void testSinglePrecision() {
+        compareWithReference(0.6, true, 1e-4);
+    }
+
+    private void compareWithReference(final double alpha, final boolean singlePrecision, final double relTolerance) {
+        final int xMax = srcWidth - fftSize;
+        final int yMax = srcHeight - fftSize;
+
+        final float[] iExpected = new float[w * h];
+        final float[] qExpected = new float[w * h];
+        filterReference(alpha, xMax, yMax, iExpected, qExpected);
+
+        final float[] iFiltered = new float[w * h];
+        final float[] qFiltered = new float[w * h];
+        new GoldsteinFilter(fftSize, alpha, halfWindowSize, singlePrecision).filterTile(
+                srcI, srcQ, srcWidth, xMax, yMax, tx0, ty0, w, h, noDataValue, iFiltered, qFiltered);
+
+        double maxAmplitude = 0;
+        for (int k = 0; k < w * h; ++k) {
+            maxAmplitude = Math.max(maxAmplitude, Math.hypot(iExpected[k], qExpected[k]));
+        }
+        for (int k = 0; k < w * h; ++k) {
+            assertEquals(iExpected[k], iFiltered[k], relTolerance * maxAmplitude);
+            assertEquals(qExpected[k], qFiltered[k], relTolerance * maxAmplitude);
+        }
+    }
+
+    private void filterReference(final double alpha, final int xMax, final int yMax,
+                                 final float[] iFiltered, final float[] qFiltered) {
+        final int half = fftSize / 2;
+        final double[][] I = new double[fftSize][fftSize];
+        final double[][] Q = new double[fftSize][fftSize];
+        final boolean[][] mask = new boolean[fftSize][fftSize];
+
+        for (int y = 0; y <= yMax; y += fftSize / 4) {
+            for (int x = 0; x <= xMax; x += fftSize / 4) {
+                boolean allNoData = true;
+                for (int r = 0; r < fftSize; ++r) {
+                    for (int c = 0; c < fftSize; ++c) {
+                        I[r][c] = srcI[(y + r) * srcWidth + x + c];
+                        Q[r][c] = srcQ[(y + r) * srcWidth + x + c];
+                        mask[r][c] = I[r][c] != noDataValue;
+                        allNoData &= !mask[r][c];
+                    }
+                }
+                if (allNoData) {
+                    continue;
+                }
+
+                // spectrum of Q + jI
+                transform(Q, I, true);
+
+                final double[][] pwr = new double[fftSize][fftSize];
+                for (int r = 0; r < fftSize; ++r) {
+                    for (int c = 0; c < fftSize; ++c) {
+                        pwr[r][c] = Math.sqrt(I[r][c] * I[r][c] + Q[r][c] * Q[r][c]);
+                    }
+                }
+                for (int r = 0; r < fftSize; ++r) {
+                    for (int c = 0; c < fftSize; ++c) {
+                        double sum = 0;
+                        int k = 0;
+                        for (int j = Math.max(0, r - halfWindowSize); j <= Math.min(fftSize - 1, r + halfWindowSize); ++j) {
+                            for (int i = Math.max(0, c - halfWindowSize); i <= Math.min(fftSize - 1, c + halfWindowSize); ++i) {
+                                if (pwr[j][i] != noDataValue) {
+                                    sum += pwr[j][i];
+                                    ++k;
+                                }
+                            }
+                        }
+                        final double flt = k != 0 ? Math.pow(sum / k, alpha) : 0;
+                        I[r][c] *= flt;
+                        Q[r][c] *= flt;
+                    }
+                }
+
+                transform(Q, I, false);
+
+                for (int yy = Math.max(y, ty0); yy < Math.min(y + fftSize, ty0 + h); ++yy) {
+                    final double weightY = 1 - Math.abs(yy - y - half + 0.5) / half;
+                    for (int xx = Math.max(x, tx0); xx < Math.min(x + fftSize, tx0 + w); ++xx) {
+                        if (!mask[yy - y][xx - x]) {
+                            continue;
+                        }
+                        final double weight = (1 - Math.abs(xx - x - half + 0.5) / half) * weightY;
+                        final int k = (yy - ty0) * w + xx - tx0;
+                        iFiltered[k] += I[yy - y][xx - x] * weight;
+                        qFiltered[k] += Q[yy - y][xx - x] * weight;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void transform(final double[][] re, final double[][] im, final boolean forward) {
+        final int n = re.length;
+        final DoubleFFT_1D fft = new DoubleFFT_1D(n);
+        final double[] array = new double[2 * n];
+        for (int r = 0; r < n; ++r) {
+            for (int c = 0; c < n; ++c) {
+                array[2 * c] = re[r][c];
+                array[2 * c + 1] = im[r][c];
+            }
+            if (forward) {
+                fft.complexForward(array);
+            } else {
+                fft.complexInverse(array, false);
+            }
+            for (int c = 0; c < n; ++c) {
+                re[r][c] = array[2 * c];
+                im[r][c] = array[2 * c + 1];
+            }
+        }
+        for (int c = 0; c < n; ++c) {
+            for (int r = 0; r < n; ++r) {
+                array[2 * r] = re[r][c];
+                array[2 * r + 1] = im[r][c];
+            }
+            if (forward) {
+                fft.complexForward(array);
+            } else {
+                fft.complexInverse(array, false);
+            }
+            for (int r = 0; r < n; ++r) {
+                re[r][c] = array[2 * r];
+                im[r][c] = array[2 * r + 1];
+            }
+        }
+    }
+}
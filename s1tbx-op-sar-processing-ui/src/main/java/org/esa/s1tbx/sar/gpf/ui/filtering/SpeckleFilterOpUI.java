@@ -44,6 +44,7 @@ public class SpeckleFilterOpUI extends BaseOperatorUI {
             SpeckleFilterOp.NONE,
             SpeckleFilterOp.BOXCAR_SPECKLE_FILTER,
             SpeckleFilterOp.MEDIAN_SPECKLE_FILTER,
+            SpeckleFilterOp.HISTOGRAM_MEDIAN_SPECKLE_FILTER,
             SpeckleFilterOp.FROST_SPECKLE_FILTER,
             SpeckleFilterOp.GAMMA_MAP_SPECKLE_FILTER,
             SpeckleFilterOp.LEE_SPECKLE_FILTER,
@@ -235,7 +236,8 @@ public class SpeckleFilterOpUI extends BaseOperatorUI {
         DialogUtils.enableComponents(sigmaStrLabel, sigmaStr, false);
         DialogUtils.enableComponents(anSizeLabel, anSize, false);
 
-        if (item.equals(SpeckleFilterOp.BOXCAR_SPECKLE_FILTER) || item.equals(SpeckleFilterOp.MEDIAN_SPECKLE_FILTER)) {
+        if (item.equals(SpeckleFilterOp.BOXCAR_SPECKLE_FILTER) || item.equals(SpeckleFilterOp.MEDIAN_SPECKLE_FILTER) ||
+                item.equals(SpeckleFilterOp.HISTOGRAM_MEDIAN_SPECKLE_FILTER)) {
             DialogUtils.enableComponents(filterSizeXLabel, filterSizeX, true);
             DialogUtils.enableComponents(filterSizeYLabel, filterSizeY, true);
         }
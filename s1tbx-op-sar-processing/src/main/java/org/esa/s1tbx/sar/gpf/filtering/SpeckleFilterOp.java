@@ -58,8 +58,9 @@ public class SpeckleFilterOp extends Operator {
             rasterDataNodeType = Band.class, label = "Source Bands")
     private String[] sourceBandNames;
 
-    @Parameter(valueSet = {NONE, BOXCAR_SPECKLE_FILTER, MEDIAN_SPECKLE_FILTER, FROST_SPECKLE_FILTER,
-            GAMMA_MAP_SPECKLE_FILTER, LEE_SPECKLE_FILTER, LEE_REFINED_FILTER, LEE_SIGMA_FILTER, IDAN_FILTER},
+    @Parameter(valueSet = {NONE, BOXCAR_SPECKLE_FILTER, MEDIAN_SPECKLE_FILTER, HISTOGRAM_MEDIAN_SPECKLE_FILTER,
+            FROST_SPECKLE_FILTER, GAMMA_MAP_SPECKLE_FILTER, LEE_SPECKLE_FILTER, LEE_REFINED_FILTER, LEE_SIGMA_FILTER,
+            IDAN_FILTER},
             defaultValue = LEE_SIGMA_FILTER,
             label = "Filter")
     private String filter = LEE_SIGMA_FILTER;
@@ -111,6 +112,7 @@ public class SpeckleFilterOp extends Operator {
     public static final String NONE = "None";
     public static final String BOXCAR_SPECKLE_FILTER = "Boxcar";
     public static final String MEDIAN_SPECKLE_FILTER = "Median";
+    public static final String HISTOGRAM_MEDIAN_SPECKLE_FILTER = "Histogram Median";
     public static final String FROST_SPECKLE_FILTER = "Frost";
     public static final String GAMMA_MAP_SPECKLE_FILTER = "Gamma Map";
     public static final String LEE_SPECKLE_FILTER = "Lee";
@@ -149,6 +151,7 @@ public class SpeckleFilterOp extends Operator {
 
         if (s.equals(BOXCAR_SPECKLE_FILTER) ||
                 s.equals(MEDIAN_SPECKLE_FILTER) ||
+                s.equals(HISTOGRAM_MEDIAN_SPECKLE_FILTER) ||
                 s.equals(FROST_SPECKLE_FILTER) ||
                 s.equals(GAMMA_MAP_SPECKLE_FILTER) ||
                 s.equals(LEE_SPECKLE_FILTER) ||
@@ -246,6 +249,12 @@ public class SpeckleFilterOp extends Operator {
                 return new Median(this, sourceProduct, targetProduct, filterSizeX, filterSizeY,
                         targetBandNameToSourceBandName);
 
+            case HISTOGRAM_MEDIAN_SPECKLE_FILTER:
+                // the value ranges come from the band statistics, computed here rather than on a tile thread
+                return new HistogramMedian(this, sourceProduct, targetProduct, filterSizeX, filterSizeY,
+                        targetBandNameToSourceBandName,
+                        HistogramMedian.createQuantizers(sourceProduct, targetBandNameToSourceBandName));
+
             case FROST_SPECKLE_FILTER:
                 return new Frost(this, sourceProduct, targetProduct, filterSizeX, filterSizeY,
                         targetBandNameToSourceBandName, dampingFactor);
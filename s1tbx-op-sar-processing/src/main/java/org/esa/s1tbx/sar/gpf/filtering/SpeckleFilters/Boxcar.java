@@ -120,8 +120,9 @@ public class Boxcar implements SpeckleFilter {
         final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand1);
         final double noDataValue = sourceBand1.getNoDataValue();
         final TileIndex srcIndex = new TileIndex(sourceTile1);
-        final double[] neighborValues = new double[windowSizeX * windowSizeY];
         final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+        final WindowStatistics stats = createWindowStatistics(sourceData1, sourceData2, srcIndex,
+                sourceTileRectangle, noDataValue, isComplex, windowSizeX, windowSizeY);
 
         final int xMax = x0 + w;
         final int yMax = y0 + h;
@@ -130,12 +131,10 @@ public class Boxcar implements SpeckleFilter {
             for (int x = x0; x < xMax; ++x) {
                 final int xx = x - x0;
 
-                final int numSamples = getNeighborValues(
-                        x, y, sourceData1, sourceData2, srcIndex, noDataValue, isComplex,
-                        windowSizeX, windowSizeY, sourceImageWidth, sourceImageHeight, neighborValues);
+                final int numSamples = stats.moveTo(x, y);
 
                 if (numSamples > 0) {
-                    filteredTile[yy][xx] = getMeanValue(neighborValues, numSamples, noDataValue);
+                    filteredTile[yy][xx] = stats.getMean();
                 } else {
                     filteredTile[yy][xx] = noDataValue;
                 }
@@ -124,8 +124,9 @@ public class Frost implements SpeckleFilter {
         final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand1);
         final double noDataValue = sourceBand1.getNoDataValue();
         final TileIndex srcIndex = new TileIndex(sourceTile1);
-        final double[] neighborValues = new double[windowSizeX * windowSizeY];
         final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+        final WindowStatistics stats = createWindowStatistics(sourceData1, sourceData2, srcIndex,
+                sourceTileRectangle, noDataValue, isComplex, windowSizeX, windowSizeY);
         final int xMax = x0 + w;
         final int yMax = y0 + h;
 
@@ -137,12 +138,10 @@ public class Frost implements SpeckleFilter {
             for (int x = x0; x < xMax; ++x) {
                 final int xx = x - x0;
 
-                final int numSamples = getNeighborValues(
-                        x, y, sourceData1, sourceData2, srcIndex, noDataValue, isComplex,
-                        windowSizeX, windowSizeY, sourceImageWidth, sourceImageHeight, neighborValues);
+                final int numSamples = stats.moveTo(x, y);
 
                 if (numSamples > 0) {
-                    filteredTile[yy][xx] = getFrostValue(neighborValues, numSamples, noDataValue, mask);
+                    filteredTile[yy][xx] = getFrostValue(stats, x, y, noDataValue, mask);
                 } else {
                     filteredTile[yy][xx] = noDataValue;
                 }
@@ -174,22 +173,23 @@ public class Frost implements SpeckleFilter {
     /**
      * Get the Frost filtered pixel intensity for pixels in a given rectangular region.
      *
-     * @param neighborValues Array holding the pixel values.
-     * @param numSamples     The number of samples.
-     * @param noDataValue    Place holder for no data value.
-     * @param mask           Array holding Frost filter mask values.
+     * @param stats       The statistics of the window centred at the pixel.
+     * @param x           X coordinate of the pixel.
+     * @param y           Y coordinate of the pixel.
+     * @param noDataValue Place holder for no data value.
+     * @param mask        Array holding Frost filter mask values.
      * @return val The Frost filtered value.
      * @throws OperatorException If an error occurs in computation of the Frost filtered value.
      */
-    private double getFrostValue(
-            final double[] neighborValues, final int numSamples, final double noDataValue, final double[] mask) {
+    private double getFrostValue(final WindowStatistics stats, final int x, final int y,
+                                 final double noDataValue, final double[] mask) {
 
-        final double mean = getMeanValue(neighborValues, numSamples, noDataValue);
+        final double mean = stats.getMean();
         if (mean <= Double.MIN_VALUE) {
             return mean;
         }
 
-        final double var = getVarianceValue(neighborValues, numSamples, mean, noDataValue);
+        final double var = stats.getVariance();
         if (var <= Double.MIN_VALUE) {
             return mean;
         }
@@ -198,11 +198,15 @@ public class Frost implements SpeckleFilter {
 
         double sum = 0.0;
         double totalWeight = 0.0;
-        for (int i = 0; i < neighborValues.length; i++) {
-            if (neighborValues[i] != noDataValue) {
-                final double weight = FastMath.exp(-k * mask[i]);
-                sum += weight * neighborValues[i];
-                totalWeight += weight;
+        int i = 0;
+        for (int yy = y - halfWindowSizeY; yy < y - halfWindowSizeY + windowSizeY; yy++) {
+            for (int xx = x - halfWindowSizeX; xx < x - halfWindowSizeX + windowSizeX; xx++, i++) {
+                final double v = stats.getValue(xx, yy);
+                if (v != noDataValue) {
+                    final double weight = FastMath.exp(-k * mask[i]);
+                    sum += weight * v;
+                    totalWeight += weight;
+                }
             }
         }
         return sum / totalWeight;
@@ -136,8 +136,9 @@ public class GammaMap implements SpeckleFilter {
         final double cu = 1.0 / Math.sqrt(n);
         final double cu2 = cu * cu;
 
-        final double[] neighborValues = new double[windowSizeX * windowSizeY];
         final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+        final WindowStatistics stats = createWindowStatistics(sourceData1, sourceData2, srcIndex,
+                sourceTileRectangle, noDataValue, isComplex, windowSizeX, windowSizeY);
         final int xMax = x0 + w;
         final int yMax = y0 + h;
 
@@ -146,12 +147,10 @@ public class GammaMap implements SpeckleFilter {
             for (int x = x0; x < xMax; ++x) {
                 final int xx = x - x0;
 
-                final int numSamples = getNeighborValues(
-                        x, y, sourceData1, sourceData2, srcIndex, noDataValue, isComplex,
-                        windowSizeX, windowSizeY, sourceImageWidth, sourceImageHeight, neighborValues);
+                final int numSamples = stats.moveTo(x, y);
 
                 if (numSamples > 0) {
-                    filteredTile[yy][xx] = getGammaMapValue(neighborValues, numSamples, noDataValue, cu, cu2, n);
+                    filteredTile[yy][xx] = getGammaMapValue(stats, cu, cu2, n);
                 } else {
                     filteredTile[yy][xx] = noDataValue;
                 }
@@ -164,21 +163,19 @@ public class GammaMap implements SpeckleFilter {
     /**
      * Get the Gamma filtered pixel intensity for pixels in a given rectangular region.
      *
-     * @param neighborValues Array holding the pixel values.
-     * @param numSamples     The number of samples.
-     * @param noDataValue    Place holder for no data value.
+     * @param stats The statistics of the current window.
      * @return val The Gamma filtered value.
      * @throws OperatorException If an error occurs in computation of the Gamma filtered value.
      */
-    private double getGammaMapValue(final double[] neighborValues, final int numSamples, final double noDataValue,
-                                    final double cu, final double cu2, final double enl) {
+    private static double getGammaMapValue(final WindowStatistics stats, final double cu, final double cu2,
+                                           final double enl) {
 
-        final double mean = getMeanValue(neighborValues, numSamples, noDataValue);
+        final double mean = stats.getMean();
         if (mean <= Double.MIN_VALUE) {
             return mean;
         }
 
-        final double var = getVarianceValue(neighborValues, numSamples, mean, noDataValue);
+        final double var = stats.getVariance();
         if (var <= Double.MIN_VALUE) {
             return mean;
         }
@@ -188,7 +185,7 @@ public class GammaMap implements SpeckleFilter {
             return mean;
         }
 
-        final double cp = neighborValues[neighborValues.length / 2];
+        final double cp = stats.getCentreValue();
 
         if (cu < ci) {
             final double cmax = Math.sqrt(2) * cu;
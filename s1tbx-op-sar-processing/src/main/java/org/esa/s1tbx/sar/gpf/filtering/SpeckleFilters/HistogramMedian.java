@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.filtering.SpeckleFilters;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.Stx;
+import org.esa.snap.core.gpf.Operator;
+import org.esa.snap.core.gpf.OperatorException;
+import org.esa.snap.core.gpf.Tile;
+import org.esa.snap.engine_utilities.datamodel.Unit;
+import org.esa.snap.engine_utilities.gpf.OperatorUtils;
+import org.esa.snap.engine_utilities.gpf.TileIndex;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Median Speckle Filter using a sliding histogram.
+ * <p>
+ * Sample values are quantized into bins spanning the Stx range of the band, on a log scale for non negative data.
+ * Along each line the window histogram is updated by removing the leaving column and adding the entering one
+ * (Huang), and the median bin is found with a two level (coarse/fine) histogram, so the cost per pixel grows with
+ * the window height only. The result is the centre of the median bin, within half a bin of the exact median.
+ */
+public class HistogramMedian implements SpeckleFilter {
+
+    private static final int FINE_BITS = 6;
+    private static final int NUM_COARSE_BINS = 64;
+    static final int NUM_BINS = NUM_COARSE_BINS << FINE_BITS;
+
+    private final Operator operator;
+    private final Product sourceProduct;
+    private final Product targetProduct;
+    private final int windowSizeX;
+    private final int windowSizeY;
+    private final int halfWindowSizeX;
+    private final int halfWindowSizeY;
+    private final int sourceImageWidth;
+    private final int sourceImageHeight;
+    private Map<String, String[]> targetBandNameToSourceBandName;
+    private final Map<String, Quantizer> quantizers;
+
+    /**
+     * @param quantizers the value range of each group of source bands, see createQuantizers
+     */
+    public HistogramMedian(final Operator op, final Product srcProduct, final Product trgProduct,
+                           final int windowSizeX, final int windowSizeY,
+                           final Map<String, String[]> targetBandNameToSourceBandName,
+                           final Map<String, Quantizer> quantizers) {
+
+        this.operator = op;
+        this.sourceProduct = srcProduct;
+        this.targetProduct = trgProduct;
+        this.windowSizeX = windowSizeX;
+        this.windowSizeY = windowSizeY;
+        this.halfWindowSizeX = windowSizeX / 2;
+        this.halfWindowSizeY = windowSizeY / 2;
+        this.sourceImageWidth = srcProduct.getSceneRasterWidth();
+        this.sourceImageHeight = srcProduct.getSceneRasterHeight();
+        this.targetBandNameToSourceBandName = targetBandNameToSourceBandName;
+        this.quantizers = quantizers;
+    }
+
+    /**
+     * Compute the value range of each group of source bands from the band statistics. The statistics may have to be
+     * computed from the whole band, so this is meant to be called when the operator is initialized.
+     */
+    public static Map<String, Quantizer> createQuantizers(final Product srcProduct,
+                                                          final Map<String, String[]> targetBandNameToSourceBandName) {
+
+        final Map<String, Quantizer> quantizers = new HashMap<>();
+        for (String[] srcBandNames : targetBandNameToSourceBandName.values()) {
+            final Band sourceBand1 = srcProduct.getBand(srcBandNames[0]);
+            final Band sourceBand2 = srcBandNames.length > 1 ? srcProduct.getBand(srcBandNames[1]) : null;
+            final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand1);
+            final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+
+            final Stx stx1 = sourceBand1.getStx();
+            if (isComplex && sourceBand2 != null) {
+                final Stx stx2 = sourceBand2.getStx();
+                final double m = Math.max(Math.max(Math.abs(stx1.getMinimum()), Math.abs(stx1.getMaximum())),
+                        Math.max(Math.abs(stx2.getMinimum()), Math.abs(stx2.getMaximum())));
+                quantizers.put(getQuantizerKey(srcBandNames), new Quantizer(0.0, 2.0 * m * m));
+            } else {
+                quantizers.put(getQuantizerKey(srcBandNames), new Quantizer(stx1.getMinimum(), stx1.getMaximum()));
+            }
+        }
+        return quantizers;
+    }
+
+    private static String getQuantizerKey(final String[] srcBandNames) {
+        return String.join(",", srcBandNames);
+    }
+
+    public void computeTile(Band targetBand, Tile targetTile, ProgressMonitor pm) {
+
+        try {
+            final Rectangle targetTileRectangle = targetTile.getRectangle();
+            final int x0 = targetTileRectangle.x;
+            final int y0 = targetTileRectangle.y;
+            final int w = targetTileRectangle.width;
+            final int h = targetTileRectangle.height;
+            final int xMax = x0 + w;
+            final int yMax = y0 + h;
+
+            final String[] srcBandNames = targetBandNameToSourceBandName.get(targetBand.getName());
+            final double[][] filteredTile = performFiltering(x0, y0, w, h, srcBandNames);
+
+            final ProductData tgtData = targetTile.getDataBuffer();
+            final TileIndex tgtIndex = new TileIndex(targetTile);
+            for (int y = y0; y < yMax; ++y) {
+                tgtIndex.calculateStride(y);
+                final int yy = y - y0;
+                for (int x = x0; x < xMax; ++x) {
+                    tgtData.setElemDoubleAt(tgtIndex.getIndex(x), filteredTile[yy][x - x0]);
+                }
+            }
+        } catch (Throwable e) {
+            OperatorUtils.catchOperatorException("HistogramMedian", e);
+        } finally {
+            pm.done();
+        }
+    }
+
+    public double[][] performFiltering(
+            final int x0, final int y0, final int w, final int h, final String[] srcBandNames) {
+
+        final double[][] filteredTile = new double[h][w];
+
+        final Rectangle sourceTileRectangle = getSourceTileRectangle(
+                x0, y0, w, h, halfWindowSizeX, halfWindowSizeY, sourceImageWidth, sourceImageHeight);
+
+        Band sourceBand1 = null;
+        Band sourceBand2 = null;
+        Tile sourceTile1 = null;
+        Tile sourceTile2 = null;
+        ProductData sourceData1 = null;
+        ProductData sourceData2 = null;
+        if (srcBandNames.length == 1) {
+            sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
+            sourceTile1 = operator.getSourceTile(sourceBand1, sourceTileRectangle);
+            sourceData1 = sourceTile1.getDataBuffer();
+        } else {
+            sourceBand1 = sourceProduct.getBand(srcBandNames[0]);
+            sourceBand2 = sourceProduct.getBand(srcBandNames[1]);
+            sourceTile1 = operator.getSourceTile(sourceBand1, sourceTileRectangle);
+            sourceTile2 = operator.getSourceTile(sourceBand2, sourceTileRectangle);
+            sourceData1 = sourceTile1.getDataBuffer();
+            sourceData2 = sourceTile2.getDataBuffer();
+        }
+        final Unit.UnitType bandUnit = Unit.getUnitType(sourceBand1);
+        final double noDataValue = sourceBand1.getNoDataValue();
+        final TileIndex srcIndex = new TileIndex(sourceTile1);
+        final boolean isComplex = bandUnit == Unit.UnitType.REAL || bandUnit == Unit.UnitType.IMAGINARY;
+
+        final double[] values = getSourceValues(
+                sourceData1, sourceData2, srcIndex, sourceTileRectangle, noDataValue, isComplex);
+        final Quantizer quantizer = quantizers.get(getQuantizerKey(srcBandNames));
+        if (quantizer == null) {
+            throw new OperatorException("No value range for " + getQuantizerKey(srcBandNames));
+        }
+
+        filter(values, sourceTileRectangle, x0, y0, w, h, windowSizeX, windowSizeY, noDataValue, quantizer,
+                filteredTile);
+
+        return filteredTile;
+    }
+
+    /**
+     * Median filter a target rectangle.
+     *
+     * @param values              The source tile values line by line, noDataValue where not valid.
+     * @param sourceTileRectangle The source tile rectangle.
+     * @param x0                  X coordinate of the upper left corner point of the target tile rectangle.
+     * @param y0                  Y coordinate of the upper left corner point of the target tile rectangle.
+     * @param w                   The width of the target tile rectangle.
+     * @param h                   The height of the target tile rectangle.
+     * @param windowSizeX         The sliding window width.
+     * @param windowSizeY         The sliding window height.
+     * @param noDataValue         Place holder for no data value.
+     * @param quantizer           The mapping between values and histogram bins.
+     * @param filteredTile        The filtered values.
+     */
+    static void filter(final double[] values, final Rectangle sourceTileRectangle,
+                       final int x0, final int y0, final int w, final int h,
+                       final int windowSizeX, final int windowSizeY, final double noDataValue,
+                       final Quantizer quantizer, final double[][] filteredTile) {
+
+        final int sx0 = sourceTileRectangle.x;
+        final int sy0 = sourceTileRectangle.y;
+        final int sw = sourceTileRectangle.width;
+        final int sh = sourceTileRectangle.height;
+        final int halfSizeX = windowSizeX / 2;
+        final int halfSizeY = windowSizeY / 2;
+
+        final int[] bins = new int[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            final double v = values[i];
+            bins[i] = Double.compare(v, noDataValue) != 0 ? quantizer.getBin(v) : -1;
+        }
+
+        final int[] fine = new int[NUM_BINS];
+        final int[] coarse = new int[NUM_COARSE_BINS];
+
+        for (int y = y0; y < y0 + h; ++y) {
+            final int yy = y - y0;
+            final int r0 = Math.max(y - halfSizeY, sy0) - sy0;
+            final int r1 = Math.min(y - halfSizeY + windowSizeY, sy0 + sh) - sy0;
+
+            Arrays.fill(fine, 0);
+            Arrays.fill(coarse, 0);
+            int numSamples = 0;
+
+            final int c0 = Math.max(x0 - halfSizeX, sx0) - sx0;
+            final int c1 = Math.min(x0 - halfSizeX + windowSizeX, sx0 + sw) - sx0;
+            for (int c = c0; c < c1; ++c) {
+                for (int r = r0; r < r1; ++r) {
+                    final int b = bins[r * sw + c];
+                    if (b >= 0) {
+                        ++fine[b];
+                        ++coarse[b >> FINE_BITS];
+                        ++numSamples;
+                    }
+                }
+            }
+
+            for (int x = x0; x < x0 + w; ++x) {
+                if (x > x0) {
+                    final int leaving = x - 1 - halfSizeX - sx0;
+                    if (leaving >= 0) {
+                        for (int r = r0; r < r1; ++r) {
+                            final int b = bins[r * sw + leaving];
+                            if (b >= 0) {
+                                --fine[b];
+                                --coarse[b >> FINE_BITS];
+                                --numSamples;
+                            }
+                        }
+                    }
+                    final int entering = x - halfSizeX + windowSizeX - 1 - sx0;
+                    if (entering < sw) {
+                        for (int r = r0; r < r1; ++r) {
+                            final int b = bins[r * sw + entering];
+                            if (b >= 0) {
+                                ++fine[b];
+                                ++coarse[b >> FINE_BITS];
+                                ++numSamples;
+                            }
+                        }
+                    }
+                }
+
+                if (numSamples == 0) {
+                    filteredTile[yy][x - x0] = noDataValue;
+                    continue;
+                }
+
+                // same rank as the sorted median: the upper one for an even number of samples
+                int rank = numSamples / 2;
+                int cb = 0;
+                while (rank >= coarse[cb]) {
+                    rank -= coarse[cb++];
+                }
+                int b = cb << FINE_BITS;
+                while (rank >= fine[b]) {
+                    rank -= fine[b++];
+                }
+                filteredTile[yy][x - x0] = quantizer.getValue(b);
+            }
+        }
+    }
+
+    /**
+     * Maps sample values to histogram bins over a value range, on a log scale for non negative ranges.
+     */
+    public static final class Quantizer {
+
+        private final boolean logScale;
+        private final double min;
+        private final double scale;
+
+        Quantizer(final double minValue, final double maxValue) {
+            final double max = Double.isFinite(maxValue) ? maxValue : Float.MAX_VALUE;
+            if (minValue >= 0.0 && max > 0.0) {
+                // keep the lowest bins for the darkest non zero samples
+                logScale = true;
+                final double lo = minValue > 0.0 ? minValue : max * 1e-9;
+                min = Math.log(lo);
+                scale = NUM_BINS / Math.max(Math.log(max) - min, 1e-12);
+            } else {
+                logScale = false;
+                min = Double.isFinite(minValue) ? minValue : -Float.MAX_VALUE;
+                scale = NUM_BINS / Math.max(max - min, 1e-12);
+            }
+        }
+
+        int getBin(final double v) {
+            final double t = ((logScale ? Math.log(v) : v) - min) * scale;
+            if (!(t > 0.0)) {
+                return 0;
+            }
+            return t >= NUM_BINS ? NUM_BINS - 1 : (int) t;
+        }
+
+        double getValue(final int bin) {
+            final double t = min + (bin + 0.5) / scale;
+            return logScale ? Math.exp(t) : t;
+        }
+    }
+}
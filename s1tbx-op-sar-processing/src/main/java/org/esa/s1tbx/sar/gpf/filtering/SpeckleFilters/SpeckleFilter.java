@@ -145,6 +145,71 @@ public interface SpeckleFilter {
         return numValidSamples;
     }
 
+    /**
+     * Create the sliding window statistics for a source tile.
+     *
+     * @param srcData1            The source ProductData for 1st band.
+     * @param srcData2            The source ProductData for 2nd band.
+     * @param srcIndex            The source tile index.
+     * @param sourceTileRectangle The source tile rectangle.
+     * @param noDataValue         Place holder for no data value.
+     * @param isComplex           True if it has i and q, otherwise false.
+     * @param windowSizeX         The sliding window width.
+     * @param windowSizeY         The sliding window height.
+     * @return The window statistics over the same samples getNeighborValues would return.
+     */
+    default WindowStatistics createWindowStatistics(final ProductData srcData1, final ProductData srcData2,
+                                                    final TileIndex srcIndex, final Rectangle sourceTileRectangle,
+                                                    final double noDataValue, final boolean isComplex,
+                                                    final int windowSizeX, final int windowSizeY) {
+
+        final double[] values = getSourceValues(
+                srcData1, srcData2, srcIndex, sourceTileRectangle, noDataValue, isComplex);
+        return new WindowStatistics(values, sourceTileRectangle, windowSizeX, windowSizeY, noDataValue);
+    }
+
+    /**
+     * Get the sample values of a source tile line by line, intensities for complex data.
+     *
+     * @param srcData1            The source ProductData for 1st band.
+     * @param srcData2            The source ProductData for 2nd band.
+     * @param srcIndex            The source tile index.
+     * @param sourceTileRectangle The source tile rectangle.
+     * @param noDataValue         Place holder for no data value.
+     * @param isComplex           True if it has i and q, otherwise false.
+     * @return The sample values, noDataValue where not valid.
+     */
+    default double[] getSourceValues(final ProductData srcData1, final ProductData srcData2,
+                                     final TileIndex srcIndex, final Rectangle sourceTileRectangle,
+                                     final double noDataValue, final boolean isComplex) {
+
+        final int sx0 = sourceTileRectangle.x;
+        final int sy0 = sourceTileRectangle.y;
+        final int sw = sourceTileRectangle.width;
+        final int sh = sourceTileRectangle.height;
+        final double[] values = new double[sw * sh];
+
+        int k = 0;
+        for (int y = sy0; y < sy0 + sh; y++) {
+            srcIndex.calculateStride(y);
+            for (int x = sx0; x < sx0 + sw; x++) {
+                final int idx = srcIndex.getIndex(x);
+                if (isComplex) {
+                    final double I = srcData1.getElemDoubleAt(idx);
+                    final double Q = srcData2.getElemDoubleAt(idx);
+                    if (Double.compare(I, noDataValue) != 0 && Double.compare(Q, noDataValue) != 0) {
+                        values[k++] = I * I + Q * Q;
+                    } else {
+                        values[k++] = noDataValue;
+                    }
+                } else {
+                    values[k++] = srcData1.getElemDoubleAt(idx);
+                }
+            }
+        }
+        return values;
+    }
+
     /**
      * Get the mean value of pixel intensities in a given rectangular region.
      *
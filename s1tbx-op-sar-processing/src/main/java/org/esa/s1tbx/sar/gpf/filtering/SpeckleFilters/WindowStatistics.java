@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.filtering.SpeckleFilters;
+
+import java.awt.*;
+
+/**
+ * Sliding window statistics over a source tile.
+ * <p>
+ * Integral images of the valid sample count, the sum and the sum of squares are built once per tile so that the
+ * number of valid samples, the mean and the variance of any filter window cost O(1) per pixel. The sums are taken
+ * relative to the tile mean to keep the variance accurate. Windows are clipped to the source tile, which
+ * getSourceTileRectangle makes the same as clipping them to the image.
+ * <p>
+ * An instance holds the current window and is meant to be used by one thread.
+ */
+public final class WindowStatistics {
+
+    private final int sx0, sy0, sw, sh;
+    private final int halfWindowSizeX, halfWindowSizeY;
+    private final int windowSizeX, windowSizeY;
+    private final int centreX, centreY;
+    private final double noDataValue;
+    private final double[] values;
+    private final double shift;
+
+    private final int stride;
+    private final int[] count;
+    private final double[] sum;
+    private final double[] sumSq;
+
+    // current window
+    private int x, y;
+    private int numSamples;
+    private double windowSum, windowSumSq;
+
+    /**
+     * @param values              the sample values of the source tile line by line, noDataValue where not valid
+     * @param sourceTileRectangle the source tile rectangle
+     * @param windowSizeX         the sliding window width
+     * @param windowSizeY         the sliding window height
+     * @param noDataValue         the place holder for no data
+     */
+    WindowStatistics(final double[] values, final Rectangle sourceTileRectangle,
+                     final int windowSizeX, final int windowSizeY, final double noDataValue) {
+        this.sx0 = sourceTileRectangle.x;
+        this.sy0 = sourceTileRectangle.y;
+        this.sw = sourceTileRectangle.width;
+        this.sh = sourceTileRectangle.height;
+        this.windowSizeX = windowSizeX;
+        this.windowSizeY = windowSizeY;
+        this.halfWindowSizeX = windowSizeX / 2;
+        this.halfWindowSizeY = windowSizeY / 2;
+        this.noDataValue = noDataValue;
+        this.values = values;
+
+        // position of neighborValues[neighborValues.length / 2] in the window, the centre for odd window sizes
+        final int centreIndex = windowSizeX * windowSizeY / 2;
+        this.centreX = centreIndex % windowSizeX - halfWindowSizeX;
+        this.centreY = centreIndex / windowSizeX - halfWindowSizeY;
+
+        double total = 0.0;
+        int n = 0;
+        for (double v : values) {
+            if (isValid(v)) {
+                total += v;
+                ++n;
+            }
+        }
+        this.shift = n > 0 ? total / n : 0.0;
+
+        this.stride = sw + 1;
+        this.count = new int[stride * (sh + 1)];
+        this.sum = new double[stride * (sh + 1)];
+        this.sumSq = new double[stride * (sh + 1)];
+
+        for (int j = 0; j < sh; ++j) {
+            int rowCount = 0;
+            double rowSum = 0.0, rowSumSq = 0.0;
+            final int src = j * sw;
+            final int prev = j * stride;
+            final int cur = prev + stride;
+            for (int i = 0; i < sw; ++i) {
+                final double v = values[src + i];
+                if (isValid(v)) {
+                    final double d = v - shift;
+                    ++rowCount;
+                    rowSum += d;
+                    rowSumSq += d * d;
+                }
+                count[cur + i + 1] = count[prev + i + 1] + rowCount;
+                sum[cur + i + 1] = sum[prev + i + 1] + rowSum;
+                sumSq[cur + i + 1] = sumSq[prev + i + 1] + rowSumSq;
+            }
+        }
+    }
+
+    private boolean isValid(final double v) {
+        return Double.compare(v, noDataValue) != 0;
+    }
+
+    /**
+     * Move the window to be centred at the given pixel.
+     *
+     * @param x X coordinate of the pixel.
+     * @param y Y coordinate of the pixel.
+     * @return The number of valid samples in the window.
+     */
+    public int moveTo(final int x, final int y) {
+        this.x = x;
+        this.y = y;
+
+        final int minX = Math.max(x - halfWindowSizeX - sx0, 0);
+        final int maxX = Math.min(x - halfWindowSizeX + windowSizeX - sx0, sw);
+        final int minY = Math.max(y - halfWindowSizeY - sy0, 0);
+        final int maxY = Math.min(y - halfWindowSizeY + windowSizeY - sy0, sh);
+        if (minX >= maxX || minY >= maxY) {
+            numSamples = 0;
+            windowSum = 0.0;
+            windowSumSq = 0.0;
+            return 0;
+        }
+
+        final int i00 = minY * stride + minX;
+        final int i01 = minY * stride + maxX;
+        final int i10 = maxY * stride + minX;
+        final int i11 = maxY * stride + maxX;
+        numSamples = count[i11] - count[i01] - count[i10] + count[i00];
+        windowSum = sum[i11] - sum[i01] - sum[i10] + sum[i00];
+        windowSumSq = sumSq[i11] - sumSq[i01] - sumSq[i10] + sumSq[i00];
+        return numSamples;
+    }
+
+    /**
+     * @return The number of valid samples in the current window.
+     */
+    public int getNumSamples() {
+        return numSamples;
+    }
+
+    /**
+     * @return The mean of the valid samples in the current window.
+     */
+    public double getMean() {
+        return shift + windowSum / numSamples;
+    }
+
+    /**
+     * @return The sample variance of the valid samples in the current window, 0 for less than two samples.
+     */
+    public double getVariance() {
+        if (numSamples < 2) {
+            return 0.0;
+        }
+        final double var = (windowSumSq - windowSum * windowSum / numSamples) / (numSamples - 1);
+        return var > 0.0 ? var : 0.0;
+    }
+
+    /**
+     * @return The value at the centre of the current window, or noDataValue.
+     */
+    public double getCentreValue() {
+        return getValue(x + centreX, y + centreY);
+    }
+
+    /**
+     * @param x X coordinate of the pixel.
+     * @param y Y coordinate of the pixel.
+     * @return The sample value at the pixel, or noDataValue outside the source tile.
+     */
+    public double getValue(final int x, final int y) {
+        final int i = x - sx0;
+        final int j = y - sy0;
+        if (i < 0 || i >= sw || j < 0 || j >= sh) {
+            return noDataValue;
+        }
+        return values[j * sw + i];
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.geometric;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Layover/shadow mask in source image geometry, computed lazily in blocks of azimuth lines.
+ * <p>
+ * Each pixel takes 2 bits: 1 = layover, 2 = shadow, 3 = layover and shadow. A block is computed on first access
+ * by the thread asking for it and kept while the resident blocks fit in the byte budget; beyond that the least
+ * recently used blocks are dropped and computed again if they are needed later.
+ */
+final class LayoverShadowMask {
+
+    static final byte LAYOVER = 1;
+    static final byte SHADOW = 2;
+
+    private static final int PIXELS_PER_WORD = 32;
+
+    /**
+     * Fills the mask of a block of azimuth lines.
+     */
+    interface BlockComputer {
+        void compute(Block block);
+    }
+
+    private final int width;
+    private final int height;
+    private final int blockHeight;
+    private final long maxBytes;
+    private final BlockComputer computer;
+
+    private final AtomicReferenceArray<Block> blocks;
+    private final Object[] blockLocks;
+    private final AtomicLong accessCounter = new AtomicLong();
+    private long residentBytes = 0;
+
+    LayoverShadowMask(final int width, final int height, final int blockHeight, final long maxBytes,
+                      final BlockComputer computer) {
+        this.width = width;
+        this.height = height;
+        this.blockHeight = blockHeight;
+        this.maxBytes = maxBytes;
+        this.computer = computer;
+
+        final int numBlocks = (height + blockHeight - 1) / blockHeight;
+        this.blocks = new AtomicReferenceArray<>(numBlocks);
+        this.blockLocks = new Object[numBlocks];
+        for (int i = 0; i < numBlocks; ++i) {
+            blockLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Get the mask value of a source pixel, computing its block if it is not resident.
+     *
+     * @param y azimuth index
+     * @param x range index
+     * @return 0 for none, 1 for layover, 2 for shadow and 3 for both
+     */
+    int getValue(final int y, final int x) {
+        final Block block = getBlockAt(y);
+        return block != null ? block.getValue(y, x) : 0;
+    }
+
+    /**
+     * Get the block holding an azimuth line, computing it if it is not resident. Callers reading many pixels keep
+     * the block while the lines they read fall into it, so the access order is only updated once per block fetch.
+     *
+     * @param y azimuth index
+     * @return the block or null if the line is outside of the image
+     */
+    Block getBlockAt(final int y) {
+        if (y < 0 || y >= height) {
+            return null;
+        }
+        return getBlock(y / blockHeight);
+    }
+
+    int getNumResidentBlocks() {
+        int count = 0;
+        for (int i = 0; i < blocks.length(); ++i) {
+            if (blocks.get(i) != null) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private Block getBlock(final int blockIndex) {
+
+        Block block = blocks.get(blockIndex);
+        if (block == null) {
+            synchronized (blockLocks[blockIndex]) {
+                block = blocks.get(blockIndex);
+                if (block == null) {
+                    final int y0 = blockIndex * blockHeight;
+                    block = new Block(y0, Math.min(blockHeight, height - y0), width);
+                    computer.compute(block);
+                    addResident(blockIndex, block);
+                }
+            }
+        }
+        block.lastAccess = accessCounter.incrementAndGet();
+        return block;
+    }
+
+    private synchronized void addResident(final int blockIndex, final Block block) {
+
+        blocks.set(blockIndex, block);
+        residentBytes += block.getSizeInBytes();
+
+        while (residentBytes > maxBytes) {
+            int oldest = -1;
+            long oldestAccess = Long.MAX_VALUE;
+            for (int i = 0; i < blocks.length(); ++i) {
+                final Block b = blocks.get(i);
+                if (b != null && i != blockIndex && b.lastAccess < oldestAccess) {
+                    oldestAccess = b.lastAccess;
+                    oldest = i;
+                }
+            }
+            if (oldest < 0) {
+                break;
+            }
+            residentBytes -= blocks.get(oldest).getSizeInBytes();
+            blocks.set(oldest, null);
+        }
+    }
+
+    /**
+     * Bit packed mask of the azimuth lines [y0, y0 + height).
+     */
+    static final class Block {
+        final int y0;
+        final int height;
+        final int width;
+        private final int wordsPerLine;
+        private final long[] words;
+        volatile long lastAccess;
+
+        Block(final int y0, final int height, final int width) {
+            this.y0 = y0;
+            this.height = height;
+            this.width = width;
+            this.wordsPerLine = (width + PIXELS_PER_WORD - 1) / PIXELS_PER_WORD;
+            this.words = new long[height * wordsPerLine];
+        }
+
+        /**
+         * Add a layover or shadow flag to a pixel. Pixels outside of the block are ignored.
+         */
+        void set(final int y, final int x, final byte value) {
+            final int yy = y - y0;
+            if (yy < 0 || yy >= height || x < 0 || x >= width) {
+                return;
+            }
+            words[yy * wordsPerLine + x / PIXELS_PER_WORD] |= (long) value << (2 * (x % PIXELS_PER_WORD));
+        }
+
+        boolean contains(final int y) {
+            return y >= y0 && y < y0 + height;
+        }
+
+        /**
+         * Get the mask value of a pixel of the block, 0 for pixels outside of the block.
+         */
+        int getValue(final int y, final int x) {
+            if (!contains(y) || x < 0 || x >= width) {
+                return 0;
+            }
+            final long word = words[(y - y0) * wordsPerLine + x / PIXELS_PER_WORD];
+            return (int) (word >>> (2 * (x % PIXELS_PER_WORD))) & 3;
+        }
+
+        long getSizeInBytes() {
+            return (long) words.length * Long.BYTES;
+        }
+    }
+}
@@ -30,16 +30,21 @@ import org.esa.snap.core.gpf.annotations.SourceProducts;
 import org.esa.snap.core.gpf.annotations.TargetProduct;
 import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.SystemUtils;
+import org.esa.snap.core.util.ThreadExecutor;
+import org.esa.snap.core.util.ThreadRunnable;
 import org.esa.snap.core.util.math.MathUtils;
 import org.esa.snap.engine_utilities.datamodel.AbstractMetadata;
 import org.esa.snap.engine_utilities.datamodel.Unit;
 import org.esa.snap.engine_utilities.eo.Constants;
 import org.esa.snap.engine_utilities.gpf.OperatorUtils;
+import org.esa.snap.engine_utilities.gpf.StatusProgressMonitor;
 import org.esa.snap.engine_utilities.gpf.TileGeoreferencing;
 import org.esa.snap.engine_utilities.gpf.TileIndex;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
 import org.geotools.referencing.wkt.UnformattableObjectException;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
 import java.awt.*;
@@ -100,6 +105,9 @@ public class MosaicOp extends Operator {
     private final Map<Integer, Band> bandIndexSet = new HashMap<>(20);
     private final Map<Product, Rectangle> srcRectMap = new HashMap<>(10);
     private Product[] selectedProducts = null;
+    private STRtree srcRectIndex = null;
+
+    private final Map<Band, Stx> srcBandStxMap = new HashMap<>(20);
 
     private boolean outputGradientBand = false;
 
@@ -199,6 +207,11 @@ public class MosaicOp extends Operator {
                         scnProp.srcCornerLongitudeMap.get(srcProduct));
                 srcRectMap.put(srcProduct, srcRect);
             }
+            srcRectIndex = createSrcRectIndex(selectedProducts, srcRectMap);
+
+            if (normalizeByMean) {
+                computeStatistics();
+            }
 
             updateTargetProductMetadata();
 
@@ -310,6 +323,106 @@ public class MosaicOp extends Operator {
         return defaultName;
     }
 
+    /**
+     * Index the source product footprints in target pixel coordinates so that the products overlapping a target
+     * tile are found without testing every source product.
+     */
+    static STRtree createSrcRectIndex(final Product[] selectedProducts, final Map<Product, Rectangle> srcRectMap) {
+        final STRtree index = new STRtree();
+        for (int i = 0; i < selectedProducts.length; ++i) {
+            final Rectangle srcRect = srcRectMap.get(selectedProducts[i]);
+            if (srcRect != null) {
+                index.insert(new Envelope(srcRect.getMinX(), srcRect.getMaxX(), srcRect.getMinY(), srcRect.getMaxY()), i);
+            }
+        }
+        index.build();  // queries on a built tree are thread safe
+        return index;
+    }
+
+    /**
+     * @return the source products overlapping the target rectangle, in the order of the selected products
+     */
+    static List<Product> getOverlappingProducts(final STRtree srcRectIndex, final Product[] selectedProducts,
+                                                final Map<Product, Rectangle> srcRectMap,
+                                                final Rectangle targetRectangle) {
+        final List<?> hits = srcRectIndex.query(new Envelope(targetRectangle.getMinX(), targetRectangle.getMaxX(),
+                targetRectangle.getMinY(), targetRectangle.getMaxY()));
+
+        final int[] productIndices = new int[hits.size()];
+        for (int i = 0; i < productIndices.length; ++i) {
+            productIndices[i] = (Integer) hits.get(i);
+        }
+        Arrays.sort(productIndices);
+
+        final List<Product> overlappingProducts = new ArrayList<>(productIndices.length);
+        for (int productIndex : productIndices) {
+            final Product srcProduct = selectedProducts[productIndex];
+            if (srcRectMap.get(srcProduct).intersects(targetRectangle)) {
+                overlappingProducts.add(srcProduct);
+            }
+        }
+        return overlappingProducts;
+    }
+
+    /**
+     * Compute the statistics of all source bands used for normalization once during initialization, in parallel,
+     * so that no tile computation waits for a full resolution pass.
+     */
+    private void computeStatistics() {
+
+        final Set<Band> srcBands = new LinkedHashSet<>();
+        for (Band targetBand : targetProduct.getBands()) {
+            if (gradientDomainMosaic && targetBand.getName().endsWith("_gradient")) {
+                continue;
+            }
+            for (Product srcProduct : selectedProducts) {
+                final Band srcBand = srcProduct.getBand(targetBand.getName());
+                if (srcBand != null) {
+                    srcBands.add(srcBand);
+                }
+            }
+        }
+
+        final ThreadExecutor executor = new ThreadExecutor();
+        final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
+        status.beginTask("Computing statistics... ", srcBands.size());
+
+        try {
+            for (final Band srcBand : srcBands) {
+                final ThreadRunnable worker = new ThreadRunnable() {
+
+                    @Override
+                    public void process() {
+                        try {
+                            final Stx stats = srcBand.getStx(true, ProgressMonitor.NULL);
+                            synchronized (srcBandStxMap) {
+                                srcBandStxMap.put(srcBand, stats);
+                            }
+                        } catch (Throwable e) {
+                            SystemUtils.LOG.warning("Mosaic statistics of " + srcBand.getName() + " failed " + e.getMessage());
+                        } finally {
+                            synchronized (status) {
+                                status.worked(1);
+                            }
+                        }
+                    }
+                };
+
+                executor.execute(worker);
+            }
+            executor.complete();
+
+        } catch (Exception e) {
+            SystemUtils.LOG.warning("Mosaic statistics failed " + e.getMessage());
+        } finally {
+            status.done();
+        }
+
+        if (srcBandStxMap.size() < srcBands.size()) {
+            normalizeByMean = false; // statistics not available
+        }
+    }
+
     private static Rectangle getSrcRect(final GeoCoding destGeoCoding,
                                         final double[] lats, final double[] lons) {
 
@@ -408,16 +521,8 @@ public class MosaicOp extends Operator {
     public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
 
         try {
-            final List<Product> validProducts = new ArrayList<>(sourceProduct.length);
-
-            for (final Product srcProduct : selectedProducts) {
-                final Rectangle srcRect = srcRectMap.get(srcProduct);
-                if (srcRect == null || !srcRect.intersects(targetRectangle)) {
-                    continue;
-                }
-                validProducts.add(srcProduct);
-            }
-
+            final List<Product> validProducts =
+                    getOverlappingProducts(srcRectIndex, selectedProducts, srcRectMap, targetRectangle);
             if (validProducts.isEmpty()) {
                 return;
             }
@@ -493,16 +598,11 @@ public class MosaicOp extends Operator {
                     if (sourceRectangle != null) {
                         double min = 0, max = 0, mean = 0, std = 0;
                         if (normalizeByMean) {                  // get stat values
-                            try {
-                                final Stx stats = srcBand.getStx(true, ProgressMonitor.NULL);
-                                mean = stats.getMean();
-                                min = stats.getMinimum();
-                                max = stats.getMaximum();
-                                std = stats.getStandardDeviation();
-                            } catch (Throwable e) {
-                                //OperatorUtils.catchOperatorException(getId(), e);
-                                normalizeByMean = false; // temporary disable
-                            }
+                            final Stx stats = srcBandStxMap.get(srcBand);
+                            mean = stats.getMean();
+                            min = stats.getMinimum();
+                            max = stats.getMaximum();
+                            std = stats.getStandardDeviation();
                         }
 
                         try {
@@ -693,16 +793,11 @@ public class MosaicOp extends Operator {
                 if (sourceRectangle != null) {
                     double mean = 0, min = 0, max = 0, std = 0;
                     if (normalizeByMean) {
-                        try {
-                            final Stx stats = srcBand.getStx(true, pm);
-                            mean = stats.getMean();
-                            min = stats.getMinimum();
-                            max = stats.getMaximum();
-                            std = stats.getStandardDeviation();
-                        } catch (Throwable e) {
-                            //OperatorUtils.catchOperatorException(getId(), e);
-                            normalizeByMean = false;
-                        }
+                        final Stx stats = srcBandStxMap.get(srcBand);
+                        mean = stats.getMean();
+                        min = stats.getMinimum();
+                        max = stats.getMaximum();
+                        std = stats.getStandardDeviation();
                     }
 
                     try {
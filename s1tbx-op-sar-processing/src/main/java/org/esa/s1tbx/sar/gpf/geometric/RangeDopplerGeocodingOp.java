@@ -25,10 +25,10 @@ import org.esa.s1tbx.commons.CRSGeoCodingHandler;
 import org.esa.s1tbx.commons.OrbitStateVectors;
 import org.esa.s1tbx.commons.SARGeocoding;
 import org.esa.s1tbx.commons.SARUtils;
+import org.esa.s1tbx.insar.gpf.support.DEMPatchCache;
 import org.esa.s1tbx.insar.gpf.support.SARPosition;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.dataop.dem.ElevationModel;
-import org.esa.snap.core.dataop.downloadable.StatusProgressMonitor;
 import org.esa.snap.core.dataop.resamp.Resampling;
 import org.esa.snap.core.dataop.resamp.ResamplingFactory;
 import org.esa.snap.core.gpf.Operator;
@@ -39,10 +39,9 @@ import org.esa.snap.core.gpf.annotations.OperatorMetadata;
 import org.esa.snap.core.gpf.annotations.Parameter;
 import org.esa.snap.core.gpf.annotations.SourceProduct;
 import org.esa.snap.core.gpf.annotations.TargetProduct;
+import org.esa.snap.runtime.Config;
 import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.SystemUtils;
-import org.esa.snap.core.util.ThreadExecutor;
-import org.esa.snap.core.util.ThreadRunnable;
 import org.esa.snap.dem.dataio.DEMFactory;
 import org.esa.snap.dem.dataio.EarthGravitationalModel96;
 import org.esa.snap.dem.dataio.FileElevationModel;
@@ -52,7 +51,6 @@ import org.esa.snap.engine_utilities.datamodel.PosVector;
 import org.esa.snap.engine_utilities.datamodel.Unit;
 import org.esa.snap.engine_utilities.eo.Constants;
 import org.esa.snap.engine_utilities.eo.GeoUtils;
-import org.esa.snap.engine_utilities.eo.LocalGeometry;
 import org.esa.snap.engine_utilities.gpf.*;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
@@ -60,6 +58,7 @@ import java.awt.*;
 import java.io.File;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Logger;
 
 /**
@@ -218,8 +217,13 @@ public class RangeDopplerGeocodingOp extends Operator {
     @Parameter(description = "The antenne elevation pattern gain auxiliary data file.", label = "External Aux File")
     private File externalAuxFile = null;
 
+    @Parameter(valueSet = {OrbitStateVectors.LAGRANGE_INTERPOLATION, OrbitStateVectors.POLYNOMIAL_INTERPOLATION},
+            defaultValue = OrbitStateVectors.LAGRANGE_INTERPOLATION, label = "Orbit Interpolation")
+    private String orbitInterpolation = OrbitStateVectors.LAGRANGE_INTERPOLATION;
+
     private MetadataElement absRoot = null;
     private ElevationModel dem = null;
+    private String demKey = null;
     private Band elevationBand = null;
     private double demNoDataValue = 0.0f; // no data value for DEM
     private GeoCoding targetGeoCoding = null;
@@ -267,8 +271,15 @@ public class RangeDopplerGeocodingOp extends Operator {
     private String mission = null;
     private boolean skipBistaticCorrection = false;
 
-    private boolean isLayoverShadowMaskAvailable = false;
-    private byte[][] layoverShadowMask = null;
+    private LayoverShadowMask layoverShadowMask = null;
+
+    private static final int LAYOVER_SHADOW_STRIP_HEIGHT = 10;
+    private static final int LAYOVER_SHADOW_BLOCK_HEIGHT = 25 * LAYOVER_SHADOW_STRIP_HEIGHT;
+    private static final int LAYOVER_SHADOW_MARGIN = 5 * LAYOVER_SHADOW_STRIP_HEIGHT;
+
+    private int diffLat = 0;
+    // working storage of computeTileStack, borrowed for a tile and kept by the operator, not by the worker threads
+    private final Queue<TileScratch> scratchPool = new ConcurrentLinkedQueue<>();
 
     public static final String externalDEMStr = "External DEM";
     private static final String PRODUCT_SUFFIX = "_TC";
@@ -318,6 +329,14 @@ public class RangeDopplerGeocodingOp extends Operator {
 
             computeSensorPositionsAndVelocities();
 
+            final GeoPos posFirst = targetProduct.getSceneGeoCoding().getGeoPos(new PixelPos(0, 0), null);
+            final GeoPos posLast = targetProduct.getSceneGeoCoding().getGeoPos(new PixelPos(0, targetImageHeight), null);
+            diffLat = (int) Math.abs(posFirst.lat - posLast.lat);
+
+            if (saveLayoverShadowMask) {
+                createLayoverShadowMask();
+            }
+
             if (saveSigmaNought) {
                 calibrator = CalibrationFactory.createCalibrator(sourceProduct);
 
@@ -366,6 +385,8 @@ public class RangeDopplerGeocodingOp extends Operator {
         if (dem != null) {
             dem.dispose();
         }
+        DEMPatchCache.instance().clear();
+        scratchPool.clear();
 
         if (!orthoDataProduced && processingStarted) {
             final String errMsg = getId() + " error: no valid output was produced. Please verify the DEM";
@@ -495,11 +516,13 @@ public class RangeDopplerGeocodingOp extends Operator {
             ((FileElevationModel) dem).applyEarthGravitionalModel(externalDEMApplyEGM);
             demNoDataValue = externalDEMNoDataValue;
             demName = externalDEMFile.getName();
+            demKey = externalDEMFile.getPath() + ":egm=" + externalDEMApplyEGM;
 
         } else {
 
             dem = DEMFactory.createElevationModel(demName, demResamplingMethod);
             demNoDataValue = dem.getDescriptor().getNoDataValue();
+            demKey = demName;
         }
 
         if (elevationBand != null) {
@@ -582,6 +605,7 @@ public class RangeDopplerGeocodingOp extends Operator {
     private void computeSensorPositionsAndVelocities() {
 
         orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight);
+        orbit.setInterpolationMethod(orbitInterpolation);
     }
 
     /**
@@ -852,6 +876,7 @@ public class RangeDopplerGeocodingOp extends Operator {
     @Override
     public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
 
+        TileScratch scratch = null;
         try {
             processingStarted = true;
             try {
@@ -862,10 +887,6 @@ public class RangeDopplerGeocodingOp extends Operator {
                 throw new OperatorException(e);
             }
 
-            if (saveLayoverShadowMask && !isLayoverShadowMaskAvailable) {
-                createLayoverShadowMask();
-            }
-
             final int x0 = targetRectangle.x;
             final int y0 = targetRectangle.y;
             final int w = targetRectangle.width;
@@ -874,12 +895,18 @@ public class RangeDopplerGeocodingOp extends Operator {
 
             final TileGeoreferencing tileGeoRef = new TileGeoreferencing(targetProduct, x0 - 1, y0 - 1, w + 2, h + 2);
 
-            double[][] localDEM = new double[h + 2][w + 2];
+            scratch = scratchPool.poll();
+            if (scratch == null) {
+                scratch = new TileScratch();
+            }
+            scratch.ensureCapacity(w, h);
+
+            double[][] localDEM = scratch.localDEM;
             if (useAvgSceneHeight) {
                 DEMFactory.fillDEM(localDEM, avgSceneHeight);
             } else {
-                final boolean valid = DEMFactory.getLocalDEM(
-                        dem, demNoDataValue, demResamplingMethod, tileGeoRef, x0, y0, w, h, sourceProduct,
+                final boolean valid = DEMPatchCache.getLocalDEM(
+                        demKey, dem, demNoDataValue, demResamplingMethod, tileGeoRef, x0, y0, w, h, sourceProduct,
                         nodataValueAtSea, localDEM);
                 if (!valid && nodataValueAtSea) {
                     for (Band targetBand : targetTiles.keySet()) {
@@ -896,8 +923,8 @@ public class RangeDopplerGeocodingOp extends Operator {
 
             final Rectangle sourceRectangle = getSourceRectangle(x0, y0, w, h, tileGeoRef, localDEM);
 
-            final GeoPos geoPos = new GeoPos();
-            final PositionData posData = new PositionData();
+            final GeoPos geoPos = scratch.geoPos;
+            final PositionData posData = scratch.posData;
             final int srcMaxRange = sourceImageWidth - 1;
             final int srcMaxAzimuth = sourceImageHeight - 1;
             ProductData demBuffer = null, latBuffer = null, lonBuffer = null, localIncidenceAngleBuffer = null,
@@ -979,19 +1006,29 @@ public class RangeDopplerGeocodingOp extends Operator {
 
             final EarthGravitationalModel96 egm = EarthGravitationalModel96.instance();
 
-            final GeoPos posFirst = targetProduct.getSceneGeoCoding().getGeoPos(new PixelPos(0,0), null);
-            final GeoPos posLast = targetProduct.getSceneGeoCoding().getGeoPos(new PixelPos(0,targetImageHeight), null);
-            int diffLat = (int)Math.abs(posFirst.lat - posLast.lat);
+            final double[] rowLat = scratch.rowLat;
+            final double[] rowLon = scratch.rowLon;
+            final double[] rowAlt = scratch.rowAlt;
+            final double[] earthX = scratch.earthX;
+            final double[] earthY = scratch.earthY;
+            final double[] earthZ = scratch.earthZ;
+            final double[] zeroDopplerTimes = scratch.zeroDopplerTimes;
+            final double[] localIncidenceAngles = scratch.localIncidenceAngles;
+            final int[] subSwathIndex = scratch.subSwathIndex;
+            LayoverShadowMask.Block maskBlock = null;
 
             for (int y = y0; y < maxY; y++) {
                 final int yy = y - y0 + 1;
+
+                // earth points of the whole row, NaN where there is no elevation at sea
                 for (int x = x0; x < maxX; x++) {
-                    final int index = tgtTiles[0].targetTile.getDataBufferIndex(x, y);
+                    final int xx = x - x0;
 
-                    Double alt = localDEM[yy][x - x0 + 1];
-                    if (alt.equals(demNoDataValue) && !useAvgSceneHeight) {
+                    double alt = localDEM[yy][xx + 1];
+                    final boolean isNoData = Double.compare(alt, demNoDataValue) == 0;
+                    if (isNoData && !useAvgSceneHeight) {
                         if (nodataValueAtSea) {
-                            saveNoDataValueToTarget(index, tgtTiles, demBuffer);
+                            earthX[xx] = Double.NaN;
                             continue;
                         }
                     }
@@ -1003,11 +1040,39 @@ public class RangeDopplerGeocodingOp extends Operator {
                         lon -= 360.0;
                     }
 
-                    if (alt.equals(demNoDataValue) && !nodataValueAtSea) { // get corrected elevation for 0
-                        alt = (double) egm.getEGM(lat, lon);
+                    if (isNoData && !nodataValueAtSea) { // get corrected elevation for 0
+                        alt = egm.getEGM(lat, lon);
                     }
 
-                    if (!getPosition(lat, lon, alt, posData)) {
+                    GeoUtils.geo2xyzWGS84(lat, lon, alt, posData.earthPoint);
+                    rowLat[xx] = lat;
+                    rowLon[xx] = lon;
+                    rowAlt[xx] = alt;
+                    earthX[xx] = posData.earthPoint.x;
+                    earthY[xx] = posData.earthPoint.y;
+                    earthZ[xx] = posData.earthPoint.z;
+                }
+
+                SARGeocoding.getEarthPointZeroDopplerTimes(firstLineUTC, lineTimeInterval, wavelength,
+                        earthX, earthY, earthZ, w, orbit.sensorPosition, orbit.sensorVelocity, zeroDopplerTimes);
+
+                for (int x = x0; x < maxX; x++) {
+                    final int xx = x - x0;
+                    final int index = tgtTiles[0].targetTile.getDataBufferIndex(x, y);
+
+                    if (Double.isNaN(earthX[xx])) {
+                        saveNoDataValueToTarget(index, tgtTiles, demBuffer);
+                        continue;
+                    }
+
+                    final double lat = rowLat[xx];
+                    final double lon = rowLon[xx];
+                    final double alt = rowAlt[xx];
+                    posData.earthPoint.x = earthX[xx];
+                    posData.earthPoint.y = earthY[xx];
+                    posData.earthPoint.z = earthZ[xx];
+
+                    if (!getPosition(zeroDopplerTimes[xx], posData)) {
                         saveNoDataValueToTarget(index, tgtTiles, demBuffer);
                         continue;
                     }
@@ -1017,17 +1082,15 @@ public class RangeDopplerGeocodingOp extends Operator {
                         saveNoDataValueToTarget(index, tgtTiles, demBuffer);
                     } else {
 
-                        final double[] localIncidenceAngles = {SARGeocoding.NonValidIncidenceAngle,
-                                SARGeocoding.NonValidIncidenceAngle};
+                        localIncidenceAngles[0] = SARGeocoding.NonValidIncidenceAngle;
+                        localIncidenceAngles[1] = SARGeocoding.NonValidIncidenceAngle;
 
                         if (saveLocalIncidenceAngle || saveProjectedLocalIncidenceAngle || saveSigmaNought) {
 
-                            final LocalGeometry localGeometry = new LocalGeometry(
-                                    x, y, tileGeoRef, posData.earthPoint, posData.sensorPos);
-
                             SARGeocoding.computeLocalIncidenceAngle(
-                                    localGeometry, demNoDataValue, saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle,
-                                    saveSigmaNought, x0, y0, x, y, localDEM, localIncidenceAngles); // in degrees
+                                    tileGeoRef, posData.earthPoint, posData.sensorPos, demNoDataValue,
+                                    saveLocalIncidenceAngle, saveProjectedLocalIncidenceAngle, saveSigmaNought,
+                                    x0, y0, x, y, localDEM, localIncidenceAngles, scratch.workspace); // in degrees
 
                             if (saveLocalIncidenceAngle && localIncidenceAngles[0] != SARGeocoding.NonValidIncidenceAngle) {
                                 localIncidenceAngleBuffer.setElemDoubleAt(index, localIncidenceAngles[0]);
@@ -1053,8 +1116,12 @@ public class RangeDopplerGeocodingOp extends Operator {
                         }
 
                         if (saveLayoverShadowMask) {
-                            layoverShadowMaskBuffer.setElemIntAt(index,
-                                    layoverShadowMask[(int)(posData.azimuthIndex + 0.5)][(int)(posData.rangeIndex + 0.5)]);
+                            final int maskY = (int)(posData.azimuthIndex + 0.5);
+                            if (maskBlock == null || !maskBlock.contains(maskY)) {
+                                maskBlock = layoverShadowMask.getBlockAt(maskY);
+                            }
+                            layoverShadowMaskBuffer.setElemIntAt(index, maskBlock != null ?
+                                    maskBlock.getValue(maskY, (int)(posData.rangeIndex + 0.5)) : 0);
                         }
 
                         double satelliteHeight = 0;
@@ -1068,7 +1135,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         }
 
                         for (TileData tileData : tgtTiles) {
-                            int[] subSwathIndex = {INVALID_SUB_SWATH_INDEX};
+                            subSwathIndex[0] = INVALID_SUB_SWATH_INDEX;
                             double v = getPixelValue(posData.azimuthIndex, posData.rangeIndex, tileData, subSwathIndex);
 
                             if (v != tileData.noDataValue && tileData.applyRadiometricNormalization) {
@@ -1096,129 +1163,128 @@ public class RangeDopplerGeocodingOp extends Operator {
         } catch (Throwable e) {
             orthoDataProduced = true; //to prevent multiple error messages
             OperatorUtils.catchOperatorException(getId(), e);
+        } finally {
+            if (scratch != null) {
+                scratchPool.offer(scratch);
+            }
         }
     }
 
-    private synchronized void createLayoverShadowMask() {
-
-        if (isLayoverShadowMaskAvailable) return;
+    private void createLayoverShadowMask() {
 
-        final Dimension tileSize = new Dimension(sourceImageWidth, 10);
-        final Rectangle[] tileRectangles = OperatorUtils.getAllTileRectangles(sourceProduct, tileSize, 0);
-        final StatusProgressMonitor status = new StatusProgressMonitor(StatusProgressMonitor.TYPE.SUBTASK);
-        status.beginTask("Creating Layover/Shadow Mask... ", tileRectangles.length);
-        final ThreadExecutor executor = new ThreadExecutor();
+        final long maxBytes = Config.instance().preferences().getInt(
+                "s1tbx.terrainCorrection.layoverShadowMaskCacheSize", 256) * 1024L * 1024L;
 
-        layoverShadowMask = new byte[sourceImageHeight][sourceImageWidth];
+        layoverShadowMask = new LayoverShadowMask(sourceImageWidth, sourceImageHeight, LAYOVER_SHADOW_BLOCK_HEIGHT,
+                maxBytes, this::computeLayoverShadowBlock);
+    }
 
-        try {
-            for (final Rectangle rectangle : tileRectangles) {
-                final ThreadRunnable worker = new ThreadRunnable() {
-
-                    @Override
-                    public void process() {
-                        final int x0 = rectangle.x;
-                        final int y0 = rectangle.y;
-                        final int w = rectangle.width;
-                        final int h = rectangle.height;
-                        final int xMax = x0 + w;
-                        final int yMax = y0 + h;
-
-                        final double[][] localDEM = new double[h + 2][w + 2];
-                        final TileGeoreferencing tileGeoRef = new TileGeoreferencing(sourceProduct, x0, y0, w, h);
-                        try {
-                            final boolean valid = DEMFactory.getLocalDEM(dem, demNoDataValue, demResamplingMethod,
-                                    tileGeoRef, x0, y0, w, h, sourceProduct, true, localDEM);
-
-                            if (!valid) {
-                                saveLayoverShadowMask = false;
-                                System.out.println("Cannot create layover/shadow mask due to the absent of DEM");
-                                return;
-                            }
-                        } catch (Throwable e) {
-                            OperatorUtils.catchOperatorException(getId(), e);
-                        }
+    /**
+     * Compute the layover/shadow mask of a block of source lines. Rows are processed in the same fixed
+     * strips as a full scene mask, including a margin of strips around the block because terrain may project
+     * a DEM sample onto the neighbouring azimuth lines.
+     */
+    private void computeLayoverShadowBlock(final LayoverShadowMask.Block block) {
 
-                        final SARPosition sarPosition = new SARPosition(
-                                firstLineUTC,
-                                lastLineUTC,
-                                lineTimeInterval,
-                                wavelength,
-                                rangeSpacing,
-                                sourceImageWidth,
-                                srgrFlag,
-                                nearEdgeSlantRange,
-                                nearRangeOnLeft,
-                                orbit,
-                                srgrConvParams
-                        );
-                        sarPosition.setTileConstraints(x0, y0, w, h);
-
-                        final SARPosition.PositionData posData = new SARPosition.PositionData();
-                        final GeoPos geoPos = new GeoPos();
-                        float[] slrs = new float[w];
-                        float[] elev = new float[w];
-                        float[] azIndex = new float[w];
-                        float[] rgIndex = new float[w];
-                        boolean[] savePixel = new boolean[w];
-
-                        for (int y = y0; y < yMax; ++y) {
-                            final int yy = y - y0;
-                            Arrays.fill(slrs, 0.0f);
-                            Arrays.fill(elev, 0.0f);
-                            Arrays.fill(azIndex, 0.0f);
-                            Arrays.fill(rgIndex, 0.0f);
-                            Arrays.fill(savePixel, Boolean.FALSE);
-
-                            for (int x = x0; x < xMax; ++x) {
-                                final int xx = x - x0;
-                                Double alt = localDEM[yy + 1][xx + 1];
-                                if (alt.equals(demNoDataValue))
-                                    continue;
+        final int yStart = Math.max(block.y0 - LAYOVER_SHADOW_MARGIN, 0)
+                / LAYOVER_SHADOW_STRIP_HEIGHT * LAYOVER_SHADOW_STRIP_HEIGHT;
+        final int yEnd = Math.min(block.y0 + block.height + LAYOVER_SHADOW_MARGIN, sourceImageHeight);
 
-                                tileGeoRef.getGeoPos(x, y, geoPos);
-                                if (!geoPos.isValid())
-                                    continue;
+        for (int y = yStart; y < yEnd; y += LAYOVER_SHADOW_STRIP_HEIGHT) {
+            computeLayoverShadowStrip(new Rectangle(0, y, sourceImageWidth,
+                    Math.min(LAYOVER_SHADOW_STRIP_HEIGHT, sourceImageHeight - y)), block);
+        }
+    }
 
-                                double lat = geoPos.lat;
-                                double lon = geoPos.lon;
-                                if (lon >= 180.0) {
-                                    lon -= 360.0;
-                                }
+    private void computeLayoverShadowStrip(final Rectangle rectangle, final LayoverShadowMask.Block block) {
 
-                                GeoUtils.geo2xyzWGS84(lat, lon, alt, posData.earthPoint);
-                                if (!sarPosition.getPosition(posData))
-                                    continue;
+        final int x0 = rectangle.x;
+        final int y0 = rectangle.y;
+        final int w = rectangle.width;
+        final int h = rectangle.height;
+        final int xMax = x0 + w;
+        final int yMax = y0 + h;
 
-                                int rIndex = (int) posData.rangeIndex;
-                                int aIndex = (int) posData.azimuthIndex;
-                                if (rIndex >= 0 && rIndex < sourceImageWidth && aIndex >= 0 && aIndex < sourceImageHeight) {
-                                    azIndex[xx] = (float)posData.azimuthIndex;
-                                    rgIndex[xx] = (float)posData.rangeIndex;
-                                    slrs[xx] = (float)posData.slantRange;
-                                    elev[xx] = computeElevationAngle(posData.slantRange, posData.earthPoint, posData.sensorPos);
-                                    savePixel[xx] = true;
-                                } else {
-                                    savePixel[xx] = false;
-                                }
-                            }
-                            computeLayoverShadow(x0, y0, w, h, savePixel, slrs, elev, azIndex, rgIndex);
-                        }
-                    }
-                };
-                executor.execute(worker);
-                status.worked(1);
+        final double[][] localDEM = new double[h + 2][w + 2];
+        final TileGeoreferencing tileGeoRef = new TileGeoreferencing(sourceProduct, x0, y0, w, h);
+        try {
+            final boolean valid = DEMPatchCache.getLocalDEM(demKey, dem, demNoDataValue, demResamplingMethod,
+                    tileGeoRef, x0, y0, w, h, sourceProduct, true, localDEM);
 
+            if (!valid) {
+                // no DEM for the strip, e.g. at sea, so it adds no layover or shadow to the block
+                SystemUtils.LOG.fine("No DEM for the layover/shadow mask of source lines " + y0 + " to " + (yMax - 1));
+                return;
             }
-            executor.complete();
-
         } catch (Throwable e) {
             OperatorUtils.catchOperatorException(getId(), e);
-        } finally {
-            status.done();
         }
 
-        isLayoverShadowMaskAvailable = true;
+        final SARPosition sarPosition = new SARPosition(
+                firstLineUTC,
+                lastLineUTC,
+                lineTimeInterval,
+                wavelength,
+                rangeSpacing,
+                sourceImageWidth,
+                srgrFlag,
+                nearEdgeSlantRange,
+                nearRangeOnLeft,
+                orbit,
+                srgrConvParams
+        );
+        sarPosition.setTileConstraints(x0, y0, w, h);
+
+        final SARPosition.PositionData posData = new SARPosition.PositionData();
+        final GeoPos geoPos = new GeoPos();
+        float[] slrs = new float[w];
+        float[] elev = new float[w];
+        float[] azIndex = new float[w];
+        float[] rgIndex = new float[w];
+        boolean[] savePixel = new boolean[w];
+
+        for (int y = y0; y < yMax; ++y) {
+            final int yy = y - y0;
+            Arrays.fill(slrs, 0.0f);
+            Arrays.fill(elev, 0.0f);
+            Arrays.fill(azIndex, 0.0f);
+            Arrays.fill(rgIndex, 0.0f);
+            Arrays.fill(savePixel, Boolean.FALSE);
+
+            for (int x = x0; x < xMax; ++x) {
+                final int xx = x - x0;
+                final double alt = localDEM[yy + 1][xx + 1];
+                if (Double.compare(alt, demNoDataValue) == 0)
+                    continue;
+
+                tileGeoRef.getGeoPos(x, y, geoPos);
+                if (!geoPos.isValid())
+                    continue;
+
+                double lat = geoPos.lat;
+                double lon = geoPos.lon;
+                if (lon >= 180.0) {
+                    lon -= 360.0;
+                }
+
+                GeoUtils.geo2xyzWGS84(lat, lon, alt, posData.earthPoint);
+                if (!sarPosition.getPosition(posData))
+                    continue;
+
+                int rIndex = (int) posData.rangeIndex;
+                int aIndex = (int) posData.azimuthIndex;
+                if (rIndex >= 0 && rIndex < sourceImageWidth && aIndex >= 0 && aIndex < sourceImageHeight) {
+                    azIndex[xx] = (float)posData.azimuthIndex;
+                    rgIndex[xx] = (float)posData.rangeIndex;
+                    slrs[xx] = (float)posData.slantRange;
+                    elev[xx] = computeElevationAngle(posData.slantRange, posData.earthPoint, posData.sensorPos);
+                    savePixel[xx] = true;
+                } else {
+                    savePixel[xx] = false;
+                }
+            }
+            computeLayoverShadow(x0, y0, w, h, savePixel, slrs, elev, azIndex, rgIndex, block);
+        }
     }
 
     private static float computeElevationAngle(
@@ -1233,10 +1299,9 @@ public class RangeDopplerGeocodingOp extends Operator {
 
     private void computeLayoverShadow(final int x0, final int y0, final int w, final int h,
                                       final boolean[] savePixel, final float[] slrs, final float[] elev,
-                                      final float[] azIndex, final float[] rgIndex) {
+                                      final float[] azIndex, final float[] rgIndex,
+                                      final LayoverShadowMask.Block block) {
 
-        final byte byte1 = 1;
-        final byte byte2 = 2;
         final int length = savePixel.length;
         try {
             if (nearRangeOnLeft) {
@@ -1248,7 +1313,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (slrs[i] > maxSlantRange) {
                             maxSlantRange = slrs[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], LayoverShadowMask.LAYOVER, block);
                         }
                     }
                 }
@@ -1260,7 +1325,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (slrs[i] <= minSlantRange) {
                             minSlantRange = slrs[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], LayoverShadowMask.LAYOVER, block);
                         }
                     }
                 }
@@ -1272,7 +1337,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (elev[i] > maxElevAngle) {
                             maxElevAngle = elev[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte2);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], LayoverShadowMask.SHADOW, block);
                         }
                     }
                 }
@@ -1286,7 +1351,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (slrs[i] > maxSlantRange) {
                             maxSlantRange = slrs[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], LayoverShadowMask.LAYOVER, block);
                         }
                     }
                 }
@@ -1298,7 +1363,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (slrs[i] < minSlantRange) {
                             minSlantRange = slrs[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte1);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], LayoverShadowMask.LAYOVER, block);
                         }
                     }
                 }
@@ -1310,7 +1375,7 @@ public class RangeDopplerGeocodingOp extends Operator {
                         if (elev[i] > maxElevAngle) {
                             maxElevAngle = elev[i];
                         } else {
-                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], byte2);
+                            saveLayoverShadow(x0, y0, w, h, rgIndex[i], azIndex[i], LayoverShadowMask.SHADOW, block);
                         }
                     }
                 }
@@ -1320,8 +1385,9 @@ public class RangeDopplerGeocodingOp extends Operator {
         }
     }
 
-    private void saveLayoverShadow(final int x0, final int y0, final int w, final int h,
-                                   final float rgIndex, final float azIndex, final byte value) {
+    private static void saveLayoverShadow(final int x0, final int y0, final int w, final int h,
+                                          final float rgIndex, final float azIndex, final byte value,
+                                          final LayoverShadowMask.Block block) {
 
         final int xMin = (int)rgIndex;
         final int xMax = Math.min(xMin + 1, x0 + w - 1);
@@ -1329,14 +1395,7 @@ public class RangeDopplerGeocodingOp extends Operator {
         final int yMax = Math.min(yMin + 1, y0 + h - 1);
         for (int y = yMin; y <= yMax; ++y) {
             for (int x = xMin; x <= xMax; ++x) {
-
-                synchronized (layoverShadowMask) {
-                    if (layoverShadowMask[y][x] == 0) {
-                        layoverShadowMask[y][x] = value;
-                    } else if (layoverShadowMask[y][x] == 1 && value == 2){
-                        layoverShadowMask[y][x] += value;
-                    }
-                }
+                block.set(y, x, value);
             }
         }
     }
@@ -1484,9 +1543,17 @@ public class RangeDopplerGeocodingOp extends Operator {
 
         GeoUtils.geo2xyzWGS84(lat, lon, alt, data.earthPoint);
 
-        double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC,
+        final double zeroDopplerTime = SARGeocoding.getEarthPointZeroDopplerTime(firstLineUTC,
                                                                            lineTimeInterval, wavelength, data.earthPoint, orbit.sensorPosition, orbit.sensorVelocity);
 
+        return getPosition(zeroDopplerTime, data);
+    }
+
+    /**
+     * Compute slant range, range and azimuth indices for the earth point in data with a known zero Doppler time.
+     */
+    private boolean getPosition(double zeroDopplerTime, final PositionData data) {
+
         if (Double.compare(zeroDopplerTime, SARGeocoding.NonValidZeroDopplerTime) == 0) {
             return false;
         }
@@ -1826,6 +1893,36 @@ public class RangeDopplerGeocodingOp extends Operator {
         double slantRange;
     }
 
+    /**
+     * Working storage of computeTileStack, used by one tile at a time.
+     */
+    private static class TileScratch {
+        double[][] localDEM;
+        double[] rowLat, rowLon, rowAlt;
+        double[] earthX, earthY, earthZ;
+        double[] zeroDopplerTimes;
+        final double[] localIncidenceAngles = new double[2];
+        final int[] subSwathIndex = new int[1];
+        final GeoPos geoPos = new GeoPos();
+        final PositionData posData = new PositionData();
+        final SARGeocoding.LocalIncidenceAngleWorkspace workspace = new SARGeocoding.LocalIncidenceAngleWorkspace();
+
+        void ensureCapacity(final int w, final int h) {
+            if (localDEM == null || localDEM.length != h + 2 || localDEM[0].length != w + 2) {
+                localDEM = new double[h + 2][w + 2];
+            }
+            if (rowLat == null || rowLat.length < w) {
+                rowLat = new double[w];
+                rowLon = new double[w];
+                rowAlt = new double[w];
+                earthX = new double[w];
+                earthY = new double[w];
+                earthZ = new double[w];
+                zeroDopplerTimes = new double[w];
+            }
+        }
+    }
+
     /**
      * The SPI is used to register this operator in the graph processing framework
      * via the SPI configuration file
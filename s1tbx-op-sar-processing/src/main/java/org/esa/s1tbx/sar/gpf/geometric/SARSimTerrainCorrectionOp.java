@@ -23,6 +23,7 @@ import org.esa.s1tbx.calibration.gpf.support.Calibrator;
 import org.esa.s1tbx.commons.OrbitStateVectors;
 import org.esa.s1tbx.insar.gpf.coregistration.GCPManager;
 import org.esa.s1tbx.insar.gpf.coregistration.WarpData;
+import org.esa.s1tbx.insar.gpf.support.DEMPatchCache;
 import org.esa.s1tbx.commons.CRSGeoCodingHandler;
 import org.esa.s1tbx.commons.SARGeocoding;
 import org.esa.s1tbx.commons.SARUtils;
@@ -196,6 +197,7 @@ public class SARSimTerrainCorrectionOp extends Operator {
     private ProductNodeGroup<Placemark> masterGCPGroup = null;
     private MetadataElement absRoot = null;
     private ElevationModel dem = null;
+    private String demKey = null;
     private String demResamplingMethod;
 
     private boolean srgrFlag = false;
@@ -361,6 +363,7 @@ public class SARSimTerrainCorrectionOp extends Operator {
             dem.dispose();
             dem = null;
         }
+        DEMPatchCache.instance().clear();
         if (!orthoDataProduced && processingStarted) {
             final String errMsg = getId() + " error: no valid output was produced. Please verify the DEM";
             System.out.println(errMsg);
@@ -477,10 +480,12 @@ public class SARSimTerrainCorrectionOp extends Operator {
             final File externalDemFile = new File(demName);
             dem = new FileElevationModel(externalDemFile, demResamplingMethod, demNoDataValue);
             demName = externalDemFile.getName();
+            demKey = externalDemFile.getPath();
             demNoDataValue = absRoot.getAttributeDouble("external DEM no data value");
         } else {
             dem = DEMFactory.createElevationModel(demName, demResamplingMethod);
             demNoDataValue = dem.getDescriptor().getNoDataValue();
+            demKey = demName;
         }
 
         if (elevationBand != null) {
@@ -961,8 +966,8 @@ public class SARSimTerrainCorrectionOp extends Operator {
             if (useAvgSceneHeight) {
                 DEMFactory.fillDEM(localDEM, avgSceneHeight);
             } else {
-                final boolean valid = DEMFactory.getLocalDEM(
-                        dem, demNoDataValue, demResamplingMethod, tileGeoRef, x0, y0, w, h, sourceProduct, true, localDEM);
+                final boolean valid = DEMPatchCache.getLocalDEM(
+                        demKey, dem, demNoDataValue, demResamplingMethod, tileGeoRef, x0, y0, w, h, sourceProduct, true, localDEM);
                 if (!valid) {
                     return;
                 }
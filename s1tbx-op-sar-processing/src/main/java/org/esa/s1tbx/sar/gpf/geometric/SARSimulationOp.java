@@ -19,6 +19,7 @@ import com.bc.ceres.core.ProgressMonitor;
 import org.apache.commons.math3.util.FastMath;
 import org.esa.s1tbx.commons.OrbitStateVectors;
 import org.esa.s1tbx.commons.SARGeocoding;
+import org.esa.s1tbx.insar.gpf.support.DEMPatchCache;
 import org.esa.s1tbx.insar.gpf.support.SARPosition;
 import org.esa.s1tbx.commons.SARUtils;
 import org.esa.snap.core.datamodel.*;
@@ -126,6 +127,10 @@ public final class SARSimulationOp extends Operator {
     @Parameter(label = "External DEM Apply EGM", defaultValue = "true")
     private Boolean externalDEMApplyEGM = true;
 
+    @Parameter(valueSet = {OrbitStateVectors.LAGRANGE_INTERPOLATION, OrbitStateVectors.POLYNOMIAL_INTERPOLATION},
+            defaultValue = OrbitStateVectors.LAGRANGE_INTERPOLATION, label = "Orbit Interpolation")
+    private String orbitInterpolation = OrbitStateVectors.LAGRANGE_INTERPOLATION;
+
     //@Parameter(defaultValue="false", label="Simulate for SARSimTC")
     boolean isSARSimTC = true;                                    // disable extra options int the UI for SARSimTC
 
@@ -154,6 +159,7 @@ public final class SARSimulationOp extends Operator {
 
     private MetadataElement absRoot = null;
     private ElevationModel dem = null;
+    private String demKey = null;
     private GeoCoding targetGeoCoding = null;
 
     private int sourceImageWidth = 0;
@@ -242,6 +248,7 @@ public final class SARSimulationOp extends Operator {
             dem.dispose();
             dem = null;
         }
+        DEMPatchCache.instance().clear();
     }
 
     /**
@@ -277,6 +284,7 @@ public final class SARSimulationOp extends Operator {
     private void computeSensorPositionsAndVelocities() {
 
         orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight);
+        orbit.setInterpolationMethod(orbitInterpolation);
     }
 
     /**
@@ -302,10 +310,12 @@ public final class SARSimulationOp extends Operator {
                 ((FileElevationModel)dem).applyEarthGravitionalModel(externalDEMApplyEGM);
                 demNoDataValue = externalDEMNoDataValue;
                 demName = externalDEMFile.getPath();
+                demKey = demName + ":egm=" + externalDEMApplyEGM;
 
             } else {
                 dem = DEMFactory.createElevationModel(demName, demResamplingMethod);
                 demNoDataValue = dem.getDescriptor().getNoDataValue();
+                demKey = demName;
             }
         } catch (Throwable t) {
             t.printStackTrace();
@@ -717,8 +727,8 @@ public final class SARSimulationOp extends Operator {
                     }
                 } else {
 
-                    final boolean valid = DEMFactory.getLocalDEM(
-                            dem, demNoDataValue, demResamplingMethod, tileGeoRef, xmin, ymin, widthExt, heightExt,
+                    final boolean valid = DEMPatchCache.getLocalDEM(
+                            demKey, dem, demNoDataValue, demResamplingMethod, tileGeoRef, xmin, ymin, widthExt, heightExt,
                             sourceProduct, true, localDEM);
 
                     if (!valid)
@@ -105,6 +105,10 @@ public final class TerrainFlatteningOp extends Operator {
             defaultValue = "1.0")
     private Double oversamplingMultiple = 1.0;
 
+    @Parameter(valueSet = {OrbitStateVectors.LAGRANGE_INTERPOLATION, OrbitStateVectors.POLYNOMIAL_INTERPOLATION},
+            defaultValue = OrbitStateVectors.LAGRANGE_INTERPOLATION, label = "Orbit Interpolation")
+    private String orbitInterpolation = OrbitStateVectors.LAGRANGE_INTERPOLATION;
+
     private Product newSourceProduct = null;
     private ElevationModel dem = null;
     private FileElevationModel fileElevationModel = null;
@@ -215,6 +219,7 @@ public final class TerrainFlatteningOp extends Operator {
             getSourceImageDimension();
 
             orbit = new OrbitStateVectors(orbitStateVectors, firstLineUTC, lineTimeInterval, sourceImageHeight);
+            orbit.setInterpolationMethod(orbitInterpolation);
 
             createTargetProduct();
 
@@ -20,6 +20,7 @@ import org.apache.commons.math3.util.FastMath;
 import org.esa.s1tbx.commons.OrbitStateVectors;
 import org.esa.s1tbx.commons.SARGeocoding;
 import org.esa.s1tbx.commons.SARUtils;
+import org.esa.s1tbx.insar.gpf.support.DEMPatchCache;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.dataop.dem.ElevationModel;
 import org.esa.snap.core.dataop.resamp.ResamplingFactory;
@@ -100,6 +101,7 @@ public final class UpdateGeoRefOp extends Operator {
 
     private MetadataElement absRoot = null;
     private ElevationModel dem = null;
+    private String demKey = null;
     private GeoCoding sourceGeoCoding = null;
     private SLCImage meta = null;
     private Orbit jOrbit = null;
@@ -180,6 +182,7 @@ public final class UpdateGeoRefOp extends Operator {
             dem.dispose();
             dem = null;
         }
+        DEMPatchCache.instance().clear();
     }
 
     /**
@@ -236,9 +239,11 @@ public final class UpdateGeoRefOp extends Operator {
                 dem = new FileElevationModel(externalDEMFile, demResamplingMethod, externalDEMNoDataValue);
                 demNoDataValue = externalDEMNoDataValue;
                 demName = externalDEMFile.getPath();
+                demKey = demName;
             } else {
                 dem = DEMFactory.createElevationModel(demName, demResamplingMethod);
                 demNoDataValue = dem.getDescriptor().getNoDataValue();
+                demKey = demName;
             }
         } catch (Throwable t) {
             t.printStackTrace();
@@ -472,7 +477,7 @@ public final class UpdateGeoRefOp extends Operator {
                 final double[][] localDEM = new double[ymax - ymin + 2][w + 2];
                 final TileGeoreferencing tileGeoRef = new TileGeoreferencing(sourceProduct, x0, ymin, w, ymax - ymin);
 
-                final boolean valid = DEMFactory.getLocalDEM(dem, demNoDataValue, demResamplingMethod, tileGeoRef,
+                final boolean valid = DEMPatchCache.getLocalDEM(demKey, dem, demNoDataValue, demResamplingMethod, tileGeoRef,
                         x0, ymin, w, ymax - ymin, sourceProduct, true, localDEM);
 
                 if (!valid) {
@@ -31,6 +31,7 @@ import org.junit.Test;
 import java.io.File;
 import java.util.Arrays;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
@@ -120,6 +121,39 @@ public class SpeckleFilterOperatorTest {
         assertTrue(Arrays.equals(expectedValues, floatValues));
     }
 
+    /**
+     * Tests the histogram Median speckle filter with a 4-by-4 test product.
+     *
+     * @throws Exception anything
+     */
+    @Test
+    public void testHistogramMedianFilter() throws Exception {
+        final Product sourceProduct = createTestProduct(4, 4);
+
+        final SpeckleFilterOp op = (SpeckleFilterOp) spi.createOperator();
+        assertNotNull(op);
+        op.setSourceProduct(sourceProduct);
+        op.SetFilter("Histogram Median");
+
+        // get targetProduct gets initialize to be executed
+        final Product targetProduct = op.getTargetProduct();
+        TestUtils.verifyProduct(targetProduct, true, true);
+
+        final Band band = targetProduct.getBandAt(0);
+        assertNotNull(band);
+
+        // readPixels gets computeTiles to be executed
+        final float[] floatValues = new float[16];
+        band.readPixels(0, 0, 4, 4, floatValues, ProgressMonitor.NULL);
+
+        // same as the Median filter within the quantization of the histogram
+        final float[] expectedValues = {5.0f, 5.0f, 6.0f, 7.0f, 6.0f, 6.0f, 7.0f, 8.0f, 10.0f, 10.0f, 11.0f,
+                12.0f, 13.0f, 13.0f, 14.0f, 15.0f};
+        for (int i = 0; i < expectedValues.length; ++i) {
+            assertEquals(expectedValues[i], floatValues[i], 0.01f * expectedValues[i]);
+        }
+    }
+
     /**
      * Tests Frost speckle filter with a 4-by-4 test product.
      *
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.filtering.SpeckleFilters;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.engine_utilities.datamodel.Unit;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compare HistogramMedian with the median of the sorted window samples.
+ */
+public class TestHistogramMedian {
+
+    private static final double noDataValue = 0.0;
+
+    @Test
+    public void testLogScale() {
+        test(1.0, 60000.0, 9, 9);
+    }
+
+    @Test
+    public void testLinearScale() {
+        test(-30.0, 10.0, 5, 8);
+    }
+
+    @Test
+    public void testQuantizersFromBandStatistics() {
+        final Product product = new Product("test", "test", 20, 10);
+        addBand(product, "Amplitude_VV", Unit.AMPLITUDE, 1.0, 60000.0);
+        addBand(product, "i_VV", Unit.REAL, -300.0, 200.0);
+        addBand(product, "q_VV", Unit.IMAGINARY, -100.0, 400.0);
+
+        final Map<String, String[]> targetBandNameToSourceBandName = new HashMap<>();
+        targetBandNameToSourceBandName.put("Amplitude_VV", new String[]{"Amplitude_VV"});
+        targetBandNameToSourceBandName.put("Intensity_VV", new String[]{"i_VV", "q_VV"});
+
+        final Map<String, HistogramMedian.Quantizer> quantizers =
+                HistogramMedian.createQuantizers(product, targetBandNameToSourceBandName);
+        assertEquals(2, quantizers.size());
+
+        // the amplitude range, and the intensity range of the I and Q pair
+        assertQuantizerEquals(new HistogramMedian.Quantizer(1.0, 60000.0), quantizers.get("Amplitude_VV"));
+        assertQuantizerEquals(new HistogramMedian.Quantizer(0.0, 2.0 * 400.0 * 400.0), quantizers.get("i_VV,q_VV"));
+    }
+
+    private static void addBand(final Product product, final String name, final String unit,
+                                final double min, final double max) {
+        final int size = product.getSceneRasterWidth() * product.getSceneRasterHeight();
+        final float[] data = new float[size];
+        for (int i = 0; i < size; ++i) {
+            data[i] = (float) (min + (max - min) * i / (size - 1));
+        }
+        final Band band = product.addBand(name, ProductData.TYPE_FLOAT32);
+        band.setUnit(unit);
+        band.setRasterData(ProductData.createInstance(data));
+    }
+
+    private static void assertQuantizerEquals(final HistogramMedian.Quantizer expected,
+                                              final HistogramMedian.Quantizer actual) {
+        for (int bin : new int[]{0, 1, HistogramMedian.NUM_BINS / 2, HistogramMedian.NUM_BINS - 1}) {
+            assertEquals(expected.getValue(bin), actual.getValue(bin), 0.0);
+        }
+    }
+
+    private static void test(final double min, final double max, final int windowSizeX, final int windowSizeY) {
+        final Rectangle rect = new Rectangle(0, 0, 60, 50);
+        final int x0 = 3, y0 = 2, w = 50, h = 45;
+        final double[] values = new double[rect.width * rect.height];
+        final Random random = new Random(7);
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = random.nextInt(25) == 0 ? noDataValue : min + (max - min) * Math.pow(random.nextDouble(), 4);
+        }
+
+        final HistogramMedian.Quantizer quantizer = new HistogramMedian.Quantizer(min, max);
+        final double[][] filtered = new double[h][w];
+        HistogramMedian.filter(values, rect, x0, y0, w, h, windowSizeX, windowSizeY, noDataValue, quantizer,
+                filtered);
+
+        final double[] window = new double[windowSizeX * windowSizeY];
+        for (int y = y0; y < y0 + h; ++y) {
+            for (int x = x0; x < x0 + w; ++x) {
+                int n = 0;
+                for (int j = y - windowSizeY / 2; j < y - windowSizeY / 2 + windowSizeY; ++j) {
+                    for (int i = x - windowSizeX / 2; i < x - windowSizeX / 2 + windowSizeX; ++i) {
+                        if (i >= 0 && i < rect.width && j >= 0 && j < rect.height) {
+                            final double v = values[j * rect.width + i];
+                            if (v != noDataValue) {
+                                window[n++] = v;
+                            }
+                        }
+                    }
+                }
+                Arrays.sort(window, 0, n);
+                final double median = window[n / 2];
+
+                // within one bin of the exact median
+                final double tolerance = min >= 0 ?
+                        median * (Math.exp(Math.log(max / min) / HistogramMedian.NUM_BINS) - 1.0) :
+                        (max - min) / HistogramMedian.NUM_BINS;
+                assertEquals(median, filtered[y - y0][x - x0], tolerance);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.filtering.SpeckleFilters;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compare WindowStatistics with the statistics of the window samples computed directly.
+ */
+public class TestWindowStatistics {
+
+    private static final double noDataValue = 0.0;
+
+    @Test
+    public void testOddWindow() {
+        test(7, 7);
+    }
+
+    @Test
+    public void testEvenWindow() {
+        test(4, 6);
+    }
+
+    private static void test(final int windowSizeX, final int windowSizeY) {
+        final Rectangle rect = new Rectangle(20, 30, 41, 37);
+        final double[] values = new double[rect.width * rect.height];
+        final Random random = new Random(42);
+        for (int i = 0; i < values.length; ++i) {
+            // speckle like intensities with bright targets and no data
+            values[i] = random.nextInt(20) == 0 ? noDataValue : 1000.0 + 500.0 * random.nextDouble();
+            if (i % 97 == 0) {
+                values[i] = 1.0e6;
+            }
+        }
+
+        final WindowStatistics stats = new WindowStatistics(values, rect, windowSizeX, windowSizeY, noDataValue);
+        for (int y = rect.y; y < rect.y + rect.height; ++y) {
+            for (int x = rect.x; x < rect.x + rect.width; ++x) {
+                final int numSamples = stats.moveTo(x, y);
+
+                final double[] window = new double[windowSizeX * windowSizeY];
+                int k = 0, n = 0;
+                double sum = 0.0;
+                for (int j = 0; j < windowSizeY; ++j) {
+                    for (int i = 0; i < windowSizeX; ++i) {
+                        final double v = stats.getValue(x - windowSizeX / 2 + i, y - windowSizeY / 2 + j);
+                        window[k++] = v;
+                        if (v != noDataValue) {
+                            sum += v;
+                            ++n;
+                        }
+                    }
+                }
+                assertEquals(n, numSamples);
+                if (n == 0) {
+                    continue;
+                }
+
+                final double mean = sum / n;
+                double var = 0.0;
+                for (double v : window) {
+                    if (v != noDataValue) {
+                        var += (v - mean) * (v - mean);
+                    }
+                }
+                var = n > 1 ? var / (n - 1) : 0.0;
+
+                assertEquals(mean, stats.getMean(), 1e-9 * mean);
+                assertEquals(var, stats.getVariance(), 1e-9 * Math.max(var, mean * mean));
+                assertEquals(window[window.length / 2], stats.getCentreValue(), 0.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2021 by SkyWatch Space Applications Inc. http://www.skywatch.com
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s1tbx.sar.gpf.geometric;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for the block wise layover/shadow mask.
+ */
+public class TestLayoverShadowMask {
+
+    private static final int width = 100;
+    private static final int height = 95;
+    private static final int blockHeight = 20;
+
+    private static int expected(final int y, final int x) {
+        return ((x + y) % 3 == 0 ? LayoverShadowMask.LAYOVER : 0) | (x % 5 == 0 ? LayoverShadowMask.SHADOW : 0);
+    }
+
+    private static LayoverShadowMask createMask(final long maxBytes, final AtomicInteger numComputed) {
+        return new LayoverShadowMask(width, height, blockHeight, maxBytes, block -> {
+            numComputed.incrementAndGet();
+            // write a margin of lines around the block, as the terrain correction does
+            for (int y = block.y0 - 3; y < block.y0 + block.height + 3; ++y) {
+                for (int x = 0; x < width; ++x) {
+                    if ((x + y) % 3 == 0) {
+                        block.set(y, x, LayoverShadowMask.LAYOVER);
+                    }
+                    if (x % 5 == 0) {
+                        block.set(y, x, LayoverShadowMask.SHADOW);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testValues() {
+        final AtomicInteger numComputed = new AtomicInteger();
+        final LayoverShadowMask mask = createMask(Long.MAX_VALUE, numComputed);
+
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                assertEquals(expected(y, x), mask.getValue(y, x));
+            }
+        }
+        assertEquals(5, numComputed.get());
+        assertEquals(0, mask.getValue(height, 0));
+        assertEquals(0, mask.getValue(0, width));
+    }
+
+    @Test
+    public void testBlockAt() {
+        final AtomicInteger numComputed = new AtomicInteger();
+        final LayoverShadowMask mask = createMask(Long.MAX_VALUE, numComputed);
+
+        // a block held across lines is fetched once per block
+        LayoverShadowMask.Block block = null;
+        for (int y = 0; y < height; ++y) {
+            if (block == null || !block.contains(y)) {
+                block = mask.getBlockAt(y);
+            }
+            for (int x = 0; x < width; ++x) {
+                assertEquals(expected(y, x), block.getValue(y, x));
+            }
+            assertEquals(0, block.getValue(y, width));
+        }
+        assertEquals(5, numComputed.get());
+        assertEquals(0, block.getValue(block.y0 - 1, 0));
+        assertNull(mask.getBlockAt(-1));
+        assertNull(mask.getBlockAt(height));
+    }
+
+    @Test
+    public void testEviction() {
+        final AtomicInteger numComputed = new AtomicInteger();
+        final long blockBytes = (long) blockHeight * ((width + 31) / 32) * Long.BYTES;
+        final LayoverShadowMask mask = createMask(2 * blockBytes, numComputed);
+
+        for (int y = 0; y < height; ++y) {
+            assertEquals(expected(y, 7), mask.getValue(y, 7));
+        }
+        assertTrue(mask.getNumResidentBlocks() <= 2);
+
+        // evicted blocks are computed again with the same result
+        for (int y = 0; y < height; ++y) {
+            assertEquals(expected(y, 10), mask.getValue(y, 10));
+        }
+        assertEquals(10, numComputed.get());
+    }
+}
@@ -1,7 +1,11 @@
 package org.esa.s1tbx.sar.gpf.geometric;
 
+import com.bc.ceres.core.ProgressMonitor;
 import org.esa.s1tbx.commons.test.TestData;
+import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.Stx;
 import org.esa.snap.core.gpf.OperatorSpi;
 import org.esa.snap.engine_utilities.util.TestUtils;
 import org.junit.Before;
@@ -9,7 +13,9 @@ import org.junit.Test;
 
 import java.io.File;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
 /**
@@ -48,4 +54,76 @@ public class TestMosaic {
         final Product targetProduct = op.getTargetProduct();
         TestUtils.verifyProduct(targetProduct, false, true, true);
     }
+
+    /**
+     * Normalizes the sources by their mean, with statistics computed during initialize
+     *
+     * @throws Exception general exception
+     */
+    @Test
+    public void testNormalizeByMean() throws Exception {
+
+        final Product sourceProduct1 = TestUtils.readSourceProduct(inputFile1);
+        final Product sourceProduct2 = TestUtils.readSourceProduct(inputFile2);
+
+        final MosaicOp op = (MosaicOp) spi.createOperator();
+        assertNotNull(op);
+        op.setSourceProducts(sourceProduct1,sourceProduct2);
+        op.setParameter("normalizeByMean", true);
+
+        // get targetProduct: execute initialize()
+        final Product targetProduct = op.getTargetProduct();
+        for (Band targetBand : targetProduct.getBands()) {
+            assertEquals(ProductData.TYPE_FLOAT32, targetBand.getDataType());
+        }
+        TestUtils.verifyProduct(targetProduct, false, true, true);
+
+        assertNormalizedPixelValues(sourceProduct1);
+    }
+
+    /**
+     * Compares the mosaic of one source normalized by its mean with the mosaic of the same source without
+     * normalization, pixel by pixel
+     */
+    private static void assertNormalizedPixelValues(final Product sourceProduct) throws Exception {
+
+        final Product rawProduct = createMosaic(sourceProduct, false);
+        final Product normalizedProduct = createMosaic(sourceProduct, true);
+
+        final int w = Math.min(200, rawProduct.getSceneRasterWidth());
+        final int h = Math.min(200, rawProduct.getSceneRasterHeight());
+        final int x0 = (rawProduct.getSceneRasterWidth() - w) / 2;
+        final int y0 = (rawProduct.getSceneRasterHeight() - h) / 2;
+        final float[] raw = new float[w * h];
+        final float[] normalized = new float[w * h];
+
+        for (Band rawBand : rawProduct.getBands()) {
+            final Stx stats = sourceProduct.getBand(rawBand.getName()).getStx(true, ProgressMonitor.NULL);
+            final Band normalizedBand = normalizedProduct.getBand(rawBand.getName());
+
+            rawBand.readPixels(x0, y0, w, h, raw, ProgressMonitor.NULL);
+            normalizedBand.readPixels(x0, y0, w, h, normalized, ProgressMonitor.NULL);
+
+            int numValid = 0;
+            for (int i = 0; i < raw.length; ++i) {
+                if (raw[i] == 0 || raw[i] == rawBand.getNoDataValue()) {
+                    continue;
+                }
+                // nearest neighbour resampling takes the source samples as they are
+                final double expected = (raw[i] - stats.getMean()) / stats.getStandardDeviation();
+                assertEquals(rawBand.getName() + " pixel " + i, expected, normalized[i],
+                        1e-5 * Math.max(1.0, Math.abs(expected)));
+                ++numValid;
+            }
+            assertTrue(numValid > 0);
+        }
+    }
+
+    private static Product createMosaic(final Product sourceProduct, final boolean normalizeByMean) {
+        final MosaicOp op = (MosaicOp) spi.createOperator();
+        assertNotNull(op);
+        op.setSourceProducts(sourceProduct);
+        op.setParameter("normalizeByMean", normalizeByMean);
+        return op.getTargetProduct();
+    }
 }
@@ -0,0 +1,94 @@
+package org.esa.s1tbx.sar.gpf.geometric;
+
+import org.esa.snap.core.datamodel.Product;
+import org.junit.Test;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The source products found through the footprint index of MosaicOp against a scan of all selected products.
+ * TestMosaic needs external test data and is ignored without it, so these cases are kept apart.
+ */
+public class TestMosaicSourceIndex {
+
+    private static final int sceneWidth = 5000;
+    private static final int sceneHeight = 4000;
+
+    @Test
+    public void testOverlappingProducts() {
+        final Random random = new Random(7);
+
+        final Product[] selectedProducts = new Product[60];
+        final Map<Product, Rectangle> srcRectMap = new HashMap<>();
+        for (int i = 0; i < selectedProducts.length; ++i) {
+            selectedProducts[i] = new Product("product" + i, "test", 10, 10);
+            if (i % 13 == 5) {
+                continue; // no footprint
+            }
+            final int w = 1 + random.nextInt(1500);
+            final int h = 1 + random.nextInt(1500);
+            srcRectMap.put(selectedProducts[i], new Rectangle(
+                    random.nextInt(sceneWidth) - 200, random.nextInt(sceneHeight) - 200, w, h));
+        }
+
+        // footprints touching but not overlapping the tile at (1000, 1000)
+        srcRectMap.put(selectedProducts[1], new Rectangle(900, 1000, 100, 256));
+        srcRectMap.put(selectedProducts[2], new Rectangle(1256, 900, 50, 100));
+        srcRectMap.put(selectedProducts[3], new Rectangle(1000, 1256, 256, 10));
+
+        final STRtree srcRectIndex = MosaicOp.createSrcRectIndex(selectedProducts, srcRectMap);
+
+        final List<Rectangle> tiles = new ArrayList<>();
+        tiles.add(new Rectangle(1000, 1000, 256, 256));
+        for (int y = 0; y < sceneHeight; y += 256) {
+            for (int x = 0; x < sceneWidth; x += 256) {
+                tiles.add(new Rectangle(x, y, Math.min(256, sceneWidth - x), Math.min(256, sceneHeight - y)));
+            }
+        }
+        for (int i = 0; i < 200; ++i) {
+            tiles.add(new Rectangle(random.nextInt(sceneWidth), random.nextInt(sceneHeight),
+                    1 + random.nextInt(600), 1 + random.nextInt(600)));
+        }
+
+        int numHits = 0;
+        for (Rectangle tile : tiles) {
+            final List<Product> expected = scanProducts(selectedProducts, srcRectMap, tile);
+            assertEquals(tile.toString(), expected,
+                    MosaicOp.getOverlappingProducts(srcRectIndex, selectedProducts, srcRectMap, tile));
+            numHits += expected.size();
+        }
+        final List<Product> touching = MosaicOp.getOverlappingProducts(
+                srcRectIndex, selectedProducts, srcRectMap, tiles.get(0));
+        for (int i = 1; i <= 3; ++i) {
+            assertFalse(touching.contains(selectedProducts[i]));
+        }
+        assertTrue(numHits > tiles.size());
+    }
+
+    /**
+     * The overlapping products as found before the footprints were indexed.
+     */
+    private static List<Product> scanProducts(final Product[] selectedProducts,
+                                              final Map<Product, Rectangle> srcRectMap,
+                                              final Rectangle targetRectangle) {
+        final List<Product> validProducts = new ArrayList<>(selectedProducts.length);
+        for (final Product srcProduct : selectedProducts) {
+            final Rectangle srcRect = srcRectMap.get(srcProduct);
+            if (srcRect == null || !srcRect.intersects(targetRectangle)) {
+                continue;
+            }
+            validProducts.add(srcProduct);
+        }
+        return validProducts;
+    }
+}
@@ -17,8 +17,10 @@ package org.esa.s1tbx.sar.gpf.geometric;
 
 import org.esa.s1tbx.commons.test.S1TBXTests;
 import org.esa.s1tbx.commons.test.TestData;
+import org.esa.s1tbx.insar.gpf.support.DEMPatchCache;
 import org.esa.snap.core.dataio.ProductIO;
 import org.esa.snap.core.dataio.ProductReader;
+import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.GeoCoding;
 import org.esa.snap.core.datamodel.GeoPos;
 import org.esa.snap.core.datamodel.PixelPos;
@@ -33,9 +35,12 @@ import org.esa.snap.engine_utilities.util.TestUtils;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.*;
 import java.io.File;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
 /**
@@ -116,6 +121,56 @@ public class TestRangeDopplerOp {
         }
     }
 
+    /**
+     * Two terrain corrections of the same product share the DEM patches of their tiles, with the output of no cache
+     *
+     * @throws Exception general exception
+     */
+    @Test
+    public void testDEMPatchCacheAcrossOperators() throws Exception {
+        final Product sourceProduct = TestUtils.readSourceProduct(inputFile2);
+        final String[] bandNames = {sourceProduct.getBandAt(0).getName()};
+
+        final DEMPatchCache cache = DEMPatchCache.instance();
+        final long maxSize = cache.getMaxSizeInBytes();
+        try {
+            cache.setMaxSizeInBytes(0);
+            final float[] expected = computeCentreTile(sourceProduct, bandNames);
+
+            cache.setMaxSizeInBytes(64L * 1024L * 1024L);
+            cache.clear();
+            final long hits = cache.getHitCount();
+            final long misses = cache.getMissCount();
+
+            final float[] first = computeCentreTile(sourceProduct, bandNames);
+            final long firstMisses = cache.getMissCount() - misses;
+            assertTrue(firstMisses > 0);
+
+            final float[] second = computeCentreTile(sourceProduct, bandNames);
+            assertEquals(firstMisses, cache.getMissCount() - misses);
+            assertTrue(cache.getHitCount() - hits >= firstMisses);
+
+            for (int i = 0; i < expected.length; ++i) {
+                assertEquals(expected[i], first[i], 0.0f);
+                assertEquals(expected[i], second[i], 0.0f);
+            }
+        } finally {
+            cache.clear();
+            cache.setMaxSizeInBytes(maxSize);
+        }
+    }
+
+    private static float[] computeCentreTile(final Product sourceProduct, final String[] bandNames) {
+        final RangeDopplerGeocodingOp op = (RangeDopplerGeocodingOp) spi.createOperator();
+        op.setSourceProduct(sourceProduct);
+        op.setSourceBandNames(bandNames);
+
+        final Band targetBand = op.getTargetProduct().getBandAt(0);
+        final Rectangle rect = new Rectangle(targetBand.getRasterWidth() / 2, targetBand.getRasterHeight() / 2, 200, 200);
+        return targetBand.getSourceImage().getData(rect).getSamples(
+                rect.x, rect.y, rect.width, rect.height, 0, (float[]) null);
+    }
+
     /**
      * Processes a IMS product and compares it to processed product known to be correct
      *
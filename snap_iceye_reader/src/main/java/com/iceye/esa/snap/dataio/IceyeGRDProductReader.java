@@ -514,6 +514,7 @@ public class IceyeGRDProductReader extends SARReader {
             try (final InputStream inStream = new BufferedInputStream(new FileInputStream(inputFile))) {
                 final ImageInputStream imgStream = ImageIOFile.createImageInputStream(inStream, new Dimension(rasterWidth, rasterHeight));
                 final ImageIOFile img = new ImageIOFile(name, imgStream, GeoTiffUtils.getTiffIIOReader(imgStream), inputFile);
+                img.enableReaderPool(inputFile);
                 String polarization = tiffFeilds.get(IceyeXConstants.MDS1_TX_RX_POLAR.toUpperCase());
                 String bandName = "Amplitude_" + polarization;
                 final Band band = new Band(bandName, ProductData.TYPE_UINT32, rasterWidth, rasterHeight);